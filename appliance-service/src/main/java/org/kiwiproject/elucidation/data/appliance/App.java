@@ -3,10 +3,23 @@ package org.kiwiproject.elucidation.data.appliance;
 import org.kiwiproject.elucidation.client.ElucidationRecorder;
 import org.kiwiproject.elucidation.client.helper.dropwizard.EndpointTrackingListener;
 import org.kiwiproject.elucidation.client.helper.jersey.InboundHttpRequestTrackingFilter;
+import org.kiwiproject.elucidation.data.common.jms.DeadLetterQueue;
+import org.kiwiproject.elucidation.data.common.jms.DeadLetterResource;
+import org.kiwiproject.elucidation.data.common.jms.DuplicateFilter;
+import org.kiwiproject.elucidation.data.common.jms.JmsConnections;
+import org.kiwiproject.elucidation.data.common.jms.RetryPolicy;
+import org.kiwiproject.elucidation.data.common.stream.EventStreamServlet;
+import org.kiwiproject.elucidation.data.common.stream.StateBroadcaster;
+import org.kiwiproject.elucidation.data.common.thread.VirtualThreads;
+import org.kiwiproject.elucidation.data.common.trace.CorrelationFilter;
+import org.kiwiproject.elucidation.data.common.trace.SpanRecorder;
+import org.kiwiproject.elucidation.data.common.trace.SpanResource;
 import org.kiwiproject.elucidation.data.appliance.config.AppConfig;
 import org.kiwiproject.elucidation.data.appliance.db.ApplianceDao;
+import org.kiwiproject.elucidation.data.appliance.db.OffHeapApplianceDao;
 import org.kiwiproject.elucidation.data.appliance.jms.JmsConsumer;
 import org.kiwiproject.elucidation.data.appliance.resource.ApplianceResource;
+import org.kiwiproject.elucidation.data.common.store.DeviceStorage;
 import io.dropwizard.Application;
 import io.dropwizard.db.PooledDataSourceFactory;
 import io.dropwizard.jdbi3.JdbiFactory;
@@ -17,12 +30,14 @@ import lombok.extern.slf4j.Slf4j;
 import org.jdbi.v3.core.Jdbi;
 import org.jdbi.v3.sqlobject.SqlObjectPlugin;
 
-import java.util.concurrent.TimeUnit;
+import java.time.Clock;
 
 @Slf4j
 public class App extends Application<AppConfig> {
 
-	private static final String SERVICE_NAME = "appliance-service";
+	public static final String SERVICE_NAME = "appliance-service";
+
+	private static final String MIGRATIONS_FILE = "migrations/appliance.xml";
 
 	public static void main(String[] args) throws Exception {
 		new App().run(args);
@@ -36,6 +51,11 @@ public class App extends Application<AppConfig> {
 			public PooledDataSourceFactory getDataSourceFactory(AppConfig configuration) {
 				return configuration.getDataSourceFactory();
 			}
+
+			@Override
+			public String getMigrationsFileName() {
+				return MIGRATIONS_FILE;
+			}
 		});
 	}
 
@@ -43,11 +63,20 @@ public class App extends Application<AppConfig> {
 	public void run(AppConfig config, Environment env) {
 
 		var jdbi = setupJdbi(config, env);
-		var applianceDao = jdbi.onDemand(ApplianceDao.class);
-
-		var eventRecorder = setupEventRecorder();
+		var storage = new DeviceStorage(config.getStorage(), jdbi, SERVICE_NAME, MIGRATIONS_FILE);
+		env.lifecycle().manage(storage);
+		var applianceDao = storage.dao(ApplianceDao.class, OffHeapApplianceDao::new);
+		var applianceStream = EventStreamServlet.serve(env, "appliance", "/appliance/stream");
+
+		var clock = config.getRunConfig().buildContext(SERVICE_NAME).getClock();
+		var deadLetters = new DeadLetterQueue(SERVICE_NAME, Clock.systemUTC(), env.metrics());
+		var eventRecorder = setupEventRecorder(config);
+		var spans = new SpanRecorder(SERVICE_NAME);
 		env.jersey().register(new ApplianceResource(applianceDao));
-		startConsumer(applianceDao, env, eventRecorder);
+		env.jersey().register(new SpanResource(spans));
+		env.jersey().register(new DeadLetterResource(deadLetters));
+		env.jersey().register(new CorrelationFilter(spans));
+		startConsumer(applianceDao, applianceStream, deadLetters, env, config, clock, eventRecorder, spans);
 
 		env.jersey().register(new EndpointTrackingListener(
 				env.jersey().getResourceConfig(),
@@ -66,18 +95,16 @@ public class App extends Application<AppConfig> {
 		return jdbi;
 	}
 
-	private ElucidationRecorder setupEventRecorder() {
-		// When using docker compose, elucidation will resolve
-		return new ElucidationRecorder("http://elucidation:8080");
+	private ElucidationRecorder setupEventRecorder(AppConfig config) {
+		return new ElucidationRecorder(config.getElucidationUrl());
 	}
 
-	private void startConsumer(ApplianceDao applianceDao, Environment env, ElucidationRecorder eventRecorder) {
-		var executor = env.lifecycle().scheduledExecutorService("jms").build();
+	private void startConsumer(ApplianceDao applianceDao, StateBroadcaster applianceStream, DeadLetterQueue deadLetters, Environment env, AppConfig config, Clock clock, ElucidationRecorder eventRecorder, SpanRecorder spans) {
+		var jmsConsumer = new JmsConsumer(applianceDao, applianceStream, new DuplicateFilter(config.getDedup(), Clock.systemUTC(), env.metrics(), SERVICE_NAME), deadLetters, new RetryPolicy(config.getRetry(), env.metrics(), SERVICE_NAME), config.getBreakers(), eventRecorder, env.getObjectMapper(), clock, env.metrics(), spans);
 
-		executor.schedule(() -> {
-			var jmsConsumer = new JmsConsumer(applianceDao, eventRecorder, env.getObjectMapper());
-			jmsConsumer.start();
-		}, 30, TimeUnit.SECONDS);
+		var connections = new JmsConnections(config.getJms(), SERVICE_NAME, env.lifecycle().scheduledExecutorService("jms").build(), VirtualThreads.isEnabled(config));
+		connections.subscribe(jmsConsumer.subscription(config.getJmsBatch()));
+		env.lifecycle().manage(connections);
 	}
 }
 
@@ -6,6 +6,7 @@ import org.jdbi.v3.sqlobject.config.RegisterRowMapper;
 import org.jdbi.v3.sqlobject.customizer.Bind;
 import org.jdbi.v3.sqlobject.customizer.BindBean;
 import org.jdbi.v3.sqlobject.statement.GetGeneratedKeys;
+import org.jdbi.v3.sqlobject.statement.SqlBatch;
 import org.jdbi.v3.sqlobject.statement.SqlQuery;
 import org.jdbi.v3.sqlobject.statement.SqlUpdate;
 
@@ -30,4 +31,12 @@ public interface ApplianceDao {
 
     @SqlUpdate("update appliances set state = :state where id = :id")
     int updateState(@Bind("state") Appliance.State state, @Bind("id") long id);
+
+    /**
+     * Sets the state of many appliances in one transaction.
+     *
+     * @return how many rows each update changed, in order
+     */
+    @SqlBatch("update appliances set state = :state where id = :id")
+    int[] updateStates(@Bind("state") List<Appliance.State> states, @Bind("id") List<Long> ids);
 }
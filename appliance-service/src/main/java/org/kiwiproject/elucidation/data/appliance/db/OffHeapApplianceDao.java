@@ -0,0 +1,83 @@
+package org.kiwiproject.elucidation.data.appliance.db;
+
+import static java.util.Objects.isNull;
+import static org.kiwiproject.elucidation.data.common.store.OffHeapTable.ENUM_BYTES;
+import static org.kiwiproject.elucidation.data.common.store.OffHeapTable.STRING_BYTES;
+
+import org.kiwiproject.elucidation.data.appliance.model.Appliance;
+import org.kiwiproject.elucidation.data.common.store.OffHeapTable;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Keeps appliances in off-heap memory instead of a database, for runs that don't need them to outlive the service.
+ */
+public class OffHeapApplianceDao implements ApplianceDao {
+
+    private static final int NAME = 0;
+    private static final int BRAND = NAME + STRING_BYTES;
+    private static final int LOCATION = BRAND + STRING_BYTES;
+    private static final int STATE = LOCATION + STRING_BYTES;
+    private static final int FIELD_BYTES = STATE + ENUM_BYTES;
+
+    private static final Appliance.State[] STATES = Appliance.State.values();
+
+    private final OffHeapTable appliances;
+
+    public OffHeapApplianceDao(int capacity) {
+        appliances = new OffHeapTable(FIELD_BYTES, capacity);
+    }
+
+    @Override
+    public List<Appliance> findAll() {
+        return appliances.findAll(this::toAppliance);
+    }
+
+    @Override
+    public Optional<Appliance> findById(Long id) {
+        return isNull(id) ? Optional.empty() : appliances.find(id, this::toAppliance);
+    }
+
+    @Override
+    public long create(Appliance appliance) {
+        return appliances.insert(record -> {
+            record.putString(NAME, appliance.getName());
+            record.putString(BRAND, appliance.getBrand());
+            record.putString(LOCATION, appliance.getLocation());
+            record.putEnum(STATE, appliance.getState());
+        });
+    }
+
+    @Override
+    public int deleteAppliance(long id) {
+        return appliances.delete(id);
+    }
+
+    @Override
+    public int updateState(Appliance.State state, long id) {
+        return appliances.update(id, record -> record.putEnum(STATE, state));
+    }
+
+    @Override
+    public int[] updateStates(List<Appliance.State> states, List<Long> ids) {
+        return appliances.batch(() -> {
+            var updated = new int[ids.size()];
+            for (var i = 0; i < ids.size(); i++) {
+                var state = states.get(i);
+                updated[i] = appliances.update(ids.get(i), record -> record.putEnum(STATE, state));
+            }
+            return updated;
+        });
+    }
+
+    private Appliance toAppliance(OffHeapTable.Record record) {
+        return Appliance.builder()
+                .id(record.getId())
+                .name(record.getString(NAME))
+                .brand(record.getString(BRAND))
+                .location(record.getString(LOCATION))
+                .state(record.getEnum(STATE, STATES))
+                .build();
+    }
+}
@@ -27,6 +27,7 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.sql.SQLException;
+import java.util.List;
 
 @SuppressWarnings("java:S100")
 @DisplayName("ApplianceDao")
@@ -49,7 +50,7 @@ class ApplianceDaoTest {
 
         var conn = dataSource.getConnection();
         var database = DatabaseFactory.getInstance().findCorrectDatabaseImplementation(new JdbcConnection(conn));
-        liquibase = new Liquibase("migrations.xml", new ClassLoaderResourceAccessor(), database);
+        liquibase = new Liquibase("migrations/appliance.xml", new ClassLoaderResourceAccessor(), database);
     }
 
     @BeforeEach
@@ -159,6 +160,32 @@ class ApplianceDaoTest {
         }
     }
 
+    @Nested
+    class UpdateStates {
+
+        @Test
+        void shouldUpdateEveryAppliance_AndReturnEachUpdatedCount() {
+            jdbi.withHandle(handle -> handle.execute(
+                    "insert into appliances (id, name, brand, location, state) values (?, ?, ?, ?, ?)",
+                    1,
+                    APPLIANCE_NAME,
+                    BRAND,
+                    LOCATION,
+                    Appliance.State.ON
+            ));
+
+            var updatedCounts = dao.updateStates(List.of(Appliance.State.OFF, Appliance.State.ON), List.of(1L, 2L));
+
+            var appliances = jdbi.withHandle(handle -> handle.createQuery("select * from appliances")
+                    .registerRowMapper(new ApplianceMapper())
+                    .mapTo(Appliance.class)
+                    .list());
+
+            assertThat(updatedCounts).containsExactly(1, 0);
+            assertThat(appliances.get(0).getState()).isEqualTo(Appliance.State.OFF);
+        }
+    }
+
     @Nested
     class DeleteAppliance {
         @Test
@@ -0,0 +1,93 @@
+package org.kiwiproject.elucidation.data.appliance.db;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.kiwiproject.elucidation.data.appliance.model.Appliance;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+@SuppressWarnings("java:S100")
+@DisplayName("OffHeapApplianceDao")
+class OffHeapApplianceDaoTest {
+
+    private static final String APPLIANCE_NAME = "My First Appliance";
+    private static final String LOCATION = "Kitchen";
+    private static final String BRAND = "GE";
+
+    private OffHeapApplianceDao dao;
+
+    @BeforeEach
+    void setUp() {
+        dao = new OffHeapApplianceDao(2);
+    }
+
+    private long createAppliance(Appliance.State state) {
+        return dao.create(Appliance.builder().name(APPLIANCE_NAME).brand(BRAND).location(LOCATION).state(state).build());
+    }
+
+    @Nested
+    class Create {
+
+        @Test
+        void shouldCreateNewAppliance() {
+            var id = createAppliance(Appliance.State.ON);
+
+            assertThat(dao.findById(id)).get()
+                    .extracting("id", "name", "brand", "location", "state")
+                    .containsExactly(1L, APPLIANCE_NAME, BRAND, LOCATION, Appliance.State.ON);
+        }
+    }
+
+    @Nested
+    class FindById {
+
+        @Test
+        void shouldReturnEmptyOptional_WhenApplianceNotFound() {
+            assertThat(dao.findById(1L)).isEmpty();
+            assertThat(dao.findById(null)).isEmpty();
+        }
+    }
+
+    @Nested
+    class UpdateStates {
+
+        @Test
+        void shouldUpdateOneState() {
+            var id = createAppliance(Appliance.State.OFF);
+
+            assertThat(dao.updateState(Appliance.State.ON, id)).isOne();
+            assertThat(dao.findById(id)).get().extracting("state").isEqualTo(Appliance.State.ON);
+        }
+
+        @Test
+        void shouldUpdateEveryAppliance_AndReturnEachUpdatedCount() {
+            createAppliance(Appliance.State.OFF);
+            createAppliance(Appliance.State.OFF);
+            createAppliance(Appliance.State.OFF);
+
+            var updated = dao.updateStates(List.of(Appliance.State.ON, Appliance.State.ON, Appliance.State.ON),
+                    List.of(1L, 3L, 4L));
+
+            assertThat(updated).containsExactly(1, 1, 0);
+            assertThat(dao.findAll()).extracting("state")
+                    .containsExactly(Appliance.State.ON, Appliance.State.OFF, Appliance.State.ON);
+        }
+    }
+
+    @Nested
+    class DeleteAppliance {
+
+        @Test
+        void shouldDeleteApplianceAndReturnUpdatedCount_WhenApplianceFound() {
+            var id = createAppliance(Appliance.State.ON);
+
+            assertThat(dao.deleteAppliance(id)).isOne();
+            assertThat(dao.findAll()).isEmpty();
+            assertThat(dao.deleteAppliance(id)).isZero();
+        }
+    }
+}
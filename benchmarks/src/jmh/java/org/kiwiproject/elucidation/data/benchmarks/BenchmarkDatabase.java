@@ -0,0 +1,65 @@
+package org.kiwiproject.elucidation.data.benchmarks;
+
+import org.jdbi.v3.core.Jdbi;
+import org.jdbi.v3.sqlobject.SqlObjectPlugin;
+import org.sqlite.SQLiteDataSource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * A throwaway SQLite file database with just the tables a benchmark needs, created from the same definitions as
+ * the services' changelogs rather than running Liquibase for every fork.
+ */
+final class BenchmarkDatabase implements AutoCloseable {
+
+    static final String DEVICES = "create table devices (id integer primary key autoincrement, home varchar default 'default', name varchar, "
+            + "device_type varchar, device_type_id integer)";
+
+    static final String LIGHTS = "create table lights (id integer primary key autoincrement, name varchar, "
+            + "brand varchar, location varchar, state varchar(5) default 'OFF', color varchar(20) default 'SOFT_WHITE', "
+            + "brightness int)";
+
+    static final String THERMOSTATS = "create table thermostats (id integer primary key autoincrement, "
+            + "name varchar(255), brand varchar(255), location varchar(255), current_temp varchar(255))";
+
+    static final String THERMOSTAT_READINGS = "create table thermostat_readings (thermostat_id integer, read_at bigint, "
+            + "temp double)";
+
+    static final String THERMOSTAT_ROLLUPS_1M = "create table thermostat_rollups_1m (thermostat_id integer, bucket bigint, "
+            + "reading_count bigint, min_temp double, max_temp double, sum_temp double, primary key (thermostat_id, bucket))";
+
+    static final String THERMOSTAT_ROLLUPS_1H = "create table thermostat_rollups_1h (thermostat_id integer, bucket bigint, "
+            + "reading_count bigint, min_temp double, max_temp double, sum_temp double, primary key (thermostat_id, bucket))";
+
+    static final String APPLIANCES = "create table appliances (id integer primary key autoincrement, name varchar, "
+            + "brand varchar, location varchar, state varchar(5))";
+
+    private final Path file;
+    private final Jdbi jdbi;
+
+    BenchmarkDatabase(String... tables) throws IOException {
+        file = Files.createTempFile("benchmark", ".db");
+
+        var dataSource = new SQLiteDataSource();
+        dataSource.setUrl("jdbc:sqlite:" + file);
+
+        jdbi = Jdbi.create(dataSource);
+        jdbi.installPlugin(new SqlObjectPlugin());
+        jdbi.useHandle(handle -> {
+            for (var table : tables) {
+                handle.execute(table);
+            }
+        });
+    }
+
+    Jdbi jdbi() {
+        return jdbi;
+    }
+
+    @Override
+    public void close() throws IOException {
+        Files.deleteIfExists(file);
+    }
+}
@@ -0,0 +1,86 @@
+package org.kiwiproject.elucidation.data.benchmarks;
+
+import org.kiwiproject.elucidation.data.common.store.DeviceStorage;
+import org.kiwiproject.elucidation.data.common.store.StorageConfig;
+import org.kiwiproject.elucidation.data.light.db.CompactSmartLightDao;
+import org.kiwiproject.elucidation.data.light.db.OffHeapSmartLightDao;
+import org.kiwiproject.elucidation.data.light.db.SmartLightDao;
+import org.kiwiproject.elucidation.data.light.model.SmartLight;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+/**
+ * The light DAO on each storage backend: reading one light, as the status endpoint does on a cache miss, and a
+ * batch of color and brightness changes, as the JMS consumer writes them in batch mode.
+ */
+@State(Scope.Benchmark)
+public class DeviceStorageBenchmark {
+
+    private static final int BATCH = 100;
+
+    @Param({"SQLITE", "H2", "OFF_HEAP", "COMPACT"})
+    public StorageConfig.Backend backend;
+
+    @Param({"1000"})
+    public int lights;
+
+    private BenchmarkDatabase database;
+    private DeviceStorage storage;
+    private SmartLightDao dao;
+    private long next;
+
+    private List<SmartLight.Color> colors;
+    private List<Integer> brightness;
+
+    @Setup
+    public void setUp() throws IOException {
+        database = new BenchmarkDatabase(BenchmarkDatabase.LIGHTS);
+
+        var config = new StorageConfig();
+        config.setBackend(backend);
+        config.setOffHeapCapacity(lights);
+        storage = new DeviceStorage(config, database.jdbi(), "benchmark", "migrations/light.xml");
+        dao = storage.dao(SmartLightDao.class, OffHeapSmartLightDao::new, CompactSmartLightDao::new);
+
+        for (var i = 0; i < lights; i++) {
+            dao.create(SmartLight.builder().name("Light " + i).brand("Phillips").location("Kitchen").build());
+        }
+
+        colors = Collections.nCopies(BATCH, SmartLight.Color.BLUE);
+        brightness = Collections.nCopies(BATCH, 40);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException, SQLException {
+        storage.stop();
+        database.close();
+    }
+
+    private long nextId() {
+        next = next % lights + 1;
+        return next;
+    }
+
+    @Benchmark
+    public Optional<SmartLight> findById() {
+        return dao.findById(nextId());
+    }
+
+    @Benchmark
+    public int[] setColorsAndBrightness() {
+        var ids = LongStream.range(0, BATCH).map(i -> nextId()).boxed().collect(Collectors.toList());
+        return dao.setColorsAndBrightness(colors, brightness, ids);
+    }
+}
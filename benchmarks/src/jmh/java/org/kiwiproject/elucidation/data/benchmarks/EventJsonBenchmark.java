@@ -0,0 +1,58 @@
+package org.kiwiproject.elucidation.data.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.dropwizard.jackson.Jackson;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Reading and writing the {@code Event} messages that go over the iotEvent topic, with the object mapper
+ * Dropwizard hands the services.
+ */
+@State(Scope.Benchmark)
+public class EventJsonBenchmark {
+
+    private static final Map<String, Class<?>> MODELS = Map.of(
+            "home", org.kiwiproject.elucidation.data.home.model.Event.class,
+            "light", org.kiwiproject.elucidation.data.light.model.Event.class,
+            "thermostat", org.kiwiproject.elucidation.data.thermostat.model.Event.class,
+            "appliance", org.kiwiproject.elucidation.data.appliance.model.Event.class);
+
+    private static final Map<String, String> PAYLOADS = Map.of(
+            "home", Messages.LIGHT,
+            "light", Messages.LIGHT,
+            "thermostat", Messages.THERMOSTAT,
+            "appliance", Messages.APPLIANCE);
+
+    @Param({"home", "light", "thermostat", "appliance"})
+    public String model;
+
+    private ObjectMapper json;
+    private Class<?> type;
+    private String payload;
+    private Object event;
+
+    @Setup
+    public void setUp() throws IOException {
+        json = Jackson.newObjectMapper();
+        type = MODELS.get(model);
+        payload = PAYLOADS.get(model);
+        event = json.readValue(payload, type);
+    }
+
+    @Benchmark
+    public Object deserialize() throws IOException {
+        return json.readValue(payload, type);
+    }
+
+    @Benchmark
+    public String serialize() throws IOException {
+        return json.writeValueAsString(event);
+    }
+}
@@ -0,0 +1,165 @@
+package org.kiwiproject.elucidation.data.benchmarks;
+
+import com.codahale.metrics.MetricRegistry;
+import org.kiwiproject.elucidation.client.ElucidationRecorder;
+import org.kiwiproject.elucidation.client.ElucidationResult;
+import org.kiwiproject.elucidation.common.model.ConnectionEvent;
+import org.kiwiproject.elucidation.data.appliance.db.ApplianceDao;
+import org.kiwiproject.elucidation.data.appliance.model.Appliance;
+import org.kiwiproject.elucidation.data.common.cache.StateCache;
+import org.kiwiproject.elucidation.data.common.jms.CircuitBreakerConfig;
+import org.kiwiproject.elucidation.data.common.jms.DeadLetterQueue;
+import org.kiwiproject.elucidation.data.common.jms.DedupConfig;
+import org.kiwiproject.elucidation.data.common.jms.DuplicateFilter;
+import org.kiwiproject.elucidation.data.common.jms.RetryConfig;
+import org.kiwiproject.elucidation.data.common.jms.RetryPolicy;
+import org.kiwiproject.elucidation.data.common.stream.StateBroadcaster;
+import org.kiwiproject.elucidation.data.common.trace.SpanRecorder;
+import org.kiwiproject.elucidation.data.light.db.SmartLightDao;
+import org.kiwiproject.elucidation.data.light.model.SmartLight;
+import org.kiwiproject.elucidation.data.thermostat.db.ReadingWriter;
+import org.kiwiproject.elucidation.data.thermostat.db.ThermostatDao;
+import org.kiwiproject.elucidation.data.thermostat.db.ThermostatReadingDao;
+import org.kiwiproject.elucidation.data.thermostat.model.Thermostat;
+import io.dropwizard.jackson.Jackson;
+import io.dropwizard.util.Duration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import javax.jms.Message;
+import javax.ws.rs.client.Client;
+import javax.ws.rs.client.ClientBuilder;
+import javax.ws.rs.client.ClientRequestFilter;
+import javax.ws.rs.core.Response;
+import java.io.IOException;
+import java.time.Clock;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The full per-message cost of each consumer: parsing, recording the event and updating SQLite. Elucidation and
+ * the callback from light to home are answered in-process so only the consumer's own work is measured.
+ */
+@State(Scope.Benchmark)
+public class JmsConsumerBenchmark {
+
+    private static final CompletableFuture<ElucidationResult> RECORDED = CompletableFuture.completedFuture(ElucidationResult.ok());
+    private static final int BATCH_SIZE = 100;
+
+    private BenchmarkDatabase database;
+    private Client httpClient;
+    private ReadingWriter readings;
+
+    private org.kiwiproject.elucidation.data.light.jms.JmsConsumer lightConsumer;
+    private org.kiwiproject.elucidation.data.thermostat.jms.JmsConsumer thermostatConsumer;
+    private org.kiwiproject.elucidation.data.appliance.jms.JmsConsumer applianceConsumer;
+
+    private List<Message> lightMessage;
+    private List<Message> thermostatMessage;
+    private List<Message> applianceMessage;
+    private List<Message> cameraMessage;
+    private List<Message> lightBatch;
+    private List<Message> thermostatBatch;
+
+    @Setup
+    public void setUp() throws IOException {
+        database = new BenchmarkDatabase(BenchmarkDatabase.LIGHTS, BenchmarkDatabase.THERMOSTATS,
+                BenchmarkDatabase.THERMOSTAT_READINGS, BenchmarkDatabase.THERMOSTAT_ROLLUPS_1M,
+                BenchmarkDatabase.THERMOSTAT_ROLLUPS_1H, BenchmarkDatabase.APPLIANCES);
+        var jdbi = database.jdbi();
+
+        var lightDao = jdbi.onDemand(SmartLightDao.class);
+        lightDao.create(SmartLight.builder().name("Kitchen Light").brand("Phillips").location("Kitchen").build());
+
+        var thermostatDao = jdbi.onDemand(ThermostatDao.class);
+        thermostatDao.create(Thermostat.builder().name("Main Floor Nest Thermostat").brand("Nest").location("Hallway").currentTemp(68.0).build());
+
+        var applianceDao = jdbi.onDemand(ApplianceDao.class);
+        applianceDao.create(Appliance.builder().name("Coffee Machine").brand("Kuerig").location("Kitchen").state(Appliance.State.OFF).build());
+
+        var recorder = new ElucidationRecorder("http://localhost:0") {
+            @Override
+            public CompletableFuture<ElucidationResult> recordNewEvent(ConnectionEvent event) {
+                return RECORDED;
+            }
+        };
+
+        httpClient = ClientBuilder.newClient()
+                .register((ClientRequestFilter) request -> request.abortWith(Response.accepted().build()));
+
+        var json = Jackson.newObjectMapper();
+        var clock = Clock.systemUTC();
+        var metrics = new MetricRegistry();
+        var spans = new SpanRecorder("benchmark");
+        var stream = new StateBroadcaster("benchmark", json, null, metrics);
+
+        // the same message is handed over every time, so ids are forgotten as soon as they are checked
+        var dedup = new DedupConfig();
+        dedup.setWindow(Duration.milliseconds(0));
+        var retry = new RetryConfig();
+        var breakers = new CircuitBreakerConfig();
+        readings = new ReadingWriter(jdbi.onDemand(ThermostatReadingDao.class), metrics);
+        readings.start();
+        lightConsumer = new org.kiwiproject.elucidation.data.light.jms.JmsConsumer(lightDao, new StateCache<>("lights", lightDao::findById, metrics), stream, new DuplicateFilter(dedup, clock, metrics, "light-benchmark"), new DeadLetterQueue("light-benchmark", clock, metrics), new RetryPolicy(retry, metrics, "light-benchmark"), breakers, recorder, json, httpClient, "http://localhost:0", clock, metrics, spans);
+        thermostatConsumer = new org.kiwiproject.elucidation.data.thermostat.jms.JmsConsumer(thermostatDao, new StateCache<>("thermostats", thermostatDao::findById, metrics), stream, readings, new DuplicateFilter(dedup, clock, metrics, "thermostat-benchmark"), new DeadLetterQueue("thermostat-benchmark", clock, metrics), new RetryPolicy(retry, metrics, "thermostat-benchmark"), breakers, recorder, json, clock, metrics, spans);
+        applianceConsumer = new org.kiwiproject.elucidation.data.appliance.jms.JmsConsumer(applianceDao, stream, new DuplicateFilter(dedup, clock, metrics, "appliance-benchmark"), new DeadLetterQueue("appliance-benchmark", clock, metrics), new RetryPolicy(retry, metrics, "appliance-benchmark"), breakers, recorder, json, clock, metrics, spans);
+
+        // consumers take a list of messages whether batching or not, so single messages are lists of one
+        lightMessage = List.of(Messages.text(Messages.LIGHT));
+        thermostatMessage = List.of(Messages.text(Messages.THERMOSTAT));
+        applianceMessage = List.of(Messages.text(Messages.APPLIANCE));
+        cameraMessage = List.of(Messages.text(Messages.CAMERA));
+        lightBatch = Collections.nCopies(BATCH_SIZE, lightMessage.get(0));
+        thermostatBatch = Collections.nCopies(BATCH_SIZE, thermostatMessage.get(0));
+    }
+
+    @TearDown
+    public void tearDown() throws IOException, InterruptedException {
+        readings.stop();
+        httpClient.close();
+        database.close();
+    }
+
+    @Benchmark
+    public void lightMessage() {
+        lightConsumer.handle(lightMessage);
+    }
+
+    @Benchmark
+    public void thermostatMessage() {
+        thermostatConsumer.handle(thermostatMessage);
+    }
+
+    @Benchmark
+    public void applianceMessage() {
+        applianceConsumer.handle(applianceMessage);
+    }
+
+    /**
+     * Every consumer sees every message on the topic; this is the cost of one it ignores.
+     */
+    @Benchmark
+    public void ignoredMessage() {
+        lightConsumer.handle(cameraMessage);
+    }
+
+    /**
+     * Batch mode: the same per-message work, but with one SQLite transaction for the whole batch.
+     */
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void lightBatch() {
+        lightConsumer.handle(lightBatch);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void thermostatBatch() {
+        thermostatConsumer.handle(thermostatBatch);
+    }
+}
@@ -0,0 +1,46 @@
+package org.kiwiproject.elucidation.data.benchmarks;
+
+import javax.jms.TextMessage;
+import java.lang.reflect.Proxy;
+
+/**
+ * Message bodies as home publishes them, and a bare {@link TextMessage} to hand them to the consumers without a
+ * broker.
+ */
+final class Messages {
+
+    static final String LIGHT = "{\"uuid\":\"5b0f1c1e-7b8e-4c36-9a43-2e5b7a1f6d10\",\"action\":\"light\","
+            + "\"value\":{\"color\":\"SOFT_WHITE\",\"brightness\":70},\"iotLookup\":1}";
+
+    static final String THERMOSTAT = "{\"uuid\":\"8e2d7a44-0c55-4a0e-b6f2-1f9e3c7d5a21\",\"action\":\"temp\","
+            + "\"value\":{\"temp\":70.2},\"iotLookup\":1}";
+
+    static final String APPLIANCE = "{\"uuid\":\"c4a9e0f3-2d61-4b7a-8f15-6e0b9d3c2a47\",\"action\":\"appliance\","
+            + "\"value\":{\"state\":\"ON\"},\"iotLookup\":1}";
+
+    static final String CAMERA = "{\"uuid\":\"1f7b3c9d-5e42-4a08-b1c6-9d2e7f0a3b58\",\"action\":\"camera\","
+            + "\"value\":{\"recording\":true},\"iotLookup\":1}";
+
+    static final String CORRELATION_ID = "5eed5eed5eed5eed";
+
+    private Messages() {
+    }
+
+    static TextMessage text(String body) {
+        return (TextMessage) Proxy.newProxyInstance(
+                Messages.class.getClassLoader(),
+                new Class<?>[] {TextMessage.class},
+                (proxy, method, args) -> {
+                    if ("getText".equals(method.getName())) {
+                        return body;
+                    }
+                    if ("getJMSTimestamp".equals(method.getName())) {
+                        return 0L;
+                    }
+                    if ("getStringProperty".equals(method.getName())) {
+                        return CORRELATION_ID;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
@@ -0,0 +1,61 @@
+package org.kiwiproject.elucidation.data.benchmarks;
+
+import org.kiwiproject.elucidation.data.home.db.mapper.DeviceMapper;
+import org.kiwiproject.elucidation.data.home.model.Device;
+import org.kiwiproject.elucidation.data.light.db.mapper.SmartLightMapper;
+import org.kiwiproject.elucidation.data.light.model.SmartLight;
+import org.jdbi.v3.core.Handle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Mapping a table's worth of rows, the way the list endpoints and {@code findAll} queries do.
+ */
+@State(Scope.Benchmark)
+public class RowMapperBenchmark {
+
+    @Param({"1", "100"})
+    public int rows;
+
+    private BenchmarkDatabase database;
+    private Handle handle;
+    private DeviceMapper deviceMapper;
+    private SmartLightMapper smartLightMapper;
+
+    @Setup
+    public void setUp() throws IOException {
+        database = new BenchmarkDatabase(BenchmarkDatabase.DEVICES, BenchmarkDatabase.LIGHTS);
+        handle = database.jdbi().open();
+
+        for (int i = 0; i < rows; i++) {
+            handle.execute("insert into devices (name, device_type, device_type_id) values (?, ?, ?)", "Light " + i, "LIGHT", i);
+            handle.execute("insert into lights (name, brand, location, brightness) values (?, ?, ?, ?)", "Light " + i, "Phillips", "Kitchen", 100);
+        }
+
+        deviceMapper = new DeviceMapper();
+        smartLightMapper = new SmartLightMapper();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        handle.close();
+        database.close();
+    }
+
+    @Benchmark
+    public List<Device> mapDevices() {
+        return handle.createQuery("select * from devices").map(deviceMapper).list();
+    }
+
+    @Benchmark
+    public List<SmartLight> mapSmartLights() {
+        return handle.createQuery("select * from lights").map(smartLightMapper).list();
+    }
+}
@@ -0,0 +1,40 @@
+package org.kiwiproject.elucidation.data.benchmarks;
+
+import org.kiwiproject.elucidation.client.ElucidationRecorder;
+import org.kiwiproject.elucidation.data.common.run.RunContext;
+import org.kiwiproject.elucidation.data.common.trace.SpanRecorder;
+import org.kiwiproject.elucidation.data.home.model.WorkflowStep;
+import org.kiwiproject.elucidation.data.home.service.WorkflowService;
+import com.google.common.io.Resources;
+import io.dropwizard.jackson.Jackson;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Parsing the step json of the Good Morning workflow, which home does every time a workflow is triggered.
+ */
+@State(Scope.Benchmark)
+public class WorkflowStepParsingBenchmark {
+
+    private WorkflowService workflowService;
+    private String stepJson;
+
+    @Setup
+    @SuppressWarnings("UnstableApiUsage")
+    public void setUp() throws IOException {
+        stepJson = Resources.toString(Resources.getResource("good_morning_workflow_steps.json"), StandardCharsets.UTF_8);
+        workflowService = new WorkflowService(null, null, Jackson.newObjectMapper(),
+                new ElucidationRecorder("http://localhost:0"), RunContext.system(), new SpanRecorder("home-service"), null, null);
+    }
+
+    @Benchmark
+    public List<WorkflowStep> parseSteps() throws IOException {
+        return workflowService.parseSteps(stepJson);
+    }
+}
@@ -1,27 +1,38 @@
 package org.kiwiproject.elucidation.data.canary;
 
+import org.kiwiproject.elucidation.data.canary.cli.GenerateCommand;
 import org.kiwiproject.elucidation.data.canary.config.AppConfig;
 import org.kiwiproject.elucidation.data.canary.job.RunTestsJob;
+import org.kiwiproject.elucidation.data.common.http.HttpClients;
+import org.kiwiproject.elucidation.data.common.thread.VirtualThreads;
 import io.dropwizard.Application;
+import io.dropwizard.setup.Bootstrap;
 import io.dropwizard.setup.Environment;
 import lombok.extern.slf4j.Slf4j;
 
-import javax.ws.rs.client.ClientBuilder;
 import java.util.concurrent.TimeUnit;
 
 @Slf4j
 public class App extends Application<AppConfig> {
 
+    public static final String SERVICE_NAME = "canary-service";
+
     public static void main(String[] args) throws Exception {
         new App().run(args);
     }
 
+    @Override
+    public void initialize(Bootstrap<AppConfig> bootstrap) {
+        bootstrap.addCommand(new GenerateCommand());
+    }
+
     @Override
     public void run(AppConfig config, Environment env) {
-        var httpClient = ClientBuilder.newClient();
+        var httpClient = HttpClients.build(env, config.getHttpClientConfig(), SERVICE_NAME, VirtualThreads.isEnabled(config));
 
         var executor = env.lifecycle().scheduledExecutorService("Canary-Test-Runner").build();
-        executor.schedule(new RunTestsJob(httpClient), 1, TimeUnit.MINUTES);
+        var run = config.getRunConfig().buildContext(SERVICE_NAME);
+        executor.schedule(new RunTestsJob(httpClient, run, config.getScenarioConfig(), config.getElucidationUrl()), 1, TimeUnit.MINUTES);
     }
 
 }
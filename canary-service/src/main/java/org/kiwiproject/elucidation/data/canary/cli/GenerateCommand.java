@@ -0,0 +1,59 @@
+package org.kiwiproject.elucidation.data.canary.cli;
+
+import org.kiwiproject.elucidation.data.canary.config.AppConfig;
+import org.kiwiproject.elucidation.data.canary.export.CsvExporter;
+import org.kiwiproject.elucidation.data.canary.generator.ServiceTopology;
+import org.kiwiproject.elucidation.data.canary.generator.SyntheticEventGenerator;
+import io.dropwizard.cli.ConfiguredCommand;
+import io.dropwizard.configuration.ConfigurationValidationException;
+import io.dropwizard.setup.Bootstrap;
+import net.sourceforge.argparse4j.inf.Namespace;
+import net.sourceforge.argparse4j.inf.Subparser;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * Generates a data set from the built-in topology without starting any of the services, e.g.
+ * {@code java -jar canary.jar generate --seed 7 --events 50000000 config.yml}.
+ */
+public class GenerateCommand extends ConfiguredCommand<AppConfig> {
+
+    public GenerateCommand() {
+        super("generate", "Generates Elucidation events offline from the service topology");
+    }
+
+    @Override
+    public void configure(Subparser subparser) {
+        super.configure(subparser);
+
+        subparser.addArgument("--seed").dest("seed").type(Long.class).help("seed for the random event stream");
+        subparser.addArgument("--events").dest("events").type(Long.class).help("number of events to generate");
+        subparser.addArgument("--threads").dest("threads").type(Integer.class).help("number of generator threads");
+        subparser.addArgument("--output").dest("output").type(String.class).help("directory to write the csv files to");
+    }
+
+    @Override
+    protected void run(Bootstrap<AppConfig> bootstrap, Namespace namespace, AppConfig config) throws Exception {
+        var generatorConfig = config.getGeneratorConfig();
+
+        Optional.ofNullable(namespace.getLong("seed")).ifPresent(generatorConfig::setSeed);
+        Optional.ofNullable(namespace.getLong("events")).ifPresent(generatorConfig::setEventCount);
+        Optional.ofNullable(namespace.getInt("threads")).ifPresent(generatorConfig::setThreads);
+        Optional.ofNullable(namespace.getString("output")).ifPresent(generatorConfig::setOutputDirectory);
+
+        // the configuration was validated before the overrides were applied
+        var violations = bootstrap.getValidatorFactory().getValidator().validate(generatorConfig);
+        if (!violations.isEmpty()) {
+            throw new ConfigurationValidationException("generatorConfig", violations);
+        }
+
+        var outputDirectory = Files.createDirectories(Path.of(generatorConfig.getOutputDirectory()));
+        var generator = new SyntheticEventGenerator(ServiceTopology.homeAutomation(), generatorConfig);
+
+        try (var exporter = new CsvExporter(outputDirectory, "synthetic-" + generatorConfig.getSeed())) {
+            generator.generate(exporter);
+        }
+    }
+}
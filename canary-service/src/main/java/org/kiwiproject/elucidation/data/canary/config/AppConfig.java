@@ -1,11 +1,42 @@
 package org.kiwiproject.elucidation.data.canary.config;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.kiwiproject.elucidation.data.common.http.HttpClients;
+import org.kiwiproject.elucidation.data.common.run.RunConfig;
 import io.dropwizard.Configuration;
+import io.dropwizard.client.JerseyClientConfiguration;
 import lombok.Getter;
 import lombok.Setter;
 
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+
 @Getter
 @Setter
 public class AppConfig extends Configuration {
 
+    @Valid
+    @NotNull
+    @JsonProperty("generator")
+    private GeneratorConfig generatorConfig = new GeneratorConfig();
+
+    @Valid
+    @NotNull
+    @JsonProperty("scenarios")
+    private ScenarioConfig scenarioConfig = new ScenarioConfig();
+
+    @Valid
+    @NotNull
+    @JsonProperty("run")
+    private RunConfig runConfig = new RunConfig();
+
+    @Valid
+    @NotNull
+    @JsonProperty("httpClient")
+    private JerseyClientConfiguration httpClientConfig = HttpClients.defaultConfiguration();
+
+    @NotEmpty
+    private String elucidationUrl = "http://elucidation:8080";
+
 }
@@ -0,0 +1,38 @@
+package org.kiwiproject.elucidation.data.canary.config;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import java.time.Instant;
+
+@Getter
+@Setter
+public class GeneratorConfig {
+
+    private long seed = 42;
+
+    @NotNull
+    private Instant startTime = Instant.parse("2022-01-01T00:00:00Z");
+
+    @Min(1)
+    private long eventCount = 1_000_000;
+
+    @Min(1)
+    private int threads = Runtime.getRuntime().availableProcessors();
+
+    @Min(1)
+    private int chunkSize = 65_536;
+
+    @Min(1)
+    private long meanIntervalMicros = 1_000;
+
+    @Min(1)
+    private int maxHopLatencyMillis = 25;
+
+    @NotEmpty
+    private String outputDirectory = "/service/data";
+
+}
@@ -0,0 +1,63 @@
+package org.kiwiproject.elucidation.data.canary.config;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import javax.validation.Valid;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import java.util.List;
+import java.util.Map;
+
+@Getter
+@Setter
+public class ScenarioConfig {
+
+    /**
+     * Optional directory with scenario files that take precedence over the ones bundled with the canary.
+     */
+    private String directory;
+
+    /**
+     * Scenarios to run, in order. Later scenarios may rely on devices set up by earlier ones.
+     */
+    @Valid
+    @NotEmpty
+    private List<MixEntry> mix = List.of(
+            MixEntry.of("crud-devices"),
+            MixEntry.of("good-morning"),
+            MixEntry.of("doorbell"));
+
+    /**
+     * Variables every scenario starts with, unless the scenario defines them itself. The bundled scenarios find
+     * the services through these.
+     */
+    @NotNull
+    private Map<String, Object> variables = Map.of(
+            "home", "http://home:8080",
+            "light", "http://light:8080",
+            "thermostat", "http://thermostat:8080",
+            "appliance", "http://appliance:8080",
+            "doorbell", "http://doorbell:8080");
+
+    @Getter
+    @Setter
+    public static class MixEntry {
+
+        @NotEmpty
+        private String scenario;
+
+        @Min(1)
+        private int instances = 1;
+
+        @Min(1)
+        private int concurrency = 1;
+
+        public static MixEntry of(String scenario) {
+            var entry = new MixEntry();
+            entry.setScenario(scenario);
+            return entry;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package org.kiwiproject.elucidation.data.canary.export;
+
+import static java.lang.String.format;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import org.kiwiproject.elucidation.common.model.ConnectionEvent;
+import org.kiwiproject.elucidation.common.model.TrackedConnectionIdentifier;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+@Slf4j
+public class CsvExporter implements ElucidationExporter {
+
+    private static final String[] EVENT_CSV_HEADERS = { "id", "serviceName", "eventDirection", "communicationType", "connectionIdentifier", "observedAt" };
+    private static final String[] TRACK_CSV_HEADERS = { "id", "serviceName", "communicationType", "connectionIdentifier" };
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private final Path eventFile;
+    private final Path trackedIdentifierFile;
+
+    private CSVPrinter eventPrinter;
+    private CSVPrinter trackedIdentifierPrinter;
+
+    public CsvExporter(Path directory, String fileSuffix) {
+        this.eventFile = directory.resolve(format("elucidation-events-%s.csv", fileSuffix));
+        this.trackedIdentifierFile = directory.resolve(format("elucidation-tracked-identifiers-%s.csv", fileSuffix));
+    }
+
+    public Path getEventFile() {
+        return eventFile;
+    }
+
+    public Path getTrackedIdentifierFile() {
+        return trackedIdentifierFile;
+    }
+
+    @Override
+    public void exportEvents(List<ConnectionEvent> events) throws IOException {
+        if (isNull(eventPrinter)) {
+            LOG.info("Writing out events to {}", eventFile);
+            eventPrinter = openPrinter(eventFile, EVENT_CSV_HEADERS);
+        }
+
+        for (var event : events) {
+            eventPrinter.printRecord(
+                    event.getId(),
+                    event.getServiceName(),
+                    event.getEventDirection(),
+                    event.getCommunicationType(),
+                    event.getConnectionIdentifier(),
+                    event.getObservedAt());
+        }
+    }
+
+    @Override
+    public void exportTrackedIdentifiers(List<TrackedConnectionIdentifier> identifiers) throws IOException {
+        if (isNull(trackedIdentifierPrinter)) {
+            LOG.info("Writing out trackedIdentifiers to {}", trackedIdentifierFile);
+            trackedIdentifierPrinter = openPrinter(trackedIdentifierFile, TRACK_CSV_HEADERS);
+        }
+
+        for (var identifier : identifiers) {
+            trackedIdentifierPrinter.printRecord(
+                    identifier.getId(),
+                    identifier.getServiceName(),
+                    identifier.getCommunicationType(),
+                    identifier.getConnectionIdentifier());
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (nonNull(eventPrinter)) {
+                eventPrinter.close(true);
+            }
+        } finally {
+            if (nonNull(trackedIdentifierPrinter)) {
+                trackedIdentifierPrinter.close(true);
+            }
+        }
+    }
+
+    private static CSVPrinter openPrinter(Path file, String[] headers) throws IOException {
+        var writer = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(file), StandardCharsets.UTF_8), BUFFER_SIZE);
+        return new CSVPrinter(writer, CSVFormat.DEFAULT.withHeader(headers));
+    }
+}
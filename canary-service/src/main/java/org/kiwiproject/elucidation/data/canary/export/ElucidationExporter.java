@@ -0,0 +1,20 @@
+package org.kiwiproject.elucidation.data.canary.export;
+
+import org.kiwiproject.elucidation.common.model.ConnectionEvent;
+import org.kiwiproject.elucidation.common.model.TrackedConnectionIdentifier;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Destination for generated Elucidation data. Implementations may be called repeatedly with successive batches
+ * of events and must preserve the order in which they are given.
+ */
+public interface ElucidationExporter extends Closeable {
+
+    void exportEvents(List<ConnectionEvent> events) throws IOException;
+
+    void exportTrackedIdentifiers(List<TrackedConnectionIdentifier> identifiers) throws IOException;
+
+}
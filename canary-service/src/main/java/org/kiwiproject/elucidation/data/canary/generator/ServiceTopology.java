@@ -0,0 +1,146 @@
+package org.kiwiproject.elucidation.data.canary.generator;
+
+import static java.util.Objects.nonNull;
+
+import org.kiwiproject.elucidation.common.definition.HttpCommunicationDefinition;
+import org.kiwiproject.elucidation.common.definition.JmsCommunicationDefinition;
+import org.kiwiproject.elucidation.common.model.Direction;
+import org.kiwiproject.elucidation.common.model.TrackedConnectionIdentifier;
+import lombok.Getter;
+import lombok.Value;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * Describes which services talk to each other and how, as a weighted set of flows. A flow is an ordered list of
+ * hops that happen together, e.g. home publishing a light event that light-service consumes and then calls back
+ * to home about.
+ */
+@Getter
+public class ServiceTopology {
+
+    private static final String HTTP = new HttpCommunicationDefinition().getCommunicationType();
+    private static final String JMS = new JmsCommunicationDefinition().getCommunicationType();
+
+    private static final String CANARY = "canary-service";
+    private static final String HOME = "home-service";
+    private static final String LIGHT = "light-service";
+    private static final String THERMOSTAT = "thermostat-service";
+    private static final String APPLIANCE = "appliance-service";
+    private static final String DOORBELL = "doorbell-service";
+
+    /**
+     * One side of a hop, as it would be observed by the service recording it.
+     */
+    @Value
+    public static class Endpoint {
+        String serviceName;
+        Direction direction;
+        String communicationType;
+        String connectionIdentifier;
+    }
+
+    /**
+     * A single call or message. A {@code null} target means nobody consumes it (e.g. the camera events).
+     */
+    @Value
+    public static class Hop {
+        String source;
+        String target;
+        String communicationType;
+        String connectionIdentifier;
+
+        public List<Endpoint> endpoints() {
+            var outbound = new Endpoint(source, Direction.OUTBOUND, communicationType, connectionIdentifier);
+            if (nonNull(target)) {
+                return List.of(outbound, new Endpoint(target, Direction.INBOUND, communicationType, connectionIdentifier));
+            }
+            return List.of(outbound);
+        }
+    }
+
+    @Value
+    public static class Flow {
+        String name;
+        int weight;
+        List<Hop> hops;
+    }
+
+    private final List<Flow> flows;
+
+    public ServiceTopology(List<Flow> flows) {
+        this.flows = List.copyOf(flows);
+    }
+
+    /**
+     * The same services and connections that the docker-compose setup produces when the canaries run.
+     */
+    public static ServiceTopology homeAutomation() {
+        return new ServiceTopology(List.of(
+                new Flow("light event", 400, List.of(
+                        jms(HOME, LIGHT, "light"),
+                        http(LIGHT, HOME, "PUT /home/device/record/event/{deviceType}/{deviceName}"))),
+                new Flow("thermostat event", 150, List.of(jms(HOME, THERMOSTAT, "temp"))),
+                new Flow("appliance event", 100, List.of(jms(HOME, APPLIANCE, "appliance"))),
+                new Flow("camera event", 50, List.of(jms(HOME, null, "camera"))),
+                new Flow("doorbell ring", 40, List.of(
+                        http(CANARY, DOORBELL, "POST /doorbell/{id}/ring"),
+                        http(DOORBELL, HOME, "PUT /home/workflow/trigger/byName/{name}"))),
+                new Flow("workflow trigger", 40, List.of(http(CANARY, HOME, "PUT /home/workflow/trigger/byId/{id}"))),
+                new Flow("workflow create", 10, List.of(http(CANARY, HOME, "POST /home/workflow"))),
+                new Flow("list devices", 60, List.of(http(CANARY, HOME, "GET /home/device"))),
+                new Flow("list doorbells", 20, List.of(http(CANARY, DOORBELL, "GET /doorbell"))),
+                new Flow("register light", 30, List.of(
+                        http(CANARY, LIGHT, "POST /light/register"),
+                        http(CANARY, HOME, "POST /home/device/register"))),
+                new Flow("register thermostat", 20, List.of(
+                        http(CANARY, THERMOSTAT, "POST /thermostat/register"),
+                        http(CANARY, HOME, "POST /home/device/register"))),
+                new Flow("register doorbell", 10, List.of(
+                        http(CANARY, DOORBELL, "POST /doorbell/register"),
+                        http(CANARY, HOME, "POST /home/device/register"))),
+                new Flow("register appliance", 10, List.of(
+                        http(CANARY, APPLIANCE, "POST /appliance/register"),
+                        http(CANARY, HOME, "POST /home/device/register"))),
+                new Flow("remove light", 10, List.of(
+                        http(CANARY, LIGHT, "DELETE /light/{id}"),
+                        http(CANARY, HOME, "DELETE /home/device/{id}")))
+        ));
+    }
+
+    private static Hop http(String source, String target, String identifier) {
+        return new Hop(source, target, HTTP, identifier);
+    }
+
+    private static Hop jms(String source, String target, String identifier) {
+        return new Hop(source, target, JMS, identifier);
+    }
+
+    /**
+     * Every distinct endpoint in the topology, in a stable order.
+     */
+    public List<Endpoint> endpoints() {
+        var endpoints = new LinkedHashMap<Endpoint, Boolean>();
+        flows.forEach(flow -> flow.getHops().forEach(hop -> hop.endpoints().forEach(endpoint -> endpoints.put(endpoint, true))));
+        return new ArrayList<>(endpoints.keySet());
+    }
+
+    /**
+     * The identifiers each service would have registered with Elucidation, numbered in a stable order.
+     */
+    public List<TrackedConnectionIdentifier> trackedIdentifiers() {
+        var identifiers = new ArrayList<TrackedConnectionIdentifier>();
+        endpoints().stream()
+                .map(endpoint -> List.of(endpoint.getServiceName(), endpoint.getCommunicationType(), endpoint.getConnectionIdentifier()))
+                .distinct()
+                .forEach(key -> identifiers.add(TrackedConnectionIdentifier.builder()
+                        .id((long) identifiers.size() + 1)
+                        .serviceName(key.get(0))
+                        .communicationType(key.get(1))
+                        .connectionIdentifier(key.get(2))
+                        .build()));
+        return identifiers;
+    }
+}
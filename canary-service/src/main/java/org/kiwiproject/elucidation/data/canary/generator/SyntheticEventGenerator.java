@@ -0,0 +1,206 @@
+package org.kiwiproject.elucidation.data.canary.generator;
+
+import org.kiwiproject.elucidation.common.model.ConnectionEvent;
+import org.kiwiproject.elucidation.data.canary.config.GeneratorConfig;
+import org.kiwiproject.elucidation.data.canary.export.ElucidationExporter;
+import org.kiwiproject.elucidation.data.common.run.RunSeed;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Produces {@link ConnectionEvent}s for a {@link ServiceTopology} without any of the services running.
+ * <p>
+ * The event stream is cut into fixed size chunks which are generated in parallel. Each chunk has its own random
+ * source derived from the seed and the chunk index, and chunks are handed to the exporter in index order, so the
+ * output only depends on the configuration and not on the number of threads or how they get scheduled.
+ * <p>
+ * Exactly {@code eventCount} events are generated, the last flow of a chunk being cut short where it would overrun.
+ * Timestamps never go backwards: each flow starts at the time its first event's position in the stream gives it, or
+ * after the previous event if a hop's latency took it past that.
+ */
+@Slf4j
+public class SyntheticEventGenerator {
+
+    @Value
+    public static class Result {
+        long eventCount;
+        long elapsedMillis;
+
+        public long eventsPerSecond() {
+            return elapsedMillis == 0 ? eventCount : (eventCount * 1_000) / elapsedMillis;
+        }
+    }
+
+    private final ServiceTopology topology;
+    private final GeneratorConfig config;
+    private final RunSeed seed;
+    private final List<ServiceTopology.Endpoint> endpoints;
+    private final int[][][] flowEndpoints;
+    private final int[] cumulativeWeights;
+
+    public SyntheticEventGenerator(ServiceTopology topology, GeneratorConfig config) {
+        this.topology = topology;
+        this.config = config;
+        this.seed = RunSeed.of(config.getSeed());
+        this.endpoints = topology.endpoints();
+
+        var endpointIndexes = new HashMap<ServiceTopology.Endpoint, Integer>();
+        for (int i = 0; i < endpoints.size(); i++) {
+            endpointIndexes.put(endpoints.get(i), i);
+        }
+
+        var flows = topology.getFlows();
+        this.flowEndpoints = new int[flows.size()][][];
+        this.cumulativeWeights = new int[flows.size()];
+
+        var totalWeight = 0;
+        for (int f = 0; f < flows.size(); f++) {
+            var hops = flows.get(f).getHops();
+            flowEndpoints[f] = new int[hops.size()][];
+
+            for (int h = 0; h < hops.size(); h++) {
+                flowEndpoints[f][h] = hops.get(h).endpoints().stream().mapToInt(endpointIndexes::get).toArray();
+            }
+
+            totalWeight += flows.get(f).getWeight();
+            cumulativeWeights[f] = totalWeight;
+        }
+    }
+
+    public Result generate(ElucidationExporter exporter) throws IOException, InterruptedException {
+        var start = System.nanoTime();
+        var chunkCount = (config.getEventCount() + config.getChunkSize() - 1) / config.getChunkSize();
+        var maxInFlight = config.getThreads() * 2;
+
+        LOG.info("Generating {} events in {} chunks using {} threads (seed {})",
+                config.getEventCount(), chunkCount, config.getThreads(), config.getSeed());
+
+        exporter.exportTrackedIdentifiers(topology.trackedIdentifiers());
+
+        var executor = Executors.newFixedThreadPool(config.getThreads());
+        var nextId = 1L;
+        var lastObservedAt = Long.MIN_VALUE;
+
+        try {
+            var pending = new ArrayDeque<Future<EventChunk>>(maxInFlight);
+            var nextChunk = 0L;
+
+            while (nextChunk < chunkCount || !pending.isEmpty()) {
+                while (nextChunk < chunkCount && pending.size() < maxInFlight) {
+                    var chunkIndex = nextChunk++;
+                    pending.add(executor.submit(() -> generateChunk(chunkIndex)));
+                }
+
+                var chunk = pending.remove().get();
+                exporter.exportEvents(chunk.toConnectionEvents(nextId, lastObservedAt));
+                nextId += chunk.size;
+                lastObservedAt = Math.max(lastObservedAt, chunk.lastObservedAt());
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Unable to generate events", e.getCause());
+        } finally {
+            executor.shutdownNow();
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        }
+
+        var result = new Result(nextId - 1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        LOG.info("Generated {} events in {} ms ({} events/sec)", result.getEventCount(), result.getElapsedMillis(), result.eventsPerSecond());
+        return result;
+    }
+
+    EventChunk generateChunk(long chunkIndex) {
+        var firstEvent = chunkIndex * config.getChunkSize();
+        var targetSize = (int) Math.min(config.getChunkSize(), config.getEventCount() - firstEvent);
+
+        var random = seed.randomFor(chunkIndex);
+        var chunk = new EventChunk(targetSize);
+        var startMillis = config.getStartTime().toEpochMilli();
+        var observedAt = Long.MIN_VALUE;
+
+        while (chunk.size < targetSize) {
+            var event = firstEvent + chunk.size;
+            observedAt = Math.max(observedAt, startMillis + (event * config.getMeanIntervalMicros()) / 1_000);
+
+            for (var hop : flowEndpoints[pickFlow(random)]) {
+                for (int i = 0; i < hop.length && chunk.size < targetSize; i++) {
+                    if (i > 0) {
+                        observedAt += 1 + random.nextInt(config.getMaxHopLatencyMillis());
+                    }
+                    chunk.add(hop[i], observedAt);
+                }
+            }
+        }
+
+        return chunk;
+    }
+
+    private int pickFlow(SplittableRandom random) {
+        var roll = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+
+        var flow = 0;
+        while (roll >= cumulativeWeights[flow]) {
+            flow++;
+        }
+        return flow;
+    }
+
+    /**
+     * Events are kept as primitive columns while they are generated and only turned into objects once their ids
+     * are known.
+     */
+    class EventChunk {
+        private final int[] endpoint;
+        private final long[] observedAt;
+        private int size;
+
+        EventChunk(int capacity) {
+            this.endpoint = new int[capacity];
+            this.observedAt = new long[capacity];
+        }
+
+        void add(int endpointIndex, long at) {
+            endpoint[size] = endpointIndex;
+            observedAt[size] = at;
+            size++;
+        }
+
+        int size() {
+            return size;
+        }
+
+        long lastObservedAt() {
+            return size == 0 ? Long.MIN_VALUE : observedAt[size - 1];
+        }
+
+        /**
+         * A chunk's first flows can be earlier than where the previous chunk's last flow ended, so they are moved up
+         * to {@code notBefore}.
+         */
+        List<ConnectionEvent> toConnectionEvents(long firstId, long notBefore) {
+            var events = new ArrayList<ConnectionEvent>(size);
+            for (int i = 0; i < size; i++) {
+                var e = endpoints.get(endpoint[i]);
+                events.add(ConnectionEvent.builder()
+                        .id(firstId + i)
+                        .serviceName(e.getServiceName())
+                        .eventDirection(e.getDirection())
+                        .communicationType(e.getCommunicationType())
+                        .connectionIdentifier(e.getConnectionIdentifier())
+                        .observedAt(Math.max(observedAt[i], notBefore))
+                        .build());
+            }
+            return events;
+        }
+    }
+}
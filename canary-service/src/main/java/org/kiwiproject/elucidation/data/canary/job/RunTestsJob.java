@@ -1,47 +1,74 @@
 package org.kiwiproject.elucidation.data.canary.job;
 
-import static java.lang.String.format;
+import static java.util.Objects.isNull;
 
 import org.kiwiproject.elucidation.common.model.ConnectionEvent;
 import org.kiwiproject.elucidation.common.model.TrackedConnectionIdentifier;
+import org.kiwiproject.elucidation.data.canary.config.ScenarioConfig;
+import org.kiwiproject.elucidation.data.canary.export.CsvExporter;
+import org.kiwiproject.elucidation.data.canary.export.ElucidationExporter;
+import org.kiwiproject.elucidation.data.canary.scenario.ScenarioEngine;
+import org.kiwiproject.elucidation.data.canary.scenario.ScenarioRegistry;
+import org.kiwiproject.elucidation.data.common.run.RunContext;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.csv.CSVFormat;
-import org.apache.commons.csv.CSVPrinter;
 
 import javax.ws.rs.client.Client;
 import javax.ws.rs.core.GenericType;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
-import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
 import java.util.List;
+import java.util.stream.Collectors;
 
 @Slf4j
 public class RunTestsJob implements Runnable {
 
-    private static final String[] EVENT_CSV_HEADERS = { "id", "serviceName", "eventDirection", "communicationType", "connectionIdentifier", "observedAt" };
-    private static final String[] TRACK_CSV_HEADERS = { "id", "serviceName", "communicationType", "connectionIdentifier" };
     private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd-HH-mm-ss");
 
+    private static final Comparator<ConnectionEvent> EVENT_ORDER = Comparator
+            .comparing(ConnectionEvent::getObservedAt)
+            .thenComparing(ConnectionEvent::getServiceName)
+            .thenComparing(ConnectionEvent::getEventDirection)
+            .thenComparing(ConnectionEvent::getCommunicationType)
+            .thenComparing(ConnectionEvent::getConnectionIdentifier);
+
+    private static final Comparator<TrackedConnectionIdentifier> IDENTIFIER_ORDER = Comparator
+            .comparing(TrackedConnectionIdentifier::getServiceName)
+            .thenComparing(TrackedConnectionIdentifier::getCommunicationType)
+            .thenComparing(TrackedConnectionIdentifier::getConnectionIdentifier);
+
     private final Client httpClient;
+    private final RunContext run;
+    private final ScenarioConfig scenarioConfig;
+    private final ScenarioRegistry scenarios;
+    private final String elucidationUrl;
 
-    public RunTestsJob(Client httpClient) {
+    public RunTestsJob(Client httpClient, RunContext run, ScenarioConfig scenarioConfig, String elucidationUrl) {
         this.httpClient = httpClient;
+        this.run = run;
+        this.scenarioConfig = scenarioConfig;
+        this.scenarios = new ScenarioRegistry(isNull(scenarioConfig.getDirectory()) ? null : Path.of(scenarioConfig.getDirectory()),
+                scenarioConfig.getVariables());
+        this.elucidationUrl = elucidationUrl;
     }
 
     public void run() {
         LOG.info("Running data generation tests!");
-        var now = LocalDateTime.now();
+        var now = LocalDateTime.now(run.getClock());
 
         try {
-            new CrudDeviceCanary(httpClient).runCanaryTest();
-
-            // NOTE: These tests uses devices that were set up in the test above, so if
-            // that changes, then this test might need an adjustment.
-            new GoodMorningWorkflowCanary(httpClient).runCanaryTest();
-            new DoorbellWorkflowCanary(httpClient).runCanaryTest();
-
+            var engine = new ScenarioEngine(httpClient, run);
+
+            // The mix runs in order, so scenarios can use devices that earlier ones set up
+            for (var entry : scenarioConfig.getMix()) {
+                engine.run(scenarios.get(entry.getScenario()), entry.getInstances(), entry.getConcurrency());
+            }
+        } catch (InterruptedException e) {
+            LOG.warn("Test job interrupted");
+            Thread.currentThread().interrupt();
+            return;
         } catch (Exception e) {
             LOG.error("Test job threw an error", e);
         }
@@ -50,8 +77,10 @@ public class RunTestsJob implements Runnable {
             // Need to let all the async stuff go through
             Thread.sleep(5000);
 
-            writeOutElucidationEvents(now);
-            writeOutTrackedIdentifiers(now);
+            try (var exporter = new CsvExporter(Path.of("/service/data"), DATE_TIME_FORMATTER.format(now))) {
+                writeOutElucidationEvents(now, exporter);
+                writeOutTrackedIdentifiers(exporter);
+            }
 
             LOG.info("*********************************************");
             LOG.info("*   ELUCIDATION DATA HAS BEEN GENERATED!!   *");
@@ -63,87 +92,62 @@ public class RunTestsJob implements Runnable {
         }
     }
 
-    private void writeOutElucidationEvents(LocalDateTime timeToPullFrom) {
-        var dateStr = DATE_TIME_FORMATTER.format(timeToPullFrom);
-        var fileName = format("elucidation-events-%s.csv", dateStr);
-
-        LOG.info("Writing out events to ./export_data/{}", fileName);
-
-        var response = httpClient.target("http://elucidation:8080/elucidate/events")
-                .queryParam("since", timeToPullFrom.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli())
+    private void writeOutElucidationEvents(LocalDateTime timeToPullFrom, ElucidationExporter exporter) throws IOException {
+        var response = httpClient.target(elucidationUrl)
+                .path("elucidate/events")
+                .queryParam("since", timeToPullFrom.atZone(run.getClock().getZone()).toInstant().toEpochMilli())
                 .request()
                 .get();
 
         if (response.getStatus() == 200) {
             var events = response.readEntity(new GenericType<List<ConnectionEvent>>(){});
-            createEventCsv(events, fileName);
+            exporter.exportEvents(run.isDeterministic() ? eventsInStableOrder(events) : events);
         } else {
             LOG.warn("Unable to retrieve elucidation events. Status: {} Body: {}", response.getStatus(), response.readEntity(String.class));
         }
     }
 
-    private void writeOutTrackedIdentifiers(LocalDateTime timeToPullFrom) {
-        var dateStr = DATE_TIME_FORMATTER.format(timeToPullFrom);
-        var fileName = format("elucidation-tracked-identifiers-%s.csv", dateStr);
-
-        LOG.info("Writing out trackedIdentifiers to ./export_data/{}", fileName);
-
-        var response = httpClient.target("http://elucidation:8080/elucidate/trackedIdentifiers")
+    private void writeOutTrackedIdentifiers(ElucidationExporter exporter) throws IOException {
+        var response = httpClient.target(elucidationUrl)
+                .path("elucidate/trackedIdentifiers")
                 .request()
                 .get();
 
         if (response.getStatus() == 200) {
             var trackedConnectionIdentifiers = response.readEntity(new GenericType<List<TrackedConnectionIdentifier>>(){});
-            createTrackedCsv(trackedConnectionIdentifiers, fileName);
+            exporter.exportTrackedIdentifiers(run.isDeterministic() ? identifiersInStableOrder(trackedConnectionIdentifiers) : trackedConnectionIdentifiers);
         } else {
             LOG.warn("Unable to retrieve elucidation events. Status: {} Body: {}", response.getStatus(), response.readEntity(String.class));
         }
     }
 
-    private void createEventCsv(List<ConnectionEvent> events, String fileName) {
-        try (var out = new FileWriter("/service/data/" + fileName);
-             var printer = new CSVPrinter(out, CSVFormat.DEFAULT.withHeader(EVENT_CSV_HEADERS))) {
-            events.forEach(event -> printEvent(printer, event));
-        } catch (IOException e) {
-            LOG.warn("Unable to write events due to exception", e);
+    // Elucidation assigns ids in the order events arrive from the different services, which is not repeatable.
+    // When the run is deterministic, order by content instead and number the rows from there.
+    private static List<ConnectionEvent> eventsInStableOrder(List<ConnectionEvent> events) {
+        var sorted = events.stream().sorted(EVENT_ORDER).collect(Collectors.toList());
+        for (int i = 0; i < sorted.size(); i++) {
+            sorted.set(i, ConnectionEvent.builder()
+                    .id(i + 1L)
+                    .serviceName(sorted.get(i).getServiceName())
+                    .eventDirection(sorted.get(i).getEventDirection())
+                    .communicationType(sorted.get(i).getCommunicationType())
+                    .connectionIdentifier(sorted.get(i).getConnectionIdentifier())
+                    .observedAt(sorted.get(i).getObservedAt())
+                    .build());
         }
+        return sorted;
     }
 
-    private void printEvent(CSVPrinter printer, ConnectionEvent event) {
-        try {
-            printer.printRecord(
-                    event.getId(),
-                    event.getServiceName(),
-                    event.getEventDirection(),
-                    event.getCommunicationType(),
-                    event.getConnectionIdentifier(),
-                    event.getObservedAt());
-        } catch (IOException e) {
-            LOG.warn("Unable to write record due to exception", e);
+    private static List<TrackedConnectionIdentifier> identifiersInStableOrder(List<TrackedConnectionIdentifier> identifiers) {
+        var sorted = identifiers.stream().sorted(IDENTIFIER_ORDER).collect(Collectors.toList());
+        for (int i = 0; i < sorted.size(); i++) {
+            sorted.set(i, TrackedConnectionIdentifier.builder()
+                    .id(i + 1L)
+                    .serviceName(sorted.get(i).getServiceName())
+                    .communicationType(sorted.get(i).getCommunicationType())
+                    .connectionIdentifier(sorted.get(i).getConnectionIdentifier())
+                    .build());
         }
-
+        return sorted;
     }
-
-    private void createTrackedCsv(List<TrackedConnectionIdentifier> identifiers, String fileName) {
-        try (var out = new FileWriter("/service/data/" + fileName);
-             var printer = new CSVPrinter(out, CSVFormat.DEFAULT.withHeader(TRACK_CSV_HEADERS))) {
-            identifiers.forEach(identifier -> printIdentifier(printer, identifier));
-        } catch (IOException e) {
-            LOG.warn("Unable to write identifiers due to exception", e);
-        }
-    }
-
-    private void printIdentifier(CSVPrinter printer, TrackedConnectionIdentifier identifier) {
-        try {
-            printer.printRecord(
-                    identifier.getId(),
-                    identifier.getServiceName(),
-                    identifier.getCommunicationType(),
-                    identifier.getConnectionIdentifier());
-        } catch (IOException e) {
-            LOG.warn("Unable to write record due to exception", e);
-        }
-
-    }
-
 }
@@ -0,0 +1,28 @@
+package org.kiwiproject.elucidation.data.canary.scenario;
+
+import java.util.List;
+
+/**
+ * Runs one of several branches, picked by weight.
+ */
+class ChooseStep implements Step {
+
+    private final int[] cumulativeWeights;
+    private final List<List<Step>> branches;
+
+    ChooseStep(int[] cumulativeWeights, List<List<Step>> branches) {
+        this.cumulativeWeights = cumulativeWeights;
+        this.branches = branches;
+    }
+
+    @Override
+    public boolean execute(Session session) throws InterruptedException {
+        var roll = session.getRandom().nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+
+        var branch = 0;
+        while (roll >= cumulativeWeights[branch]) {
+            branch++;
+        }
+        return Step.executeAll(branches.get(branch), session);
+    }
+}
@@ -0,0 +1,34 @@
+package org.kiwiproject.elucidation.data.canary.scenario;
+
+import org.kiwiproject.elucidation.data.canary.scenario.ScenarioDefinition.FeederDefinition.Strategy;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Copies the next record of a feeder into the session variables. The feeder is shared by all instances, so a
+ * circular feeder hands out its records in turn across the whole run.
+ */
+class FeedStep implements Step {
+
+    private final List<Map<String, Object>> records;
+    private final Strategy strategy;
+    private final AtomicLong next;
+
+    FeedStep(List<Map<String, Object>> records, Strategy strategy, AtomicLong next) {
+        this.records = records;
+        this.strategy = strategy;
+        this.next = next;
+    }
+
+    @Override
+    public boolean execute(Session session) {
+        var index = strategy == Strategy.RANDOM
+                ? session.getRandom().nextInt(records.size())
+                : (int) (next.getAndIncrement() % records.size());
+
+        session.getVariables().putAll(records.get(index));
+        return true;
+    }
+}
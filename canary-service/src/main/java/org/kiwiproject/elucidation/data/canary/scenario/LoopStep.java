@@ -0,0 +1,32 @@
+package org.kiwiproject.elucidation.data.canary.scenario;
+
+import static java.util.Objects.nonNull;
+
+import java.util.List;
+
+class LoopStep implements Step {
+
+    private final int times;
+    private final String counter;
+    private final List<Step> steps;
+
+    LoopStep(int times, String counter, List<Step> steps) {
+        this.times = times;
+        this.counter = counter;
+        this.steps = steps;
+    }
+
+    @Override
+    public boolean execute(Session session) throws InterruptedException {
+        for (int i = 1; i <= times; i++) {
+            if (nonNull(counter)) {
+                session.getVariables().put(counter, i);
+            }
+
+            if (!Step.executeAll(steps, session)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,106 @@
+package org.kiwiproject.elucidation.data.canary.scenario;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.kiwiproject.elucidation.client.helper.jersey.InboundHttpRequestTrackingFilter;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.ws.rs.ProcessingException;
+import javax.ws.rs.client.Entity;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+
+@Slf4j
+class RequestStep implements Step {
+
+    private static final String SERVICE_NAME = "canary-service";
+    private static final Set<String> METHODS_WITH_BODY = Set.of("POST", "PUT", "PATCH");
+
+    private final String name;
+    private final String method;
+    private final Template url;
+    private final Map<String, Template> headers;
+    private final Object body;
+    private final Integer expect;
+    private final Map<String, String> extract;
+
+    RequestStep(String name, String method, Template url, Map<String, Template> headers, Object body, Integer expect,
+                Map<String, String> extract) {
+        this.name = name;
+        this.method = method;
+        this.url = url;
+        this.headers = headers;
+        this.body = body;
+        this.expect = expect;
+        this.extract = extract;
+    }
+
+    @Override
+    public boolean execute(Session session) {
+        var variables = session.getVariables();
+
+        var request = session.getHttpClient().target(url.renderString(variables))
+                .request()
+                .header(InboundHttpRequestTrackingFilter.ELUCIDATION_ORIGINATING_SERVICE_HEADER, SERVICE_NAME);
+        headers.forEach((header, value) -> request.header(header, value.renderString(variables)));
+
+        int status;
+        String responseBody;
+        try (var response = METHODS_WITH_BODY.contains(method)
+                ? request.method(method, Entity.json(isNull(body) ? "" : Template.renderBody(body, variables)))
+                : request.method(method)) {
+
+            status = response.getStatus();
+            responseBody = response.hasEntity() ? response.readEntity(String.class) : "";
+        } catch (ProcessingException e) {
+            LOG.warn("[{} #{}] {} failed: {}", session.getScenario(), session.getInstance(), name, e.getMessage());
+            session.recordRequest(true);
+            return false;
+        }
+
+        if (nonNull(expect) && status != expect) {
+            LOG.warn("[{} #{}] {} failed. Status: {} Body: {}", session.getScenario(), session.getInstance(), name, status, responseBody);
+            session.recordRequest(true);
+            return false;
+        }
+
+        session.recordRequest(false);
+        LOG.debug("[{} #{}] {} returned {}", session.getScenario(), session.getInstance(), name, status);
+
+        return extract.isEmpty() || extractVariables(session, responseBody);
+    }
+
+    private boolean extractVariables(Session session, String responseBody) {
+        JsonNode root;
+        try {
+            root = session.getJson().readTree(responseBody);
+        } catch (IOException e) {
+            LOG.warn("[{} #{}] {} did not return json: {}", session.getScenario(), session.getInstance(), name, responseBody);
+            return false;
+        }
+
+        for (var entry : extract.entrySet()) {
+            var node = root.at(entry.getValue());
+            if (node.isMissingNode() || node.isNull()) {
+                LOG.warn("[{} #{}] {} has nothing at {}: {}", session.getScenario(), session.getInstance(), name, entry.getValue(), responseBody);
+                return false;
+            }
+            session.getVariables().put(entry.getKey(), valueOf(node));
+        }
+        return true;
+    }
+
+    private static Object valueOf(JsonNode node) {
+        if (node.isNumber()) {
+            return node.numberValue();
+        } else if (node.isTextual()) {
+            return node.textValue();
+        } else if (node.isBoolean()) {
+            return node.booleanValue();
+        }
+        return node.toString();
+    }
+}
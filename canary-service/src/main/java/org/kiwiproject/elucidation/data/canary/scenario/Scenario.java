@@ -0,0 +1,29 @@
+package org.kiwiproject.elucidation.data.canary.scenario;
+
+import lombok.Getter;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A compiled {@link ScenarioDefinition}, ready to be run by the {@link ScenarioEngine} any number of times.
+ */
+@Getter
+public class Scenario {
+
+    private final String name;
+    private final String description;
+    private final Map<String, Object> variables;
+    private final List<Step> steps;
+
+    Scenario(String name, String description, Map<String, Object> variables, List<Step> steps) {
+        this.name = name;
+        this.description = description;
+        this.variables = Map.copyOf(variables);
+        this.steps = List.copyOf(steps);
+    }
+
+    boolean run(Session session) throws InterruptedException {
+        return Step.executeAll(steps, session);
+    }
+}
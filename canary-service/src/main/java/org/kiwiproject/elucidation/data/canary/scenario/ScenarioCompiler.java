@@ -0,0 +1,179 @@
+package org.kiwiproject.elucidation.data.canary.scenario;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import org.kiwiproject.elucidation.data.canary.scenario.ScenarioDefinition.ChoiceDefinition;
+import org.kiwiproject.elucidation.data.canary.scenario.ScenarioDefinition.FeederDefinition;
+import org.kiwiproject.elucidation.data.canary.scenario.ScenarioDefinition.RequestDefinition;
+import org.kiwiproject.elucidation.data.canary.scenario.ScenarioDefinition.StepDefinition;
+import org.kiwiproject.elucidation.data.canary.scenario.ScenarioDefinition.ThinkDefinition;
+import com.google.common.io.Resources;
+import org.apache.commons.csv.CSVFormat;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Turns a {@link ScenarioDefinition} into a {@link Scenario}. All parsing (templates, bodies, feeder files,
+ * weights) happens here, so running an instance does no more than render variables and send requests.
+ */
+public class ScenarioCompiler {
+
+    private final Path directory;
+
+    /**
+     * @param directory where to look for resources that are not on the classpath, may be {@code null}
+     */
+    public ScenarioCompiler(Path directory) {
+        this.directory = directory;
+    }
+
+    public Scenario compile(ScenarioDefinition definition) {
+        var name = definition.getName();
+        if (isNull(name) || name.isBlank()) {
+            throw new IllegalArgumentException("Scenario is missing a name");
+        }
+
+        try {
+            definition.getVariables().forEach((variable, value) -> {
+                if (isNull(value)) {
+                    throw new IllegalArgumentException("variable '" + variable + "' has no value");
+                }
+            });
+
+            var variables = new HashMap<String, Object>(definition.getVariables());
+            definition.getResources().forEach((variable, resource) -> variables.put(variable, readResource(resource)));
+
+            var feeders = new HashMap<String, FeedStep>();
+            definition.getFeeders().forEach((feeder, feederDefinition) -> feeders.put(feeder, compileFeeder(feederDefinition)));
+
+            return new Scenario(name, definition.getDescription(), variables, compileSteps(definition.getSteps(), feeders));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Scenario '" + name + "' is invalid: " + e.getMessage(), e);
+        }
+    }
+
+    private List<Step> compileSteps(List<StepDefinition> definitions, Map<String, FeedStep> feeders) {
+        return definitions.stream().map(step -> compileStep(step, feeders)).collect(Collectors.toList());
+    }
+
+    private Step compileStep(StepDefinition step, Map<String, FeedStep> feeders) {
+        var kinds = Stream.of(step.getRequest(), step.getLoop(), step.getThink(), step.getChoose(), step.getFeed())
+                .filter(Objects::nonNull)
+                .count();
+        if (kinds != 1) {
+            throw new IllegalArgumentException("a step must be exactly one of request, loop, think, choose or feed");
+        }
+
+        if (nonNull(step.getRequest())) {
+            return compileRequest(step.getRequest());
+        } else if (nonNull(step.getLoop())) {
+            var loop = step.getLoop();
+            if (loop.getTimes() < 1) {
+                throw new IllegalArgumentException("loop times must be at least 1");
+            }
+            return new LoopStep(loop.getTimes(), loop.getCounter(), compileSteps(loop.getSteps(), feeders));
+        } else if (nonNull(step.getThink())) {
+            return compileThink(step.getThink());
+        } else if (nonNull(step.getChoose())) {
+            return compileChoose(step.getChoose(), feeders);
+        }
+
+        var feeder = feeders.get(step.getFeed());
+        if (isNull(feeder)) {
+            throw new IllegalArgumentException("unknown feeder '" + step.getFeed() + "'");
+        }
+        return feeder;
+    }
+
+    private static Step compileRequest(RequestDefinition request) {
+        if (isNull(request.getUrl())) {
+            throw new IllegalArgumentException("request is missing a url");
+        }
+
+        var method = request.getMethod().toUpperCase(Locale.ROOT);
+        var name = isNull(request.getName()) ? method + " " + request.getUrl() : request.getName();
+
+        var headers = new LinkedHashMap<String, Template>();
+        request.getHeaders().forEach((header, value) -> headers.put(header, Template.parse(value)));
+
+        var body = isNull(request.getBody()) ? null : Template.compileBody(request.getBody());
+
+        return new RequestStep(name, method, Template.parse(request.getUrl()), headers, body, request.getExpect(),
+                Map.copyOf(request.getExtract()));
+    }
+
+    private static Step compileThink(ThinkDefinition think) {
+        var min = think.getMin().toMilliseconds();
+        var max = isNull(think.getMax()) ? min : think.getMax().toMilliseconds();
+        if (max < min) {
+            throw new IllegalArgumentException("think max must not be less than min");
+        }
+        return new ThinkStep(min, max);
+    }
+
+    private Step compileChoose(List<ChoiceDefinition> choices, Map<String, FeedStep> feeders) {
+        if (choices.isEmpty()) {
+            throw new IllegalArgumentException("choose needs at least one branch");
+        }
+
+        var cumulativeWeights = new int[choices.size()];
+        var branches = new ArrayList<List<Step>>();
+        var total = 0;
+        for (int i = 0; i < choices.size(); i++) {
+            if (choices.get(i).getWeight() < 1) {
+                throw new IllegalArgumentException("choice weights must be at least 1");
+            }
+            total += choices.get(i).getWeight();
+            cumulativeWeights[i] = total;
+            branches.add(compileSteps(choices.get(i).getSteps(), feeders));
+        }
+        return new ChooseStep(cumulativeWeights, branches);
+    }
+
+    private FeedStep compileFeeder(FeederDefinition feeder) {
+        var records = nonNull(feeder.getFile()) ? readCsv(feeder.getFile()) : feeder.getRecords();
+        if (isNull(records) || records.isEmpty()) {
+            throw new IllegalArgumentException("feeders need records or a file with at least one row");
+        }
+        return new FeedStep(List.copyOf(records), feeder.getStrategy(), new AtomicLong());
+    }
+
+    private List<Map<String, Object>> readCsv(String resource) {
+        var format = CSVFormat.DEFAULT.builder().setHeader().setSkipHeaderRecord(true).build();
+        try (var parser = format.parse(new StringReader(readResource(resource)))) {
+            return parser.getRecords().stream()
+                    .map(row -> Map.<String, Object>copyOf(row.toMap()))
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @SuppressWarnings("UnstableApiUsage")
+    private String readResource(String resource) {
+        try {
+            if (nonNull(directory) && Files.isRegularFile(directory.resolve(resource))) {
+                return Files.readString(directory.resolve(resource));
+            }
+            return Resources.toString(Resources.getResource(resource), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read " + resource, e);
+        }
+    }
+}
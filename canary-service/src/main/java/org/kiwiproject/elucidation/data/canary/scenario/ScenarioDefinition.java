@@ -0,0 +1,106 @@
+package org.kiwiproject.elucidation.data.canary.scenario;
+
+import io.dropwizard.util.Duration;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A scenario as it is written in a {@code scenarios/*.yml} file. Every step sets exactly one of {@code request},
+ * {@code loop}, {@code think}, {@code choose} or {@code feed}. Strings in urls, headers and bodies may reference
+ * variables as {@code ${name}}; variables come from {@code variables}, {@code resources}, feeders and values
+ * extracted from earlier responses.
+ */
+@Getter
+@Setter
+public class ScenarioDefinition {
+
+    private String name;
+    private String description;
+
+    /**
+     * Variables that start with the contents of a classpath resource, e.g. a workflow json file.
+     */
+    private Map<String, String> resources = Map.of();
+
+    private Map<String, Object> variables = Map.of();
+    private Map<String, FeederDefinition> feeders = Map.of();
+    private List<StepDefinition> steps = List.of();
+
+    @Getter
+    @Setter
+    public static class StepDefinition {
+        private RequestDefinition request;
+        private LoopDefinition loop;
+        private ThinkDefinition think;
+        private List<ChoiceDefinition> choose;
+        private String feed;
+    }
+
+    @Getter
+    @Setter
+    public static class RequestDefinition {
+        private String name;
+        private String method = "GET";
+        private String url;
+        private Map<String, String> headers = Map.of();
+        private Object body;
+
+        /**
+         * The status the request has to answer with for the scenario to continue.
+         */
+        private Integer expect;
+
+        /**
+         * Variable name to a JSON pointer into the response body, e.g. {@code lightId: /id}.
+         */
+        private Map<String, String> extract = Map.of();
+    }
+
+    @Getter
+    @Setter
+    public static class LoopDefinition {
+        private int times = 1;
+
+        /**
+         * Optional variable that holds the current iteration, starting at 1.
+         */
+        private String counter;
+
+        private List<StepDefinition> steps = List.of();
+    }
+
+    @Getter
+    @Setter
+    public static class ThinkDefinition {
+        private Duration min = Duration.milliseconds(0);
+        private Duration max;
+    }
+
+    @Getter
+    @Setter
+    public static class ChoiceDefinition {
+        private int weight = 1;
+        private List<StepDefinition> steps = List.of();
+    }
+
+    @Getter
+    @Setter
+    public static class FeederDefinition {
+
+        public enum Strategy {
+            CIRCULAR, RANDOM
+        }
+
+        private List<Map<String, Object>> records;
+
+        /**
+         * A csv resource with a header row, used instead of inline {@code records}.
+         */
+        private String file;
+
+        private Strategy strategy = Strategy.CIRCULAR;
+    }
+}
@@ -0,0 +1,100 @@
+package org.kiwiproject.elucidation.data.canary.scenario;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.kiwiproject.elucidation.data.common.run.RunContext;
+import io.dropwizard.jackson.Jackson;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.ws.rs.client.Client;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs many instances of a compiled {@link Scenario} at the same time. Each instance gets its own variables and
+ * a random stream derived from the run seed, the scenario name and the instance number.
+ */
+@Slf4j
+public class ScenarioEngine {
+
+    @Value
+    public static class Result {
+        String scenario;
+        int instances;
+        int failedInstances;
+        long requests;
+        long failedRequests;
+        long elapsedMillis;
+    }
+
+    private final Client httpClient;
+    private final RunContext run;
+    private final ThreadFactory threads;
+    private final ObjectMapper json = Jackson.newObjectMapper();
+
+    public ScenarioEngine(Client httpClient, RunContext run) {
+        this(httpClient, run, Executors.defaultThreadFactory());
+    }
+
+    /**
+     * @param threads makes the threads instances run on, up to the concurrency of each run
+     */
+    public ScenarioEngine(Client httpClient, RunContext run, ThreadFactory threads) {
+        this.httpClient = httpClient;
+        this.run = run;
+        this.threads = threads;
+    }
+
+    public Result run(Scenario scenario, int instances, int concurrency) throws InterruptedException {
+        LOG.info("Running {} instance(s) of scenario '{}' with concurrency {}", instances, scenario.getName(), concurrency);
+
+        var start = System.nanoTime();
+        var seed = run.getSeed().derive(scenario.getName());
+        var failedInstances = new AtomicInteger();
+        var requests = new LongAdder();
+        var failedRequests = new LongAdder();
+
+        var executor = Executors.newFixedThreadPool(Math.min(instances, concurrency), threads);
+        try {
+            for (int i = 0; i < instances; i++) {
+                var session = new Session(scenario.getName(), i, scenario.getVariables(), seed.randomFor(i), httpClient, json, run.forInstance());
+
+                executor.execute(() -> {
+                    if (!runInstance(scenario, session)) {
+                        failedInstances.incrementAndGet();
+                    }
+                    requests.add(session.getRequests());
+                    failedRequests.add(session.getFailedRequests());
+                });
+            }
+        } finally {
+            executor.shutdown();
+            while (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                LOG.info("Still waiting for scenario '{}' to finish", scenario.getName());
+            }
+        }
+
+        var result = new Result(scenario.getName(), instances, failedInstances.get(), requests.sum(), failedRequests.sum(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+
+        LOG.info("Scenario '{}' finished in {} ms: {} of {} instance(s) failed, {} of {} request(s) failed",
+                result.getScenario(), result.getElapsedMillis(), result.getFailedInstances(), result.getInstances(),
+                result.getFailedRequests(), result.getRequests());
+        return result;
+    }
+
+    private static boolean runInstance(Scenario scenario, Session session) {
+        try {
+            return scenario.run(session);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (RuntimeException e) {
+            LOG.warn("[{} #{}] Scenario instance failed", scenario.getName(), session.getInstance(), e);
+            return false;
+        }
+    }
+}
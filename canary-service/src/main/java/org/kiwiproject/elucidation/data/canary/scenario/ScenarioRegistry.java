@@ -0,0 +1,92 @@
+package org.kiwiproject.elucidation.data.canary.scenario;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import io.dropwizard.jackson.Jackson;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Looks scenarios up by name and compiles each one only once. A scenario named {@code doorbell} is read from
+ * {@code doorbell.yml} in the configured directory if it exists there, otherwise from {@code scenarios/doorbell.yml}
+ * on the classpath.
+ */
+@Slf4j
+public class ScenarioRegistry {
+
+    private static final String CLASSPATH_DIRECTORY = "scenarios/";
+
+    private final ObjectMapper yaml = Jackson.newObjectMapper(new YAMLFactory());
+    private final Map<String, Scenario> scenarios = new ConcurrentHashMap<>();
+    private final Path directory;
+    private final Map<String, Object> defaultVariables;
+    private final ScenarioCompiler compiler;
+
+    public ScenarioRegistry(Path directory) {
+        this(directory, Map.of());
+    }
+
+    /**
+     * @param defaultVariables variables every scenario starts with unless it defines them itself, e.g. service urls
+     */
+    public ScenarioRegistry(Path directory, Map<String, Object> defaultVariables) {
+        this.directory = directory;
+        this.defaultVariables = Map.copyOf(defaultVariables);
+        this.compiler = new ScenarioCompiler(directory);
+    }
+
+    public Scenario get(String name) {
+        return scenarios.computeIfAbsent(name, this::load);
+    }
+
+    /**
+     * Adds a scenario that was not read from a file, replacing any scenario with the same name.
+     */
+    public Scenario register(ScenarioDefinition definition) {
+        var scenario = compile(definition);
+        scenarios.put(scenario.getName(), scenario);
+        return scenario;
+    }
+
+    private Scenario load(String name) {
+        var fileName = name + ".yml";
+
+        try {
+            ScenarioDefinition definition;
+            if (nonNull(directory) && Files.isRegularFile(directory.resolve(fileName))) {
+                LOG.info("Loading scenario '{}' from {}", name, directory.resolve(fileName));
+                definition = yaml.readValue(directory.resolve(fileName).toFile(), ScenarioDefinition.class);
+            } else {
+                var resource = ScenarioRegistry.class.getClassLoader().getResource(CLASSPATH_DIRECTORY + fileName);
+                if (isNull(resource)) {
+                    throw new IllegalArgumentException("Unknown scenario '" + name + "'");
+                }
+                definition = yaml.readValue(resource, ScenarioDefinition.class);
+            }
+
+            if (isNull(definition.getName())) {
+                definition.setName(name);
+            }
+            return compile(definition);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read scenario '" + name + "'", e);
+        }
+    }
+
+    private Scenario compile(ScenarioDefinition definition) {
+        var variables = new HashMap<>(defaultVariables);
+        variables.putAll(definition.getVariables());
+        definition.setVariables(variables);
+        return compiler.compile(definition);
+    }
+}
@@ -0,0 +1,46 @@
+package org.kiwiproject.elucidation.data.canary.scenario;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.kiwiproject.elucidation.data.common.run.RunContext;
+import lombok.Getter;
+
+import javax.ws.rs.client.Client;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * The state of one running instance of a scenario.
+ */
+@Getter
+class Session {
+
+    private final String scenario;
+    private final int instance;
+    private final Map<String, Object> variables;
+    private final SplittableRandom random;
+    private final Client httpClient;
+    private final ObjectMapper json;
+    private final RunContext run;
+
+    private long requests;
+    private long failedRequests;
+
+    Session(String scenario, int instance, Map<String, Object> variables, SplittableRandom random,
+            Client httpClient, ObjectMapper json, RunContext run) {
+        this.scenario = scenario;
+        this.instance = instance;
+        this.variables = new HashMap<>(variables);
+        this.random = random;
+        this.httpClient = httpClient;
+        this.json = json;
+        this.run = run;
+    }
+
+    void recordRequest(boolean failed) {
+        requests++;
+        if (failed) {
+            failedRequests++;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package org.kiwiproject.elucidation.data.canary.scenario;
+
+/**
+ * A compiled scenario step. Steps hold no per-instance state, so one compiled scenario serves every instance.
+ */
+interface Step {
+
+    /**
+     * @return false if the instance cannot continue, e.g. because an expected response did not come back
+     */
+    boolean execute(Session session) throws InterruptedException;
+
+    static boolean executeAll(Iterable<Step> steps, Session session) throws InterruptedException {
+        for (var step : steps) {
+            if (!step.execute(session)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
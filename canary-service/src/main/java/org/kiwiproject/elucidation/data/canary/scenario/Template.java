@@ -0,0 +1,110 @@
+package org.kiwiproject.elucidation.data.canary.scenario;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * A string with {@code ${name}} placeholders, split up front so rendering is just a concatenation.
+ */
+final class Template {
+
+    private static final Pattern VARIABLE = Pattern.compile("\\$\\{([^}]+)}");
+
+    private final String text;
+    private final List<String> literals;
+    private final List<String> names;
+
+    private Template(String text, List<String> literals, List<String> names) {
+        this.text = text;
+        this.literals = literals;
+        this.names = names;
+    }
+
+    static Template parse(String text) {
+        var literals = new ArrayList<String>();
+        var names = new ArrayList<String>();
+
+        var matcher = VARIABLE.matcher(text);
+        var last = 0;
+        while (matcher.find()) {
+            literals.add(text.substring(last, matcher.start()));
+            names.add(matcher.group(1).trim());
+            last = matcher.end();
+        }
+        literals.add(text.substring(last));
+
+        return new Template(text, List.copyOf(literals), List.copyOf(names));
+    }
+
+    /**
+     * Renders the template. A template that is nothing but one placeholder keeps the type of the variable, so
+     * e.g. {@code id: ${lightId}} stays a number in a json body.
+     */
+    Object render(Map<String, Object> variables) {
+        if (names.size() == 1 && literals.get(0).isEmpty() && literals.get(1).isEmpty()) {
+            return lookup(variables, names.get(0));
+        }
+        return renderString(variables);
+    }
+
+    String renderString(Map<String, Object> variables) {
+        if (names.isEmpty()) {
+            return text;
+        }
+
+        var rendered = new StringBuilder(literals.get(0));
+        for (int i = 0; i < names.size(); i++) {
+            rendered.append(lookup(variables, names.get(i))).append(literals.get(i + 1));
+        }
+        return rendered.toString();
+    }
+
+    private static Object lookup(Map<String, Object> variables, String name) {
+        var value = variables.get(name);
+        if (value == null) {
+            throw new IllegalStateException("Variable '" + name + "' is not set");
+        }
+        return value;
+    }
+
+    @Override
+    public String toString() {
+        return text;
+    }
+
+    /**
+     * Replaces every string in a body made of maps, lists and scalars with a template.
+     */
+    static Object compileBody(Object body) {
+        if (body instanceof Map) {
+            var compiled = new LinkedHashMap<String, Object>();
+            ((Map<?, ?>) body).forEach((key, value) -> compiled.put(String.valueOf(key), compileBody(value)));
+            return compiled;
+        } else if (body instanceof List) {
+            var compiled = new ArrayList<>();
+            ((List<?>) body).forEach(value -> compiled.add(compileBody(value)));
+            return compiled;
+        } else if (body instanceof String) {
+            return parse((String) body);
+        }
+        return body;
+    }
+
+    static Object renderBody(Object body, Map<String, Object> variables) {
+        if (body instanceof Map) {
+            var rendered = new LinkedHashMap<String, Object>();
+            ((Map<?, ?>) body).forEach((key, value) -> rendered.put(String.valueOf(key), renderBody(value, variables)));
+            return rendered;
+        } else if (body instanceof List) {
+            var rendered = new ArrayList<>();
+            ((List<?>) body).forEach(value -> rendered.add(renderBody(value, variables)));
+            return rendered;
+        } else if (body instanceof Template) {
+            return ((Template) body).render(variables);
+        }
+        return body;
+    }
+}
@@ -0,0 +1,25 @@
+package org.kiwiproject.elucidation.data.canary.scenario;
+
+import java.time.Duration;
+
+/**
+ * Pauses like a user would between actions. The pause goes through the run clock, so on a virtual clock it costs
+ * no wall time.
+ */
+class ThinkStep implements Step {
+
+    private final long minMillis;
+    private final long maxMillis;
+
+    ThinkStep(long minMillis, long maxMillis) {
+        this.minMillis = minMillis;
+        this.maxMillis = maxMillis;
+    }
+
+    @Override
+    public boolean execute(Session session) throws InterruptedException {
+        var millis = minMillis == maxMillis ? minMillis : session.getRandom().nextLong(minMillis, maxMillis + 1);
+        session.getRun().sleep(Duration.ofMillis(millis));
+        return true;
+    }
+}
@@ -0,0 +1,138 @@
+package org.kiwiproject.elucidation.data.canary.generator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import org.kiwiproject.elucidation.common.model.ConnectionEvent;
+import org.kiwiproject.elucidation.common.model.Direction;
+import org.kiwiproject.elucidation.common.model.TrackedConnectionIdentifier;
+import org.kiwiproject.elucidation.data.canary.config.GeneratorConfig;
+import org.kiwiproject.elucidation.data.canary.export.ElucidationExporter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@SuppressWarnings("java:S100")
+@DisplayName("SyntheticEventGenerator")
+class SyntheticEventGeneratorTest {
+
+    private static class RecordingExporter implements ElucidationExporter {
+        private final List<ConnectionEvent> events = new ArrayList<>();
+        private final List<TrackedConnectionIdentifier> identifiers = new ArrayList<>();
+
+        @Override
+        public void exportEvents(List<ConnectionEvent> batch) {
+            events.addAll(batch);
+        }
+
+        @Override
+        public void exportTrackedIdentifiers(List<TrackedConnectionIdentifier> batch) {
+            identifiers.addAll(batch);
+        }
+
+        @Override
+        public void close() {
+            // nothing to close
+        }
+
+        List<String> eventRows() {
+            return events.stream()
+                    .map(e -> List.of(e.getId(), e.getServiceName(), e.getEventDirection(), e.getCommunicationType(),
+                            e.getConnectionIdentifier(), e.getObservedAt()).toString())
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static GeneratorConfig config(long seed, int threads) {
+        var config = new GeneratorConfig();
+        config.setSeed(seed);
+        config.setThreads(threads);
+        config.setEventCount(20_000);
+        config.setChunkSize(1_000);
+        return config;
+    }
+
+    private static RecordingExporter generate(GeneratorConfig config) throws Exception {
+        var exporter = new RecordingExporter();
+        new SyntheticEventGenerator(ServiceTopology.homeAutomation(), config).generate(exporter);
+        return exporter;
+    }
+
+    @Nested
+    class Generate {
+
+        @Test
+        void shouldProduceIdenticalEvents_ForTheSameSeed_RegardlessOfThreadCount() throws Exception {
+            var singleThreaded = generate(config(7, 1));
+            var multiThreaded = generate(config(7, 8));
+
+            assertThat(multiThreaded.eventRows()).isEqualTo(singleThreaded.eventRows());
+        }
+
+        @Test
+        void shouldProduceDifferentEvents_ForDifferentSeeds() throws Exception {
+            var first = generate(config(7, 4));
+            var second = generate(config(8, 4));
+
+            assertThat(second.eventRows()).isNotEqualTo(first.eventRows());
+        }
+
+        @Test
+        void shouldGenerateExactlyTheRequestedNumberOfEvents_WithSequentialIds() throws Exception {
+            var exporter = generate(config(7, 4));
+
+            assertThat(exporter.events).hasSize(20_000);
+            assertThat(exporter.events.get(0).getId()).isEqualTo(1L);
+            assertThat(exporter.events.get(exporter.events.size() - 1).getId()).isEqualTo(20_000L);
+        }
+
+        @Test
+        void shouldGenerateExactlyTheRequestedNumberOfEvents_WhenTheLastChunkIsPartial() throws Exception {
+            var config = config(7, 4);
+            config.setEventCount(2_503);
+
+            var result = new SyntheticEventGenerator(ServiceTopology.homeAutomation(), config)
+                    .generate(new RecordingExporter());
+
+            assertThat(result.getEventCount()).isEqualTo(2_503);
+        }
+
+        @Test
+        void shouldNeverGoBackInTime() throws Exception {
+            var config = config(7, 4);
+            config.setMeanIntervalMicros(1);
+            var exporter = generate(config);
+
+            assertThat(exporter.events)
+                    .extracting(ConnectionEvent::getObservedAt)
+                    .isSorted();
+        }
+
+        @Test
+        void shouldOnlyConsumeMessagesAtServicesInTheTopology() throws Exception {
+            var exporter = generate(config(7, 4));
+
+            var consumers = exporter.events.stream()
+                    .filter(e -> e.getEventDirection() == Direction.INBOUND && "JMS".equals(e.getCommunicationType()))
+                    .map(ConnectionEvent::getServiceName)
+                    .collect(Collectors.toSet());
+
+            assertThat(consumers).containsExactlyInAnyOrder("light-service", "thermostat-service", "appliance-service");
+        }
+
+        @Test
+        void shouldExportTrackedIdentifiersForEveryEndpoint() throws Exception {
+            var exporter = generate(config(7, 4));
+
+            assertThat(exporter.identifiers)
+                    .extracting("serviceName", "connectionIdentifier")
+                    .contains(
+                            tuple("home-service", "camera"),
+                            tuple("doorbell-service", "POST /doorbell/{id}/ring"));
+        }
+    }
+}
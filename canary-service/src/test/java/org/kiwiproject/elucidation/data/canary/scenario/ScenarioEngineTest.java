@@ -0,0 +1,232 @@
+package org.kiwiproject.elucidation.data.canary.scenario;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import org.kiwiproject.elucidation.data.common.run.RunContext;
+import org.kiwiproject.elucidation.data.common.run.RunSeed;
+import org.kiwiproject.elucidation.data.common.run.VirtualClock;
+import io.dropwizard.jackson.Jackson;
+import io.dropwizard.testing.junit5.DropwizardClientExtension;
+import io.dropwizard.testing.junit5.DropwizardExtensionsSupport;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
+import javax.ws.rs.client.Client;
+import javax.ws.rs.client.ClientBuilder;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@SuppressWarnings("java:S100")
+@DisplayName("ScenarioEngine")
+@ExtendWith(DropwizardExtensionsSupport.class)
+class ScenarioEngineTest {
+
+    @Path("/things")
+    @Produces(MediaType.APPLICATION_JSON)
+    public static class ThingResource {
+        private final AtomicInteger nextId = new AtomicInteger(1);
+        private final ConcurrentLinkedQueue<String> created = new ConcurrentLinkedQueue<>();
+        private final ConcurrentLinkedQueue<Integer> fetched = new ConcurrentLinkedQueue<>();
+
+        @POST
+        public Response create(Map<String, Object> thing) {
+            created.add(String.valueOf(thing.get("name")));
+            return Response.status(201).entity(Map.of("id", nextId.getAndIncrement())).build();
+        }
+
+        @GET
+        @Path("/{id}")
+        public Response get(@PathParam("id") int id) {
+            fetched.add(id);
+            return Response.ok(Map.of("id", id)).build();
+        }
+    }
+
+    private static final ThingResource THINGS = new ThingResource();
+    private static final DropwizardClientExtension RESOURCE = new DropwizardClientExtension(THINGS);
+
+    private static final Instant START = Instant.parse("2022-01-01T00:00:00Z");
+
+    private Client client;
+    private VirtualClock clock;
+    private ScenarioEngine engine;
+    private ScenarioRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        client = ClientBuilder.newClient();
+        clock = new VirtualClock(START, Duration.ofMillis(1));
+        engine = new ScenarioEngine(client, new RunContext(clock, RunSeed.of(42)));
+        registry = new ScenarioRegistry(null);
+
+        THINGS.created.clear();
+        THINGS.fetched.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.close();
+    }
+
+    private Scenario register(String yaml) throws Exception {
+        var definition = Jackson.newObjectMapper(new YAMLFactory()).readValue(yaml, ScenarioDefinition.class);
+        return registry.register(definition);
+    }
+
+    private String baseUri() {
+        return RESOURCE.baseUri().toString();
+    }
+
+    @Nested
+    class Run {
+
+        @Test
+        void shouldRunEveryInstance_FeedingRecordsAndUsingExtractedValues() throws Exception {
+            var scenario = register(String.join("\n",
+                    "name: things",
+                    "variables: { baseUri: '" + baseUri() + "' }",
+                    "feeders:",
+                    "  names: { records: [ { name: first }, { name: second } ] }",
+                    "steps:",
+                    "  - loop:",
+                    "      times: 2",
+                    "      steps:",
+                    "        - feed: names",
+                    "        - request: { method: POST, url: '${baseUri}/things', body: { name: '${name}' }, expect: 201, extract: { thingId: /id } }",
+                    "        - request: { url: '${baseUri}/things/${thingId}', expect: 200 }",
+                    "        - think: { min: 1s, max: 5s }"));
+
+            var result = engine.run(scenario, 10, 4);
+
+            assertThat(result.getFailedInstances()).isZero();
+            assertThat(result.getRequests()).isEqualTo(40);
+            assertThat(THINGS.created).hasSize(20).containsOnly("first", "second");
+            assertThat(THINGS.created.stream().filter("first"::equals)).hasSize(10);
+            assertThat(THINGS.fetched).hasSize(20).doesNotHaveDuplicates();
+        }
+
+        @Test
+        void shouldAdvanceEachInstancesOwnVirtualClock_InsteadOfWaitingOnThinkTimes() throws Exception {
+            var scenario = register(String.join("\n",
+                    "name: thinking",
+                    "steps:",
+                    "  - think: { min: 1h }"));
+
+            var before = System.nanoTime();
+            engine.run(scenario, 3, 3);
+
+            assertThat(Duration.ofNanos(System.nanoTime() - before)).isLessThan(Duration.ofSeconds(10));
+            // starting each instance read the run's clock once; the think times moved only their own
+            assertThat(clock.peek()).isEqualTo(START.plusMillis(3));
+        }
+
+        @Test
+        void shouldRunInstances_OnThreadsFromTheGivenFactory() throws Exception {
+            var scenario = register(String.join("\n",
+                    "name: threads",
+                    "steps:",
+                    "  - think: { min: 1s }"));
+            var made = new AtomicInteger();
+            var threadEngine = new ScenarioEngine(client, new RunContext(clock, RunSeed.of(42)), runnable -> {
+                made.incrementAndGet();
+                return new Thread(runnable, "scenario-test");
+            });
+
+            var result = threadEngine.run(scenario, 5, 2);
+
+            assertThat(result.getFailedInstances()).isZero();
+            assertThat(made).hasValue(2);
+        }
+
+        @Test
+        void shouldStopAnInstance_WhenAResponseIsNotTheExpectedStatus() throws Exception {
+            var scenario = register(String.join("\n",
+                    "name: failing",
+                    "steps:",
+                    "  - request: { url: '" + baseUri() + "/things/missing', expect: 200 }",
+                    "  - request: { method: POST, url: '" + baseUri() + "/things', body: { name: never }, expect: 201 }"));
+
+            var result = engine.run(scenario, 2, 2);
+
+            assertThat(result.getFailedInstances()).isEqualTo(2);
+            assertThat(result.getFailedRequests()).isEqualTo(2);
+            assertThat(THINGS.created).isEmpty();
+        }
+    }
+
+    @Nested
+    class Registry {
+
+        @Test
+        void shouldCompileTheBundledScenarios() {
+            assertThat(List.of("crud-devices", "good-morning", "doorbell", "browse-and-ring"))
+                    .allSatisfy(name -> assertThat(registry.get(name).getName()).isEqualTo(name));
+
+            assertThat(registry.get("good-morning").getVariables()).containsKey("stepJson");
+        }
+
+        @Test
+        void shouldStartScenariosWithTheDefaultVariables_UnlessTheyDefineThemThemselves() throws Exception {
+            registry = new ScenarioRegistry(null, Map.of("home", "http://localhost:9004", "light", "http://localhost:9002"));
+
+            var scenario = register(String.join("\n",
+                    "name: overriding",
+                    "variables: { light: 'http://light.test' }"));
+
+            assertThat(scenario.getVariables())
+                    .containsEntry("home", "http://localhost:9004")
+                    .containsEntry("light", "http://light.test");
+        }
+
+        @Test
+        void shouldCompileEachScenarioOnlyOnce() {
+            assertThat(registry.get("doorbell")).isSameAs(registry.get("doorbell"));
+        }
+
+        @Test
+        void shouldRejectUnknownScenarios() {
+            assertThatThrownBy(() -> registry.get("does-not-exist"))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining("does-not-exist");
+        }
+
+        @Test
+        void shouldRejectSteps_ThatAreMoreThanOneKind() {
+            assertThatThrownBy(() -> register(String.join("\n",
+                    "name: invalid",
+                    "steps:",
+                    "  - { feed: names, think: { min: 1s } }")))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining("exactly one of");
+        }
+
+        @Test
+        void shouldRejectVariables_WithoutAValue() {
+            assertThatThrownBy(() -> register(String.join("\n",
+                    "name: invalid",
+                    "variables:",
+                    "  foo:",
+                    "steps:",
+                    "  - think: { min: 1s }")))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining("variable 'foo' has no value");
+        }
+    }
+}
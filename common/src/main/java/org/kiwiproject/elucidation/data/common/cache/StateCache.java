@@ -0,0 +1,151 @@
+package org.kiwiproject.elucidation.data.common.cache;
+
+import static com.codahale.metrics.MetricRegistry.name;
+import static java.util.Objects.nonNull;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.MetricRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.ws.rs.NotFoundException;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongFunction;
+import java.util.function.LongUnaryOperator;
+
+/**
+ * A read-through cache of device state by id, so polling a device's status costs a map lookup rather than a query.
+ * Every path that writes a device must {@link #invalidate(long)} it; the next read loads it again at a new version.
+ * Every path that deletes one must {@link #remove(long)} it, so the cache doesn't grow with deleted ids.
+ * <p>
+ * A load that races with an invalidation or a removal is returned to its caller but not cached, so a write is never
+ * hidden by a read that started before it. Devices that don't exist are not cached, and neither is the mark left by
+ * invalidating one.
+ * <p>
+ * Versions start again when the service restarts, so entity tags also carry when the cache was created, which keeps
+ * a tag from before a restart from matching a different state after it.
+ * <p>
+ * A store that counts its own versions needs no copies: see {@link #versionedByStore}.
+ */
+@Slf4j
+public class StateCache<T> {
+
+    private final LongFunction<Optional<T>> loader;
+    private final LongUnaryOperator storeVersions;
+    private final String epoch;
+    private final AtomicLong versions = new AtomicLong();
+    private final AtomicLong removals = new AtomicLong();
+    private final ConcurrentMap<Long, Object> entries = new ConcurrentHashMap<>();
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter invalidations;
+
+    /**
+     * Marks an id whose state has changed since it was last loaded.
+     */
+    private static final class Invalidated {
+    }
+
+    public StateCache(String name, LongFunction<Optional<T>> loader, MetricRegistry metrics) {
+        this(name, null, loader, metrics);
+    }
+
+    private StateCache(String name, LongUnaryOperator storeVersions, LongFunction<Optional<T>> loader, MetricRegistry metrics) {
+        this.loader = loader;
+        this.storeVersions = storeVersions;
+        this.epoch = Long.toString(System.currentTimeMillis(), 36);
+
+        this.hits = metrics.counter(name(StateCache.class, name, "hits"));
+        this.misses = metrics.counter(name(StateCache.class, name, "misses"));
+        this.invalidations = metrics.counter(name(StateCache.class, name, "invalidations"));
+        metrics.gauge(name(StateCache.class, name, "size"), () -> entries::size);
+    }
+
+    /**
+     * For a store that moves an id's version on itself whenever it writes it, and gives a negative version for an id
+     * it doesn't have. Nothing is kept: each get asks the store for the version and reads the value only when a
+     * response needs it, and invalidating does nothing.
+     */
+    public static <T> StateCache<T> versionedByStore(String name,
+                                                     LongUnaryOperator versionOf,
+                                                     LongFunction<Optional<T>> loader,
+                                                     MetricRegistry metrics) {
+        return new StateCache<>(name, versionOf, loader, metrics);
+    }
+
+    @SuppressWarnings("unchecked")
+    public Optional<Versioned<T>> get(long id) {
+        if (nonNull(storeVersions)) {
+            return getFromStore(id);
+        }
+
+        var removalsBefore = removals.get();
+        var current = entries.get(id);
+        if (current instanceof Versioned) {
+            hits.inc();
+            return Optional.of((Versioned<T>) current);
+        }
+
+        misses.inc();
+        var loaded = loader.apply(id).map(value -> new Versioned<>(value, versions.incrementAndGet(), epoch));
+        if (loaded.isEmpty()) {
+            if (current != null) {
+                entries.remove(id, current);
+            }
+            return Optional.empty();
+        }
+
+        // a removal bumps the count before removing, so a load that started before it either sees the new count
+        // here or is removed after being installed
+        var value = loaded.get();
+        var installed = current == null
+                ? entries.compute(id, (key, existing) -> existing == null && removals.get() == removalsBefore ? value : existing) == value
+                : entries.replace(id, current, value);
+        if (!installed) {
+            LOG.trace("State of {} changed while it was loading, not caching it", id);
+        }
+        return loaded;
+    }
+
+    private Optional<Versioned<T>> getFromStore(long id) {
+        var version = storeVersions.applyAsLong(id);
+        if (version < 0) {
+            misses.inc();
+            return Optional.empty();
+        }
+
+        hits.inc();
+        return Optional.of(Versioned.readWhenNeeded(
+                () -> loader.apply(id).orElseThrow(NotFoundException::new), version, epoch));
+    }
+
+    public void invalidate(long id) {
+        if (nonNull(storeVersions)) {
+            return;
+        }
+        invalidations.inc();
+        entries.put(id, new Invalidated());
+    }
+
+    /**
+     * Forgets a device that was deleted.
+     */
+    public void remove(long id) {
+        if (nonNull(storeVersions)) {
+            return;
+        }
+        invalidations.inc();
+        removals.incrementAndGet();
+        entries.remove(id);
+    }
+
+    /**
+     * Forgets everything, for when state was changed behind the service's back.
+     */
+    public void invalidateAll() {
+        entries.replaceAll((id, entry) -> new Invalidated());
+    }
+}
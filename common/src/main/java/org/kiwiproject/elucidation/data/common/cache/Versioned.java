@@ -0,0 +1,69 @@
+package org.kiwiproject.elucidation.data.common.cache;
+
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.Request;
+import javax.ws.rs.core.Response;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * A cached value and the version it was loaded at. Versions only ever go up, so the version names this exact
+ * state of the value and can be its ETag.
+ * <p>
+ * The value of state whose store keeps the versions itself is read only when asked for, so a response that isn't
+ * modified never reads it.
+ */
+public class Versioned<T> {
+
+    private final Supplier<T> value;
+    private final long version;
+    private final EntityTag entityTag;
+
+    Versioned(T value, long version, String epoch) {
+        this(() -> value, version, new EntityTag(epoch + "-" + version));
+    }
+
+    private Versioned(Supplier<T> value, long version, EntityTag entityTag) {
+        this.value = value;
+        this.version = version;
+        this.entityTag = entityTag;
+    }
+
+    /**
+     * A version of state that is read from its store when the value is asked for.
+     */
+    static <T> Versioned<T> readWhenNeeded(Supplier<T> value, long version, String epoch) {
+        return new Versioned<>(value, version, new EntityTag(epoch + "-" + version));
+    }
+
+    public T getValue() {
+        return value.get();
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public EntityTag getEntityTag() {
+        return entityTag;
+    }
+
+    /**
+     * A {@code 304 Not Modified} with no body when the request's {@code If-None-Match} names this version,
+     * otherwise a {@code 200} with the value; either way tagged with this version.
+     */
+    public Response toResponse(Request request) {
+        return toResponse(request, Function.identity());
+    }
+
+    /**
+     * Like {@link #toResponse(Request)}, with the body built from the value only when it is needed.
+     */
+    public Response toResponse(Request request, Function<T, ?> body) {
+        var notModified = request.evaluatePreconditions(entityTag);
+        if (notModified != null) {
+            return notModified.tag(entityTag).build();
+        }
+        return Response.ok(body.apply(getValue())).tag(entityTag).build();
+    }
+}
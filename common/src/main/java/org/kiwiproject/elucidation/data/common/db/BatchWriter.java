@@ -0,0 +1,119 @@
+package org.kiwiproject.elucidation.data.common.db;
+
+import static com.codahale.metrics.MetricRegistry.name;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import io.dropwizard.lifecycle.Managed;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Saves rows in the background so whoever produces them never waits on the database. Rows are queued and a single
+ * thread writes whatever has queued up, up to a batch at a time, with {@link #write(List)}. When the queue is full,
+ * rows are dropped and counted rather than holding up the producer. Stopping writes what is left.
+ * <p>
+ * Metrics are named after the subclass: {@code dropped}, {@code failed}, {@code batchSize}, {@code writes} and
+ * {@code queued}.
+ */
+@Slf4j
+public abstract class BatchWriter<T> implements Managed {
+
+    private static final long POLL_MILLIS = 100;
+    private static final long STOP_TIMEOUT_SECONDS = 10;
+
+    private final String threadName;
+    private final BlockingQueue<T> queue;
+    private final int batchSize;
+
+    private final Counter dropped;
+    private final Counter failed;
+    private final Histogram batchSizes;
+    private final Timer writes;
+
+    private volatile boolean running;
+    private Thread thread;
+
+    protected BatchWriter(String threadName, MetricRegistry metrics, int queueSize, int batchSize) {
+        this.threadName = threadName;
+        this.queue = new ArrayBlockingQueue<>(queueSize);
+        this.batchSize = batchSize;
+
+        this.dropped = metrics.counter(name(getClass(), "dropped"));
+        this.failed = metrics.counter(name(getClass(), "failed"));
+        this.batchSizes = metrics.histogram(name(getClass(), "batchSize"));
+        this.writes = metrics.timer(name(getClass(), "writes"));
+        metrics.gauge(name(getClass(), "queued"), () -> queue::size);
+    }
+
+    /**
+     * Writes one batch, in one transaction. A batch that throws is counted as failed and not retried.
+     */
+    protected abstract void write(List<T> batch) throws Exception;
+
+    /**
+     * @return false if the row was dropped because the queue is full
+     */
+    protected boolean offer(T row) {
+        if (queue.offer(row)) {
+            return true;
+        }
+
+        dropped.inc();
+        return false;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        thread = new Thread(this::writeUntilStopped, threadName);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public void stop() throws InterruptedException {
+        running = false;
+        thread.join(TimeUnit.SECONDS.toMillis(STOP_TIMEOUT_SECONDS));
+    }
+
+    private void writeUntilStopped() {
+        var batch = new ArrayList<T>(batchSize);
+
+        while (running || !queue.isEmpty()) {
+            try {
+                var first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                writeTimed(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void writeTimed(List<T> batch) {
+        batchSizes.update(batch.size());
+
+        try (var ignored = writes.time()) {
+            write(batch);
+        } catch (Exception e) {
+            failed.inc(batch.size());
+            LOG.error("{} was unable to save {} row(s)", threadName, batch.size(), e);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package org.kiwiproject.elucidation.data.common.http;
+
+import com.codahale.metrics.httpclient.HttpClientMetricNameStrategies;
+import org.kiwiproject.elucidation.data.common.thread.VirtualThreads;
+import io.dropwizard.client.JerseyClientBuilder;
+import io.dropwizard.client.JerseyClientConfiguration;
+import io.dropwizard.setup.Environment;
+import io.dropwizard.util.Duration;
+
+import javax.ws.rs.client.Client;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * Builds the one HTTP client a service uses for calls to the other services. The client has a pooled,
+ * keep-alive connection manager and an executor for {@code rx()}/{@code async()} calls, both managed by the
+ * Dropwizard lifecycle, and records request timers per target host and method.
+ */
+public final class HttpClients {
+
+    private HttpClients() {
+    }
+
+    /**
+     * Defaults that suit calls between the services: short connect timeouts so a service that is down is noticed
+     * quickly, and a read timeout long enough for home to answer a workflow trigger.
+     */
+    public static JerseyClientConfiguration defaultConfiguration() {
+        var config = new JerseyClientConfiguration();
+        config.setTimeout(Duration.seconds(30));
+        config.setConnectionTimeout(Duration.seconds(1));
+        config.setConnectionRequestTimeout(Duration.seconds(1));
+        config.setTimeToLive(Duration.minutes(5));
+        config.setKeepAlive(Duration.seconds(30));
+        config.setMaxConnections(256);
+        config.setMaxConnectionsPerRoute(64);
+        config.setMinThreads(1);
+        config.setMaxThreads(64);
+        config.setWorkQueueSize(1024);
+        return config;
+    }
+
+    /**
+     * @param virtualThreads whether the {@code rx()}/{@code async()} executor's threads should be virtual. It keeps
+     *                       the configured thread and queue limits either way, as the connection pool can't serve
+     *                       more calls than that at once.
+     */
+    public static Client build(Environment env, JerseyClientConfiguration config, String name, boolean virtualThreads) {
+        var builder = new JerseyClientBuilder(env)
+                .using(config)
+                .using(HttpClientMetricNameStrategies.HOST_AND_METHOD);
+
+        if (virtualThreads) {
+            // as Dropwizard would build it, apart from the threads
+            builder.using(env.lifecycle().executorService("jersey-client-" + name + "-%d")
+                    .minThreads(config.getMinThreads())
+                    .maxThreads(config.getMaxThreads())
+                    .workQueue(new ArrayBlockingQueue<>(config.getWorkQueueSize()))
+                    .threadFactory(VirtualThreads.factory("jersey-client-" + name + "-"))
+                    .build());
+        }
+        return builder.build(name);
+    }
+}
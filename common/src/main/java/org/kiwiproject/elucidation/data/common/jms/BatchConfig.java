@@ -0,0 +1,32 @@
+package org.kiwiproject.elucidation.data.common.jms;
+
+import io.dropwizard.util.Duration;
+import lombok.Getter;
+import lombok.Setter;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+
+/**
+ * Whether a consumer takes messages one at a time as they arrive, each committed and acknowledged on its own, or
+ * in batches that are committed in one transaction and then acknowledged together.
+ */
+@Getter
+@Setter
+public class BatchConfig {
+
+    private boolean enabled;
+
+    /**
+     * The most messages in a batch.
+     */
+    @Min(1)
+    private int maxMessages = 200;
+
+    /**
+     * How long after the first message of a batch to wait for more before applying it.
+     */
+    @NotNull
+    private Duration maxWait = Duration.milliseconds(50);
+
+}
@@ -0,0 +1,146 @@
+package org.kiwiproject.elucidation.data.common.jms;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.jms.JMSConsumer;
+import javax.jms.JMSContext;
+import javax.jms.Message;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Takes messages off a {@link JMSContext#CLIENT_ACKNOWLEDGE} consumer in batches: up to {@code maxMessages}, or
+ * however many arrive within {@code maxWait} of the first. Each batch is acknowledged once its handler returns,
+ * so the handler must have committed the whole batch by then. When the handler throws, the session is recovered
+ * and Artemis redelivers the whole batch, until the retry policy gives up on it. Then its messages are applied
+ * one at a time and only those that still fail are dead-lettered.
+ */
+@Slf4j
+public class BatchReceiver implements Runnable {
+
+    private static final long IDLE_POLL_MILLIS = 1_000;
+    private static final long FAILURE_PAUSE_MILLIS = 500;
+
+    private final JMSContext context;
+    private final JMSConsumer consumer;
+    private final BatchConfig config;
+    private final MessageHandler handler;
+    private final RetryPolicy retry;
+    private final DeadLetterQueue deadLetters;
+    private final ConsumerMetrics metrics;
+
+    private volatile boolean running = true;
+    private Thread thread;
+
+    public BatchReceiver(JMSContext context, JMSConsumer consumer, BatchConfig config, MessageHandler handler,
+                         RetryPolicy retry, DeadLetterQueue deadLetters, ConsumerMetrics metrics) {
+        this.context = context;
+        this.consumer = consumer;
+        this.config = config;
+        this.handler = handler;
+        this.retry = retry;
+        this.deadLetters = deadLetters;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Receives on a thread of its own, made by the factory, until {@link #stop()}.
+     */
+    public void start(ThreadFactory threads) {
+        thread = threads.newThread(this);
+        thread.start();
+    }
+
+    public void stop() {
+        running = false;
+    }
+
+    /**
+     * Waits for the receiver to finish the batch it is on, if any, after {@link #stop()}.
+     *
+     * @return false if it is still running after the timeout
+     */
+    public boolean awaitStopped(long timeoutMillis) throws InterruptedException {
+        if (thread == null) {
+            return true;
+        }
+        thread.join(timeoutMillis);
+        return !thread.isAlive();
+    }
+
+    @Override
+    public void run() {
+        while (running && !Thread.currentThread().isInterrupted()) {
+            try {
+                receiveBatch();
+            } catch (RuntimeException e) {
+                LOG.error("Problem receiving messages", e);
+                pause();
+            }
+        }
+    }
+
+    /**
+     * Receives, applies and acknowledges, recovers or dead-letters one batch.
+     *
+     * @return how many messages were in the batch
+     */
+    int receiveBatch() {
+        var first = consumer.receive(IDLE_POLL_MILLIS);
+        if (first == null) {
+            return 0;
+        }
+
+        var batch = new ArrayList<Message>(config.getMaxMessages());
+        batch.add(first);
+
+        // receive(0) waits forever, so stop as soon as less than a millisecond is left
+        var deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(config.getMaxWait().toMilliseconds());
+        while (batch.size() < config.getMaxMessages()) {
+            var remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            var next = remaining > 0 ? consumer.receive(remaining) : consumer.receiveNoWait();
+            if (next == null) {
+                break;
+            }
+            batch.add(next);
+        }
+
+        metrics.batchReceived(batch.size());
+        try {
+            handler.handle(batch);
+        } catch (Exception e) {
+            if (retry.redeliver(batch)) {
+                LOG.warn("Unable to apply a batch of {} messages, they will be redelivered", batch.size(), e);
+                metrics.batchRolledBack();
+                context.recover();
+                return batch.size();
+            }
+
+            LOG.warn("Unable to apply a batch of {} messages, out of redeliveries so applying them one at a time", batch.size(), e);
+            applyEach(batch);
+        }
+
+        context.acknowledge();
+        return batch.size();
+    }
+
+    private void applyEach(List<Message> batch) {
+        for (var message : batch) {
+            try {
+                handler.handle(List.of(message));
+            } catch (Exception e) {
+                deadLetters.send(message, DeadLetterQueue.Reason.RETRIES_EXHAUSTED, e);
+            }
+        }
+    }
+
+    private static void pause() {
+        try {
+            Thread.sleep(FAILURE_PAUSE_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
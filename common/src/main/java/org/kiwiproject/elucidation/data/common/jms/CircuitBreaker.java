@@ -0,0 +1,92 @@
+package org.kiwiproject.elucidation.data.common.jms;
+
+import static com.codahale.metrics.MetricRegistry.name;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Clock;
+
+/**
+ * Stops a consumer calling a dependency once enough calls to it have failed in a row, so one broken dependency
+ * doesn't slow every message down. After {@code openFor} a single trial call is let through; if it succeeds the
+ * breaker closes again, otherwise it stays open for another {@code openFor}.
+ * <p>
+ * Each kind of failure gets its own breaker, registered under {@code <service>.jms.breaker.<name>} with its state,
+ * how often it opened and how many calls it turned away.
+ */
+@Slf4j
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final String name;
+    private final int failureThreshold;
+    private final long openForMillis;
+    private final Clock clock;
+    private final Meter opened;
+    private final Meter rejected;
+
+    private State state = State.CLOSED;
+    private int failures;
+    private long openedAt;
+    private boolean trialInFlight;
+
+    public CircuitBreaker(String name, CircuitBreakerConfig config, Clock clock, MetricRegistry metrics, String serviceName) {
+        this.name = name;
+        this.failureThreshold = config.getFailureThreshold();
+        this.openForMillis = config.getOpenFor().toMilliseconds();
+        this.clock = clock;
+
+        var prefix = name(serviceName, "jms", "breaker", name);
+        this.opened = metrics.meter(name(prefix, "opened"));
+        this.rejected = metrics.meter(name(prefix, "rejected"));
+        metrics.gauge(name(prefix, "state"), () -> () -> getState().name());
+    }
+
+    /**
+     * Whether to make the call. Every call that is allowed must be followed by {@link #success()} or
+     * {@link #failure()}.
+     */
+    public synchronized boolean allow() {
+        if (state == State.OPEN && clock.millis() - openedAt >= openForMillis) {
+            state = State.HALF_OPEN;
+            trialInFlight = false;
+        }
+
+        if (state == State.CLOSED || (state == State.HALF_OPEN && !trialInFlight)) {
+            trialInFlight = state == State.HALF_OPEN;
+            return true;
+        }
+
+        rejected.mark();
+        return false;
+    }
+
+    public synchronized void success() {
+        if (state != State.CLOSED) {
+            LOG.info("Closing the {} circuit breaker", name);
+        }
+        state = State.CLOSED;
+        failures = 0;
+        trialInFlight = false;
+    }
+
+    public synchronized void failure() {
+        failures++;
+        if (state == State.HALF_OPEN || (state == State.CLOSED && failures >= failureThreshold)) {
+            LOG.warn("Opening the {} circuit breaker after {} failures in a row", name, failures);
+            state = State.OPEN;
+            openedAt = clock.millis();
+            trialInFlight = false;
+            opened.mark();
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+}
@@ -0,0 +1,29 @@
+package org.kiwiproject.elucidation.data.common.jms;
+
+import io.dropwizard.util.Duration;
+import lombok.Getter;
+import lombok.Setter;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+
+/**
+ * When a consumer stops calling a failing dependency, and for how long.
+ */
+@Getter
+@Setter
+public class CircuitBreakerConfig {
+
+    /**
+     * How many calls in a row have to fail for the breaker to open.
+     */
+    @Min(1)
+    private int failureThreshold = 5;
+
+    /**
+     * How long the breaker stays open before letting a single trial call through.
+     */
+    @NotNull
+    private Duration openFor = Duration.seconds(30);
+
+}
@@ -0,0 +1,103 @@
+package org.kiwiproject.elucidation.data.common.jms;
+
+import static com.codahale.metrics.MetricRegistry.name;
+import static java.util.Objects.isNull;
+
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import lombok.Getter;
+
+import javax.jms.JMSException;
+import javax.jms.Message;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Metrics for a service's consumer of the {@code iotEvent} topic, registered under {@code <service>.jms} so they
+ * show on the admin port: a timer per phase of handling a message (parse, filter, record with Elucidation, update
+ * the database, call back to home), accepted and ignored counts per action, and the time from home sending a
+ * message until it gets here. In batch mode, also the size of each batch and how many were rolled back.
+ */
+public class ConsumerMetrics {
+
+    private static final long SAMPLE_EVERY = 100;
+
+    private final MetricRegistry metrics;
+    private final String prefix;
+    private final Meter received;
+    private final Timer latency;
+    private final Histogram batchSize;
+    private final Meter batchRollbacks;
+
+    @Getter
+    private final Timer parse;
+
+    @Getter
+    private final Timer filter;
+
+    @Getter
+    private final Timer record;
+
+    @Getter
+    private final Timer update;
+
+    @Getter
+    private final Timer callback;
+
+    public ConsumerMetrics(MetricRegistry metrics, String serviceName) {
+        this.metrics = metrics;
+        this.prefix = name(serviceName, "jms");
+        this.received = metrics.meter(name(prefix, "received"));
+        this.latency = metrics.timer(name(prefix, "latency"));
+        this.parse = metrics.timer(name(prefix, "parse"));
+        this.filter = metrics.timer(name(prefix, "filter"));
+        this.record = metrics.timer(name(prefix, "record"));
+        this.update = metrics.timer(name(prefix, "update"));
+        this.callback = metrics.timer(name(prefix, "callback"));
+        this.batchSize = metrics.histogram(name(prefix, "batch", "size"));
+        this.batchRollbacks = metrics.meter(name(prefix, "batch", "rollbacks"));
+    }
+
+    /**
+     * Counts the message and records its latency from the JMS timestamp the producer set.
+     *
+     * @return true for one in every hundred messages, which the consumer may log at debug
+     */
+    public boolean markReceived(Message message) throws JMSException {
+        received.mark();
+
+        var sentAt = message.getJMSTimestamp();
+        if (sentAt > 0) {
+            latency.update(Math.max(0, System.currentTimeMillis() - sentAt), TimeUnit.MILLISECONDS);
+        }
+        return received.getCount() % SAMPLE_EVERY == 1;
+    }
+
+    public void accepted(String action) {
+        metrics.counter(name(prefix, "accepted", actionName(action))).inc();
+    }
+
+    public void ignored(String action) {
+        metrics.counter(name(prefix, "ignored", actionName(action))).inc();
+    }
+
+    public void batchReceived(int size) {
+        batchSize.update(size);
+    }
+
+    public void batchRolledBack() {
+        batchRollbacks.mark();
+    }
+
+    /**
+     * Registers a gauge for the number of messages waiting on the consumer's subscription.
+     */
+    public void registerBacklog(SubscriptionBacklog backlog) {
+        metrics.register(name(prefix, "backlog"), backlog);
+    }
+
+    private static String actionName(String action) {
+        return isNull(action) ? "unknown" : action.toLowerCase();
+    }
+}
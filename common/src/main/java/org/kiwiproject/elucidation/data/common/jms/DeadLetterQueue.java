@@ -0,0 +1,303 @@
+package org.kiwiproject.elucidation.data.common.jms;
+
+import static com.codahale.metrics.MetricRegistry.name;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.jms.JMSContext;
+import javax.jms.JMSException;
+import javax.jms.JMSRuntimeException;
+import javax.jms.Message;
+import javax.jms.Queue;
+import javax.jms.TextMessage;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A queue of its own per service, {@code <service>.DLQ}, for the messages its consumer gave up on. Each dead letter
+ * keeps the original body and properties along with why it failed, so it can be looked at and, once the cause is
+ * fixed, replayed through the consumer.
+ * <p>
+ * Until the consumer has connected to Artemis there is nowhere to send them, so dead letters are logged and dropped.
+ * <p>
+ * A message is sent here once however often it is delivered: a batch that fails after one of its messages was
+ * dead-lettered is redelivered whole, and the consumer finds that message poison again.
+ */
+@Slf4j
+public class DeadLetterQueue {
+
+    public static final String REASON = "dlqReason";
+    public static final String ERROR = "dlqError";
+    public static final String SERVICE = "dlqService";
+    public static final String DELIVERIES = "dlqDeliveries";
+    public static final String FAILED_AT = "dlqFailedAt";
+
+    private static final long REPLAY_RECEIVE_MILLIS = 500;
+
+    /**
+     * How many ids of messages sent here are remembered, far more than are delivered between one being sent and
+     * its batch finally being acknowledged.
+     */
+    private static final int SENT_IDS = 10_000;
+
+    public enum Reason {
+
+        /**
+         * The message can't be read or asks for something invalid, so it would fail however often it was delivered.
+         */
+        POISON,
+
+        /**
+         * Applying the message kept failing until it ran out of redeliveries.
+         */
+        RETRIES_EXHAUSTED
+    }
+
+    /**
+     * A dead letter as shown by {@link #browse(int)}.
+     */
+    @Value
+    public static class DeadLetter {
+        String messageId;
+        String reason;
+        String error;
+        int deliveries;
+        Instant failedAt;
+        String body;
+    }
+
+    /**
+     * How a replay went: how many dead letters were applied, how many failed as poison again and went back on the
+     * queue, and what stopped it early if anything did.
+     */
+    @Value
+    public static class ReplayResult {
+        int replayed;
+        int deadLetteredAgain;
+        String failure;
+    }
+
+    private final String serviceName;
+    private final String queueName;
+    private final Clock clock;
+    private final Map<Reason, Meter> deadLettered = new EnumMap<>(Reason.class);
+    private final Meter dropped;
+    private final Meter replayed;
+    private final Meter deadLetteredAgain;
+    private final Set<String> sentIds = Collections.newSetFromMap(new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+            return size() > SENT_IDS;
+        }
+    });
+
+    private volatile JMSContext context;
+    private volatile JMSContext producerContext;
+    private volatile MessageHandler handler;
+
+    public DeadLetterQueue(String serviceName, Clock clock, MetricRegistry metrics) {
+        this.serviceName = serviceName;
+        this.queueName = serviceName + ".DLQ";
+        this.clock = clock;
+
+        var prefix = name(serviceName, "jms", "dlq");
+        for (var reason : Reason.values()) {
+            deadLettered.put(reason, metrics.meter(name(prefix, reason.name().toLowerCase())));
+        }
+        this.dropped = metrics.meter(name(prefix, "dropped"));
+        this.replayed = metrics.meter(name(prefix, "replayed"));
+        this.deadLetteredAgain = metrics.meter(name(prefix, "deadLetteredAgain"));
+    }
+
+    /**
+     * Sends dead letters with a session of their own on the consumer's connection, and replays them through the
+     * handler.
+     */
+    public void connect(JMSContext consumerContext, MessageHandler replayHandler) {
+        this.producerContext = consumerContext.createContext(JMSContext.AUTO_ACKNOWLEDGE);
+        this.handler = replayHandler;
+        this.context = consumerContext;
+    }
+
+    public boolean isConnected() {
+        return nonNull(context);
+    }
+
+    public String getQueueName() {
+        return queueName;
+    }
+
+    /**
+     * Sends a copy of the message to the queue with the reason and error, or logs it if that can't be done. Does
+     * nothing if the message was sent already.
+     */
+    public synchronized void send(Message message, Reason reason, Exception cause) {
+        var messageId = messageId(message);
+        if (nonNull(messageId) && sentIds.contains(messageId)) {
+            LOG.debug("Message {} was sent to {} already", messageId, queueName);
+            return;
+        }
+
+        deadLettered.get(reason).mark();
+        var error = cause.getClass().getName() + ": " + cause.getMessage();
+
+        if (isNull(producerContext)) {
+            dropped.mark();
+            LOG.error("Dropping a {} message, there is no dead letter queue to send it to: {}", reason, error);
+            return;
+        }
+
+        try {
+            var body = message instanceof TextMessage ? ((TextMessage) message).getText() : null;
+            var deadLetter = producerContext.createTextMessage(body);
+            copyProperties(message, deadLetter);
+            deadLetter.setStringProperty(REASON, reason.name());
+            deadLetter.setStringProperty(ERROR, error);
+            deadLetter.setStringProperty(SERVICE, serviceName);
+            deadLetter.setIntProperty(DELIVERIES, RetryPolicy.deliveries(message));
+            deadLetter.setLongProperty(FAILED_AT, clock.millis());
+
+            producerContext.createProducer().send(queue(producerContext), deadLetter);
+            if (nonNull(messageId)) {
+                sentIds.add(messageId);
+            }
+            LOG.warn("Sent a {} message to {}: {}", reason, queueName, error);
+        } catch (JMSException | JMSRuntimeException e) {
+            dropped.mark();
+            LOG.error("Unable to send a {} message to {}, dropping it", reason, queueName, e);
+        }
+    }
+
+    /**
+     * The oldest dead letters, without taking them off the queue.
+     */
+    public List<DeadLetter> browse(int limit) throws JMSException {
+        var deadLetters = new ArrayList<DeadLetter>();
+        try (var browseContext = connectedContext().createContext(JMSContext.AUTO_ACKNOWLEDGE);
+             var browser = browseContext.createBrowser(queue(browseContext))) {
+            Enumeration<?> messages = browser.getEnumeration();
+            for (var message : Collections.list(messages)) {
+                if (deadLetters.size() >= limit) {
+                    break;
+                }
+                deadLetters.add(toDeadLetter((Message) message));
+            }
+        }
+        return deadLetters;
+    }
+
+    /**
+     * Takes up to {@code limit} dead letters off the queue, oldest first, and hands each to the consumer on its
+     * own. Each is acknowledged once applied. A message that fails as poison again is sent back to the queue by
+     * the consumer; any other failure leaves it where it is and stops the replay.
+     * <p>
+     * Only the dead letters on the queue when the replay starts are taken, so one sent back to the end of the queue
+     * isn't replayed again by the same replay.
+     */
+    public ReplayResult replay(int limit) throws JMSException {
+        var toReplay = depth(limit);
+        var applied = 0;
+        var sentBack = 0;
+        try (var replayContext = connectedContext().createContext(JMSContext.CLIENT_ACKNOWLEDGE);
+             var consumer = replayContext.createConsumer(queue(replayContext))) {
+            for (var taken = 0; taken < toReplay; taken++) {
+                var message = consumer.receive(REPLAY_RECEIVE_MILLIS);
+                if (isNull(message)) {
+                    break;
+                }
+
+                try {
+                    handler.handle(List.of(message));
+                } catch (Exception e) {
+                    LOG.warn("Stopping replay of {} after {} messages, one could not be applied", queueName, taken, e);
+                    replayContext.recover();
+                    return new ReplayResult(applied, sentBack, e.getClass().getName() + ": " + e.getMessage());
+                }
+
+                replayContext.acknowledge();
+                if (wasSent(message)) {
+                    deadLetteredAgain.mark();
+                    sentBack++;
+                } else {
+                    replayed.mark();
+                    applied++;
+                }
+            }
+        }
+
+        LOG.info("Replayed {} messages from {}, {} were dead-lettered again", applied, queueName, sentBack);
+        return new ReplayResult(applied, sentBack, null);
+    }
+
+    /**
+     * How many dead letters are on the queue, counting no further than the limit.
+     */
+    private int depth(int limit) throws JMSException {
+        var depth = 0;
+        try (var browseContext = connectedContext().createContext(JMSContext.AUTO_ACKNOWLEDGE);
+             var browser = browseContext.createBrowser(queue(browseContext))) {
+            Enumeration<?> messages = browser.getEnumeration();
+            while (depth < limit && messages.hasMoreElements()) {
+                messages.nextElement();
+                depth++;
+            }
+        }
+        return depth;
+    }
+
+    private synchronized boolean wasSent(Message message) {
+        var messageId = messageId(message);
+        return nonNull(messageId) && sentIds.contains(messageId);
+    }
+
+    private JMSContext connectedContext() {
+        if (isNull(context)) {
+            throw new IllegalStateException("Not connected to Artemis yet");
+        }
+        return context;
+    }
+
+    private Queue queue(JMSContext jmsContext) {
+        return jmsContext.createQueue(queueName);
+    }
+
+    private static void copyProperties(Message from, Message to) throws JMSException {
+        Enumeration<?> propertyNames = from.getPropertyNames();
+        for (var property : Collections.list(propertyNames)) {
+            var propertyName = (String) property;
+            // JMSX properties are set by the provider, and can't be set on a message being sent
+            if (!propertyName.startsWith("JMSX")) {
+                to.setObjectProperty(propertyName, from.getObjectProperty(propertyName));
+            }
+        }
+    }
+
+    private static String messageId(Message message) {
+        try {
+            return message.getJMSMessageID();
+        } catch (JMSException e) {
+            return null;
+        }
+    }
+
+    private static DeadLetter toDeadLetter(Message message) throws JMSException {
+        var body = message instanceof TextMessage ? ((TextMessage) message).getText() : null;
+        var failedAt = message.propertyExists(FAILED_AT) ? Instant.ofEpochMilli(message.getLongProperty(FAILED_AT)) : null;
+        var deliveries = message.propertyExists(DELIVERIES) ? message.getIntProperty(DELIVERIES) : 0;
+        return new DeadLetter(message.getJMSMessageID(), message.getStringProperty(REASON),
+                message.getStringProperty(ERROR), deliveries, failedAt, body);
+    }
+}
@@ -0,0 +1,50 @@
+package org.kiwiproject.elucidation.data.common.jms;
+
+import com.codahale.metrics.annotation.Timed;
+
+import javax.jms.JMSException;
+import javax.ws.rs.DefaultValue;
+import javax.ws.rs.GET;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import java.util.Map;
+
+@Path("/dead-letters")
+@Produces(MediaType.APPLICATION_JSON)
+public class DeadLetterResource {
+
+    private final DeadLetterQueue deadLetters;
+
+    public DeadLetterResource(DeadLetterQueue deadLetters) {
+        this.deadLetters = deadLetters;
+    }
+
+    @GET
+    @Timed
+    public Response browse(@QueryParam("limit") @DefaultValue("100") int limit) throws JMSException {
+        if (!deadLetters.isConnected()) {
+            return notConnected();
+        }
+        return Response.ok(deadLetters.browse(limit)).build();
+    }
+
+    @POST
+    @Path("/replay")
+    @Timed
+    public Response replay(@QueryParam("limit") @DefaultValue("100") int limit) throws JMSException {
+        if (!deadLetters.isConnected()) {
+            return notConnected();
+        }
+        return Response.ok(deadLetters.replay(limit)).build();
+    }
+
+    private Response notConnected() {
+        return Response.status(Response.Status.SERVICE_UNAVAILABLE)
+                .entity(Map.of("message", "Not connected to " + deadLetters.getQueueName() + " yet"))
+                .build();
+    }
+}
@@ -0,0 +1,31 @@
+package org.kiwiproject.elucidation.data.common.jms;
+
+import io.dropwizard.util.DataSize;
+import io.dropwizard.util.Duration;
+import lombok.Getter;
+import lombok.Setter;
+
+import javax.validation.constraints.NotNull;
+
+/**
+ * How long a consumer remembers the events it has applied, so a redelivered event is skipped rather than applied
+ * and recorded twice.
+ */
+@Getter
+@Setter
+public class DedupConfig {
+
+    /**
+     * How long after an event is first seen that a copy of it counts as a duplicate.
+     */
+    @NotNull
+    private Duration window = Duration.minutes(10);
+
+    /**
+     * The most memory the remembered ids may use, at {@value DuplicateFilter#BYTES_PER_ID} bytes an id and rounded
+     * down to a power of two ids. When it is full the oldest ids are forgotten before their window is up.
+     */
+    @NotNull
+    private DataSize maxMemory = DataSize.mebibytes(8);
+
+}
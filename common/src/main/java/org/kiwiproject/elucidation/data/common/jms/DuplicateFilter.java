@@ -0,0 +1,221 @@
+package org.kiwiproject.elucidation.data.common.jms;
+
+import static com.codahale.metrics.MetricRegistry.name;
+import static java.util.Objects.isNull;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.RatioGauge;
+import io.dropwizard.util.DataSize;
+
+import java.time.Clock;
+import java.util.UUID;
+
+/**
+ * The event ids a consumer has seen within the last window, for skipping redelivered events.
+ * <p>
+ * Ids are kept as 64-bit fingerprints in an open-addressed table, alongside a ring of the same fingerprints in the
+ * order they were seen. Ids leave the ring oldest first, when their window is up or when the ring is full, so
+ * memory is fixed when the filter is created. Two different ids share a fingerprint with a chance of about one in
+ * 2<sup>64</sup>.
+ */
+public class DuplicateFilter {
+
+    /**
+     * A ring slot holds a fingerprint and a time, and the table has two slots holding the same again for every ring
+     * slot, so it is at most half full.
+     */
+    public static final int BYTES_PER_ID = 48;
+
+    private static final long EMPTY = 0;
+
+    private final Clock clock;
+    private final long windowMillis;
+
+    private final long[] ringIds;
+    private final long[] ringTimes;
+    private int head;
+    private int size;
+
+    private final long[] tableIds;
+    private final long[] tableTimes;
+    private final int mask;
+
+    private final Meter checked;
+    private final Meter duplicates;
+    private final Meter evicted;
+
+    public DuplicateFilter(DedupConfig config, Clock clock, MetricRegistry metrics, String serviceName) {
+        this(config.getWindow().toMilliseconds(), capacityFor(config.getMaxMemory()), clock, metrics, serviceName);
+    }
+
+    DuplicateFilter(long windowMillis, int capacity, Clock clock, MetricRegistry metrics, String serviceName) {
+        this.clock = clock;
+        this.windowMillis = windowMillis;
+
+        this.ringIds = new long[capacity];
+        this.ringTimes = new long[capacity];
+
+        // the smallest power of two at least twice the capacity, which is exactly twice a power of two capacity
+        var tableSize = Integer.highestOneBit(Math.max(2, capacity * 2 - 1)) << 1;
+        this.tableIds = new long[tableSize];
+        this.tableTimes = new long[tableSize];
+        this.mask = tableSize - 1;
+
+        var prefix = name(serviceName, "jms", "dedup");
+        this.checked = metrics.meter(name(prefix, "checked"));
+        this.duplicates = metrics.meter(name(prefix, "duplicates"));
+        this.evicted = metrics.meter(name(prefix, "evicted"));
+        metrics.gauge(name(prefix, "size"), () -> this::size);
+        metrics.register(name(prefix, "duplicateRate"), new RatioGauge() {
+            @Override
+            protected Ratio getRatio() {
+                return Ratio.of(duplicates.getOneMinuteRate(), checked.getOneMinuteRate());
+            }
+        });
+    }
+
+    /**
+     * The most ids that fit in the memory with their table: the table is sized first, as the largest power of two
+     * that fits, and holds half as many ids as it has slots.
+     */
+    static int capacityFor(DataSize maxMemory) {
+        var tableSize = Long.highestOneBit(Math.max(2, Math.min(1L << 29, maxMemory.toBytes() / (BYTES_PER_ID / 2))));
+        return (int) (tableSize / 2);
+    }
+
+    /**
+     * Remembers the id, unless it has been seen within the window already. Events without an id are always new.
+     *
+     * @return false if the id is a duplicate
+     */
+    public synchronized boolean firstSeen(String id) {
+        if (isNull(id)) {
+            return true;
+        }
+
+        checked.mark();
+        var now = clock.millis();
+        expire(now);
+
+        var fingerprint = fingerprint(id);
+        var slot = find(fingerprint);
+        if (tableIds[slot] != EMPTY) {
+            duplicates.mark();
+            return false;
+        }
+
+        if (size == ringIds.length) {
+            evicted.mark();
+            evictOldest();
+            slot = find(fingerprint);
+        }
+
+        tableIds[slot] = fingerprint;
+        tableTimes[slot] = now;
+
+        var tail = (head + size) % ringIds.length;
+        ringIds[tail] = fingerprint;
+        ringTimes[tail] = now;
+        size++;
+        return true;
+    }
+
+    /**
+     * Forgets an id, for an event that wasn't applied after all and should be applied when it is redelivered.
+     */
+    public synchronized void forget(String id) {
+        if (isNull(id)) {
+            return;
+        }
+
+        var slot = find(fingerprint(id));
+        if (tableIds[slot] != EMPTY) {
+            delete(slot);
+        }
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * The memory taken by the ring and the table.
+     */
+    long allocatedBytes() {
+        return Long.BYTES * ((long) ringIds.length + ringTimes.length + tableIds.length + tableTimes.length);
+    }
+
+    private void expire(long now) {
+        while (size > 0 && now - ringTimes[head] >= windowMillis) {
+            evictOldest();
+        }
+    }
+
+    private void evictOldest() {
+        var fingerprint = ringIds[head];
+        var seenAt = ringTimes[head];
+        head = (head + 1) % ringIds.length;
+        size--;
+
+        // a forgotten and seen again id has a newer time in the table, and stays until its own ring slot expires
+        var slot = find(fingerprint);
+        if (tableIds[slot] != EMPTY && tableTimes[slot] == seenAt) {
+            delete(slot);
+        }
+    }
+
+    /**
+     * The slot holding the fingerprint, or the empty slot where it would go.
+     */
+    private int find(long fingerprint) {
+        var slot = (int) (fingerprint ^ (fingerprint >>> 32)) & mask;
+        while (tableIds[slot] != EMPTY && tableIds[slot] != fingerprint) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Linear probing deletion: moves back any later entry of the same run that would no longer be found.
+     */
+    private void delete(int slot) {
+        var gap = slot;
+        var next = (gap + 1) & mask;
+        while (tableIds[next] != EMPTY) {
+            var home = (int) (tableIds[next] ^ (tableIds[next] >>> 32)) & mask;
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                tableIds[gap] = tableIds[next];
+                tableTimes[gap] = tableTimes[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        tableIds[gap] = EMPTY;
+        tableTimes[gap] = 0;
+    }
+
+    /**
+     * 64 bits of the id, from the UUID itself when it is one.
+     */
+    static long fingerprint(String id) {
+        long hash;
+        try {
+            var uuid = UUID.fromString(id);
+            hash = mix(uuid.getMostSignificantBits() ^ mix(uuid.getLeastSignificantBits()));
+        } catch (IllegalArgumentException e) {
+            hash = 0xcbf29ce484222325L;
+            for (var i = 0; i < id.length(); i++) {
+                hash = (hash ^ id.charAt(i)) * 0x100000001b3L;
+            }
+            hash = mix(hash);
+        }
+        return hash == EMPTY ? 1 : hash;
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
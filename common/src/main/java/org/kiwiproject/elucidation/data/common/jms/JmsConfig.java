@@ -0,0 +1,88 @@
+package org.kiwiproject.elucidation.data.common.jms;
+
+import io.dropwizard.util.DataSize;
+import io.dropwizard.util.Duration;
+import lombok.Getter;
+import lombok.Setter;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+
+/**
+ * How a service connects to Artemis, and the flow control settings for every consumer and producer it creates.
+ */
+@Getter
+@Setter
+public class JmsConfig {
+
+    @NotEmpty
+    private String url = "tcp://artemis:61616";
+
+    @NotEmpty
+    private String user = "elucidation";
+
+    @NotEmpty
+    private String password = "password";
+
+    /**
+     * How long after startup to connect, since Artemis may still be starting when run with docker compose.
+     */
+    @NotNull
+    private Duration startDelay = Duration.seconds(30);
+
+    /**
+     * How many bytes of messages Artemis sends a consumer ahead of it asking for them. Zero sends each message only
+     * once the one before it has been taken.
+     */
+    @NotNull
+    private DataSize consumerWindowSize = DataSize.kibibytes(1024);
+
+    /**
+     * How many bytes of messages a producer can send before Artemis has to give it more credit.
+     */
+    @NotNull
+    private DataSize producerWindowSize = DataSize.kibibytes(64);
+
+    /**
+     * How many producer sessions are shared by the threads sending messages.
+     */
+    @Min(1)
+    private int producerPoolSize = 4;
+
+    /**
+     * How many bytes of commands a session sends before Artemis confirms them. Unset leaves confirmations off,
+     * which also means nothing is resent after a reconnect.
+     */
+    private DataSize confirmationWindowSize;
+
+    /**
+     * Whether sending a persistent message waits for Artemis to have it. Every event home sends is persistent.
+     */
+    private boolean blockOnDurableSend = true;
+
+    private boolean blockOnNonDurableSend;
+
+    /**
+     * Whether acknowledging a message waits for Artemis to have the acknowledgement.
+     */
+    private boolean blockOnAcknowledge;
+
+    /**
+     * Whether messages over the large message size (100KiB) are compressed. Events are far smaller than that.
+     */
+    private boolean compressLargeMessages;
+
+    /**
+     * How long a blocking call to Artemis, like a durable send, waits for an answer before failing.
+     */
+    @NotNull
+    private Duration callTimeout = Duration.seconds(30);
+
+    /**
+     * How long a blocking call waits while the connection is failing over before failing.
+     */
+    @NotNull
+    private Duration callFailoverTimeout = Duration.seconds(30);
+
+}
@@ -0,0 +1,247 @@
+package org.kiwiproject.elucidation.data.common.jms;
+
+import static java.util.Objects.nonNull;
+
+import org.kiwiproject.elucidation.data.common.thread.VirtualThreads;
+import io.dropwizard.lifecycle.Managed;
+import io.dropwizard.util.DataSize;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.activemq.artemis.jms.client.ActiveMQConnectionFactory;
+
+import javax.jms.JMSContext;
+import javax.jms.JMSProducer;
+import javax.jms.JMSRuntimeException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A service's connections to Artemis, all made from one connection factory with the flow control settings in
+ * {@link JmsConfig}. Subscriptions share a connection with the service's client id. Producers are a pool of
+ * sessions on a second connection, shared by whichever threads are sending.
+ * <p>
+ * Connects {@code startDelay} after being started, and keeps trying, backing off up to
+ * {@value #MAX_RETRY_DELAY_MILLIS} ms between attempts, until it does. Subscriptions made before then are opened
+ * once connected, and sending before then fails.
+ * <p>
+ * Stopping waits for batch receivers to finish the batch they are on before closing the sessions under them.
+ * <p>
+ * Batch subscriptions receive on a thread of their own, which is virtual when the service uses virtual threads.
+ * Listener subscriptions are called on Artemis' threads, as their redelivery depends on the listener throwing there.
+ */
+@Slf4j
+public class JmsConnections implements Managed {
+
+    private static final long FIRST_RETRY_DELAY_MILLIS = 1_000;
+    private static final long MAX_RETRY_DELAY_MILLIS = 30_000;
+    private static final long RECEIVER_STOP_TIMEOUT_MILLIS = 10_000;
+
+    private final JmsConfig config;
+    private final String clientId;
+    private final ScheduledExecutorService executor;
+    private final ThreadFactory receiverThreads;
+    private final List<Subscription> pending = new ArrayList<>();
+    private final List<BatchReceiver> receivers = new ArrayList<>();
+    private final List<SubscriptionBacklog> backlogs = new ArrayList<>();
+    private final List<JMSContext> contexts = new ArrayList<>();
+    private final BlockingQueue<JMSProducer> producers;
+
+    private ActiveMQConnectionFactory factory;
+    private JMSContext consumerConnection;
+    private volatile boolean connected;
+    private boolean stopped;
+    private long retryDelayMillis = FIRST_RETRY_DELAY_MILLIS;
+
+    public JmsConnections(JmsConfig config, String clientId, ScheduledExecutorService executor, boolean virtualThreads) {
+        this.config = config;
+        this.clientId = clientId;
+        this.executor = executor;
+        this.receiverThreads = virtualThreads
+                ? VirtualThreads.factory(clientId + "-jms-batch-")
+                : runnable -> {
+                    var thread = new Thread(runnable, clientId + "-jms-batch");
+                    thread.setDaemon(true);
+                    return thread;
+                };
+        this.producers = new ArrayBlockingQueue<>(config.getProducerPoolSize());
+    }
+
+    @Override
+    public void start() {
+        executor.schedule(this::connect, config.getStartDelay().toMilliseconds(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void stop() {
+        stopped = true;
+        disconnect();
+    }
+
+    private void disconnect() {
+        connected = false;
+        receivers.forEach(BatchReceiver::stop);
+        awaitReceivers();
+        receivers.clear();
+        backlogs.forEach(SubscriptionBacklog::close);
+        backlogs.clear();
+        producers.clear();
+
+        // sessions before the connections they were made on
+        for (var i = contexts.size() - 1; i >= 0; i--) {
+            try {
+                contexts.get(i).close();
+            } catch (JMSRuntimeException e) {
+                LOG.warn("Problem closing a connection to Artemis", e);
+            }
+        }
+        contexts.clear();
+        if (nonNull(factory)) {
+            factory.close();
+            factory = null;
+        }
+    }
+
+    private void awaitReceivers() {
+        for (var receiver : receivers) {
+            try {
+                if (!receiver.awaitStopped(RECEIVER_STOP_TIMEOUT_MILLIS)) {
+                    LOG.warn("A batch receiver of {} was still handling a batch after {} ms, closing its session anyway",
+                            clientId, RECEIVER_STOP_TIMEOUT_MILLIS);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    public boolean isConnected() {
+        return connected;
+    }
+
+    /**
+     * Starts taking messages for the subscription, now if connected or otherwise once connected.
+     */
+    public synchronized void subscribe(Subscription subscription) {
+        if (connected) {
+            open(subscription);
+        } else {
+            pending.add(subscription);
+        }
+    }
+
+    public TopicPublisher publisher(String topic) {
+        return new TopicPublisher(this, topic);
+    }
+
+    @SuppressWarnings("java:S2095")
+    synchronized void connect() {
+        if (stopped) {
+            return;
+        }
+
+        try {
+            factory = createFactory(config);
+
+            consumerConnection = factory.createContext();
+            consumerConnection.setClientID(clientId);
+            contexts.add(consumerConnection);
+
+            var producerConnection = factory.createContext();
+            contexts.add(producerConnection);
+            for (var i = 0; i < config.getProducerPoolSize(); i++) {
+                var session = producerConnection.createContext(JMSContext.AUTO_ACKNOWLEDGE);
+                contexts.add(session);
+                producers.add(session.createProducer());
+            }
+
+            connected = true;
+            pending.forEach(this::open);
+            pending.clear();
+            LOG.info("Connection to Artemis is setup");
+        } catch (Exception e) {
+            LOG.error("Unable to connect to Artemis at {}, trying again in {} ms", config.getUrl(), retryDelayMillis, e);
+            disconnect();
+            retryConnect();
+        }
+    }
+
+    private void retryConnect() {
+        try {
+            executor.schedule(this::connect, retryDelayMillis, TimeUnit.MILLISECONDS);
+            retryDelayMillis = Math.min(retryDelayMillis * 2, MAX_RETRY_DELAY_MILLIS);
+        } catch (RejectedExecutionException e) {
+            LOG.warn("Not trying to connect to Artemis again, the service is stopping");
+        }
+    }
+
+    /**
+     * A connection factory with every flow control setting from the config, so none are left at Artemis' defaults
+     * by accident.
+     */
+    static ActiveMQConnectionFactory createFactory(JmsConfig config) {
+        var factory = new ActiveMQConnectionFactory(config.getUrl(), config.getUser(), config.getPassword());
+        factory.setConsumerWindowSize(bytes(config.getConsumerWindowSize()));
+        factory.setProducerWindowSize(bytes(config.getProducerWindowSize()));
+        if (nonNull(config.getConfirmationWindowSize())) {
+            factory.setConfirmationWindowSize(bytes(config.getConfirmationWindowSize()));
+        }
+        factory.setBlockOnDurableSend(config.isBlockOnDurableSend());
+        factory.setBlockOnNonDurableSend(config.isBlockOnNonDurableSend());
+        factory.setBlockOnAcknowledge(config.isBlockOnAcknowledge());
+        factory.setCompressLargeMessage(config.isCompressLargeMessages());
+        factory.setCallTimeout(config.getCallTimeout().toMilliseconds());
+        factory.setCallFailoverTimeout(config.getCallFailoverTimeout().toMilliseconds());
+        return factory;
+    }
+
+    private static int bytes(DataSize size) {
+        return Math.toIntExact(size.toBytes());
+    }
+
+    private void open(Subscription subscription) {
+        var batch = subscription.getBatch();
+        var context = consumerConnection.createContext(batch.isEnabled() ? JMSContext.CLIENT_ACKNOWLEDGE : JMSContext.AUTO_ACKNOWLEDGE);
+        contexts.add(context);
+
+        var consumer = context.createSharedConsumer(context.createTopic(subscription.getTopic()), subscription.getName());
+        subscription.getDeadLetters().connect(context, subscription.getHandler());
+        if (batch.isEnabled()) {
+            var receiver = new BatchReceiver(context, consumer, batch, subscription.getHandler(),
+                    subscription.getRetry(), subscription.getDeadLetters(), subscription.getMetrics());
+            receiver.start(receiverThreads);
+            receivers.add(receiver);
+        } else {
+            consumer.setMessageListener(new RedeliveringListener(subscription));
+        }
+
+        try {
+            var backlog = SubscriptionBacklog.open(factory, config.getUser(), config.getPassword(), clientId,
+                    subscription.getName());
+            backlogs.add(backlog);
+            subscription.getMetrics().registerBacklog(backlog);
+        } catch (Exception e) {
+            LOG.warn("Unable to watch the backlog of subscription {}", subscription.getName(), e);
+        }
+        LOG.info("Subscribed to {} as {}", subscription.getTopic(), subscription.getName());
+    }
+
+    /**
+     * Waits for a producer session to be free.
+     */
+    JMSProducer borrowProducer() throws InterruptedException {
+        if (!connected) {
+            throw new IllegalStateException("Not connected to Artemis yet");
+        }
+        return producers.take();
+    }
+
+    void returnProducer(JMSProducer producer) {
+        producers.add(producer);
+    }
+}
@@ -0,0 +1,13 @@
+package org.kiwiproject.elucidation.data.common.jms;
+
+import javax.jms.Message;
+import java.util.List;
+
+/**
+ * Applies messages from a subscription, a batch at a time or one at a time, throwing if any of them could not be
+ * applied.
+ */
+@FunctionalInterface
+public interface MessageHandler {
+    void handle(List<Message> messages) throws Exception;
+}
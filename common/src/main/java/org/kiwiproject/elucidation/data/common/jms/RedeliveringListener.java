@@ -0,0 +1,39 @@
+package org.kiwiproject.elucidation.data.common.jms;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.jms.Message;
+import javax.jms.MessageListener;
+import java.util.List;
+
+/**
+ * Hands a subscription's messages to its handler one at a time, on an {@link javax.jms.JMSContext#AUTO_ACKNOWLEDGE}
+ * session. When the handler fails the exception is rethrown, which makes Artemis roll the delivery back and
+ * redeliver it, until the retry policy gives up and the message is dead-lettered.
+ */
+@Slf4j
+class RedeliveringListener implements MessageListener {
+
+    private final MessageHandler handler;
+    private final RetryPolicy retry;
+    private final DeadLetterQueue deadLetters;
+
+    RedeliveringListener(Subscription subscription) {
+        this.handler = subscription.getHandler();
+        this.retry = subscription.getRetry();
+        this.deadLetters = subscription.getDeadLetters();
+    }
+
+    @Override
+    public void onMessage(Message message) {
+        try {
+            handler.handle(List.of(message));
+        } catch (Exception e) {
+            if (retry.redeliver(List.of(message))) {
+                LOG.warn("Problem applying message, it will be redelivered", e);
+                throw e instanceof RuntimeException ? (RuntimeException) e : new IllegalStateException(e);
+            }
+            deadLetters.send(message, DeadLetterQueue.Reason.RETRIES_EXHAUSTED, e);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package org.kiwiproject.elucidation.data.common.jms;
+
+import io.dropwizard.util.Duration;
+import lombok.Getter;
+import lombok.Setter;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+
+/**
+ * How often a message that failed to apply is redelivered before it is dead-lettered, and how long to back off
+ * before each redelivery.
+ */
+@Getter
+@Setter
+public class RetryConfig {
+
+    /**
+     * The most times a message is delivered, counting the first.
+     */
+    @Min(1)
+    private int maxDeliveries = 5;
+
+    /**
+     * The backoff before the first redelivery, doubled for each one after it.
+     */
+    @NotNull
+    private Duration initialBackoff = Duration.milliseconds(100);
+
+    @NotNull
+    private Duration maxBackoff = Duration.seconds(5);
+
+}
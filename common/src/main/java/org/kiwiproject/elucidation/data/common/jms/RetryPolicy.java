@@ -0,0 +1,73 @@
+package org.kiwiproject.elucidation.data.common.jms;
+
+import static com.codahale.metrics.MetricRegistry.name;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.jms.JMSException;
+import javax.jms.Message;
+import java.util.List;
+
+/**
+ * Decides whether messages that failed to apply get another delivery, going by the {@code JMSXDeliveryCount}
+ * Artemis sets on each one. Before saying yes it backs off, so a failing database isn't hit in a tight loop.
+ */
+@Slf4j
+public class RetryPolicy {
+
+    static final String DELIVERY_COUNT = "JMSXDeliveryCount";
+
+    private final RetryConfig config;
+    private final Meter redeliveries;
+    private final Meter exhausted;
+
+    public RetryPolicy(RetryConfig config, MetricRegistry metrics, String serviceName) {
+        this.config = config;
+        this.redeliveries = metrics.meter(name(serviceName, "jms", "retry", "redeliveries"));
+        this.exhausted = metrics.meter(name(serviceName, "jms", "retry", "exhausted"));
+    }
+
+    /**
+     * Backs off and returns true if none of the messages has used up its deliveries. Otherwise returns false
+     * right away, and the caller should dead-letter whatever still fails.
+     */
+    public boolean redeliver(List<Message> messages) {
+        var deliveries = messages.stream().mapToInt(RetryPolicy::deliveries).max().orElse(1);
+        if (deliveries >= config.getMaxDeliveries()) {
+            exhausted.mark();
+            return false;
+        }
+
+        redeliveries.mark();
+        try {
+            Thread.sleep(backoffMillis(deliveries));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return true;
+    }
+
+    /**
+     * The initial backoff doubled for every delivery after the first, up to the max backoff.
+     */
+    long backoffMillis(int deliveries) {
+        var initial = config.getInitialBackoff().toMilliseconds();
+        var max = config.getMaxBackoff().toMilliseconds();
+        var doublings = Math.min(deliveries - 1, 30);
+        return Math.min(max, initial << doublings);
+    }
+
+    /**
+     * How many times the message has been delivered, counting this one.
+     */
+    static int deliveries(Message message) {
+        try {
+            return Math.max(1, message.getIntProperty(DELIVERY_COUNT));
+        } catch (JMSException | NumberFormatException e) {
+            LOG.debug("Unable to read the delivery count", e);
+            return 1;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package org.kiwiproject.elucidation.data.common.jms;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * A shared subscription to a topic, and how its messages are handled, for {@link JmsConnections#subscribe}.
+ */
+@Value
+@Builder
+public class Subscription {
+
+    String topic;
+
+    /**
+     * The shared subscription name. Every instance of a service subscribing with the same name shares its messages.
+     */
+    String name;
+
+    MessageHandler handler;
+
+    @Builder.Default
+    BatchConfig batch = new BatchConfig();
+
+    RetryPolicy retry;
+    DeadLetterQueue deadLetters;
+    ConsumerMetrics metrics;
+}
@@ -0,0 +1,72 @@
+package org.kiwiproject.elucidation.data.common.jms;
+
+import com.codahale.metrics.CachedGauge;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.activemq.artemis.api.core.ActiveMQException;
+import org.apache.activemq.artemis.api.core.SimpleString;
+import org.apache.activemq.artemis.api.core.client.ClientSession;
+import org.apache.activemq.artemis.api.core.client.ClientSessionFactory;
+import org.apache.activemq.artemis.jms.client.ActiveMQConnectionFactory;
+import org.apache.activemq.artemis.jms.client.ActiveMQDestination;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * How many messages Artemis is holding for a shared topic subscription, asked of the broker at most every five
+ * seconds. Reads -1 when the broker can't be asked. Holds a session and session factory of its own until closed.
+ */
+@Slf4j
+public class SubscriptionBacklog extends CachedGauge<Long> implements AutoCloseable {
+
+    private final ClientSessionFactory sessionFactory;
+    private final ClientSession session;
+    private final SimpleString queue;
+
+    SubscriptionBacklog(ClientSessionFactory sessionFactory, ClientSession session, SimpleString queue) {
+        super(5, TimeUnit.SECONDS);
+        this.sessionFactory = sessionFactory;
+        this.session = session;
+        this.queue = queue;
+    }
+
+    /**
+     * Opens a session of its own on the consumer's connection factory, for the subscription created with
+     * {@code createSharedConsumer(topic, subscription)} by a context with the given client id.
+     */
+    public static SubscriptionBacklog open(ActiveMQConnectionFactory factory, String user, String password,
+                                           String clientId, String subscription) throws Exception {
+        var sessionFactory = factory.getServerLocator().createSessionFactory();
+        try {
+            var session = sessionFactory.createSession(user, password, false, true, true, false, 0);
+            var queue = ActiveMQDestination.createQueueNameForSharedSubscription(false, clientId, subscription);
+            return new SubscriptionBacklog(sessionFactory, session, SimpleString.toSimpleString(queue));
+        } catch (Exception e) {
+            sessionFactory.close();
+            throw e;
+        }
+    }
+
+    @Override
+    protected Long loadValue() {
+        try {
+            return session.queueQuery(queue).getMessageCount();
+        } catch (ActiveMQException e) {
+            LOG.debug("Unable to query backlog of {}", queue, e);
+            return -1L;
+        }
+    }
+
+    /**
+     * Closes the session, then the session factory it was made from.
+     */
+    @Override
+    public void close() {
+        try {
+            session.close();
+        } catch (ActiveMQException e) {
+            LOG.warn("Problem closing the session watching {}", queue, e);
+        } finally {
+            sessionFactory.close();
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package org.kiwiproject.elucidation.data.common.jms;
+
+import org.apache.activemq.artemis.jms.client.ActiveMQDestination;
+
+import javax.jms.Topic;
+import java.util.Map;
+
+/**
+ * Sends text messages to a topic on whichever of the pooled producer sessions is free, so concurrent senders don't
+ * queue up behind one session.
+ */
+public class TopicPublisher {
+
+    private final JmsConnections connections;
+    private final Topic topic;
+
+    TopicPublisher(JmsConnections connections, String topic) {
+        this.connections = connections;
+        this.topic = ActiveMQDestination.createTopic(topic);
+    }
+
+    /**
+     * Sends the text with the given string properties, waiting for a producer session to be free if need be.
+     *
+     * @throws IllegalStateException if not connected to Artemis yet
+     */
+    public void send(String text, Map<String, String> properties) throws InterruptedException {
+        var producer = connections.borrowProducer();
+        try {
+            // properties stay set on a producer, so clear the last sender's
+            producer.clearProperties();
+            properties.forEach(producer::setProperty);
+            producer.send(topic, text);
+        } finally {
+            connections.returnProducer(producer);
+        }
+    }
+}
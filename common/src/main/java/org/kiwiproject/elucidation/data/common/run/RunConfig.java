@@ -0,0 +1,32 @@
+package org.kiwiproject.elucidation.data.common.run;
+
+import static java.util.Objects.isNull;
+
+import io.dropwizard.util.Duration;
+import lombok.Getter;
+import lombok.Setter;
+
+import javax.validation.constraints.NotNull;
+import java.time.Clock;
+import java.time.Instant;
+
+@Getter
+@Setter
+public class RunConfig {
+
+    private Long seed;
+
+    private Instant startTime;
+
+    @NotNull
+    private Duration tick = Duration.milliseconds(1);
+
+    public RunContext buildContext(String serviceName) {
+        var runSeed = isNull(seed) ? RunSeed.random() : RunSeed.of(seed).derive(serviceName);
+        var clock = isNull(startTime)
+                ? Clock.systemDefaultZone()
+                : new VirtualClock(startTime, java.time.Duration.ofMillis(tick.toMilliseconds()));
+
+        return new RunContext(clock, runSeed);
+    }
+}
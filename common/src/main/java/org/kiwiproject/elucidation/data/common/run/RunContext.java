@@ -0,0 +1,79 @@
+package org.kiwiproject.elucidation.data.common.run;
+
+import lombok.Getter;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * The clock and seed a service should use for anything that ends up in generated data. With the defaults this is
+ * the wall clock and random ids; with a configured seed and start time it becomes a {@link VirtualClock} and a
+ * seeded {@link RunSeed}, which makes the run repeatable.
+ */
+@Getter
+public class RunContext {
+
+    private final Clock clock;
+    private final RunSeed seed;
+
+    public RunContext(Clock clock, RunSeed seed) {
+        this.clock = clock;
+        this.seed = seed;
+    }
+
+    public static RunContext system() {
+        return new RunContext(Clock.systemDefaultZone(), RunSeed.random());
+    }
+
+    /**
+     * The context for one of several pieces of work running at once, such as a scenario instance or a workflow run.
+     * On a virtual clock it gets a clock of its own, starting where this one is now, so its times only depend on its
+     * own reads and sleeps. Reading this clock moves it on by a tick, so instances started one after another also
+     * start one after another. On the wall clock it is this context.
+     */
+    public RunContext forInstance() {
+        return clock instanceof VirtualClock ? forInstance(clock.instant()) : this;
+    }
+
+    /**
+     * As {@link #forInstance()}, but starting the virtual clock at the given instant.
+     */
+    public RunContext forInstance(Instant start) {
+        return clock instanceof VirtualClock ? new RunContext(((VirtualClock) clock).fork(start), seed) : this;
+    }
+
+    /**
+     * As {@link #forInstance()}, with a seed of its own derived from the given name, so the ids it draws don't depend
+     * on what the instances alongside it draw.
+     */
+    public RunContext forInstance(String name) {
+        return withSeedFor(forInstance(), name);
+    }
+
+    /**
+     * As {@link #forInstance(String)}, but starting the virtual clock at the given instant.
+     */
+    public RunContext forInstance(String name, Instant start) {
+        return withSeedFor(forInstance(start), name);
+    }
+
+    private RunContext withSeedFor(RunContext instance, String name) {
+        return seed.isSeeded() ? new RunContext(instance.clock, seed.derive(name)) : instance;
+    }
+
+    public boolean isDeterministic() {
+        return seed.isSeeded() && clock instanceof VirtualClock;
+    }
+
+    /**
+     * Waits for the given time. On a virtual clock this just moves the clock forward instead of blocking.
+     */
+    public void sleep(Duration duration) throws InterruptedException {
+        if (clock instanceof VirtualClock) {
+            ((VirtualClock) clock).advance(duration);
+        } else {
+            Thread.sleep(duration.toMillis());
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package org.kiwiproject.elucidation.data.common.run;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import java.nio.charset.StandardCharsets;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Source of the random values a run depends on. A seeded instance hands out the same sequence of ids and random
+ * streams every time; an unseeded one behaves like {@link UUID#randomUUID()} and an unseeded random.
+ */
+public class RunSeed {
+
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private final Long seed;
+    private final AtomicLong counter = new AtomicLong();
+
+    private RunSeed(Long seed) {
+        this.seed = seed;
+    }
+
+    public static RunSeed of(long seed) {
+        return new RunSeed(seed);
+    }
+
+    public static RunSeed random() {
+        return new RunSeed(null);
+    }
+
+    public boolean isSeeded() {
+        return nonNull(seed);
+    }
+
+    /**
+     * A separate, equally repeatable seed for one part of the run, so e.g. each service has its own sequence
+     * that does not shift when another service draws more values.
+     */
+    public RunSeed derive(String name) {
+        if (isNull(seed)) {
+            return random();
+        }
+
+        var hash = seed;
+        for (var b : name.getBytes(StandardCharsets.UTF_8)) {
+            hash = mix(hash + b * GOLDEN_GAMMA);
+        }
+        return of(hash);
+    }
+
+    public UUID nextUuid() {
+        if (isNull(seed)) {
+            return UUID.randomUUID();
+        }
+
+        var n = counter.getAndIncrement();
+        var most = mix(seed + (2 * n + 1) * GOLDEN_GAMMA);
+        var least = mix(seed + (2 * n + 2) * GOLDEN_GAMMA);
+
+        // Mark it as a version 4 (random) UUID with the IETF variant, same as randomUUID
+        most = (most & 0xFFFFFFFFFFFF0FFFL) | 0x0000000000004000L;
+        least = (least & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(most, least);
+    }
+
+    /**
+     * A random stream that is fully determined by the seed and the given index, regardless of which thread asks
+     * for it or in what order.
+     */
+    public SplittableRandom randomFor(long index) {
+        if (isNull(seed)) {
+            return new SplittableRandom();
+        }
+        return new SplittableRandom(seed + index * GOLDEN_GAMMA);
+    }
+
+    public SplittableRandom nextRandom() {
+        return randomFor(counter.getAndIncrement());
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,78 @@
+package org.kiwiproject.elucidation.data.common.run;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A clock that starts at a fixed instant and only moves when it is read or explicitly advanced. Every read moves
+ * time forward by one tick, so a service that observes events in a repeatable order also stamps them with
+ * repeatable times, no matter how long the work in between actually took.
+ * <p>
+ * That only holds while the reads come in a repeatable order, so work that runs alongside other work, such as a
+ * scenario instance or a workflow run, reads a {@link #fork} of its own instead of sharing one clock.
+ */
+public class VirtualClock extends Clock {
+
+    private final Instant start;
+    private final AtomicLong nowMillis;
+    private final long tickMillis;
+    private final ZoneId zone;
+
+    public VirtualClock(Instant start, Duration tick) {
+        this(start, new AtomicLong(start.toEpochMilli()), tick.toMillis(), ZoneOffset.UTC);
+    }
+
+    private VirtualClock(Instant start, AtomicLong nowMillis, long tickMillis, ZoneId zone) {
+        this.start = start;
+        this.nowMillis = nowMillis;
+        this.tickMillis = tickMillis;
+        this.zone = zone;
+    }
+
+    /**
+     * A clock of its own that starts at the given instant and ticks as this one does. Reading or advancing either
+     * clock doesn't move the other.
+     */
+    public VirtualClock fork(Instant forkStart) {
+        return new VirtualClock(forkStart, new AtomicLong(forkStart.toEpochMilli()), tickMillis, zone);
+    }
+
+    public Instant getStart() {
+        return start;
+    }
+
+    @Override
+    public long millis() {
+        return nowMillis.getAndAdd(tickMillis);
+    }
+
+    @Override
+    public Instant instant() {
+        return Instant.ofEpochMilli(millis());
+    }
+
+    /**
+     * Reads the current time without moving the clock.
+     */
+    public Instant peek() {
+        return Instant.ofEpochMilli(nowMillis.get());
+    }
+
+    public void advance(Duration duration) {
+        nowMillis.addAndGet(duration.toMillis());
+    }
+
+    @Override
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    @Override
+    public Clock withZone(ZoneId newZone) {
+        return new VirtualClock(start, nowMillis, tickMillis, newZone);
+    }
+}
@@ -0,0 +1,99 @@
+package org.kiwiproject.elucidation.data.common.shard;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.isNull;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Consistent hashing of homes onto shards. Each shard is placed on a ring at {@code virtualNodes} points, and a home
+ * belongs to the first shard point at or after its own hash. Adding a shard only moves the homes that land on the
+ * new shard's points, about one in every {@code n + 1}.
+ * <p>
+ * Devices and workflows without a home belong to {@value #DEFAULT_HOME}.
+ */
+public class HomeShards {
+
+    public static final String DEFAULT_HOME = "default";
+
+    private static final HashFunction HASH = Hashing.murmur3_32_fixed();
+
+    private final List<String> urls;
+    private final int index;
+    private final NavigableMap<Integer, Integer> ring = new TreeMap<>();
+
+    public HomeShards(ShardConfig config) {
+        this.urls = List.copyOf(config.getShards());
+        this.index = config.getIndex();
+        checkArgument(urls.isEmpty() || index < urls.size(), "shard index %s is not one of the %s shards", index, urls.size());
+
+        for (var shard = 0; shard < getShardCount(); shard++) {
+            for (var node = 0; node < config.getVirtualNodes(); node++) {
+                ring.putIfAbsent(hash("shard-" + shard + "-" + node), shard);
+            }
+        }
+    }
+
+    public static String homeOrDefault(String home) {
+        return isNull(home) || home.isBlank() ? DEFAULT_HOME : home;
+    }
+
+    /**
+     * Whether two homes are the same, counting no home as the default one.
+     */
+    public static boolean sameHome(String home, String other) {
+        return homeOrDefault(home).equals(homeOrDefault(other));
+    }
+
+    public int getShardCount() {
+        return Math.max(1, urls.size());
+    }
+
+    public boolean isSharded() {
+        return getShardCount() > 1;
+    }
+
+    public int shardOf(String home) {
+        var point = ring.ceilingEntry(hash(homeOrDefault(home)));
+        return isNull(point) ? ring.firstEntry().getValue() : point.getValue();
+    }
+
+    /**
+     * Whether the home belongs to this instance's shard.
+     */
+    public boolean owns(String home) {
+        return shardOf(home) == index;
+    }
+
+    /**
+     * The base url of the shard the home belongs to.
+     *
+     * @throws IllegalStateException if there are no shard urls configured
+     */
+    public String urlOf(String home) {
+        return urlOfShard(shardOf(home));
+    }
+
+    /**
+     * The base url of a shard by its index.
+     *
+     * @throws IllegalStateException if there are no shard urls configured
+     */
+    public String urlOfShard(int shard) {
+        if (urls.isEmpty()) {
+            throw new IllegalStateException("No home shards are configured");
+        }
+        checkArgument(shard >= 0 && shard < urls.size(), "shard %s is not one of the %s shards", shard, urls.size());
+        return urls.get(shard);
+    }
+
+    private static int hash(String key) {
+        return HASH.hashString(key, StandardCharsets.UTF_8).asInt();
+    }
+}
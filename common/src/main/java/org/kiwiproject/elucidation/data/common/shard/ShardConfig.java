@@ -0,0 +1,38 @@
+package org.kiwiproject.elucidation.data.common.shard;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * How homes are spread over home-service instances. With fewer than two shards listed there is no sharding and the
+ * one instance owns every home.
+ */
+@Getter
+@Setter
+public class ShardConfig {
+
+    /**
+     * The base url of every home shard. The order decides which shard is which, so every instance and the router
+     * need the same list.
+     */
+    @NotNull
+    private List<String> shards = new ArrayList<>();
+
+    /**
+     * Which of the shards this instance is, counting from zero. The router ignores it.
+     */
+    @Min(0)
+    private int index;
+
+    /**
+     * How many points each shard gets on the hash ring. More points spread homes more evenly.
+     */
+    @Min(1)
+    private int virtualNodes = 128;
+
+}
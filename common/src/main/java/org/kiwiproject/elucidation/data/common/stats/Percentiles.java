@@ -0,0 +1,37 @@
+package org.kiwiproject.elucidation.data.common.stats;
+
+import lombok.Value;
+
+import java.util.Arrays;
+
+/**
+ * Nearest-rank percentiles, as reported for workflow runs and trace spans.
+ */
+@Value
+public class Percentiles {
+    long p50;
+    long p90;
+    long p99;
+    long max;
+
+    /**
+     * @return the percentiles of {@code values}, or null when there are none
+     */
+    public static Percentiles of(long[] values) {
+        if (values.length == 0) {
+            return null;
+        }
+
+        var sorted = values.clone();
+        Arrays.sort(sorted);
+        return new Percentiles(at(sorted, 0.50), at(sorted, 0.90), at(sorted, 0.99), sorted[sorted.length - 1]);
+    }
+
+    /**
+     * The nearest-rank value at {@code quantile} of values already sorted, of which there must be at least one.
+     */
+    public static long at(long[] sorted, double quantile) {
+        var index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, index)];
+    }
+}
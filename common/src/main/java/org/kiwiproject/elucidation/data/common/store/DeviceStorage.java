@@ -0,0 +1,108 @@
+package org.kiwiproject.elucidation.data.common.store;
+
+import static java.util.Objects.nonNull;
+
+import io.dropwizard.lifecycle.Managed;
+import liquibase.Contexts;
+import liquibase.Liquibase;
+import liquibase.database.DatabaseFactory;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.exception.LiquibaseException;
+import liquibase.resource.ClassLoaderResourceAccessor;
+import lombok.extern.slf4j.Slf4j;
+import org.h2.jdbcx.JdbcConnectionPool;
+import org.jdbi.v3.core.Jdbi;
+import org.jdbi.v3.sqlobject.SqlObjectPlugin;
+
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+/**
+ * Makes a service's device DAOs on the backend in its {@link StorageConfig}. The DAO interfaces are the same on
+ * every backend. SQLite and H2 use their Jdbi SQL, and the off-heap backend has an implementation of each interface
+ * over {@link OffHeapTable}s.
+ */
+@Slf4j
+public class DeviceStorage implements Managed {
+
+    private static final AtomicInteger H2_DATABASES = new AtomicInteger();
+    private static final String H2_USER = "sa";
+
+    private final StorageConfig config;
+    private final Jdbi jdbi;
+    private final JdbcConnectionPool h2;
+
+    /**
+     * @param database the service's own database, which the SQLite backend uses
+     * @param name names the H2 database
+     * @param migrationsFile the changelog the H2 database is created from
+     */
+    public DeviceStorage(StorageConfig config, Jdbi database, String name, String migrationsFile) {
+        this.config = config;
+
+        if (config.getBackend() == StorageConfig.Backend.H2) {
+            // numbered, as more than one instance of a service can run in a JVM, e.g. the home shards in the launcher
+            var url = "jdbc:h2:mem:" + name + "-" + H2_DATABASES.incrementAndGet() + ";DB_CLOSE_DELAY=-1";
+            migrate(url, migrationsFile);
+            h2 = JdbcConnectionPool.create(url, H2_USER, "");
+            jdbi = Jdbi.create(h2);
+            jdbi.installPlugin(new SqlObjectPlugin());
+        } else {
+            h2 = null;
+            jdbi = database;
+        }
+        LOG.info("Keeping devices in {}", config.getBackend());
+    }
+
+    /**
+     * Runs the changelog on a connection of its own, as Liquibase leaves it mid-transaction.
+     */
+    private static void migrate(String url, String migrationsFile) {
+        try (var connection = DriverManager.getConnection(url, H2_USER, "")) {
+            var database = DatabaseFactory.getInstance().findCorrectDatabaseImplementation(new JdbcConnection(connection));
+            new Liquibase(migrationsFile, new ClassLoaderResourceAccessor(), database).update(new Contexts());
+        } catch (SQLException | LiquibaseException e) {
+            throw new IllegalStateException("Unable to create the H2 database from " + migrationsFile, e);
+        }
+    }
+
+    /**
+     * @param offHeap makes the off-heap implementation, given the number of records its tables should start with.
+     *                It is also used for {@link StorageConfig.Backend#COMPACT}, as the DAO has no compact one.
+     */
+    public <T> T dao(Class<T> type, IntFunction<T> offHeap) {
+        return dao(type, offHeap, offHeap);
+    }
+
+    /**
+     * @param compact makes the compact implementation, given the number of records it should start with
+     */
+    public <T> T dao(Class<T> type, IntFunction<T> offHeap, IntFunction<T> compact) {
+        switch (config.getBackend()) {
+            case OFF_HEAP:
+                return offHeap.apply(config.getOffHeapCapacity());
+            case COMPACT:
+                return compact.apply(config.getOffHeapCapacity());
+            default:
+                return jdbi.onDemand(type);
+        }
+    }
+
+    @Override
+    public void start() {
+        // the backend is ready once constructed
+    }
+
+    @Override
+    public void stop() throws SQLException {
+        if (nonNull(h2)) {
+            // otherwise DB_CLOSE_DELAY keeps it until the JVM exits
+            try (var connection = h2.getConnection(); var statement = connection.createStatement()) {
+                statement.execute("shutdown");
+            }
+            h2.dispose();
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package org.kiwiproject.elucidation.data.common.store;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Positive {@code long} keys to {@code int} values in two primitive arrays, with no boxing and nothing allocated
+ * except when it grows. Linear probing, and removal shifts the keys after it back, so there are no tombstones.
+ * <p>
+ * Not thread safe; its owner locks around it.
+ */
+public class LongIntMap {
+
+    public static final int MISSING = -1;
+
+    private static final long EMPTY = 0;
+
+    private long[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+
+    /**
+     * @param expected how many keys to make room for before growing
+     */
+    public LongIntMap(int expected) {
+        checkArgument(expected > 0, "expected must be positive");
+        var capacity = Integer.highestOneBit(Math.max(2, expected * 2 - 1)) << 1;
+        keys = new long[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+    }
+
+    /**
+     * @return the key's value, or {@link #MISSING}
+     */
+    public int get(long key) {
+        for (var slot = slot(key); ; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return values[slot];
+            }
+            if (keys[slot] == EMPTY) {
+                return MISSING;
+            }
+        }
+    }
+
+    public void put(long key, int value) {
+        checkArgument(key > 0, "keys must be positive");
+        var slot = slot(key);
+        while (keys[slot] != EMPTY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        if (keys[slot] == EMPTY) {
+            size++;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+
+        if (size * 4 > keys.length * 3) {
+            grow();
+        }
+    }
+
+    /**
+     * @return the value the key had, or {@link #MISSING}
+     */
+    public int remove(long key) {
+        var slot = slot(key);
+        while (keys[slot] != key) {
+            if (keys[slot] == EMPTY) {
+                return MISSING;
+            }
+            slot = (slot + 1) & mask;
+        }
+        var removed = values[slot];
+        size--;
+
+        // move back any key after the gap that probed past it, so lookups never stop short
+        var gap = slot;
+        for (var next = (gap + 1) & mask; keys[next] != EMPTY; next = (next + 1) & mask) {
+            var home = slot(keys[next]);
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+        }
+        keys[gap] = EMPTY;
+        return removed;
+    }
+
+    /**
+     * Calls the visitor with each key and its value, in no particular order.
+     */
+    public void forEach(Visitor visitor) {
+        for (var slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != EMPTY) {
+                visitor.visit(keys[slot], values[slot]);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    public interface Visitor {
+        void visit(long key, int value);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * The bytes its arrays take, for working out what each key costs.
+     */
+    public long bytes() {
+        return (long) keys.length * (Long.BYTES + Integer.BYTES);
+    }
+
+    private int slot(long key) {
+        var hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    private void grow() {
+        var oldKeys = keys;
+        var oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new int[oldKeys.length * 2];
+        mask = keys.length - 1;
+        size = 0;
+        for (var i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+}
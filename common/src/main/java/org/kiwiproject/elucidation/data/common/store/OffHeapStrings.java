@@ -0,0 +1,40 @@
+package org.kiwiproject.elucidation.data.common.store;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Append-only UTF-8 strings in direct buffers. A string is found by the position it was written at, the chunk in
+ * the high half and the offset within it in the low half. Nothing written is ever reclaimed.
+ * <p>
+ * Not thread safe, {@link OffHeapTable} guards it with its lock.
+ */
+class OffHeapStrings {
+
+    private static final int CHUNK_BYTES = 1 << 20;
+
+    private final List<ByteBuffer> chunks = new ArrayList<>();
+
+    long write(byte[] bytes) {
+        if (chunks.isEmpty() || last().remaining() < bytes.length) {
+            chunks.add(ByteBuffer.allocateDirect(Math.max(CHUNK_BYTES, bytes.length)));
+        }
+
+        var chunk = last();
+        var position = ((long) (chunks.size() - 1) << Integer.SIZE) | chunk.position();
+        chunk.put(bytes);
+        return position;
+    }
+
+    String read(long position, int length) {
+        var bytes = new byte[length];
+        chunks.get((int) (position >>> Integer.SIZE)).duplicate().position((int) position).get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private ByteBuffer last() {
+        return chunks.get(chunks.size() - 1);
+    }
+}
@@ -0,0 +1,404 @@
+package org.kiwiproject.elucidation.data.common.store;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static java.util.Objects.isNull;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Fixed-size records in direct buffers, outside the Java heap. Ids are handed out from 1 the way an autoincrement
+ * column does and an id is the record's position, so finding a record is arithmetic rather than a lookup. Records
+ * are only turned into objects when read, so millions of them cost the garbage collector nothing.
+ * <p>
+ * Each record is a status byte followed by fields at the offsets its DAO chooses, sized with the {@code *_BYTES}
+ * constants. Strings live in a separate append-only area and are not reclaimed when a record is deleted or changes
+ * them, which suits devices whose names are set when they are created.
+ * <p>
+ * Reads share a lock and writes take it alone. {@link #batch} holds it across several writes, so they are seen
+ * together as a transaction's would be.
+ */
+public class OffHeapTable {
+
+    public static final int INT_BYTES = Integer.BYTES;
+    public static final int LONG_BYTES = Long.BYTES;
+    public static final int STRING_BYTES = Long.BYTES + Integer.BYTES;
+    public static final int ENUM_BYTES = 1;
+    public static final int NULLABLE_LONG_BYTES = 1 + Long.BYTES;
+    public static final int NULLABLE_DOUBLE_BYTES = 1 + Double.BYTES;
+
+    private static final byte LIVE = 1;
+    private static final byte DELETED = 2;
+    private static final byte NULL = -1;
+    private static final byte PRESENT = 1;
+
+    private final int recordBytes;
+    private final int chunkRecords;
+    private final List<ByteBuffer> chunks = new ArrayList<>();
+    private final OffHeapStrings strings = new OffHeapStrings();
+    private final List<Index> indexes = new ArrayList<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private long lastId;
+    private long size;
+
+    /**
+     * @param fieldBytes the size of a record's fields, the offset just past its last one
+     * @param chunkRecords how many records to make room for at a time
+     */
+    public OffHeapTable(int fieldBytes, int chunkRecords) {
+        checkArgument(fieldBytes > 0, "records need at least one field");
+        checkArgument(chunkRecords > 0, "chunks need room for at least one record");
+        this.recordBytes = 1 + fieldBytes;
+        this.chunkRecords = chunkRecords;
+        checkArgument((long) recordBytes * chunkRecords <= Integer.MAX_VALUE,
+                "%s records of %s bytes are too many for one buffer", chunkRecords, recordBytes);
+    }
+
+    /**
+     * Adds an index on the given key, which {@link #findFirst} can then look records up by. The key must not change
+     * after a record is inserted, and indexes must be added before any are.
+     */
+    public Index index(Function<Record, String> key) {
+        return write(() -> {
+            checkState(lastId == 0, "indexes must be added before any records are inserted");
+            var index = new Index(key, chunkRecords);
+            indexes.add(index);
+            return index;
+        });
+    }
+
+    /**
+     * @return the new record's id
+     */
+    public long insert(Consumer<Record> writer) {
+        return write(() -> {
+            var id = lastId + 1;
+            var index = id - 1;
+            if (index / chunkRecords == chunks.size()) {
+                chunks.add(ByteBuffer.allocateDirect(recordBytes * chunkRecords));
+            }
+
+            var record = record(id);
+            writer.accept(record);
+            record.buffer.put(record.base, LIVE);
+            lastId = id;
+            size++;
+            indexes.forEach(each -> each.put(record, id));
+            return id;
+        });
+    }
+
+    public <T> Optional<T> find(long id, Function<Record, T> reader) {
+        return read(() -> isLive(id) ? Optional.of(reader.apply(record(id))) : Optional.empty());
+    }
+
+    /**
+     * The live record with the lowest id whose key is the one given.
+     */
+    public <T> Optional<T> findFirst(Index index, String key, Function<Record, T> reader) {
+        return read(() -> {
+            var id = index.find(key, this::record);
+            return id == 0 ? Optional.<T>empty() : Optional.of(reader.apply(record(id)));
+        });
+    }
+
+    /**
+     * Every live record in id order.
+     */
+    public <T> List<T> findAll(Function<Record, T> reader) {
+        return findAll(record -> true, reader);
+    }
+
+    /**
+     * Every live record the filter accepts, in id order. Every record is checked, so this is for listing rather than
+     * looking one up.
+     */
+    public <T> List<T> findAll(Predicate<Record> filter, Function<Record, T> reader) {
+        return read(() -> {
+            var found = new ArrayList<T>();
+            for (var id = 1L; id <= lastId; id++) {
+                if (isLive(id)) {
+                    var record = record(id);
+                    if (filter.test(record)) {
+                        found.add(reader.apply(record));
+                    }
+                }
+            }
+            return found;
+        });
+    }
+
+    /**
+     * @return how many records changed, as an update statement would: 1, or 0 if there is no live record with the id
+     */
+    public int update(long id, Consumer<Record> writer) {
+        return write(() -> {
+            if (!isLive(id)) {
+                return 0;
+            }
+            writer.accept(record(id));
+            return 1;
+        });
+    }
+
+    /**
+     * @return how many records were deleted, 1 or 0
+     */
+    public int delete(long id) {
+        return write(() -> {
+            if (!isLive(id)) {
+                return 0;
+            }
+            var record = record(id);
+            indexes.forEach(index -> index.remove(record, id));
+            record.buffer.put(record.base, DELETED);
+            size--;
+            return 1;
+        });
+    }
+
+    /**
+     * Runs the writes with the lock held throughout.
+     */
+    public <T> T batch(Supplier<T> writes) {
+        return write(writes);
+    }
+
+    public long size() {
+        return read(() -> size);
+    }
+
+    private boolean isLive(long id) {
+        if (id < 1 || id > lastId) {
+            return false;
+        }
+        var record = record(id);
+        return record.buffer.get(record.base) == LIVE;
+    }
+
+    private Record record(long id) {
+        var index = id - 1;
+        return new Record(id, chunks.get((int) (index / chunkRecords)), (int) (index % chunkRecords) * recordBytes);
+    }
+
+    private <T> T read(Supplier<T> reader) {
+        lock.readLock().lock();
+        try {
+            return reader.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private <T> T write(Supplier<T> writer) {
+        lock.writeLock().lock();
+        try {
+            return writer.get();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * One record's fields, read and written at the offsets given, which count from the end of the status byte.
+     */
+    public class Record {
+
+        private final long id;
+        private final ByteBuffer buffer;
+        private final int base;
+
+        private Record(long id, ByteBuffer buffer, int base) {
+            this.id = id;
+            this.buffer = buffer;
+            this.base = base;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public int getInt(int field) {
+            return buffer.getInt(at(field));
+        }
+
+        public void putInt(int field, int value) {
+            buffer.putInt(at(field), value);
+        }
+
+        public long getLong(int field) {
+            return buffer.getLong(at(field));
+        }
+
+        public void putLong(int field, long value) {
+            buffer.putLong(at(field), value);
+        }
+
+        public Long getNullableLong(int field) {
+            return buffer.get(at(field)) == NULL ? null : buffer.getLong(at(field) + 1);
+        }
+
+        public void putNullableLong(int field, Long value) {
+            buffer.put(at(field), isNull(value) ? NULL : PRESENT);
+            buffer.putLong(at(field) + 1, isNull(value) ? 0 : value);
+        }
+
+        public Double getNullableDouble(int field) {
+            return buffer.get(at(field)) == NULL ? null : buffer.getDouble(at(field) + 1);
+        }
+
+        public void putNullableDouble(int field, Double value) {
+            buffer.put(at(field), isNull(value) ? NULL : PRESENT);
+            buffer.putDouble(at(field) + 1, isNull(value) ? 0 : value);
+        }
+
+        public <E extends Enum<E>> E getEnum(int field, E[] values) {
+            var ordinal = buffer.get(at(field));
+            return ordinal == NULL ? null : values[ordinal];
+        }
+
+        public void putEnum(int field, Enum<?> value) {
+            checkArgument(isNull(value) || value.ordinal() < Byte.MAX_VALUE, "%s has too many constants", value);
+            buffer.put(at(field), isNull(value) ? NULL : (byte) value.ordinal());
+        }
+
+        public String getString(int field) {
+            var length = buffer.getInt(at(field) + Long.BYTES);
+            return length < 0 ? null : strings.read(buffer.getLong(at(field)), length);
+        }
+
+        public void putString(int field, String value) {
+            if (isNull(value)) {
+                buffer.putLong(at(field), 0);
+                buffer.putInt(at(field) + Long.BYTES, -1);
+                return;
+            }
+            var bytes = value.getBytes(StandardCharsets.UTF_8);
+            buffer.putLong(at(field), strings.write(bytes));
+            buffer.putInt(at(field) + Long.BYTES, bytes.length);
+        }
+
+        private int at(int field) {
+            return base + 1 + field;
+        }
+    }
+
+    /**
+     * An open addressing hash table from a key's hash to the ids of the records with it, in a direct buffer. Ids are
+     * checked against the record's actual key, so colliding hashes only cost a comparison. Like a SQL index, a null
+     * key matches nothing.
+     */
+    public static class Index {
+
+        private static final int SLOT_BYTES = 2 * Long.BYTES;
+        private static final long EMPTY = 0;
+        private static final long REMOVED = -1;
+
+        private final Function<Record, String> key;
+
+        private ByteBuffer slots;
+        private int capacity;
+        private int used;
+        private int live;
+
+        private Index(Function<Record, String> key, int expected) {
+            this.key = key;
+            allocate(Integer.highestOneBit(Math.max(16, expected) * 2 - 1));
+        }
+
+        private void put(Record record, long id) {
+            var value = key.apply(record);
+            if (isNull(value)) {
+                return;
+            }
+            if ((used + 1) * 2 > capacity) {
+                rehash(live * 4 > capacity ? capacity * 2 : capacity);
+            }
+            insert(hash(value), id);
+            used++;
+            live++;
+        }
+
+        private void remove(Record record, long id) {
+            var value = key.apply(record);
+            if (isNull(value)) {
+                return;
+            }
+            var hash = hash(value);
+            for (var slot = hash & (capacity - 1); idAt(slot) != EMPTY; slot = (slot + 1) & (capacity - 1)) {
+                if (idAt(slot) == id) {
+                    slots.putLong(slot * SLOT_BYTES + Long.BYTES, REMOVED);
+                    live--;
+                    return;
+                }
+            }
+        }
+
+        private long find(String wanted, Function<Long, Record> records) {
+            if (isNull(wanted)) {
+                return 0;
+            }
+            var hash = hash(wanted);
+            var found = 0L;
+            for (var slot = hash & (capacity - 1); idAt(slot) != EMPTY; slot = (slot + 1) & (capacity - 1)) {
+                var id = idAt(slot);
+                if (id != REMOVED && hashAt(slot) == hash && (found == 0 || id < found)
+                        && wanted.equals(key.apply(records.apply(id)))) {
+                    found = id;
+                }
+            }
+            return found;
+        }
+
+        private void rehash(int newCapacity) {
+            var old = slots;
+            var oldCapacity = capacity;
+            allocate(newCapacity);
+            for (var slot = 0; slot < oldCapacity; slot++) {
+                var id = old.getLong(slot * SLOT_BYTES + Long.BYTES);
+                if (id != EMPTY && id != REMOVED) {
+                    insert((int) old.getLong(slot * SLOT_BYTES), id);
+                    used++;
+                }
+            }
+        }
+
+        private void allocate(int newCapacity) {
+            capacity = newCapacity;
+            slots = ByteBuffer.allocateDirect(capacity * SLOT_BYTES);
+            used = 0;
+        }
+
+        private void insert(int hash, long id) {
+            var slot = hash & (capacity - 1);
+            while (idAt(slot) != EMPTY) {
+                slot = (slot + 1) & (capacity - 1);
+            }
+            slots.putLong(slot * SLOT_BYTES, hash);
+            slots.putLong(slot * SLOT_BYTES + Long.BYTES, id);
+        }
+
+        private int hashAt(int slot) {
+            return (int) slots.getLong(slot * SLOT_BYTES);
+        }
+
+        private long idAt(int slot) {
+            return slots.getLong(slot * SLOT_BYTES + Long.BYTES);
+        }
+
+        private static int hash(String key) {
+            var hash = key.hashCode() * 0x9E3779B9;
+            return hash ^ (hash >>> 16);
+        }
+    }
+}
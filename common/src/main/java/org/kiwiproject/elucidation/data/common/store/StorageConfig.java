@@ -0,0 +1,51 @@
+package org.kiwiproject.elucidation.data.common.store;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+
+/**
+ * Where a service keeps its devices (and home its workflows). Everything else, such as history, stays in the
+ * service's {@code database}.
+ */
+@Getter
+@Setter
+public class StorageConfig {
+
+    public enum Backend {
+
+        /**
+         * The service's {@code database}, a SQLite file by default.
+         */
+        SQLITE,
+
+        /**
+         * An in-memory H2 database, created from the service's changelog on startup and gone when it stops.
+         */
+        H2,
+
+        /**
+         * Fixed-size records in memory outside the Java heap, keyed by id. Also gone when the service stops.
+         */
+        OFF_HEAP,
+
+        /**
+         * Primitive arrays on the Java heap, a column per field with strings interned, for the services that have such
+         * a store (light-service). The others use {@link #OFF_HEAP}. Also gone when the service stops.
+         */
+        COMPACT
+    }
+
+    @NotNull
+    private Backend backend = Backend.SQLITE;
+
+    /**
+     * How many records each off-heap table has room for before it grows, which it does in steps of this size. Compact
+     * stores start with room for this many too, and double.
+     */
+    @Min(1)
+    private int offHeapCapacity = 1024;
+
+}
@@ -0,0 +1,44 @@
+package org.kiwiproject.elucidation.data.common.store;
+
+import static java.util.Objects.isNull;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Interns strings as {@code int} codes, so a store can keep a code per record and each distinct string once. Codes
+ * are handed out from 0 and never reclaimed, which suits names that repeat, such as brands and locations, or that
+ * are set once, such as device names.
+ * <p>
+ * Not thread safe; its owner locks around it.
+ */
+public class StringDictionary {
+
+    public static final int NULL = -1;
+
+    private final Map<String, Integer> codes = new HashMap<>();
+    private final List<String> strings = new ArrayList<>();
+
+    /**
+     * @return the string's code, {@link #NULL} for null
+     */
+    public int code(String value) {
+        if (isNull(value)) {
+            return NULL;
+        }
+        return codes.computeIfAbsent(value, added -> {
+            strings.add(added);
+            return strings.size() - 1;
+        });
+    }
+
+    public String string(int code) {
+        return code == NULL ? null : strings.get(code);
+    }
+
+    public int size() {
+        return strings.size();
+    }
+}
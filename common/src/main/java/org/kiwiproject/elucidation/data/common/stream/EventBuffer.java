@@ -0,0 +1,39 @@
+package org.kiwiproject.elucidation.data.common.stream;
+
+import java.util.ArrayDeque;
+
+/**
+ * The frames waiting to be written to one subscriber. When it is full the oldest frame makes room for the newest,
+ * so a slow subscriber sees the latest state rather than holding up everyone else.
+ */
+final class EventBuffer {
+
+    private final ArrayDeque<byte[]> frames;
+    private final int capacity;
+
+    EventBuffer(int capacity) {
+        this.frames = new ArrayDeque<>(capacity);
+        this.capacity = capacity;
+    }
+
+    /**
+     * @return false if the oldest frame had to be dropped to make room
+     */
+    synchronized boolean offer(byte[] frame) {
+        var dropped = false;
+        if (frames.size() == capacity) {
+            frames.pollFirst();
+            dropped = true;
+        }
+        frames.addLast(frame);
+        return !dropped;
+    }
+
+    synchronized byte[] poll() {
+        return frames.pollFirst();
+    }
+
+    synchronized boolean isEmpty() {
+        return frames.isEmpty();
+    }
+}
@@ -0,0 +1,49 @@
+package org.kiwiproject.elucidation.data.common.stream;
+
+import io.dropwizard.setup.Environment;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Serves a {@link StateBroadcaster} as {@code text/event-stream}. Each stream is an async request, so watchers
+ * don't hold a request thread while nothing is changing.
+ */
+public class EventStreamServlet extends HttpServlet {
+
+    private final transient StateBroadcaster broadcaster;
+
+    public EventStreamServlet(StateBroadcaster broadcaster) {
+        this.broadcaster = broadcaster;
+    }
+
+    /**
+     * Creates a broadcaster of {@code event}s, served at {@code path} and stopped with the application.
+     */
+    public static StateBroadcaster serve(Environment env, String event, String path) {
+        var executor = env.lifecycle().scheduledExecutorService(event + "-stream").threads(4).build();
+        var broadcaster = new StateBroadcaster(event, env.getObjectMapper(), executor, env.metrics());
+        env.lifecycle().manage(broadcaster);
+
+        var servlet = env.servlets().addServlet(event + "-stream", new EventStreamServlet(broadcaster));
+        servlet.setAsyncSupported(true);
+        servlet.addMapping(path);
+        return broadcaster;
+    }
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType("text/event-stream");
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader("Cache-Control", "no-cache");
+        response.setHeader("X-Accel-Buffering", "no");
+
+        var async = request.startAsync();
+        async.setTimeout(0);
+        broadcaster.subscribe(async);
+    }
+}
@@ -0,0 +1,133 @@
+package org.kiwiproject.elucidation.data.common.stream;
+
+import static com.codahale.metrics.MetricRegistry.name;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.dropwizard.lifecycle.Managed;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.servlet.AsyncContext;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pushes device state changes to everyone watching a service's event stream. Each change is encoded once and the
+ * same bytes are queued for every subscriber, so the cost of a change is a buffer append per watcher rather than
+ * a query per poll.
+ * <p>
+ * Every subscriber has its own bounded buffer. A subscriber that can't keep up loses its oldest changes, counted
+ * by the {@code dropped} meter, and never slows down the publisher or the other subscribers.
+ */
+@Slf4j
+public class StateBroadcaster implements Managed {
+
+    public static final int DEFAULT_BUFFER_SIZE = 256;
+    public static final Duration DEFAULT_HEARTBEAT = Duration.ofSeconds(15);
+
+    private static final byte[] GREETING = "retry: 3000\n\n".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] HEARTBEAT = ":\n\n".getBytes(StandardCharsets.UTF_8);
+
+    private final String event;
+    private final ObjectMapper json;
+    private final int bufferSize;
+    private final Duration heartbeat;
+    private final ScheduledExecutorService executor;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    private final Meter published;
+    private final Meter dropped;
+
+    private long lastId;
+    private ScheduledFuture<?> heartbeats;
+
+    public StateBroadcaster(String event, ObjectMapper json, ScheduledExecutorService executor, MetricRegistry metrics) {
+        this(event, json, DEFAULT_BUFFER_SIZE, DEFAULT_HEARTBEAT, executor, metrics);
+    }
+
+    public StateBroadcaster(String event, ObjectMapper json, int bufferSize, Duration heartbeat,
+                            ScheduledExecutorService executor, MetricRegistry metrics) {
+        this.event = event;
+        this.json = json;
+        this.bufferSize = bufferSize;
+        this.heartbeat = heartbeat;
+        this.executor = executor;
+
+        this.published = metrics.meter(name(StateBroadcaster.class, event, "published"));
+        this.dropped = metrics.meter(name(StateBroadcaster.class, event, "dropped"));
+        metrics.gauge(name(StateBroadcaster.class, event, "subscribers"), () -> subscribers::size);
+    }
+
+    /**
+     * Publishes the fields of a device that changed, as {@code {"id": id, ...changes}}.
+     */
+    public void publish(long id, Map<String, ?> changes) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+
+        var delta = new LinkedHashMap<String, Object>();
+        delta.put("id", id);
+        delta.putAll(new TreeMap<>(changes));
+
+        String data;
+        try {
+            data = json.writeValueAsString(delta);
+        } catch (JsonProcessingException e) {
+            LOG.warn("Unable to publish change to {} {}", event, id, e);
+            return;
+        }
+
+        // frames go out in id order, so a subscriber never sees an older state after a newer one
+        synchronized (this) {
+            var frame = ("id: " + (++lastId) + "\nevent: " + event + "\ndata: " + data + "\n\n")
+                    .getBytes(StandardCharsets.UTF_8);
+            published.mark();
+            for (var subscriber : subscribers) {
+                if (!subscriber.send(frame)) {
+                    dropped.mark();
+                }
+            }
+        }
+    }
+
+    public int subscribers() {
+        return subscribers.size();
+    }
+
+    void subscribe(AsyncContext async) throws IOException {
+        var subscriber = new Subscriber(async, bufferSize, executor, this);
+        subscribers.add(subscriber);
+        subscriber.open(GREETING);
+    }
+
+    void remove(Subscriber subscriber) {
+        subscribers.remove(subscriber);
+    }
+
+    @Override
+    public void start() {
+        var millis = heartbeat.toMillis();
+        heartbeats = executor.scheduleAtFixedRate(
+                () -> subscribers.forEach(subscriber -> subscriber.sendIfIdle(HEARTBEAT)), millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        if (heartbeats != null) {
+            heartbeats.cancel(false);
+        }
+        subscribers.forEach(Subscriber::close);
+    }
+}
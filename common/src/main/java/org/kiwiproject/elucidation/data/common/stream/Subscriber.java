@@ -0,0 +1,136 @@
+package org.kiwiproject.elucidation.data.common.stream;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import java.io.IOException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * One open event stream. Writes are non-blocking, so a subscriber only holds a thread while there is something to
+ * write and the client is keeping up; otherwise its frames wait in its buffer until the container says the
+ * connection can take more.
+ */
+@Slf4j
+final class Subscriber implements WriteListener, AsyncListener {
+
+    private final AsyncContext async;
+    private final ServletOutputStream out;
+    private final EventBuffer buffer;
+    private final Executor writers;
+    private final StateBroadcaster broadcaster;
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+
+    private boolean unflushed;
+    private volatile boolean closed;
+
+    Subscriber(AsyncContext async, int bufferSize, Executor writers, StateBroadcaster broadcaster) throws IOException {
+        this.async = async;
+        this.out = async.getResponse().getOutputStream();
+        this.buffer = new EventBuffer(bufferSize);
+        this.writers = writers;
+        this.broadcaster = broadcaster;
+    }
+
+    void open(byte[] greeting) {
+        buffer.offer(greeting);
+        async.addListener(this);
+        out.setWriteListener(this);
+    }
+
+    /**
+     * @return false if an older frame was dropped to make room for this one
+     */
+    boolean send(byte[] frame) {
+        if (closed) {
+            return true;
+        }
+        var kept = buffer.offer(frame);
+        if (scheduled.compareAndSet(false, true)) {
+            writers.execute(this::scheduledDrain);
+        }
+        return kept;
+    }
+
+    void sendIfIdle(byte[] frame) {
+        if (buffer.isEmpty()) {
+            send(frame);
+        }
+    }
+
+    private void scheduledDrain() {
+        scheduled.set(false);
+        drain();
+    }
+
+    private synchronized void drain() {
+        try {
+            while (!closed && out.isReady()) {
+                if (unflushed) {
+                    unflushed = false;
+                    out.flush();
+                    continue;
+                }
+
+                var frame = buffer.poll();
+                if (frame == null) {
+                    return;
+                }
+                out.write(frame);
+                unflushed = true;
+            }
+        } catch (IOException | IllegalStateException e) {
+            LOG.debug("Event stream closed while writing", e);
+            close();
+        }
+    }
+
+    void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        broadcaster.remove(this);
+        try {
+            async.complete();
+        } catch (IllegalStateException e) {
+            LOG.trace("Event stream already complete", e);
+        }
+    }
+
+    @Override
+    public void onWritePossible() {
+        drain();
+    }
+
+    @Override
+    public void onError(Throwable t) {
+        LOG.debug("Event stream failed", t);
+        close();
+    }
+
+    @Override
+    public void onComplete(AsyncEvent event) {
+        close();
+    }
+
+    @Override
+    public void onTimeout(AsyncEvent event) {
+        close();
+    }
+
+    @Override
+    public void onError(AsyncEvent event) {
+        close();
+    }
+
+    @Override
+    public void onStartAsync(AsyncEvent event) {
+        // stays registered for the life of the stream
+    }
+}
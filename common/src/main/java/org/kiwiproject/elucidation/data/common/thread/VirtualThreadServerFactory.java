@@ -0,0 +1,59 @@
+package org.kiwiproject.elucidation.data.common.thread;
+
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.jetty9.InstrumentedQueuedThreadPool;
+import com.fasterxml.jackson.annotation.JsonTypeName;
+import io.dropwizard.server.DefaultServerFactory;
+import org.eclipse.jetty.util.BlockingArrayQueue;
+import org.eclipse.jetty.util.thread.ThreadPool;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * The default server, but with Jetty's threads virtual, chosen with {@code type: virtual} in the {@code server}
+ * block. A request that blocks on SQLite, Artemis or another service then parks its virtual thread rather than
+ * holding a platform one, so {@code maxThreads} defaults to 10,000. The service's other blocking work follows, see
+ * {@link VirtualThreads#isEnabled}. Needs Java 21.
+ * <p>
+ * Jetty's acceptors and selectors run on the pool too, each keeping a carrier thread busy while it waits, which
+ * Java makes up for with more carriers.
+ */
+@JsonTypeName("virtual")
+public class VirtualThreadServerFactory extends DefaultServerFactory {
+
+    public static final int DEFAULT_MAX_THREADS = 10_000;
+
+    public VirtualThreadServerFactory() {
+        setMaxThreads(DEFAULT_MAX_THREADS);
+    }
+
+    @Override
+    protected ThreadPool createThreadPool(MetricRegistry metricRegistry) {
+        var threads = VirtualThreads.factory("dw-virtual-");
+        var queue = new BlockingArrayQueue<Runnable>(getMinThreads(), getMaxThreads(), getMaxQueuedRequests());
+        var pool = new VirtualThreadPool(metricRegistry, getMaxThreads(), getMinThreads(),
+                (int) getIdleThreadTimeout().toMilliseconds(), queue, threads);
+        pool.setName("dw");
+        return pool;
+    }
+
+    /**
+     * Jetty 9's pool with its threads made by the virtual thread factory. Virtual threads are always daemons and
+     * refuse {@code setDaemon(false)}, so they are not given Jetty's daemon setting.
+     */
+    static class VirtualThreadPool extends InstrumentedQueuedThreadPool {
+
+        private final ThreadFactory threads;
+
+        VirtualThreadPool(MetricRegistry metricRegistry, int maxThreads, int minThreads, int idleTimeout,
+                          BlockingArrayQueue<Runnable> queue, ThreadFactory threads) {
+            super(metricRegistry, maxThreads, minThreads, idleTimeout, queue);
+            this.threads = threads;
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            return threads.newThread(runnable);
+        }
+    }
+}
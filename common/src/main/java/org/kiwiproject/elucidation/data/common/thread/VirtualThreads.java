@@ -0,0 +1,70 @@
+package org.kiwiproject.elucidation.data.common.thread;
+
+import io.dropwizard.Configuration;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Makes virtual threads for the services that run with a {@link VirtualThreadServerFactory}. They are found by
+ * reflection, as they need Java 21 and the services still build and run on 17 with them off.
+ */
+public final class VirtualThreads {
+
+    private static final MethodHandle OF_VIRTUAL;
+    private static final MethodHandle NAME;
+    private static final MethodHandle FACTORY;
+
+    static {
+        MethodHandle ofVirtual = null;
+        MethodHandle name = null;
+        MethodHandle factory = null;
+        try {
+            var lookup = MethodHandles.publicLookup();
+            var builder = Class.forName("java.lang.Thread$Builder");
+            ofVirtual = lookup.findStatic(Thread.class, "ofVirtual",
+                    MethodType.methodType(Class.forName("java.lang.Thread$Builder$OfVirtual")));
+            name = lookup.findVirtual(builder, "name", MethodType.methodType(builder, String.class, long.class));
+            factory = lookup.findVirtual(builder, "factory", MethodType.methodType(ThreadFactory.class));
+        } catch (ReflectiveOperationException e) {
+            // before Java 21, so they stay null
+        }
+        OF_VIRTUAL = ofVirtual;
+        NAME = name;
+        FACTORY = factory;
+    }
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * Whether the service was configured to use virtual threads, which it is by choosing the {@code virtual} server.
+     */
+    public static boolean isEnabled(Configuration config) {
+        return config.getServerFactory() instanceof VirtualThreadServerFactory;
+    }
+
+    public static boolean isSupported() {
+        return OF_VIRTUAL != null;
+    }
+
+    /**
+     * A factory of virtual threads named {@code <prefix>0}, {@code <prefix>1} and so on.
+     *
+     * @throws IllegalStateException if this Java has no virtual threads
+     */
+    public static ThreadFactory factory(String prefix) {
+        if (!isSupported()) {
+            throw new IllegalStateException("Virtual threads need Java 21 or later, this is " + Runtime.version());
+        }
+
+        try {
+            var builder = OF_VIRTUAL.invoke();
+            return (ThreadFactory) FACTORY.invoke(NAME.invoke(builder, prefix, 0L));
+        } catch (Throwable e) {
+            throw new IllegalStateException("Unable to make virtual threads", e);
+        }
+    }
+}
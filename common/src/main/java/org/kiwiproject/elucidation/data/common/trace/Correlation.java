@@ -0,0 +1,62 @@
+package org.kiwiproject.elucidation.data.common.trace;
+
+import static java.util.Objects.nonNull;
+
+import org.slf4j.MDC;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The correlation id of the work the current thread is doing. It is started when a workflow is triggered and
+ * carried to the other services in the {@value #HEADER} HTTP header and the {@value #PROPERTY} JMS message
+ * property. It is kept in the logging MDC, so {@code %X{correlationId}} in a log format prints it.
+ */
+public final class Correlation {
+
+    public static final String HEADER = "X-Correlation-Id";
+    public static final String PROPERTY = "correlationId";
+    public static final String MDC_KEY = "correlationId";
+
+    private Correlation() {
+    }
+
+    public static String newId() {
+        return Long.toHexString(ThreadLocalRandom.current().nextLong() | Long.MIN_VALUE);
+    }
+
+    /**
+     * @return the current thread's correlation id, or null if it has none
+     */
+    public static String currentId() {
+        return MDC.get(MDC_KEY);
+    }
+
+    /**
+     * @return the current thread's correlation id, starting a new one if it has none
+     */
+    public static String currentOrNewId() {
+        var id = currentId();
+        if (nonNull(id)) {
+            return id;
+        }
+
+        id = newId();
+        set(id);
+        return id;
+    }
+
+    /**
+     * Makes {@code id} the current thread's correlation id; a null id clears it.
+     */
+    public static void set(String id) {
+        if (nonNull(id)) {
+            MDC.put(MDC_KEY, id);
+        } else {
+            clear();
+        }
+    }
+
+    public static void clear() {
+        MDC.remove(MDC_KEY);
+    }
+}
@@ -0,0 +1,59 @@
+package org.kiwiproject.elucidation.data.common.trace;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.container.ResourceInfo;
+import javax.ws.rs.core.Context;
+
+/**
+ * Takes the correlation id from a request's {@value Correlation#HEADER} header, or starts a new one, makes it the
+ * current one while the request is handled, echoes it in the response and records a span for the request named
+ * after the resource method that handled it.
+ */
+public class CorrelationFilter implements ContainerRequestFilter, ContainerResponseFilter {
+
+    private static final String STARTED_AT = CorrelationFilter.class.getName() + ".startedAt";
+
+    private final SpanRecorder spans;
+
+    @Context
+    private ResourceInfo resourceInfo;
+
+    public CorrelationFilter(SpanRecorder spans) {
+        this.spans = spans;
+    }
+
+    @Override
+    public void filter(ContainerRequestContext request) {
+        var id = request.getHeaderString(Correlation.HEADER);
+        Correlation.set(isNull(id) || id.isBlank() ? Correlation.newId() : id);
+        request.setProperty(STARTED_AT, System.nanoTime());
+    }
+
+    @Override
+    public void filter(ContainerRequestContext request, ContainerResponseContext response) {
+        var id = Correlation.currentId();
+        var startedAt = request.getProperty(STARTED_AT);
+
+        if (nonNull(id)) {
+            response.getHeaders().putSingle(Correlation.HEADER, id);
+        }
+        if (startedAt instanceof Long) {
+            spans.recordSince(id, spanName(request), (Long) startedAt);
+        }
+        Correlation.clear();
+    }
+
+    private String spanName(ContainerRequestContext request) {
+        var method = isNull(resourceInfo) ? null : resourceInfo.getResourceMethod();
+        if (isNull(method)) {
+            return "http " + request.getMethod();
+        }
+        return "http " + resourceInfo.getResourceClass().getSimpleName() + "." + method.getName();
+    }
+}
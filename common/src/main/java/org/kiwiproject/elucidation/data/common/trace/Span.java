@@ -0,0 +1,15 @@
+package org.kiwiproject.elucidation.data.common.trace;
+
+import lombok.Value;
+
+/**
+ * One timed hop of the work for a correlation id, e.g. handling an HTTP request or a JMS message.
+ */
+@Value
+public class Span {
+    String correlationId;
+    String service;
+    String name;
+    long startedAt;
+    long durationMicros;
+}
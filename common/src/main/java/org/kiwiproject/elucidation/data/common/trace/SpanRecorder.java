@@ -0,0 +1,120 @@
+package org.kiwiproject.elucidation.data.common.trace;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.toList;
+
+import org.kiwiproject.elucidation.data.common.stats.Percentiles;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Keeps a service's most recent spans in a fixed size ring. Recording claims the next slot with one atomic
+ * increment and overwrites whatever was there, so it never blocks or grows under load; reads copy what is in the
+ * ring at the time.
+ */
+public class SpanRecorder {
+
+    public static final int DEFAULT_CAPACITY = 8192;
+
+    private final String service;
+    private final AtomicReferenceArray<Span> ring;
+    private final int mask;
+    private final AtomicLong next = new AtomicLong();
+
+    public SpanRecorder(String service) {
+        this(service, DEFAULT_CAPACITY);
+    }
+
+    public SpanRecorder(String service, int capacity) {
+        checkArgument(capacity > 0 && Integer.bitCount(capacity) == 1, "capacity must be a power of two");
+
+        this.service = service;
+        this.ring = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+    }
+
+    public void record(String correlationId, String name, long startedAt, long durationMicros) {
+        var span = new Span(correlationId, service, name, startedAt, durationMicros);
+        ring.lazySet((int) (next.getAndIncrement() & mask), span);
+    }
+
+    /**
+     * Records a span that started at {@code startNanos}, a {@link System#nanoTime()} reading, and ends now.
+     */
+    public void recordSince(String correlationId, String name, long startNanos) {
+        var durationNanos = System.nanoTime() - startNanos;
+        var startedAt = System.currentTimeMillis() - TimeUnit.NANOSECONDS.toMillis(durationNanos);
+        record(correlationId, name, startedAt, TimeUnit.NANOSECONDS.toMicros(durationNanos));
+    }
+
+    /**
+     * Records a span from {@code sentAt}, the epoch millis another service sent something at such as a JMS
+     * timestamp, until now. Nothing is recorded when {@code sentAt} is not set.
+     */
+    public void recordSinceSent(String correlationId, String name, long sentAt) {
+        if (sentAt > 0) {
+            var durationMillis = Math.max(0, System.currentTimeMillis() - sentAt);
+            record(correlationId, name, sentAt, TimeUnit.MILLISECONDS.toMicros(durationMillis));
+        }
+    }
+
+    /**
+     * @return up to {@code limit} spans, newest first
+     */
+    public List<Span> recent(int limit) {
+        var spans = new ArrayList<Span>(Math.min(limit, ring.length()));
+        var end = next.get();
+        for (var i = end - 1; i >= 0 && i >= end - ring.length() && spans.size() < limit; i--) {
+            var span = ring.get((int) (i & mask));
+            if (span != null) {
+                spans.add(span);
+            }
+        }
+        return spans;
+    }
+
+    /**
+     * @return the spans for one correlation id, in the order they started
+     */
+    public List<Span> find(String correlationId) {
+        return all().stream()
+                .filter(span -> Objects.equals(correlationId, span.getCorrelationId()))
+                .sorted(Comparator.comparingLong(Span::getStartedAt))
+                .collect(toList());
+    }
+
+    public Map<String, SpanSummary> summary() {
+        var byName = all().stream().collect(groupingBy(Span::getName, TreeMap::new, toList()));
+
+        var summaries = new TreeMap<String, SpanSummary>();
+        byName.forEach((name, spans) -> summaries.put(name, summarize(spans)));
+        return summaries;
+    }
+
+    private List<Span> all() {
+        return recent(ring.length());
+    }
+
+    private static SpanSummary summarize(List<Span> spans) {
+        var durations = spans.stream().mapToLong(Span::getDurationMicros).sorted().toArray();
+        var total = 0L;
+        for (var duration : durations) {
+            total += duration;
+        }
+
+        return new SpanSummary(durations.length,
+                total / durations.length,
+                Percentiles.at(durations, 0.50),
+                Percentiles.at(durations, 0.99),
+                durations[durations.length - 1]);
+    }
+}
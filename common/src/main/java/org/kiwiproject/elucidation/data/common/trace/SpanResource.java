@@ -0,0 +1,45 @@
+package org.kiwiproject.elucidation.data.common.trace;
+
+import com.codahale.metrics.annotation.Timed;
+
+import javax.validation.constraints.Min;
+import javax.ws.rs.DefaultValue;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+
+@Path("/trace")
+@Produces(MediaType.APPLICATION_JSON)
+public class SpanResource {
+
+    private final SpanRecorder spans;
+
+    public SpanResource(SpanRecorder spans) {
+        this.spans = spans;
+    }
+
+    @GET
+    @Path("/spans")
+    @Timed
+    public Response recentSpans(@QueryParam("limit") @DefaultValue("100") @Min(1) int limit) {
+        return Response.ok(spans.recent(limit)).build();
+    }
+
+    @GET
+    @Path("/spans/{correlationId}")
+    @Timed
+    public Response spansFor(@PathParam("correlationId") String correlationId) {
+        return Response.ok(spans.find(correlationId)).build();
+    }
+
+    @GET
+    @Path("/summary")
+    @Timed
+    public Response summary() {
+        return Response.ok(spans.summary()).build();
+    }
+}
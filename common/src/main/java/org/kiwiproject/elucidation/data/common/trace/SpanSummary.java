@@ -0,0 +1,15 @@
+package org.kiwiproject.elucidation.data.common.trace;
+
+import lombok.Value;
+
+/**
+ * Latency of the spans with the same name that are still in a service's {@link SpanRecorder}.
+ */
+@Value
+public class SpanSummary {
+    int count;
+    long meanMicros;
+    long p50Micros;
+    long p99Micros;
+    long maxMicros;
+}
@@ -0,0 +1,243 @@
+package org.kiwiproject.elucidation.data.common.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.codahale.metrics.MetricRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.Request;
+import javax.ws.rs.core.Response;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+@SuppressWarnings("java:S100")
+@DisplayName("StateCache")
+class StateCacheTest {
+
+    private MetricRegistry metrics;
+    private Map<Long, String> store;
+    private AtomicInteger loads;
+    private StateCache<String> cache;
+
+    @BeforeEach
+    void setUp() {
+        metrics = new MetricRegistry();
+        store = new HashMap<>(Map.of(1L, "off"));
+        loads = new AtomicInteger();
+        cache = new StateCache<>("lights", id -> {
+            loads.incrementAndGet();
+            return Optional.ofNullable(store.get(id));
+        }, metrics);
+    }
+
+    @Nested
+    class Get {
+
+        @Test
+        void shouldLoadOnce_AndThenServeFromTheCache() {
+            var first = cache.get(1L).orElseThrow();
+            var second = cache.get(1L).orElseThrow();
+
+            assertThat(second).isSameAs(first);
+            assertThat(second.getValue()).isEqualTo("off");
+            assertThat(loads).hasValue(1);
+            assertThat(metrics.counter("org.kiwiproject.elucidation.data.common.cache.StateCache.lights.hits").getCount()).isEqualTo(1);
+            assertThat(metrics.counter("org.kiwiproject.elucidation.data.common.cache.StateCache.lights.misses").getCount()).isEqualTo(1);
+        }
+
+        @Test
+        void shouldNotCache_ValuesThatDoNotExist() {
+            assertThat(cache.get(2L)).isEmpty();
+
+            store.put(2L, "on");
+
+            assertThat(cache.get(2L)).map(Versioned::getValue).contains("on");
+        }
+    }
+
+    @Nested
+    class Invalidate {
+
+        @Test
+        void shouldReload_AtANewVersion() {
+            var before = cache.get(1L).orElseThrow();
+
+            store.put(1L, "on");
+            cache.invalidate(1L);
+            var after = cache.get(1L).orElseThrow();
+
+            assertThat(after.getValue()).isEqualTo("on");
+            assertThat(after.getVersion()).isGreaterThan(before.getVersion());
+            assertThat(after.getEntityTag()).isNotEqualTo(before.getEntityTag());
+        }
+
+        @Test
+        void shouldNotCacheALoad_ThatRacedWithAnInvalidation() {
+            var racing = new AtomicReference<StateCache<String>>();
+            racing.set(new StateCache<>("racing", id -> {
+                var value = Optional.ofNullable(store.get(id));
+                if (loads.getAndIncrement() == 0) {
+                    // a write lands after the first load has read the old state
+                    store.put(id, "on");
+                    racing.get().invalidate(id);
+                }
+                return value;
+            }, metrics));
+
+            assertThat(racing.get().get(1L)).map(Versioned::getValue).contains("off");
+            assertThat(racing.get().get(1L)).map(Versioned::getValue).contains("on");
+            assertThat(loads).hasValue(2);
+        }
+
+        @Test
+        void shouldReloadEverything_WhenInvalidatingAll() {
+            cache.get(1L);
+
+            cache.invalidateAll();
+            cache.get(1L);
+
+            assertThat(loads).hasValue(2);
+        }
+    }
+
+    @Nested
+    class Remove {
+
+        private int size() {
+            return (int) metrics.getGauges().get("org.kiwiproject.elucidation.data.common.cache.StateCache.lights.size").getValue();
+        }
+
+        @Test
+        void shouldForgetDeletedDevices() {
+            cache.get(1L);
+
+            store.remove(1L);
+            cache.remove(1L);
+
+            assertThat(cache.get(1L)).isEmpty();
+            assertThat(size()).isZero();
+        }
+
+        @Test
+        void shouldNotKeepTheMark_OfAnInvalidatedDeviceThatIsGone() {
+            cache.get(1L);
+
+            store.remove(1L);
+            cache.invalidate(1L);
+
+            assertThat(cache.get(1L)).isEmpty();
+            assertThat(size()).isZero();
+        }
+
+        @Test
+        void shouldNotCacheALoad_ThatRacedWithARemoval() {
+            var racing = new AtomicReference<StateCache<String>>();
+            racing.set(new StateCache<>("racing", id -> {
+                var value = Optional.ofNullable(store.get(id));
+                if (loads.getAndIncrement() == 0) {
+                    // the device is deleted after the first load has read it
+                    store.remove(id);
+                    racing.get().remove(id);
+                }
+                return value;
+            }, metrics));
+
+            assertThat(racing.get().get(1L)).map(Versioned::getValue).contains("off");
+            assertThat(racing.get().get(1L)).isEmpty();
+            assertThat(loads).hasValue(2);
+        }
+    }
+
+    @Nested
+    class VersionedByStore {
+
+        private Map<Long, Long> storeVersions;
+
+        @BeforeEach
+        void setUp() {
+            storeVersions = new HashMap<>(Map.of(1L, 3L));
+            cache = StateCache.versionedByStore("lights", id -> storeVersions.getOrDefault(id, -1L), id -> {
+                loads.incrementAndGet();
+                return Optional.ofNullable(store.get(id));
+            }, metrics);
+        }
+
+        @Test
+        void shouldTagWithTheStoresVersion_WithoutReadingTheValue() {
+            var versioned = cache.get(1L).orElseThrow();
+            var request = mock(Request.class);
+            when(request.evaluatePreconditions(any(EntityTag.class))).thenReturn(Response.notModified());
+
+            assertThat(versioned.getVersion()).isEqualTo(3);
+            assertThat(versioned.toResponse(request).getStatus()).isEqualTo(304);
+            assertThat(loads).hasValue(0);
+        }
+
+        @Test
+        void shouldReadTheValue_WhenAResponseNeedsIt() {
+            var response = cache.get(1L).orElseThrow().toResponse(mock(Request.class));
+
+            assertThat(response.getEntity()).isEqualTo("off");
+            assertThat(loads).hasValue(1);
+        }
+
+        @Test
+        void shouldSeeWrites_WithoutBeingInvalidated() {
+            var before = cache.get(1L).orElseThrow();
+            store.put(1L, "on");
+            storeVersions.put(1L, 4L);
+            cache.invalidate(1L);
+
+            var after = cache.get(1L).orElseThrow();
+
+            assertThat(after.getEntityTag()).isNotEqualTo(before.getEntityTag());
+            assertThat(after.getValue()).isEqualTo("on");
+            assertThat(metrics.getGauges().get("org.kiwiproject.elucidation.data.common.cache.StateCache.lights.size").getValue()).isEqualTo(0);
+        }
+
+        @Test
+        void shouldNotFind_WhatTheStoreDoesNotHave() {
+            assertThat(cache.get(2L)).isEmpty();
+            assertThat(loads).hasValue(0);
+        }
+    }
+
+    @Nested
+    class ToResponse {
+
+        @Test
+        void shouldReturnNotModified_WhenTheRequestHasTheCurrentTag() {
+            var versioned = cache.get(1L).orElseThrow();
+            var request = mock(Request.class);
+            when(request.evaluatePreconditions(any(EntityTag.class))).thenReturn(Response.notModified());
+
+            var response = versioned.toResponse(request);
+
+            assertThat(response.getStatus()).isEqualTo(304);
+            assertThat(response.hasEntity()).isFalse();
+            assertThat(response.getEntityTag()).isEqualTo(versioned.getEntityTag());
+        }
+
+        @Test
+        void shouldReturnTheValue_WhenTheRequestHasAnotherTag() {
+            var versioned = cache.get(1L).orElseThrow();
+            var request = mock(Request.class);
+
+            var response = versioned.toResponse(request, String::length);
+
+            assertThat(response.getStatus()).isEqualTo(200);
+            assertThat(response.getEntity()).isEqualTo(3);
+            assertThat(response.getEntityTag()).isEqualTo(versioned.getEntityTag());
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package org.kiwiproject.elucidation.data.common.db;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.codahale.metrics.MetricRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+@SuppressWarnings("java:S100")
+@DisplayName("BatchWriter")
+class BatchWriterTest {
+
+    private static final String METRICS = "org.kiwiproject.elucidation.data.common.db.BatchWriterTest$NumberWriter.";
+
+    private MetricRegistry metrics;
+
+    @BeforeEach
+    void setUp() {
+        metrics = new MetricRegistry();
+    }
+
+    static class NumberWriter extends BatchWriter<Integer> {
+
+        final List<List<Integer>> batches = new ArrayList<>();
+        boolean failing;
+
+        NumberWriter(MetricRegistry metrics, int queueSize, int batchSize) {
+            super("number-writer", metrics, queueSize, batchSize);
+        }
+
+        @Override
+        protected void write(List<Integer> batch) {
+            if (failing) {
+                throw new IllegalStateException("database is locked");
+            }
+            batches.add(List.copyOf(batch));
+        }
+    }
+
+    @Test
+    void shouldWriteQueuedRowsInBatches_InOrder_AndWriteTheRestWhenStopped() throws Exception {
+        var writer = new NumberWriter(metrics, 100, 10);
+        IntStream.range(0, 25).forEach(writer::offer);
+
+        writer.start();
+        writer.stop();
+
+        assertThat(writer.batches).extracting(List::size).containsExactly(10, 10, 5);
+        assertThat(writer.batches.stream().flatMap(List::stream)).containsExactlyElementsOf(IntStream.range(0, 25).boxed().toList());
+        assertThat(metrics.histogram(METRICS + "batchSize").getCount()).isEqualTo(3);
+        assertThat(metrics.timer(METRICS + "writes").getCount()).isEqualTo(3);
+    }
+
+    @Test
+    void shouldDropRows_WhenTheQueueIsFull() {
+        var writer = new NumberWriter(metrics, 2, 10);
+
+        assertThat(writer.offer(1)).isTrue();
+        assertThat(writer.offer(2)).isTrue();
+        assertThat(writer.offer(3)).isFalse();
+        assertThat(metrics.counter(METRICS + "dropped").getCount()).isOne();
+        assertThat(metrics.getGauges().get(METRICS + "queued").getValue()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldCountFailedRows_AndKeepWriting() throws Exception {
+        var writer = new NumberWriter(metrics, 100, 10);
+        writer.failing = true;
+        IntStream.range(0, 15).forEach(writer::offer);
+
+        writer.start();
+        writer.stop();
+
+        assertThat(writer.batches).isEmpty();
+        assertThat(metrics.counter(METRICS + "failed").getCount()).isEqualTo(15);
+        assertThat(metrics.histogram(METRICS + "batchSize").getCount()).isEqualTo(2);
+    }
+}
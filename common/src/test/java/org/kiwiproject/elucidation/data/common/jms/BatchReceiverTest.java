@@ -0,0 +1,226 @@
+package org.kiwiproject.elucidation.data.common.jms;
+
+import static com.google.common.util.concurrent.Uninterruptibles.awaitUninterruptibly;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import com.codahale.metrics.MetricRegistry;
+import io.dropwizard.util.Duration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.jms.JMSConsumer;
+import javax.jms.JMSContext;
+import javax.jms.JMSException;
+import javax.jms.JMSProducer;
+import javax.jms.Message;
+import javax.jms.TextMessage;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@SuppressWarnings("java:S100")
+@DisplayName("BatchReceiver")
+class BatchReceiverTest {
+
+    private MetricRegistry registry;
+    private JMSContext context;
+    private JMSConsumer consumer;
+    private BatchConfig config;
+    private RetryConfig retry;
+    private DeadLetterQueue deadLetters;
+    private List<List<Message>> handled;
+
+    @BeforeEach
+    void setUp() {
+        registry = new MetricRegistry();
+        context = mock(JMSContext.class);
+        consumer = mock(JMSConsumer.class);
+        config = new BatchConfig();
+        retry = new RetryConfig();
+        retry.setInitialBackoff(Duration.milliseconds(1));
+        deadLetters = mock(DeadLetterQueue.class);
+        handled = new ArrayList<>();
+    }
+
+    private BatchReceiver receiver(MessageHandler handler) {
+        return new BatchReceiver(context, consumer, config, handler, new RetryPolicy(retry, registry, "light-service"),
+                deadLetters, new ConsumerMetrics(registry, "light-service"));
+    }
+
+    @Test
+    void shouldApplyUpToMaxMessages_ThenAcknowledge() {
+        config.setMaxMessages(3);
+        var messages = List.of(mock(Message.class), mock(Message.class), mock(Message.class), mock(Message.class));
+        when(consumer.receive(anyLong())).thenReturn(messages.get(0), messages.get(1), messages.get(2), messages.get(3));
+
+        var received = receiver(handled::add).receiveBatch();
+
+        assertThat(received).isEqualTo(3);
+        assertThat(handled).containsExactly(messages.subList(0, 3));
+        verify(context).acknowledge();
+        verify(context, never()).recover();
+        assertThat(registry.histogram("light-service.jms.batch.size").getSnapshot().getMax()).isEqualTo(3);
+    }
+
+    @Test
+    void shouldApplyWhatArrived_WhenNothingMoreComesWithinMaxWait() {
+        config.setMaxWait(Duration.seconds(5));
+        var message = mock(Message.class);
+        when(consumer.receive(anyLong())).thenReturn(message, (Message) null);
+
+        var received = receiver(handled::add).receiveBatch();
+
+        assertThat(received).isEqualTo(1);
+        assertThat(handled).containsExactly(List.of(message));
+        verify(context).acknowledge();
+    }
+
+    @Test
+    void shouldStopWaiting_OnceMaxWaitIsUp() {
+        config.setMaxWait(Duration.milliseconds(0));
+        var messages = List.of(mock(Message.class), mock(Message.class));
+        when(consumer.receive(anyLong())).thenReturn(messages.get(0));
+        when(consumer.receiveNoWait()).thenReturn(messages.get(1), (Message) null);
+
+        var received = receiver(handled::add).receiveBatch();
+
+        assertThat(received).isEqualTo(2);
+        assertThat(handled).containsExactly(messages);
+    }
+
+    @Test
+    void shouldRecoverInsteadOfAcknowledging_WhenTheHandlerFails() {
+        config.setMaxMessages(1);
+        when(consumer.receive(anyLong())).thenReturn(mock(Message.class));
+
+        var received = receiver(batch -> {
+            throw new IllegalStateException("database is locked");
+        }).receiveBatch();
+
+        assertThat(received).isEqualTo(1);
+        var order = inOrder(context);
+        order.verify(context).recover();
+        order.verify(context, never()).acknowledge();
+        assertThat(registry.meter("light-service.jms.batch.rollbacks").getCount()).isEqualTo(1);
+        verifyNoInteractions(deadLetters);
+    }
+
+    @Test
+    void shouldApplyEachMessageOnItsOwn_AndDeadLetterTheOnesThatFail_WhenOutOfRedeliveries() throws JMSException {
+        config.setMaxWait(Duration.milliseconds(0));
+        var good = mock(Message.class);
+        var bad = mock(Message.class);
+        when(bad.getIntProperty(RetryPolicy.DELIVERY_COUNT)).thenReturn(retry.getMaxDeliveries());
+        when(consumer.receive(anyLong())).thenReturn(good);
+        when(consumer.receiveNoWait()).thenReturn(bad, (Message) null);
+
+        var failure = new IllegalStateException("constraint failed");
+        var received = receiver(batch -> {
+            if (batch.contains(bad)) {
+                throw failure;
+            }
+            handled.add(batch);
+        }).receiveBatch();
+
+        assertThat(received).isEqualTo(2);
+        assertThat(handled).containsExactly(List.of(good));
+        verify(deadLetters).send(bad, DeadLetterQueue.Reason.RETRIES_EXHAUSTED, failure);
+        verify(context).acknowledge();
+        verify(context, never()).recover();
+        assertThat(registry.meter("light-service.jms.retry.exhausted").getCount()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldDeadLetterAPoisonMessageOnce_WhenTheRestOfItsBatchKeepsFailing() throws JMSException {
+        config.setMaxWait(Duration.milliseconds(0));
+        retry.setMaxDeliveries(3);
+        var deliveries = new AtomicInteger();
+        var poison = message("ID:poison", deliveries);
+        var good = message("ID:good", deliveries);
+        when(consumer.receive(anyLong())).thenReturn(poison);
+        when(consumer.receiveNoWait()).thenReturn(good, (Message) null, good, null, good, null);
+
+        var producerContext = mock(JMSContext.class);
+        var producer = mock(JMSProducer.class);
+        when(context.createContext(JMSContext.AUTO_ACKNOWLEDGE)).thenReturn(producerContext);
+        when(producerContext.createTextMessage(any())).thenAnswer(invocation -> mock(TextMessage.class));
+        when(producerContext.createProducer()).thenReturn(producer);
+        deadLetters = new DeadLetterQueue("light-service", Clock.systemUTC(), registry);
+
+        MessageHandler handler = batch -> {
+            if (batch.contains(poison)) {
+                deadLetters.send(poison, DeadLetterQueue.Reason.POISON, new IllegalArgumentException("No enum constant PLAID"));
+            }
+            if (batch.contains(good)) {
+                throw new IllegalStateException("database is locked");
+            }
+        };
+        deadLetters.connect(context, handler);
+        var batchReceiver = receiver(handler);
+
+        for (var delivery = 1; delivery <= 3; delivery++) {
+            deliveries.set(delivery);
+            batchReceiver.receiveBatch();
+        }
+
+        verify(context, times(2)).recover();
+        verify(context).acknowledge();
+        verify(producer, times(2)).send(any(), any(Message.class));
+        assertThat(registry.meter("light-service.jms.dlq.poison").getCount()).isEqualTo(1);
+        assertThat(registry.meter("light-service.jms.dlq.retries_exhausted").getCount()).isEqualTo(1);
+    }
+
+    private static TextMessage message(String messageId, AtomicInteger deliveries) throws JMSException {
+        var message = mock(TextMessage.class);
+        when(message.getJMSMessageID()).thenReturn(messageId);
+        when(message.getPropertyNames()).thenAnswer(invocation -> Collections.emptyEnumeration());
+        when(message.getIntProperty(RetryPolicy.DELIVERY_COUNT)).thenAnswer(invocation -> deliveries.get());
+        return message;
+    }
+
+    @Test
+    void shouldNotCallTheHandler_WhenNothingArrives() {
+        var received = receiver(handled::add).receiveBatch();
+
+        assertThat(received).isZero();
+        assertThat(handled).isEmpty();
+        verifyNoInteractions(context);
+        assertThat(registry.histogram("light-service.jms.batch.size").getCount()).isZero();
+    }
+
+    @Test
+    void shouldFinishTheBatchItIsOn_BeforeStopping() throws InterruptedException {
+        var handling = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        when(consumer.receive(anyLong())).thenReturn(mock(Message.class), (Message) null);
+        var receiver = receiver(batch -> {
+            handling.countDown();
+            awaitUninterruptibly(release);
+            handled.add(batch);
+        });
+
+        receiver.start(Thread::new);
+        assertThat(handling.await(5, TimeUnit.SECONDS)).isTrue();
+        receiver.stop();
+
+        assertThat(receiver.awaitStopped(50)).isFalse();
+        release.countDown();
+        assertThat(receiver.awaitStopped(5_000)).isTrue();
+        assertThat(handled).hasSize(1);
+        verify(context).acknowledge();
+    }
+}
@@ -0,0 +1,99 @@
+package org.kiwiproject.elucidation.data.common.jms;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.codahale.metrics.MetricRegistry;
+import org.kiwiproject.elucidation.data.common.run.VirtualClock;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+
+@SuppressWarnings("java:S100")
+@DisplayName("CircuitBreaker")
+class CircuitBreakerTest {
+
+    private MetricRegistry metrics;
+    private VirtualClock clock;
+    private CircuitBreaker breaker;
+
+    @BeforeEach
+    void setUp() {
+        metrics = new MetricRegistry();
+        clock = new VirtualClock(Instant.parse("2022-01-01T00:00:00Z"), Duration.ZERO);
+
+        var config = new CircuitBreakerConfig();
+        config.setFailureThreshold(3);
+        config.setOpenFor(io.dropwizard.util.Duration.seconds(30));
+        breaker = new CircuitBreaker("home", config, clock, metrics, "light-service");
+    }
+
+    private void fail(int times) {
+        for (var i = 0; i < times; i++) {
+            assertThat(breaker.allow()).isTrue();
+            breaker.failure();
+        }
+    }
+
+    @Test
+    void shouldStayClosed_UntilEnoughCallsFailInARow() {
+        fail(2);
+        breaker.allow();
+        breaker.success();
+        fail(2);
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(breaker.allow()).isTrue();
+    }
+
+    @Test
+    void shouldRejectCalls_WhileOpen() {
+        fail(3);
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.allow()).isFalse();
+        assertThat(breaker.allow()).isFalse();
+
+        assertThat(metrics.meter("light-service.jms.breaker.home.opened").getCount()).isEqualTo(1);
+        assertThat(metrics.meter("light-service.jms.breaker.home.rejected").getCount()).isEqualTo(2);
+        assertThat(metrics.getGauges().get("light-service.jms.breaker.home.state").getValue()).isEqualTo("OPEN");
+    }
+
+    @Test
+    void shouldLetOneTrialCallThrough_OnceOpenForIsUp() {
+        fail(3);
+        clock.advance(Duration.ofSeconds(30));
+
+        assertThat(breaker.allow()).isTrue();
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        assertThat(breaker.allow()).isFalse();
+    }
+
+    @Test
+    void shouldClose_WhenTheTrialCallSucceeds() {
+        fail(3);
+        clock.advance(Duration.ofSeconds(30));
+
+        breaker.allow();
+        breaker.success();
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(breaker.allow()).isTrue();
+    }
+
+    @Test
+    void shouldOpenAgain_WhenTheTrialCallFails() {
+        fail(3);
+        clock.advance(Duration.ofSeconds(30));
+
+        breaker.allow();
+        breaker.failure();
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        clock.advance(Duration.ofSeconds(29));
+        assertThat(breaker.allow()).isFalse();
+        assertThat(metrics.meter("light-service.jms.breaker.home.opened").getCount()).isEqualTo(2);
+    }
+}
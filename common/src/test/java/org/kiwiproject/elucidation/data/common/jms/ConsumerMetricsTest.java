@@ -0,0 +1,82 @@
+package org.kiwiproject.elucidation.data.common.jms;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.codahale.metrics.MetricRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.jms.JMSException;
+import javax.jms.Message;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+@SuppressWarnings("java:S100")
+@DisplayName("ConsumerMetrics")
+class ConsumerMetricsTest {
+
+    private MetricRegistry registry;
+    private ConsumerMetrics metrics;
+
+    @BeforeEach
+    void setUp() {
+        registry = new MetricRegistry();
+        metrics = new ConsumerMetrics(registry, "light-service");
+    }
+
+    @Test
+    void shouldRecordLatency_FromTheProducerTimestamp() throws JMSException {
+        metrics.markReceived(message(System.currentTimeMillis() - 250));
+
+        var latency = registry.timer("light-service.jms.latency").getSnapshot();
+        assertThat(TimeUnit.NANOSECONDS.toMillis((long) latency.getMax())).isBetween(250L, 5_000L);
+        assertThat(registry.meter("light-service.jms.received").getCount()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldNotRecordLatency_WhenTheMessageHasNoTimestamp() throws JMSException {
+        metrics.markReceived(message(0));
+
+        assertThat(registry.timer("light-service.jms.latency").getCount()).isZero();
+    }
+
+    @Test
+    void shouldSampleOneInEveryHundredMessages() throws JMSException {
+        var message = message(0);
+
+        var sampled = IntStream.range(0, 300)
+                .filter(i -> markReceived(message))
+                .count();
+
+        assertThat(sampled).isEqualTo(3);
+    }
+
+    @Test
+    void shouldCountAcceptedAndIgnoredMessages_ByAction() {
+        metrics.accepted("light");
+        metrics.accepted("LIGHT");
+        metrics.ignored("camera");
+        metrics.ignored(null);
+
+        assertThat(registry.counter("light-service.jms.accepted.light").getCount()).isEqualTo(2);
+        assertThat(registry.counter("light-service.jms.ignored.camera").getCount()).isEqualTo(1);
+        assertThat(registry.counter("light-service.jms.ignored.unknown").getCount()).isEqualTo(1);
+    }
+
+    private boolean markReceived(Message message) {
+        try {
+            return metrics.markReceived(message);
+        } catch (JMSException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Message message(long timestamp) throws JMSException {
+        var message = mock(Message.class);
+        when(message.getJMSTimestamp()).thenReturn(timestamp);
+        return message;
+    }
+}
@@ -0,0 +1,212 @@
+package org.kiwiproject.elucidation.data.common.jms;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.codahale.metrics.MetricRegistry;
+import org.kiwiproject.elucidation.data.common.run.VirtualClock;
+import org.kiwiproject.elucidation.data.common.trace.Correlation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import javax.jms.JMSConsumer;
+import javax.jms.JMSContext;
+import javax.jms.JMSException;
+import javax.jms.JMSProducer;
+import javax.jms.Message;
+import javax.jms.Queue;
+import javax.jms.QueueBrowser;
+import javax.jms.TextMessage;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+@SuppressWarnings("java:S100")
+@DisplayName("DeadLetterQueue")
+class DeadLetterQueueTest {
+
+    private static final Instant NOW = Instant.parse("2022-01-01T00:00:00Z");
+
+    private MetricRegistry metrics;
+    private JMSContext context;
+    private JMSContext producerContext;
+    private JMSContext replayContext;
+    private Queue queue;
+    private List<List<Message>> handled;
+    private DeadLetterQueue deadLetters;
+
+    @BeforeEach
+    void setUp() {
+        metrics = new MetricRegistry();
+        context = mock(JMSContext.class);
+        producerContext = mock(JMSContext.class);
+        replayContext = mock(JMSContext.class);
+        queue = mock(Queue.class);
+        handled = new ArrayList<>();
+
+        when(context.createContext(JMSContext.AUTO_ACKNOWLEDGE)).thenReturn(producerContext);
+        when(context.createContext(JMSContext.CLIENT_ACKNOWLEDGE)).thenReturn(replayContext);
+        when(producerContext.createQueue("light-service.DLQ")).thenReturn(queue);
+        when(replayContext.createQueue("light-service.DLQ")).thenReturn(queue);
+
+        deadLetters = new DeadLetterQueue("light-service", new VirtualClock(NOW, Duration.ZERO), metrics);
+    }
+
+    private static TextMessage message(String text) throws JMSException {
+        var message = mock(TextMessage.class);
+        when(message.getText()).thenReturn(text);
+        when(message.getPropertyNames()).thenReturn(Collections.enumeration(List.of(Correlation.PROPERTY, RetryPolicy.DELIVERY_COUNT)));
+        when(message.getObjectProperty(Correlation.PROPERTY)).thenReturn("abc-123");
+        when(message.getIntProperty(RetryPolicy.DELIVERY_COUNT)).thenReturn(5);
+        return message;
+    }
+
+    @Nested
+    class Send {
+
+        @Test
+        void shouldSendACopy_WithWhyItFailed() throws JMSException {
+            var producer = mock(JMSProducer.class);
+            var deadLetter = mock(TextMessage.class);
+            when(producerContext.createProducer()).thenReturn(producer);
+            when(producerContext.createTextMessage("{\"color\":\"PLAID\"}")).thenReturn(deadLetter);
+            deadLetters.connect(context, handled::add);
+
+            deadLetters.send(message("{\"color\":\"PLAID\"}"), DeadLetterQueue.Reason.POISON,
+                    new IllegalArgumentException("No enum constant PLAID"));
+
+            verify(producer).send(queue, deadLetter);
+            verify(deadLetter).setObjectProperty(Correlation.PROPERTY, "abc-123");
+            verify(deadLetter, never()).setObjectProperty(RetryPolicy.DELIVERY_COUNT, 5);
+            verify(deadLetter).setStringProperty(DeadLetterQueue.REASON, "POISON");
+            verify(deadLetter).setStringProperty(DeadLetterQueue.ERROR, "java.lang.IllegalArgumentException: No enum constant PLAID");
+            verify(deadLetter).setStringProperty(DeadLetterQueue.SERVICE, "light-service");
+            verify(deadLetter).setIntProperty(DeadLetterQueue.DELIVERIES, 5);
+            verify(deadLetter).setLongProperty(DeadLetterQueue.FAILED_AT, NOW.toEpochMilli());
+            assertThat(metrics.meter("light-service.jms.dlq.poison").getCount()).isEqualTo(1);
+        }
+
+        @Test
+        void shouldDropTheMessage_WhenNotConnectedYet() throws JMSException {
+            deadLetters.send(message("{}"), DeadLetterQueue.Reason.RETRIES_EXHAUSTED, new IllegalStateException("locked"));
+
+            assertThat(deadLetters.isConnected()).isFalse();
+            assertThat(metrics.meter("light-service.jms.dlq.retries_exhausted").getCount()).isEqualTo(1);
+            assertThat(metrics.meter("light-service.jms.dlq.dropped").getCount()).isEqualTo(1);
+        }
+    }
+
+    @Nested
+    class Replay {
+
+        private JMSConsumer consumer;
+        private QueueBrowser browser;
+
+        @BeforeEach
+        void setUp() throws JMSException {
+            consumer = mock(JMSConsumer.class);
+            browser = mock(QueueBrowser.class);
+            when(replayContext.createConsumer(queue)).thenReturn(consumer);
+            when(producerContext.createBrowser(queue)).thenReturn(browser);
+        }
+
+        private void queued(int depth) throws JMSException {
+            var queuedMessages = IntStream.range(0, depth).mapToObj(i -> mock(Message.class)).collect(Collectors.toList());
+            when(browser.getEnumeration()).thenReturn(Collections.enumeration(queuedMessages));
+        }
+
+        @Test
+        void shouldApplyAndAcknowledgeEachMessage_UpToTheLimit() throws JMSException {
+            var first = message("1");
+            var second = message("2");
+            var third = message("3");
+            when(consumer.receive(anyLong())).thenReturn(first, second, third);
+            queued(3);
+            deadLetters.connect(context, handled::add);
+
+            var result = deadLetters.replay(2);
+
+            assertThat(result.getReplayed()).isEqualTo(2);
+            assertThat(result.getFailure()).isNull();
+            assertThat(handled).containsExactly(List.of(first), List.of(second));
+            verify(replayContext, times(2)).acknowledge();
+            verify(replayContext).close();
+            assertThat(metrics.meter("light-service.jms.dlq.replayed").getCount()).isEqualTo(2);
+        }
+
+        @Test
+        void shouldStop_WhenTheQueueIsEmpty() throws JMSException {
+            var only = message("1");
+            when(consumer.receive(anyLong())).thenReturn(only, (Message) null);
+            queued(2);
+            deadLetters.connect(context, handled::add);
+
+            assertThat(deadLetters.replay(100).getReplayed()).isEqualTo(1);
+        }
+
+        @Test
+        void shouldStopAndLeaveTheMessageQueued_WhenItFailsAgain() throws JMSException {
+            var first = message("1");
+            var second = message("2");
+            when(consumer.receive(anyLong())).thenReturn(first, second);
+            queued(2);
+            deadLetters.connect(context, batch -> {
+                if (!handled.isEmpty()) {
+                    throw new IllegalStateException("database is locked");
+                }
+                handled.add(batch);
+            });
+
+            var result = deadLetters.replay(100);
+
+            assertThat(result.getReplayed()).isEqualTo(1);
+            assertThat(result.getFailure()).isEqualTo("java.lang.IllegalStateException: database is locked");
+            verify(replayContext).acknowledge();
+            verify(replayContext).recover();
+        }
+
+        @Test
+        void shouldCountPoisonSentBack_AndNotReplayItAgain() throws JMSException {
+            var poison = message("{\"color\":\"PLAID\"}");
+            var good = message("{\"color\":\"RED\"}");
+            var poisonSentBack = message("{\"color\":\"PLAID\"}");
+            when(poison.getJMSMessageID()).thenReturn("ID:1");
+            when(good.getJMSMessageID()).thenReturn("ID:2");
+            when(poisonSentBack.getJMSMessageID()).thenReturn("ID:3");
+            when(consumer.receive(anyLong())).thenReturn(poison, good, poisonSentBack);
+            queued(2);
+            when(producerContext.createProducer()).thenReturn(mock(JMSProducer.class));
+            when(producerContext.createTextMessage(any())).thenAnswer(invocation -> mock(TextMessage.class));
+            deadLetters.connect(context, batch -> {
+                if (batch.contains(poison)) {
+                    deadLetters.send(poison, DeadLetterQueue.Reason.POISON, new IllegalArgumentException("No enum constant PLAID"));
+                    return;
+                }
+                handled.add(batch);
+            });
+
+            var result = deadLetters.replay(100);
+
+            assertThat(result.getReplayed()).isEqualTo(1);
+            assertThat(result.getDeadLetteredAgain()).isEqualTo(1);
+            assertThat(result.getFailure()).isNull();
+            assertThat(handled).containsExactly(List.of(good));
+            verify(consumer, times(2)).receive(anyLong());
+            verify(replayContext, times(2)).acknowledge();
+            assertThat(metrics.meter("light-service.jms.dlq.replayed").getCount()).isEqualTo(1);
+            assertThat(metrics.meter("light-service.jms.dlq.deadLetteredAgain").getCount()).isEqualTo(1);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package org.kiwiproject.elucidation.data.common.jms;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.codahale.metrics.MetricRegistry;
+import org.kiwiproject.elucidation.data.common.run.VirtualClock;
+import io.dropwizard.util.DataSize;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+@SuppressWarnings("java:S100")
+@DisplayName("DuplicateFilter")
+class DuplicateFilterTest {
+
+    private static final long WINDOW_MILLIS = 60_000;
+
+    private MetricRegistry metrics;
+    private VirtualClock clock;
+    private DuplicateFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        metrics = new MetricRegistry();
+        clock = new VirtualClock(Instant.parse("2022-01-01T00:00:00Z"), Duration.ZERO);
+        filter = new DuplicateFilter(WINDOW_MILLIS, 100, clock, metrics, "light-service");
+    }
+
+    @Test
+    void shouldRejectAnId_SeenWithinTheWindow() {
+        var id = UUID.randomUUID().toString();
+
+        assertThat(filter.firstSeen(id)).isTrue();
+        clock.advance(Duration.ofSeconds(59));
+        assertThat(filter.firstSeen(id)).isFalse();
+
+        assertThat(metrics.meter("light-service.jms.dedup.checked").getCount()).isEqualTo(2);
+        assertThat(metrics.meter("light-service.jms.dedup.duplicates").getCount()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldAcceptAnIdAgain_OnceTheWindowIsUp() {
+        var id = UUID.randomUUID().toString();
+        filter.firstSeen(id);
+
+        clock.advance(Duration.ofMillis(WINDOW_MILLIS));
+
+        assertThat(filter.firstSeen(id)).isTrue();
+        assertThat(filter.size()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldForgetTheOldestIds_WhenFull() {
+        var ids = IntStream.range(0, 150).mapToObj(i -> UUID.randomUUID().toString()).collect(Collectors.toList());
+        ids.forEach(filter::firstSeen);
+
+        assertThat(filter.size()).isEqualTo(100);
+        assertThat(ids.subList(50, 150)).noneMatch(filter::firstSeen);
+        assertThat(ids.subList(0, 50)).allMatch(filter::firstSeen);
+        assertThat(metrics.meter("light-service.jms.dedup.evicted").getCount()).isEqualTo(100);
+    }
+
+    @Test
+    void shouldAcceptAnIdAgain_AfterItIsForgotten() {
+        var id = UUID.randomUUID().toString();
+        filter.firstSeen(id);
+
+        filter.forget(id);
+        clock.advance(Duration.ofSeconds(30));
+        assertThat(filter.firstSeen(id)).isTrue();
+
+        // the first sighting's window ending doesn't take the second one with it
+        clock.advance(Duration.ofSeconds(40));
+        assertThat(filter.firstSeen(id)).isFalse();
+    }
+
+    @Test
+    void shouldAlwaysAcceptEventsWithoutAnId() {
+        assertThat(filter.firstSeen(null)).isTrue();
+        assertThat(filter.firstSeen(null)).isTrue();
+    }
+
+    @Test
+    void shouldKeepFindingIds_AsOthersExpireAroundThem() {
+        // enough ids to wrap the ring and the table several times, deleting from the middle of probe runs
+        for (var round = 0; round < 20; round++) {
+            var ids = IntStream.range(0, 100).mapToObj(i -> "event-" + i + "-" + UUID.randomUUID()).collect(Collectors.toList());
+            assertThat(ids).allMatch(filter::firstSeen);
+            assertThat(ids).noneMatch(filter::firstSeen);
+            clock.advance(Duration.ofMillis(WINDOW_MILLIS));
+        }
+    }
+
+    @Test
+    void shouldSizeItself_FromTheMemoryCeiling() {
+        var config = new DedupConfig();
+        config.setMaxMemory(DataSize.kibibytes(48));
+        var sized = new DuplicateFilter(config, clock, metrics, "thermostat-service");
+
+        IntStream.range(0, 2000).forEach(i -> sized.firstSeen(UUID.randomUUID().toString()));
+
+        assertThat(sized.size()).isEqualTo(1024);
+    }
+
+    @Test
+    void shouldAllocateNoMoreThanTheMemoryCeiling() {
+        var config = new DedupConfig();
+        var sized = new DuplicateFilter(config, clock, metrics, "thermostat-service");
+
+        assertThat(DuplicateFilter.capacityFor(config.getMaxMemory())).isEqualTo(131_072);
+        assertThat(sized.allocatedBytes())
+                .isEqualTo(131_072L * DuplicateFilter.BYTES_PER_ID)
+                .isLessThanOrEqualTo(config.getMaxMemory().toBytes());
+    }
+
+    @Test
+    void shouldAllocateBytesPerIdForEveryId_WhateverTheCeiling() {
+        for (var kibibytes : new long[] {1, 47, 48, 100, 1_000, 8_192, 10_000}) {
+            var maxMemory = DataSize.kibibytes(kibibytes);
+            var capacity = DuplicateFilter.capacityFor(maxMemory);
+            var sized = new DuplicateFilter(WINDOW_MILLIS, capacity, clock, new MetricRegistry(), "thermostat-service");
+
+            assertThat(Integer.bitCount(capacity)).isOne();
+            assertThat(sized.allocatedBytes())
+                    .isEqualTo((long) capacity * DuplicateFilter.BYTES_PER_ID)
+                    .isLessThanOrEqualTo(maxMemory.toBytes())
+                    .isGreaterThan(maxMemory.toBytes() / 2);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package org.kiwiproject.elucidation.data.common.jms;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import io.dropwizard.util.DataSize;
+import io.dropwizard.util.Duration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+@SuppressWarnings("java:S100")
+@DisplayName("JmsConnections")
+class JmsConnectionsTest {
+
+    private JmsConfig config;
+    private ScheduledExecutorService executor;
+    private JmsConnections connections;
+
+    @BeforeEach
+    void setUp() {
+        config = new JmsConfig();
+        config.setStartDelay(Duration.seconds(5));
+        executor = mock(ScheduledExecutorService.class);
+        connections = new JmsConnections(config, "home-service", executor, false);
+    }
+
+    @Test
+    void shouldConnect_AfterTheStartDelay() {
+        connections.start();
+
+        verify(executor).schedule(any(Runnable.class), eq(5_000L), eq(TimeUnit.MILLISECONDS));
+        assertThat(connections.isConnected()).isFalse();
+    }
+
+    @Test
+    void shouldTryAgain_BackingOff_WhenArtemisIsNotThere() {
+        config.setUrl("tcp://localhost:1");
+
+        connections.connect();
+        connections.connect();
+
+        assertThat(connections.isConnected()).isFalse();
+        verify(executor).schedule(any(Runnable.class), eq(1_000L), eq(TimeUnit.MILLISECONDS));
+        verify(executor).schedule(any(Runnable.class), eq(2_000L), eq(TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void shouldNotTryAgain_AfterStopping() {
+        config.setUrl("tcp://localhost:1");
+        connections.stop();
+
+        connections.connect();
+
+        verify(executor, never()).schedule(any(Runnable.class), any(Long.class), any(TimeUnit.class));
+    }
+
+    @Test
+    void shouldFailToSend_BeforeConnecting() {
+        var publisher = connections.publisher("iotEvent");
+
+        assertThatThrownBy(() -> publisher.send("{}", Map.of()))
+                .isExactlyInstanceOf(IllegalStateException.class)
+                .hasMessage("Not connected to Artemis yet");
+    }
+
+    @Test
+    void shouldCreateTheFactory_WithTheFlowControlSettings() {
+        config.setConsumerWindowSize(DataSize.kibibytes(0));
+        config.setProducerWindowSize(DataSize.kibibytes(256));
+        config.setConfirmationWindowSize(DataSize.mebibytes(1));
+        config.setBlockOnDurableSend(false);
+        config.setBlockOnAcknowledge(true);
+        config.setCompressLargeMessages(true);
+        config.setCallTimeout(Duration.seconds(2));
+        config.setCallFailoverTimeout(Duration.seconds(3));
+
+        try (var factory = JmsConnections.createFactory(config)) {
+            assertThat(factory.getConsumerWindowSize()).isZero();
+            assertThat(factory.getProducerWindowSize()).isEqualTo(256 * 1024);
+            assertThat(factory.getConfirmationWindowSize()).isEqualTo(1024 * 1024);
+            assertThat(factory.isBlockOnDurableSend()).isFalse();
+            assertThat(factory.isBlockOnNonDurableSend()).isFalse();
+            assertThat(factory.isBlockOnAcknowledge()).isTrue();
+            assertThat(factory.isCompressLargeMessage()).isTrue();
+            assertThat(factory.getCallTimeout()).isEqualTo(2_000);
+            assertThat(factory.getCallFailoverTimeout()).isEqualTo(3_000);
+        }
+    }
+
+    @Test
+    void shouldLeaveConfirmationsOff_ByDefault() {
+        try (var factory = JmsConnections.createFactory(config)) {
+            assertThat(factory.getConfirmationWindowSize()).isEqualTo(-1);
+            assertThat(factory.isBlockOnDurableSend()).isTrue();
+        }
+    }
+
+    @Test
+    void shouldStop_WithoutHavingConnected() {
+        connections.stop();
+
+        assertThat(connections.isConnected()).isFalse();
+    }
+}
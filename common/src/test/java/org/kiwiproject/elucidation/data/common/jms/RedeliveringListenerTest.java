@@ -0,0 +1,102 @@
+package org.kiwiproject.elucidation.data.common.jms;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.codahale.metrics.MetricRegistry;
+import io.dropwizard.util.Duration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.jms.JMSException;
+import javax.jms.Message;
+import java.io.IOException;
+
+@SuppressWarnings("java:S100")
+@DisplayName("RedeliveringListener")
+class RedeliveringListenerTest {
+
+    private RetryPolicy retry;
+    private DeadLetterQueue deadLetters;
+
+    @BeforeEach
+    void setUp() {
+        var config = new RetryConfig();
+        config.setMaxDeliveries(3);
+        config.setInitialBackoff(Duration.milliseconds(1));
+        config.setMaxBackoff(Duration.milliseconds(1));
+        retry = new RetryPolicy(config, new MetricRegistry(), "light-service");
+        deadLetters = mock(DeadLetterQueue.class);
+    }
+
+    private RedeliveringListener listener(MessageHandler handler) {
+        return new RedeliveringListener(Subscription.builder()
+                .topic("iotEvent")
+                .name("light-service")
+                .handler(handler)
+                .retry(retry)
+                .deadLetters(deadLetters)
+                .build());
+    }
+
+    private static Message delivered(int times) throws JMSException {
+        var message = mock(Message.class);
+        when(message.getIntProperty(RetryPolicy.DELIVERY_COUNT)).thenReturn(times);
+        return message;
+    }
+
+    @Test
+    void shouldAcceptTheMessage_WhenItIsApplied() throws JMSException {
+        var message = delivered(1);
+
+        assertThatCode(() -> listener(messages -> { }).onMessage(message)).doesNotThrowAnyException();
+
+        verify(deadLetters, never()).send(any(), any(), any());
+    }
+
+    @Test
+    void shouldRethrow_WhenItCanBeRedelivered() throws JMSException {
+        var message = delivered(1);
+        var failure = new IllegalStateException("database is locked");
+        var listener = listener(messages -> {
+            throw failure;
+        });
+
+        assertThatThrownBy(() -> listener.onMessage(message)).isSameAs(failure);
+
+        verify(deadLetters, never()).send(any(), any(), any());
+    }
+
+    @Test
+    void shouldWrapCheckedExceptions_WhenRethrowing() throws JMSException {
+        var message = delivered(2);
+        var failure = new IOException("disk full");
+        var listener = listener(messages -> {
+            throw failure;
+        });
+
+        assertThatThrownBy(() -> listener.onMessage(message))
+                .isExactlyInstanceOf(IllegalStateException.class)
+                .hasCause(failure);
+    }
+
+    @Test
+    void shouldDeadLetterTheMessage_WhenOutOfDeliveries() throws JMSException {
+        var message = delivered(3);
+        var failure = new IllegalStateException("database is locked");
+        var listener = listener(messages -> {
+            throw failure;
+        });
+
+        assertThatCode(() -> listener.onMessage(message)).doesNotThrowAnyException();
+
+        verify(deadLetters).send(same(message), same(DeadLetterQueue.Reason.RETRIES_EXHAUSTED), same(failure));
+    }
+}
@@ -0,0 +1,72 @@
+package org.kiwiproject.elucidation.data.common.jms;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.codahale.metrics.MetricRegistry;
+import io.dropwizard.util.Duration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.jms.JMSException;
+import javax.jms.Message;
+import java.util.List;
+
+@SuppressWarnings("java:S100")
+@DisplayName("RetryPolicy")
+class RetryPolicyTest {
+
+    private MetricRegistry metrics;
+    private RetryConfig config;
+    private RetryPolicy retry;
+
+    @BeforeEach
+    void setUp() {
+        metrics = new MetricRegistry();
+        config = new RetryConfig();
+        config.setMaxDeliveries(3);
+        config.setInitialBackoff(Duration.milliseconds(1));
+        config.setMaxBackoff(Duration.milliseconds(4));
+        retry = new RetryPolicy(config, metrics, "light-service");
+    }
+
+    private static Message delivered(int times) throws JMSException {
+        var message = mock(Message.class);
+        when(message.getIntProperty(RetryPolicy.DELIVERY_COUNT)).thenReturn(times);
+        return message;
+    }
+
+    @Test
+    void shouldRedeliver_UntilMaxDeliveries() throws JMSException {
+        assertThat(retry.redeliver(List.of(delivered(1)))).isTrue();
+        assertThat(retry.redeliver(List.of(delivered(2)))).isTrue();
+        assertThat(retry.redeliver(List.of(delivered(3)))).isFalse();
+
+        assertThat(metrics.meter("light-service.jms.retry.redeliveries").getCount()).isEqualTo(2);
+        assertThat(metrics.meter("light-service.jms.retry.exhausted").getCount()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldGiveUpOnABatch_WhenAnyOfItIsOutOfDeliveries() throws JMSException {
+        assertThat(retry.redeliver(List.of(delivered(1), delivered(3), delivered(2)))).isFalse();
+    }
+
+    @Test
+    void shouldCountAMessageWithoutADeliveryCount_AsItsFirstDelivery() throws JMSException {
+        assertThat(RetryPolicy.deliveries(delivered(0))).isEqualTo(1);
+    }
+
+    @Test
+    void shouldDoubleTheBackoff_UpToTheMax() {
+        config.setInitialBackoff(Duration.milliseconds(100));
+        config.setMaxBackoff(Duration.seconds(1));
+
+        assertThat(retry.backoffMillis(1)).isEqualTo(100);
+        assertThat(retry.backoffMillis(2)).isEqualTo(200);
+        assertThat(retry.backoffMillis(4)).isEqualTo(800);
+        assertThat(retry.backoffMillis(5)).isEqualTo(1_000);
+        assertThat(retry.backoffMillis(100)).isEqualTo(1_000);
+    }
+}
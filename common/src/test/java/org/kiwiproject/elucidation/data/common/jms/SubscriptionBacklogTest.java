@@ -0,0 +1,68 @@
+package org.kiwiproject.elucidation.data.common.jms;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.apache.activemq.artemis.api.core.ActiveMQException;
+import org.apache.activemq.artemis.api.core.SimpleString;
+import org.apache.activemq.artemis.api.core.client.ClientSession;
+import org.apache.activemq.artemis.api.core.client.ClientSessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@SuppressWarnings("java:S100")
+@DisplayName("SubscriptionBacklog")
+class SubscriptionBacklogTest {
+
+    private static final SimpleString QUEUE = SimpleString.toSimpleString("light-service.light-service-events");
+
+    private ClientSessionFactory sessionFactory;
+    private ClientSession session;
+    private SubscriptionBacklog backlog;
+
+    @BeforeEach
+    void setUp() {
+        sessionFactory = mock(ClientSessionFactory.class);
+        session = mock(ClientSession.class);
+        backlog = new SubscriptionBacklog(sessionFactory, session, QUEUE);
+    }
+
+    @Test
+    void shouldReadTheQueuesMessageCount() throws ActiveMQException {
+        var query = mock(ClientSession.QueueQuery.class);
+        when(query.getMessageCount()).thenReturn(42L);
+        when(session.queueQuery(QUEUE)).thenReturn(query);
+
+        assertThat(backlog.getValue()).isEqualTo(42L);
+    }
+
+    @Test
+    void shouldReadMinusOne_WhenTheBrokerCantBeAsked() throws ActiveMQException {
+        when(session.queueQuery(QUEUE)).thenThrow(new ActiveMQException("gone"));
+
+        assertThat(backlog.getValue()).isEqualTo(-1L);
+    }
+
+    @Test
+    void shouldCloseTheSession_ThenItsFactory() throws ActiveMQException {
+        backlog.close();
+
+        var order = inOrder(session, sessionFactory);
+        order.verify(session).close();
+        order.verify(sessionFactory).close();
+    }
+
+    @Test
+    void shouldStillCloseTheFactory_WhenTheSessionFailsToClose() throws ActiveMQException {
+        doThrow(new ActiveMQException("gone")).when(session).close();
+
+        backlog.close();
+
+        verify(sessionFactory).close();
+    }
+}
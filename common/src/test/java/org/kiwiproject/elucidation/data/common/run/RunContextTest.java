@@ -0,0 +1,166 @@
+package org.kiwiproject.elucidation.data.common.run;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+@SuppressWarnings("java:S100")
+@DisplayName("RunContext")
+class RunContextTest {
+
+    private static final Instant START = Instant.parse("2022-01-01T00:00:00Z");
+
+    private static RunConfig runConfig(Long seed, Instant startTime) {
+        var config = new RunConfig();
+        config.setSeed(seed);
+        config.setStartTime(startTime);
+        return config;
+    }
+
+    @Nested
+    class BuildContext {
+
+        @Test
+        void shouldUseTheSystemClockAndRandomIds_WhenNothingIsConfigured() {
+            var run = runConfig(null, null).buildContext("home-service");
+
+            assertThat(run.getClock()).isNotInstanceOf(VirtualClock.class);
+            assertThat(run.getSeed().isSeeded()).isFalse();
+            assertThat(run.isDeterministic()).isFalse();
+        }
+
+        @Test
+        void shouldBeDeterministic_WhenSeedAndStartTimeAreConfigured() {
+            var run = runConfig(42L, START).buildContext("home-service");
+
+            assertThat(run.getClock()).isInstanceOf(VirtualClock.class);
+            assertThat(run.isDeterministic()).isTrue();
+        }
+
+        @Test
+        void shouldGiveEachServiceItsOwnSequence() {
+            var home = runConfig(42L, START).buildContext("home-service");
+            var light = runConfig(42L, START).buildContext("light-service");
+
+            assertThat(home.getSeed().nextUuid()).isNotEqualTo(light.getSeed().nextUuid());
+        }
+    }
+
+    @Nested
+    class NextUuid {
+
+        @Test
+        void shouldRepeatTheSameSequence_ForTheSameSeed() {
+            var first = RunSeed.of(42);
+            var second = RunSeed.of(42);
+
+            var firstIds = IntStream.range(0, 100).mapToObj(i -> first.nextUuid()).collect(Collectors.toList());
+            var secondIds = IntStream.range(0, 100).mapToObj(i -> second.nextUuid()).collect(Collectors.toList());
+
+            assertThat(secondIds).isEqualTo(firstIds).doesNotHaveDuplicates();
+        }
+
+        @Test
+        void shouldProduceVersion4Uuids() {
+            var uuid = RunSeed.of(42).nextUuid();
+
+            assertThat(uuid.version()).isEqualTo(4);
+            assertThat(uuid.variant()).isEqualTo(2);
+            assertThat(UUID.fromString(uuid.toString())).isEqualTo(uuid);
+        }
+    }
+
+    @Nested
+    class Clocks {
+
+        @Test
+        void shouldTickOnEveryRead() {
+            var clock = new VirtualClock(START, Duration.ofMillis(1));
+
+            assertThat(clock.millis()).isEqualTo(START.toEpochMilli());
+            assertThat(clock.millis()).isEqualTo(START.toEpochMilli() + 1);
+            assertThat(clock.peek()).isEqualTo(START.plusMillis(2));
+        }
+
+        @Test
+        void shouldAdvanceTheVirtualClockInsteadOfSleeping() throws InterruptedException {
+            var clock = new VirtualClock(START, Duration.ofMillis(1));
+            var run = new RunContext(clock, RunSeed.of(42));
+
+            var before = System.nanoTime();
+            run.sleep(Duration.ofHours(1));
+
+            assertThat(Duration.ofNanos(System.nanoTime() - before)).isLessThan(Duration.ofSeconds(1));
+            assertThat(clock.peek()).isEqualTo(START.plus(Duration.ofHours(1)));
+        }
+
+        @Test
+        void shouldGiveEachInstanceItsOwnClock_FromWhereTheRunIsNow() throws InterruptedException {
+            var run = new RunContext(new VirtualClock(START, Duration.ofMillis(1)), RunSeed.of(42));
+            run.sleep(Duration.ofMinutes(5));
+            var now = START.plus(Duration.ofMinutes(5));
+
+            var first = run.forInstance();
+            var second = run.forInstance();
+            first.sleep(Duration.ofSeconds(30));
+
+            assertThat(first.getClock().instant()).isEqualTo(now.plusSeconds(30));
+            assertThat(second.getClock().instant()).isEqualTo(now.plusMillis(1));
+            assertThat(second.getClock().instant()).isEqualTo(now.plusMillis(2));
+            assertThat(((VirtualClock) run.getClock()).peek()).isEqualTo(now.plusMillis(2));
+        }
+
+        @Test
+        void shouldGiveEachNamedInstance_ItsOwnIds() {
+            var run = new RunContext(new VirtualClock(START, Duration.ofMillis(1)), RunSeed.of(42));
+            var again = new RunContext(new VirtualClock(START, Duration.ofMillis(1)), RunSeed.of(42));
+
+            var first = run.forInstance("Good Morning-1");
+            var second = run.forInstance("Good Morning-2", START);
+            second.getSeed().nextUuid();
+
+            assertThat(first.getSeed().nextUuid())
+                    .isEqualTo(again.forInstance("Good Morning-1").getSeed().nextUuid())
+                    .isNotEqualTo(second.getSeed().nextUuid());
+            assertThat(run.getSeed().nextUuid()).isEqualTo(again.getSeed().nextUuid());
+        }
+
+        @Test
+        void shouldStartAnInstanceClock_WhereItIsToldTo() {
+            var run = new RunContext(new VirtualClock(START, Duration.ofMillis(1)), RunSeed.of(42));
+
+            var scheduled = run.forInstance(START.plusSeconds(60));
+
+            assertThat(scheduled.getClock().instant()).isEqualTo(START.plusSeconds(60));
+            assertThat(scheduled.getSeed()).isSameAs(run.getSeed());
+        }
+
+        @Test
+        void shouldShareTheWallClock_BetweenInstances() {
+            var run = RunContext.system();
+
+            assertThat(run.forInstance()).isSameAs(run);
+            assertThat(run.forInstance(START)).isSameAs(run);
+            assertThat(run.forInstance("Good Morning-1")).isSameAs(run);
+        }
+
+        @Test
+        void shouldShareTimeWithClocksInOtherZones() {
+            var clock = new VirtualClock(START, Duration.ofMillis(1));
+            var zoned = clock.withZone(Clock.systemDefaultZone().getZone());
+
+            clock.advance(Duration.ofMinutes(5));
+
+            assertThat(zoned.instant()).isEqualTo(START.plus(Duration.ofMinutes(5)));
+        }
+    }
+}
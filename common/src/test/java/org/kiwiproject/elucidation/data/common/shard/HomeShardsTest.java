@@ -0,0 +1,99 @@
+package org.kiwiproject.elucidation.data.common.shard;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+@SuppressWarnings("java:S100")
+@DisplayName("HomeShards")
+class HomeShardsTest {
+
+    private static final int HOMES = 10_000;
+
+    private static HomeShards shards(int count, int index) {
+        var config = new ShardConfig();
+        config.setShards(IntStream.range(0, count)
+                .mapToObj(shard -> "http://home-" + shard + ":8080")
+                .collect(Collectors.toList()));
+        config.setIndex(index);
+        return new HomeShards(config);
+    }
+
+    private static List<String> homes() {
+        return IntStream.range(0, HOMES).mapToObj(home -> "home-" + home).collect(Collectors.toList());
+    }
+
+    @Nested
+    class WhenNotSharded {
+
+        @Test
+        void shouldOwnEveryHome() {
+            var shards = new HomeShards(new ShardConfig());
+
+            assertThat(shards.isSharded()).isFalse();
+            assertThat(homes()).allMatch(shards::owns);
+        }
+
+        @Test
+        void shouldNotHaveAUrl_ForAnyHome() {
+            var shards = new HomeShards(new ShardConfig());
+
+            assertThatThrownBy(() -> shards.urlOf("home-1"))
+                    .isExactlyInstanceOf(IllegalStateException.class);
+        }
+    }
+
+    @Nested
+    class WhenSharded {
+
+        @Test
+        void shouldSpreadHomesEvenly() {
+            var shards = shards(4, 0);
+
+            var perShard = homes().stream().collect(Collectors.groupingBy(shards::shardOf, Collectors.counting()));
+
+            assertThat(perShard).hasSize(4);
+            assertThat(perShard.values()).allSatisfy(count -> assertThat(count).isBetween(HOMES / 4 * 7 / 10L, HOMES / 4 * 13 / 10L));
+        }
+
+        @Test
+        void shouldOnlyMoveHomes_ToANewShard() {
+            var before = shards(4, 0);
+            var after = shards(5, 0);
+
+            var moved = homes().stream().filter(home -> before.shardOf(home) != after.shardOf(home)).collect(Collectors.toList());
+
+            assertThat(moved).allMatch(home -> after.shardOf(home) == 4);
+            assertThat(moved.size()).isBetween(HOMES / 5 * 7 / 10, HOMES / 5 * 13 / 10);
+        }
+
+        @Test
+        void shouldGiveEachHome_ToExactlyOneShard() {
+            var shards = IntStream.range(0, 3).mapToObj(index -> shards(3, index)).collect(Collectors.toList());
+
+            assertThat(homes()).allMatch(home -> shards.stream().filter(shard -> shard.owns(home)).count() == 1);
+        }
+
+        @Test
+        void shouldTreatNoHome_AsTheDefaultHome() {
+            var shards = shards(3, 0);
+
+            assertThat(shards.shardOf(null)).isEqualTo(shards.shardOf(HomeShards.DEFAULT_HOME));
+            assertThat(shards.urlOf("")).isEqualTo(shards.urlOf(HomeShards.DEFAULT_HOME));
+        }
+
+        @Test
+        void shouldNotAllowAnIndex_PastTheLastShard() {
+            assertThatThrownBy(() -> shards(2, 2))
+                    .isExactlyInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("shard index 2 is not one of the 2 shards");
+        }
+    }
+}
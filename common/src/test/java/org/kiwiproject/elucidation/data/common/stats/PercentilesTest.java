@@ -0,0 +1,33 @@
+package org.kiwiproject.elucidation.data.common.stats;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@SuppressWarnings("java:S100")
+@DisplayName("Percentiles")
+class PercentilesTest {
+
+    @Test
+    void shouldTakeTheNearestRank() {
+        var sorted = new long[] {10, 20, 30, 40, 50, 60, 70, 80, 90, 100};
+
+        assertThat(Percentiles.at(sorted, 0.50)).isEqualTo(50);
+        assertThat(Percentiles.at(sorted, 0.90)).isEqualTo(90);
+        assertThat(Percentiles.at(sorted, 0.99)).isEqualTo(100);
+        assertThat(Percentiles.at(sorted, 0.0)).isEqualTo(10);
+    }
+
+    @Test
+    void shouldSortTheValues_BeforeTakingPercentiles() {
+        var percentiles = Percentiles.of(new long[] {300, 100, 200});
+
+        assertThat(percentiles).isEqualTo(new Percentiles(200, 300, 300, 300));
+    }
+
+    @Test
+    void shouldHaveNoPercentiles_WithoutValues() {
+        assertThat(Percentiles.of(new long[0])).isNull();
+    }
+}
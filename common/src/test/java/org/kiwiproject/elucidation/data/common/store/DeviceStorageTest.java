@@ -0,0 +1,129 @@
+package org.kiwiproject.elucidation.data.common.store;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import org.jdbi.v3.core.Jdbi;
+import org.jdbi.v3.sqlobject.customizer.Bind;
+import org.jdbi.v3.sqlobject.statement.GetGeneratedKeys;
+import org.jdbi.v3.sqlobject.statement.SqlQuery;
+import org.jdbi.v3.sqlobject.statement.SqlUpdate;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.util.List;
+
+@SuppressWarnings("java:S100")
+@DisplayName("DeviceStorage")
+class DeviceStorageTest {
+
+    private static final String MIGRATIONS_FILE = "migrations/things.xml";
+
+    public interface ThingDao {
+
+        @SqlQuery("select name from things")
+        List<String> findNames();
+
+        @SqlUpdate("insert into things (name) values (:name)")
+        @GetGeneratedKeys
+        long create(@Bind("name") String name);
+    }
+
+    private static StorageConfig config(StorageConfig.Backend backend) {
+        var config = new StorageConfig();
+        config.setBackend(backend);
+        config.setOffHeapCapacity(64);
+        return config;
+    }
+
+    @Nested
+    class WithSqlite {
+
+        @Test
+        void shouldUseTheServicesDatabase() {
+            var database = mock(Jdbi.class);
+            var dao = mock(ThingDao.class);
+            when(database.onDemand(ThingDao.class)).thenReturn(dao);
+
+            var storage = new DeviceStorage(config(StorageConfig.Backend.SQLITE), database, "things", MIGRATIONS_FILE);
+
+            assertThat(storage.dao(ThingDao.class, capacity -> null)).isSameAs(dao);
+        }
+    }
+
+    @Nested
+    class WithH2 {
+
+        @Test
+        void shouldCreateTheTables_FromTheChangelog() throws SQLException {
+            var database = mock(Jdbi.class);
+            var storage = new DeviceStorage(config(StorageConfig.Backend.H2), database, "things", MIGRATIONS_FILE);
+
+            try {
+                var dao = storage.dao(ThingDao.class, capacity -> null);
+
+                assertThat(dao.create("first")).isEqualTo(1);
+                assertThat(dao.create("second")).isEqualTo(2);
+                assertThat(dao.findNames()).containsExactly("first", "second");
+                verifyNoInteractions(database);
+            } finally {
+                storage.stop();
+            }
+        }
+
+        @Test
+        void shouldGiveEachInstanceItsOwnDatabase() throws SQLException {
+            var first = new DeviceStorage(config(StorageConfig.Backend.H2), mock(Jdbi.class), "things", MIGRATIONS_FILE);
+            var second = new DeviceStorage(config(StorageConfig.Backend.H2), mock(Jdbi.class), "things", MIGRATIONS_FILE);
+
+            try {
+                first.dao(ThingDao.class, capacity -> null).create("first");
+
+                assertThat(second.dao(ThingDao.class, capacity -> null).findNames()).isEmpty();
+            } finally {
+                first.stop();
+                second.stop();
+            }
+        }
+    }
+
+    @Nested
+    class WithOffHeap {
+
+        @Test
+        void shouldMakeTheOffHeapDao_WithTheConfiguredCapacity() {
+            var database = mock(Jdbi.class);
+            var dao = mock(ThingDao.class);
+            var storage = new DeviceStorage(config(StorageConfig.Backend.OFF_HEAP), database, "things", MIGRATIONS_FILE);
+
+            assertThat(storage.dao(ThingDao.class, capacity -> capacity == 64 ? dao : null)).isSameAs(dao);
+            verifyNoInteractions(database);
+        }
+    }
+
+    @Nested
+    class WithCompact {
+
+        @Test
+        void shouldMakeTheCompactDao_WithTheConfiguredCapacity() {
+            var database = mock(Jdbi.class);
+            var dao = mock(ThingDao.class);
+            var storage = new DeviceStorage(config(StorageConfig.Backend.COMPACT), database, "things", MIGRATIONS_FILE);
+
+            assertThat(storage.dao(ThingDao.class, capacity -> null, capacity -> capacity == 64 ? dao : null)).isSameAs(dao);
+            verifyNoInteractions(database);
+        }
+
+        @Test
+        void shouldMakeTheOffHeapDao_WhenThereIsNoCompactOne() {
+            var dao = mock(ThingDao.class);
+            var storage = new DeviceStorage(config(StorageConfig.Backend.COMPACT), mock(Jdbi.class), "things", MIGRATIONS_FILE);
+
+            assertThat(storage.dao(ThingDao.class, capacity -> dao)).isSameAs(dao);
+        }
+    }
+}
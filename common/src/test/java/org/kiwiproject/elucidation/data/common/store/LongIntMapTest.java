@@ -0,0 +1,91 @@
+package org.kiwiproject.elucidation.data.common.store;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.stream.LongStream;
+
+@SuppressWarnings("java:S100")
+@DisplayName("LongIntMap")
+class LongIntMapTest {
+
+    private LongIntMap map;
+
+    @BeforeEach
+    void setUp() {
+        // small, so most tests make it grow
+        map = new LongIntMap(2);
+    }
+
+    @Nested
+    class Put {
+
+        @Test
+        void shouldKeepEveryKey_AsItGrows() {
+            LongStream.rangeClosed(1, 10_000).forEach(key -> map.put(key, (int) key * 2));
+
+            assertThat(map.size()).isEqualTo(10_000);
+            assertThat(LongStream.rangeClosed(1, 10_000).allMatch(key -> map.get(key) == key * 2)).isTrue();
+            assertThat(map.get(10_001)).isEqualTo(LongIntMap.MISSING);
+        }
+
+        @Test
+        void shouldReplaceTheValue_OfAKeyItHas() {
+            map.put(7, 1);
+            map.put(7, 2);
+
+            assertThat(map.get(7)).isEqualTo(2);
+            assertThat(map.size()).isOne();
+        }
+
+        @Test
+        void shouldNotAllowKeysBelowOne() {
+            assertThatThrownBy(() -> map.put(0, 1)).isExactlyInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    @Nested
+    class Remove {
+
+        @Test
+        void shouldReturnTheValue_OnlyOnce() {
+            map.put(7, 3);
+
+            assertThat(map.remove(7)).isEqualTo(3);
+            assertThat(map.remove(7)).isEqualTo(LongIntMap.MISSING);
+            assertThat(map.get(7)).isEqualTo(LongIntMap.MISSING);
+            assertThat(map.size()).isZero();
+        }
+
+        @Test
+        void shouldKeepFindingTheOtherKeys() {
+            LongStream.rangeClosed(1, 5_000).forEach(key -> map.put(key, (int) key));
+            LongStream.rangeClosed(1, 5_000).filter(key -> key % 3 != 0).forEach(map::remove);
+
+            assertThat(map.size()).isEqualTo(1_666);
+            assertThat(LongStream.rangeClosed(1, 5_000)
+                    .allMatch(key -> map.get(key) == (key % 3 == 0 ? key : LongIntMap.MISSING))).isTrue();
+        }
+    }
+
+    @Nested
+    class ForEach {
+
+        @Test
+        void shouldVisitEveryEntry() {
+            LongStream.rangeClosed(1, 100).forEach(key -> map.put(key * 1_000_003, (int) key));
+            map.remove(50 * 1_000_003L);
+
+            var visited = new HashMap<Long, Integer>();
+            map.forEach(visited::put);
+
+            assertThat(visited).hasSize(99).containsEntry(1_000_003L, 1).doesNotContainKey(50 * 1_000_003L);
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package org.kiwiproject.elucidation.data.common.store;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.kiwiproject.elucidation.data.common.store.OffHeapTable.ENUM_BYTES;
+import static org.kiwiproject.elucidation.data.common.store.OffHeapTable.INT_BYTES;
+import static org.kiwiproject.elucidation.data.common.store.OffHeapTable.NULLABLE_DOUBLE_BYTES;
+import static org.kiwiproject.elucidation.data.common.store.OffHeapTable.NULLABLE_LONG_BYTES;
+import static org.kiwiproject.elucidation.data.common.store.OffHeapTable.STRING_BYTES;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+@SuppressWarnings("java:S100")
+@DisplayName("OffHeapTable")
+class OffHeapTableTest {
+
+    private static final int NAME = 0;
+    private static final int DAY = NAME + STRING_BYTES;
+    private static final int COUNT = DAY + ENUM_BYTES;
+    private static final int TOTAL = COUNT + INT_BYTES;
+    private static final int AVERAGE = TOTAL + NULLABLE_LONG_BYTES;
+    private static final int FIELD_BYTES = AVERAGE + NULLABLE_DOUBLE_BYTES;
+
+    private static final DayOfWeek[] DAYS = DayOfWeek.values();
+
+    // small chunks, so most tests span several
+    private static final int CHUNK_RECORDS = 4;
+
+    private OffHeapTable table;
+    private OffHeapTable.Index byName;
+
+    @BeforeEach
+    void setUp() {
+        table = new OffHeapTable(FIELD_BYTES, CHUNK_RECORDS);
+        byName = table.index(record -> record.getString(NAME));
+    }
+
+    private long insert(String name) {
+        return table.insert(record -> {
+            record.putString(NAME, name);
+            record.putEnum(DAY, DayOfWeek.FRIDAY);
+            record.putInt(COUNT, 3);
+            record.putNullableLong(TOTAL, 42L);
+            record.putNullableDouble(AVERAGE, 14.0);
+        });
+    }
+
+    private String name(long id) {
+        return table.find(id, record -> record.getString(NAME)).orElseThrow();
+    }
+
+    @Nested
+    class Insert {
+
+        @Test
+        void shouldHandOutIdsFromOne() {
+            assertThat(LongStream.rangeClosed(1, 10).map(i -> insert("record-" + i)))
+                    .containsExactly(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L);
+            assertThat(table.size()).isEqualTo(10);
+        }
+
+        @Test
+        void shouldKeepEveryField() {
+            var id = insert("Caf\u00e9 Light");
+
+            var fields = table.find(id, record -> record.getId() + "," + record.getString(NAME) + ","
+                    + record.getEnum(DAY, DAYS) + "," + record.getInt(COUNT) + "," + record.getNullableLong(TOTAL) + ","
+                    + record.getNullableDouble(AVERAGE));
+
+            assertThat(fields).contains("1,Caf\u00e9 Light,FRIDAY,3,42,14.0");
+        }
+
+        @Test
+        void shouldKeepNulls() {
+            var id = table.insert(record -> {
+                record.putString(NAME, null);
+                record.putEnum(DAY, null);
+                record.putNullableLong(TOTAL, null);
+                record.putNullableDouble(AVERAGE, null);
+            });
+
+            var nulls = table.find(id, record -> record.getString(NAME) == null && record.getEnum(DAY, DAYS) == null
+                    && record.getNullableLong(TOTAL) == null && record.getNullableDouble(AVERAGE) == null);
+
+            assertThat(nulls).contains(true);
+        }
+
+        @Test
+        void shouldNotAllowNewIndexes_OnceRecordsAreInserted() {
+            insert("first");
+
+            assertThatThrownBy(() -> table.index(record -> record.getString(NAME)))
+                    .isExactlyInstanceOf(IllegalStateException.class);
+        }
+    }
+
+    @Nested
+    class Find {
+
+        @Test
+        void shouldBeEmpty_ForIdsNeverHandedOut() {
+            insert("first");
+
+            assertThat(table.find(0, record -> record.getString(NAME))).isEmpty();
+            assertThat(table.find(2, record -> record.getString(NAME))).isEmpty();
+        }
+
+        @Test
+        void shouldFindAllLiveRecords_InIdOrder() {
+            LongStream.rangeClosed(1, 9).forEach(i -> insert("record-" + i));
+            table.delete(5);
+
+            assertThat(table.findAll(record -> record.getString(NAME)))
+                    .containsExactly("record-1", "record-2", "record-3", "record-4", "record-6", "record-7", "record-8",
+                            "record-9");
+        }
+
+        @Test
+        void shouldFindAllThatMatch() {
+            LongStream.rangeClosed(1, 9).forEach(i -> insert("record-" + i));
+
+            assertThat(table.findAll(record -> record.getId() % 3 == 0, record -> record.getString(NAME)))
+                    .containsExactly("record-3", "record-6", "record-9");
+        }
+    }
+
+    @Nested
+    class FindFirst {
+
+        @Test
+        void shouldFindByKey_AmongManyRecords() {
+            LongStream.rangeClosed(1, 1000).forEach(i -> insert("record-" + i));
+
+            assertThat(table.findFirst(byName, "record-777", OffHeapTable.Record::getId)).contains(777L);
+            assertThat(table.findFirst(byName, "record-1001", OffHeapTable.Record::getId)).isEmpty();
+        }
+
+        @Test
+        void shouldFindTheLowestId_WhenTheKeyRepeats() {
+            insert("other");
+            insert("twice");
+            insert("twice");
+
+            assertThat(table.findFirst(byName, "twice", OffHeapTable.Record::getId)).contains(2L);
+        }
+
+        @Test
+        void shouldNotFindDeletedRecords() {
+            LongStream.rangeClosed(1, 100).forEach(i -> insert("record-" + (i % 10)));
+            LongStream.rangeClosed(1, 100).filter(id -> id % 10 == 3).forEach(table::delete);
+
+            assertThat(table.findFirst(byName, "record-3", OffHeapTable.Record::getId)).isEmpty();
+            assertThat(table.findFirst(byName, "record-4", OffHeapTable.Record::getId)).contains(4L);
+        }
+    }
+
+    @Nested
+    class Update {
+
+        @Test
+        void shouldChangeTheRecord() {
+            var id = insert("first");
+
+            var updated = table.update(id, record -> record.putString(NAME, "renamed"));
+
+            assertThat(updated).isOne();
+            assertThat(name(id)).isEqualTo("renamed");
+        }
+
+        @Test
+        void shouldChangeNothing_WhenThereIsNoRecord() {
+            var id = insert("first");
+            table.delete(id);
+
+            assertThat(table.update(id, record -> record.putString(NAME, "renamed"))).isZero();
+            assertThat(table.update(99, record -> record.putString(NAME, "renamed"))).isZero();
+        }
+
+        @Test
+        void shouldApplyABatch() {
+            var ids = LongStream.rangeClosed(1, 6).map(i -> insert("record-" + i)).boxed().collect(Collectors.toList());
+
+            var updated = table.batch(() -> ids.stream()
+                    .mapToInt(id -> table.update(id, record -> record.putInt(COUNT, id.intValue() * 10)))
+                    .sum());
+
+            assertThat(updated).isEqualTo(6);
+            assertThat(table.findAll(record -> record.getInt(COUNT))).containsExactly(10, 20, 30, 40, 50, 60);
+        }
+    }
+
+    @Nested
+    class Delete {
+
+        @Test
+        void shouldDeleteOnce() {
+            var id = insert("first");
+
+            assertThat(table.delete(id)).isOne();
+            assertThat(table.delete(id)).isZero();
+            assertThat(table.find(id, record -> record.getString(NAME))).isEmpty();
+            assertThat(table.size()).isZero();
+        }
+
+        @Test
+        void shouldNotReuseIds() {
+            insert("first");
+            table.delete(1);
+
+            assertThat(insert("second")).isEqualTo(2);
+        }
+    }
+}
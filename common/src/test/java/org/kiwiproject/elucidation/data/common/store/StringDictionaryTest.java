@@ -0,0 +1,31 @@
+package org.kiwiproject.elucidation.data.common.store;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@SuppressWarnings("java:S100")
+@DisplayName("StringDictionary")
+class StringDictionaryTest {
+
+    private final StringDictionary dictionary = new StringDictionary();
+
+    @Test
+    void shouldGiveEachDistinctStringOneCode() {
+        var kitchen = dictionary.code("Kitchen");
+        var hall = dictionary.code("Hall");
+
+        assertThat(dictionary.code(new String("Kitchen"))).isEqualTo(kitchen).isNotEqualTo(hall);
+        assertThat(dictionary.string(kitchen)).isEqualTo("Kitchen");
+        assertThat(dictionary.string(hall)).isEqualTo("Hall");
+        assertThat(dictionary.size()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldKeepNull_WithoutACode() {
+        assertThat(dictionary.code(null)).isEqualTo(StringDictionary.NULL);
+        assertThat(dictionary.string(StringDictionary.NULL)).isNull();
+        assertThat(dictionary.size()).isZero();
+    }
+}
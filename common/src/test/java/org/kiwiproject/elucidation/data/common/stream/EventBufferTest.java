@@ -0,0 +1,31 @@
+package org.kiwiproject.elucidation.data.common.stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+@SuppressWarnings("java:S100")
+@DisplayName("EventBuffer")
+class EventBufferTest {
+
+    @Test
+    void shouldDropTheOldestFrames_WhenFull() {
+        var buffer = new EventBuffer(2);
+
+        assertThat(buffer.offer(frame("1"))).isTrue();
+        assertThat(buffer.offer(frame("2"))).isTrue();
+        assertThat(buffer.offer(frame("3"))).isFalse();
+
+        assertThat(buffer.poll()).isEqualTo(frame("2"));
+        assertThat(buffer.poll()).isEqualTo(frame("3"));
+        assertThat(buffer.poll()).isNull();
+        assertThat(buffer.isEmpty()).isTrue();
+    }
+
+    private static byte[] frame(String data) {
+        return data.getBytes(StandardCharsets.UTF_8);
+    }
+}
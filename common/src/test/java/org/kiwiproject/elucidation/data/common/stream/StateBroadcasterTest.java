@@ -0,0 +1,132 @@
+package org.kiwiproject.elucidation.data.common.stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.codahale.metrics.MetricRegistry;
+import io.dropwizard.jackson.Jackson;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
+import org.eclipse.jetty.servlet.ServletContextHandler;
+import org.eclipse.jetty.servlet.ServletHolder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.BooleanSupplier;
+
+@SuppressWarnings("java:S100")
+@DisplayName("StateBroadcaster")
+class StateBroadcasterTest {
+
+    private MetricRegistry metrics;
+    private ScheduledExecutorService executor;
+    private StateBroadcaster broadcaster;
+    private Server server;
+    private URL streamUrl;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        metrics = new MetricRegistry();
+        executor = Executors.newScheduledThreadPool(2);
+        broadcaster = new StateBroadcaster("light", Jackson.newObjectMapper(), 4, Duration.ofMillis(50), executor, metrics);
+        broadcaster.start();
+
+        server = new Server(0);
+        var context = new ServletContextHandler();
+        var holder = new ServletHolder(new EventStreamServlet(broadcaster));
+        holder.setAsyncSupported(true);
+        context.addServlet(holder, "/light/stream");
+        server.setHandler(context);
+        server.start();
+
+        var port = ((ServerConnector) server.getConnectors()[0]).getLocalPort();
+        streamUrl = new URL("http://localhost:" + port + "/light/stream");
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        broadcaster.stop();
+        server.stop();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void shouldStreamEachChange_ToEverySubscriber() throws Exception {
+        var first = open();
+        var second = open();
+        await(() -> broadcaster.subscribers() == 2);
+
+        broadcaster.publish(3, Map.of("state", "ON"));
+        broadcaster.publish(3, Map.of("brightness", 40, "color", "BLUE"));
+
+        for (var stream : List.of(first, second)) {
+            assertThat(nextEvent(stream)).containsExactly("id: 1", "event: light", "data: {\"id\":3,\"state\":\"ON\"}");
+            assertThat(nextEvent(stream)).containsExactly("id: 2", "event: light", "data: {\"id\":3,\"brightness\":40,\"color\":\"BLUE\"}");
+        }
+        assertThat(metrics.meter("org.kiwiproject.elucidation.data.common.stream.StateBroadcaster.light.published").getCount()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldForgetSubscribers_ThatHaveDisconnected() throws Exception {
+        var connection = (HttpURLConnection) streamUrl.openConnection();
+        connection.getInputStream();
+        await(() -> broadcaster.subscribers() == 1);
+
+        connection.disconnect();
+
+        await(() -> broadcaster.subscribers() == 0);
+    }
+
+    @Test
+    void shouldNotEncodeChanges_WhenNobodyIsWatching() {
+        broadcaster.publish(3, Map.of("state", "ON"));
+
+        assertThat(metrics.meter("org.kiwiproject.elucidation.data.common.stream.StateBroadcaster.light.published").getCount()).isZero();
+    }
+
+    private BufferedReader open() throws IOException {
+        var connection = (HttpURLConnection) streamUrl.openConnection();
+        connection.setReadTimeout(5_000);
+        assertThat(connection.getContentType()).startsWith("text/event-stream");
+        return new BufferedReader(new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * The lines of the next event, skipping the retry hint and heartbeats.
+     */
+    private static List<String> nextEvent(BufferedReader stream) throws IOException {
+        var lines = new ArrayList<String>();
+        String line;
+        while ((line = stream.readLine()) != null) {
+            if (!line.isEmpty()) {
+                lines.add(line);
+            } else if (lines.stream().anyMatch(l -> l.startsWith("data:"))) {
+                return lines;
+            } else {
+                lines.clear();
+            }
+        }
+        return lines;
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        var deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).describedAs("timed out waiting").isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package org.kiwiproject.elucidation.data.common.thread;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import com.codahale.metrics.MetricRegistry;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import io.dropwizard.jackson.Jackson;
+import io.dropwizard.server.ServerFactory;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+@SuppressWarnings("java:S100")
+@DisplayName("VirtualThreadServerFactory")
+class VirtualThreadServerFactoryTest {
+
+    private static ServerFactory parse(String yaml) throws Exception {
+        return Jackson.newObjectMapper(new YAMLFactory()).readValue(yaml, ServerFactory.class);
+    }
+
+    @Test
+    void shouldBeChosenByType_WithRoomForManyThreads() throws Exception {
+        var factory = parse("type: virtual");
+
+        assertThat(factory).isExactlyInstanceOf(VirtualThreadServerFactory.class);
+        assertThat(((VirtualThreadServerFactory) factory).getMaxThreads())
+                .isEqualTo(VirtualThreadServerFactory.DEFAULT_MAX_THREADS);
+    }
+
+    @Test
+    void shouldKeepTheConfiguredMaxThreads() throws Exception {
+        var factory = (VirtualThreadServerFactory) parse("type: virtual\nmaxThreads: 500");
+
+        assertThat(factory.getMaxThreads()).isEqualTo(500);
+    }
+
+    @Test
+    void shouldRunJettysJobs_OnVirtualThreads() throws Exception {
+        assumeTrue(VirtualThreads.isSupported(), "needs Java 21");
+        var pool = (QueuedThreadPool) new VirtualThreadServerFactory().createThreadPool(new MetricRegistry());
+
+        pool.start();
+        try {
+            var ran = new CompletableFuture<Thread>();
+            pool.execute(() -> ran.complete(Thread.currentThread()));
+
+            var thread = ran.get(5, TimeUnit.SECONDS);
+            assertThat(VirtualThreadsTest.isVirtual(thread)).isTrue();
+            assertThat(thread.getName()).startsWith("dw");
+        } finally {
+            pool.stop();
+        }
+    }
+}
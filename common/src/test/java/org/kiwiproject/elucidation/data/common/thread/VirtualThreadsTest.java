@@ -0,0 +1,72 @@
+package org.kiwiproject.elucidation.data.common.thread;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import io.dropwizard.Configuration;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+@SuppressWarnings("java:S100")
+@DisplayName("VirtualThreads")
+class VirtualThreadsTest {
+
+    /**
+     * Whether the thread is virtual, asked by reflection as the tests also compile on Java 17.
+     */
+    static boolean isVirtual(Thread thread) throws ReflectiveOperationException {
+        return (boolean) Thread.class.getMethod("isVirtual").invoke(thread);
+    }
+
+    @Nested
+    class IsEnabled {
+
+        @Test
+        void shouldBeEnabled_ByTheVirtualServer() {
+            var config = new Configuration();
+            config.setServerFactory(new VirtualThreadServerFactory());
+
+            assertThat(VirtualThreads.isEnabled(config)).isTrue();
+        }
+
+        @Test
+        void shouldNotBeEnabled_ByTheDefaultServer() {
+            assertThat(VirtualThreads.isEnabled(new Configuration())).isFalse();
+        }
+    }
+
+    @Nested
+    class Factory {
+
+        @Test
+        void shouldMakeNumberedVirtualThreads() throws Exception {
+            assumeTrue(VirtualThreads.isSupported(), "needs Java 21");
+            var factory = VirtualThreads.factory("test-");
+            var ran = new CompletableFuture<Thread>();
+
+            var first = factory.newThread(() -> ran.complete(Thread.currentThread()));
+            var second = factory.newThread(() -> { });
+            first.start();
+
+            assertThat(ran.get(5, TimeUnit.SECONDS)).isSameAs(first);
+            assertThat(isVirtual(first)).isTrue();
+            assertThat(first.getName()).isEqualTo("test-0");
+            assertThat(second.getName()).isEqualTo("test-1");
+        }
+
+        @Test
+        void shouldRefuse_BeforeJava21() {
+            assumeFalse(VirtualThreads.isSupported(), "this Java has virtual threads");
+
+            assertThatThrownBy(() -> VirtualThreads.factory("test-"))
+                    .isExactlyInstanceOf(IllegalStateException.class)
+                    .hasMessageContaining("Java 21");
+        }
+    }
+}
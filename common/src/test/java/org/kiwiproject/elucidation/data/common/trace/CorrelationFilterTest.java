@@ -0,0 +1,71 @@
+package org.kiwiproject.elucidation.data.common.trace;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.dropwizard.testing.junit5.DropwizardClientExtension;
+import io.dropwizard.testing.junit5.DropwizardExtensionsSupport;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.client.Client;
+import javax.ws.rs.client.ClientBuilder;
+
+@SuppressWarnings("java:S100")
+@DisplayName("CorrelationFilter")
+@ExtendWith(DropwizardExtensionsSupport.class)
+class CorrelationFilterTest {
+
+    @Path("/correlated")
+    public static class CorrelatedResource {
+
+        @GET
+        public String currentId() {
+            return Correlation.currentId();
+        }
+    }
+
+    private static final SpanRecorder SPANS = new SpanRecorder("light-service", 64);
+    private static final DropwizardClientExtension RESOURCE = new DropwizardClientExtension(
+            new CorrelatedResource(), new CorrelationFilter(SPANS));
+
+    private Client client;
+
+    @BeforeEach
+    void setUp() {
+        client = ClientBuilder.newClient();
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.close();
+    }
+
+    @Test
+    void shouldUseTheCorrelationIdFromTheRequest_AndRecordASpanForIt() {
+        var response = client.target(RESOURCE.baseUri()).path("correlated")
+                .request()
+                .header(Correlation.HEADER, "abc123")
+                .get();
+
+        assertThat(response.readEntity(String.class)).isEqualTo("abc123");
+        assertThat(response.getHeaderString(Correlation.HEADER)).isEqualTo("abc123");
+        assertThat(SPANS.find("abc123"))
+                .extracting(Span::getName)
+                .containsExactly("http CorrelatedResource.currentId");
+    }
+
+    @Test
+    void shouldStartACorrelationId_WhenTheRequestHasNone() {
+        var response = client.target(RESOURCE.baseUri()).path("correlated").request().get();
+
+        var id = response.readEntity(String.class);
+        assertThat(id).isNotBlank();
+        assertThat(response.getHeaderString(Correlation.HEADER)).isEqualTo(id);
+        assertThat(SPANS.find(id)).hasSize(1);
+    }
+}
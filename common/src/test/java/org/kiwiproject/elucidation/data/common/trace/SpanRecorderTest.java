@@ -0,0 +1,72 @@
+package org.kiwiproject.elucidation.data.common.trace;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+@SuppressWarnings("java:S100")
+@DisplayName("SpanRecorder")
+class SpanRecorderTest {
+
+    private SpanRecorder spans;
+
+    @BeforeEach
+    void setUp() {
+        spans = new SpanRecorder("home-service", 8);
+    }
+
+    @Test
+    void shouldKeepOnlyTheMostRecentSpans_NewestFirst() {
+        IntStream.rangeClosed(1, 10).forEach(i -> spans.record("id-" + i, "jms send", i, i));
+
+        assertThat(spans.recent(100))
+                .extracting(Span::getCorrelationId)
+                .containsExactly("id-10", "id-9", "id-8", "id-7", "id-6", "id-5", "id-4", "id-3");
+        assertThat(spans.recent(2)).extracting(Span::getCorrelationId).containsExactly("id-10", "id-9");
+    }
+
+    @Test
+    void shouldFindTheSpansForACorrelationId_InTheOrderTheyStarted() {
+        spans.record("abc", "jms send", 20, 5);
+        spans.record("other", "jms send", 10, 5);
+        spans.record("abc", "http WorkflowResource.triggerWorkflowByName", 10, 50);
+
+        assertThat(spans.find("abc"))
+                .extracting(Span::getName)
+                .containsExactly("http WorkflowResource.triggerWorkflowByName", "jms send");
+        assertThat(spans.find("abc")).extracting(Span::getService).containsOnly("home-service");
+    }
+
+    @Test
+    void shouldSummarizeTheSpans_ByName() {
+        IntStream.rangeClosed(1, 4).forEach(i -> spans.record("id", "jms handle", 0, i * 100L));
+        spans.record("id", "jms transit", 0, 7);
+
+        var summary = spans.summary();
+
+        assertThat(summary).containsOnlyKeys("jms handle", "jms transit");
+        assertThat(summary.get("jms handle")).isEqualTo(new SpanSummary(4, 250, 200, 400, 400));
+        assertThat(summary.get("jms transit")).isEqualTo(new SpanSummary(1, 7, 7, 7, 7));
+    }
+
+    @Test
+    void shouldNotRecordATransitSpan_WhenTheSendTimeIsNotSet() {
+        spans.recordSinceSent("id", "jms transit", 0);
+        spans.recordSinceSent("id", "jms transit", System.currentTimeMillis() - 50);
+
+        assertThat(spans.recent(10)).hasSize(1)
+                .first()
+                .satisfies(span -> assertThat(span.getDurationMicros()).isGreaterThanOrEqualTo(50_000));
+    }
+
+    @Test
+    void shouldRequireAPowerOfTwoCapacity() {
+        assertThatThrownBy(() -> new SpanRecorder("home-service", 100))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -3,8 +3,17 @@ package org.kiwiproject.elucidation.data.doorbell;
 import org.kiwiproject.elucidation.client.ElucidationRecorder;
 import org.kiwiproject.elucidation.client.helper.dropwizard.EndpointTrackingListener;
 import org.kiwiproject.elucidation.client.helper.jersey.InboundHttpRequestTrackingFilter;
+import org.kiwiproject.elucidation.data.common.cache.StateCache;
+import org.kiwiproject.elucidation.data.common.http.HttpClients;
+import org.kiwiproject.elucidation.data.common.store.DeviceStorage;
+import org.kiwiproject.elucidation.data.common.thread.VirtualThreads;
+import org.kiwiproject.elucidation.data.common.trace.CorrelationFilter;
+import org.kiwiproject.elucidation.data.common.trace.SpanRecorder;
+import org.kiwiproject.elucidation.data.common.trace.SpanResource;
 import org.kiwiproject.elucidation.data.doorbell.config.AppConfig;
 import org.kiwiproject.elucidation.data.doorbell.db.DoorbellDao;
+import org.kiwiproject.elucidation.data.doorbell.db.OffHeapDoorbellDao;
+import org.kiwiproject.elucidation.data.doorbell.model.Doorbell;
 import org.kiwiproject.elucidation.data.doorbell.resource.DoorbellResource;
 import org.kiwiproject.elucidation.data.doorbell.service.DoorbellService;
 import io.dropwizard.Application;
@@ -17,11 +26,15 @@ import lombok.extern.slf4j.Slf4j;
 import org.jdbi.v3.core.Jdbi;
 import org.jdbi.v3.sqlobject.SqlObjectPlugin;
 
+import java.time.Clock;
+
 @Slf4j
 public class App extends Application<AppConfig> {
 
 	public static final String SERVICE_NAME = "doorbell-service";
 
+	private static final String MIGRATIONS_FILE = "migrations/doorbell.xml";
+
 	public static void main(String[] args) throws Exception {
 		new App().run(args);
 	}
@@ -34,6 +47,11 @@ public class App extends Application<AppConfig> {
 			public PooledDataSourceFactory getDataSourceFactory(AppConfig configuration) {
 				return configuration.getDataSourceFactory();
 			}
+
+			@Override
+			public String getMigrationsFileName() {
+				return MIGRATIONS_FILE;
+			}
 		});
 	}
 
@@ -41,11 +59,22 @@ public class App extends Application<AppConfig> {
 	public void run(AppConfig config, Environment env) {
 
 		var jdbi = setupJdbi(config, env);
-		var doorbellDao = jdbi.onDemand(DoorbellDao.class);
+		var storage = new DeviceStorage(config.getStorage(), jdbi, SERVICE_NAME, MIGRATIONS_FILE);
+		env.lifecycle().manage(storage);
+		var doorbellDao = storage.dao(DoorbellDao.class, OffHeapDoorbellDao::new);
+		var doorbellCache = new StateCache<Doorbell>("doorbells", doorbellDao::findById, env.metrics());
 
-		var eventRecorder = setupEventRecorder();
-		var doorbellService = new DoorbellService();
-		env.jersey().register(new DoorbellResource(doorbellDao, doorbellService));
+		var eventRecorder = setupEventRecorder(config);
+		var doorbellService = new DoorbellService(
+				HttpClients.build(env, config.getHttpClientConfig(), SERVICE_NAME, VirtualThreads.isEnabled(config)),
+				config.getHomeUrl(),
+				env.metrics(),
+				config.getRingDebounceWindow().toJavaDuration(),
+				Clock.systemUTC());
+		var spans = new SpanRecorder(SERVICE_NAME);
+		env.jersey().register(new DoorbellResource(doorbellDao, doorbellCache, doorbellService));
+		env.jersey().register(new SpanResource(spans));
+		env.jersey().register(new CorrelationFilter(spans));
 
 		env.jersey().register(new EndpointTrackingListener(
 				env.jersey().getResourceConfig(),
@@ -64,9 +93,8 @@ public class App extends Application<AppConfig> {
 		return jdbi;
 	}
 
-	private ElucidationRecorder setupEventRecorder() {
-		// When using docker compose, elucidation will resolve
-		return new ElucidationRecorder("http://elucidation:8080");
+	private ElucidationRecorder setupEventRecorder(AppConfig config) {
+		return new ElucidationRecorder(config.getElucidationUrl());
 	}
 }
 
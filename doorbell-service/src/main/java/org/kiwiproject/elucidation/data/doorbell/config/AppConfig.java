@@ -1,12 +1,18 @@
 package org.kiwiproject.elucidation.data.doorbell.config;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import org.kiwiproject.elucidation.data.common.http.HttpClients;
+import org.kiwiproject.elucidation.data.common.store.StorageConfig;
 import io.dropwizard.Configuration;
+import io.dropwizard.client.JerseyClientConfiguration;
 import io.dropwizard.db.DataSourceFactory;
+import io.dropwizard.util.Duration;
 import lombok.Getter;
 import lombok.Setter;
 
 import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
 
 @Getter
 @Setter
@@ -16,4 +22,25 @@ public class AppConfig extends Configuration {
     @JsonProperty("database")
     private DataSourceFactory dataSourceFactory = new DataSourceFactory();
 
+    @Valid
+    @NotNull
+    @JsonProperty("httpClient")
+    private JerseyClientConfiguration httpClientConfig = HttpClients.defaultConfiguration();
+
+    @NotEmpty
+    private String elucidationUrl = "http://elucidation:8080";
+
+    @NotEmpty
+    private String homeUrl = "http://home:8080";
+
+    /**
+     * Rings of the same doorbell this close together only trigger the workflow once.
+     */
+    @NotNull
+    private Duration ringDebounceWindow = Duration.seconds(5);
+
+    @Valid
+    @NotNull
+    private StorageConfig storage = new StorageConfig();
+
 }
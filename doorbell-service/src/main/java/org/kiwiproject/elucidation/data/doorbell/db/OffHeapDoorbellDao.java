@@ -0,0 +1,57 @@
+package org.kiwiproject.elucidation.data.doorbell.db;
+
+import static java.util.Objects.isNull;
+import static org.kiwiproject.elucidation.data.common.store.OffHeapTable.STRING_BYTES;
+
+import org.kiwiproject.elucidation.data.common.store.OffHeapTable;
+import org.kiwiproject.elucidation.data.doorbell.model.Doorbell;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Keeps doorbells in off-heap memory instead of a database, for runs that don't need them to outlive the service.
+ */
+public class OffHeapDoorbellDao implements DoorbellDao {
+
+    private static final int NAME = 0;
+    private static final int BRAND = NAME + STRING_BYTES;
+    private static final int FIELD_BYTES = BRAND + STRING_BYTES;
+
+    private final OffHeapTable doorbells;
+
+    public OffHeapDoorbellDao(int capacity) {
+        doorbells = new OffHeapTable(FIELD_BYTES, capacity);
+    }
+
+    @Override
+    public List<Doorbell> findAll() {
+        return doorbells.findAll(this::toDoorbell);
+    }
+
+    @Override
+    public Optional<Doorbell> findById(Long id) {
+        return isNull(id) ? Optional.empty() : doorbells.find(id, this::toDoorbell);
+    }
+
+    @Override
+    public long create(Doorbell doorbell) {
+        return doorbells.insert(record -> {
+            record.putString(NAME, doorbell.getName());
+            record.putString(BRAND, doorbell.getBrand());
+        });
+    }
+
+    @Override
+    public int deleteDoorbell(long id) {
+        return doorbells.delete(id);
+    }
+
+    private Doorbell toDoorbell(OffHeapTable.Record record) {
+        return Doorbell.builder()
+                .id(record.getId())
+                .name(record.getString(NAME))
+                .brand(record.getString(BRAND))
+                .build();
+    }
+}
@@ -2,6 +2,7 @@ package org.kiwiproject.elucidation.data.doorbell.resource;
 
 import com.codahale.metrics.annotation.ExceptionMetered;
 import com.codahale.metrics.annotation.Timed;
+import org.kiwiproject.elucidation.data.common.cache.StateCache;
 import org.kiwiproject.elucidation.data.doorbell.db.DoorbellDao;
 import org.kiwiproject.elucidation.data.doorbell.model.Doorbell;
 import org.kiwiproject.elucidation.data.doorbell.service.DoorbellService;
@@ -15,7 +16,9 @@ import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.UriBuilder;
 import java.util.Map;
@@ -26,10 +29,12 @@ import java.util.Map;
 public class DoorbellResource {
 
     private final DoorbellDao dao;
+    private final StateCache<Doorbell> cache;
     private final DoorbellService service;
 
-    public DoorbellResource(DoorbellDao dao, DoorbellService service) {
+    public DoorbellResource(DoorbellDao dao, StateCache<Doorbell> cache, DoorbellService service) {
         this.dao = dao;
+        this.cache = cache;
         this.service = service;
     }
 
@@ -44,9 +49,9 @@ public class DoorbellResource {
     @Path("/{id}/status")
     @Timed
     @ExceptionMetered
-    public Response findDoorbell(@PathParam("id") long id) {
-        var optionalDoorbell = dao.findById(id);
-        return Response.ok(optionalDoorbell.orElseThrow(NotFoundException::new)).build();
+    public Response findDoorbell(@PathParam("id") long id, @Context Request request) {
+        var doorbell = cache.get(id).orElseThrow(NotFoundException::new);
+        return doorbell.toResponse(request);
     }
 
     @POST
@@ -66,6 +71,7 @@ public class DoorbellResource {
     @ExceptionMetered
     public Response deleteDoorbell(@PathParam("id") long id) {
         dao.deleteDoorbell(id);
+        cache.remove(id);
         return Response.accepted().build();
     }
 
@@ -74,7 +80,7 @@ public class DoorbellResource {
     @Timed
     @ExceptionMetered
     public Response ringDoorbell(@PathParam("id") long id) {
-        service.ringDoorbell();
+        service.ringDoorbell(id);
         return Response.accepted().build();
     }
 
@@ -1,34 +1,107 @@
 package org.kiwiproject.elucidation.data.doorbell.service;
 
+import static java.util.Objects.nonNull;
 import static javax.ws.rs.client.Entity.json;
 
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.MetricRegistry;
 import org.kiwiproject.elucidation.client.helper.jersey.InboundHttpRequestTrackingFilter;
+import org.kiwiproject.elucidation.data.common.trace.Correlation;
 import org.kiwiproject.elucidation.data.doorbell.App;
 import lombok.extern.slf4j.Slf4j;
 
 import javax.ws.rs.client.Client;
-import javax.ws.rs.client.ClientBuilder;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
+/**
+ * Triggers the Doorbell workflow in home when a doorbell rings. Rings return right away; the trigger runs in the
+ * background. A doorbell that rings again while its workflow is still running, or within the debounce window of
+ * the ring that started it, does not start another run.
+ */
 @Slf4j
 public class DoorbellService {
 
+    private static class Run {
+        private final long startedAt;
+        private volatile boolean finished;
+
+        Run(long startedAt) {
+            this.startedAt = startedAt;
+        }
+    }
+
     private final Client httpClient;
+    private final String homeUrl;
+    private final Clock clock;
+    private final long debounceMillis;
+    private final ConcurrentMap<Long, Run> runs = new ConcurrentHashMap<>();
+
+    private final Counter rings;
+    private final Counter coalescedRings;
+    private final Counter failedTriggers;
+
+    public DoorbellService(Client httpClient, String homeUrl, MetricRegistry metrics, Duration debounceWindow, Clock clock) {
+        this.httpClient = httpClient;
+        this.homeUrl = homeUrl;
+        this.clock = clock;
+        this.debounceMillis = debounceWindow.toMillis();
+
+        this.rings = metrics.counter(MetricRegistry.name(DoorbellService.class, "rings"));
+        this.coalescedRings = metrics.counter(MetricRegistry.name(DoorbellService.class, "rings", "coalesced"));
+        this.failedTriggers = metrics.counter(MetricRegistry.name(DoorbellService.class, "triggers", "failed"));
+    }
 
-    public DoorbellService() {
-        this.httpClient = ClientBuilder.newClient();
+    /**
+     * @return true if this ring started a workflow run, false if it was folded into one that is already running
+     */
+    public boolean ringDoorbell(long doorbellId) {
+        rings.inc();
+
+        var now = clock.millis();
+        var newRun = new Run(now);
+        var run = runs.compute(doorbellId, (id, current) -> isActive(current, now) ? current : newRun);
+
+        if (run != newRun) {
+            coalescedRings.inc();
+            LOG.debug("Doorbell {} rang again while its workflow is running, not triggering again", doorbellId);
+            return false;
+        }
+
+        triggerWorkflow(Correlation.currentId()).whenComplete((ignored, exception) -> {
+            run.finished = true;
+            if (nonNull(exception)) {
+                failedTriggers.inc();
+                LOG.warn("Unable to trigger workflow for doorbell {}", doorbellId, exception);
+            }
+        });
+        return true;
     }
 
-    public void ringDoorbell() {
-        var workflowResponse = httpClient.target("http://home:8080/home/workflow/trigger/byName/{name}")
+    private boolean isActive(Run run, long now) {
+        return run != null && (!run.finished || now - run.startedAt < debounceMillis);
+    }
+
+    private CompletionStage<Void> triggerWorkflow(String correlationId) {
+        return httpClient.target(homeUrl)
+                .path("home/workflow/trigger/byName/{name}")
                 .resolveTemplate("name", "Doorbell")
                 .request()
                 .header(InboundHttpRequestTrackingFilter.ELUCIDATION_ORIGINATING_SERVICE_HEADER, App.SERVICE_NAME)
-                .put(json(""));
-
-        if (workflowResponse.getStatus() == 202) {
-            LOG.info("Workflow 'Doorbell' triggered");
-        } else {
-            LOG.warn("Unable to trigger workflow. Status: {} Body: {}", workflowResponse.getStatus(), workflowResponse.readEntity(String.class));
-        }
+                .header(Correlation.HEADER, correlationId)
+                .rx()
+                .put(json(""))
+                .thenAccept(workflowResponse -> {
+                    if (workflowResponse.getStatus() == 202) {
+                        LOG.info("Workflow 'Doorbell' triggered");
+                    } else {
+                        failedTriggers.inc();
+                        LOG.warn("Unable to trigger workflow. Status: {} Body: {}", workflowResponse.getStatus(), workflowResponse.readEntity(String.class));
+                    }
+                    workflowResponse.close();
+                });
     }
 }
@@ -48,7 +48,7 @@ class DoorbellDaoTest {
 
         var conn = dataSource.getConnection();
         var database = DatabaseFactory.getInstance().findCorrectDatabaseImplementation(new JdbcConnection(conn));
-        liquibase = new Liquibase("migrations.xml", new ClassLoaderResourceAccessor(), database);
+        liquibase = new Liquibase("migrations/doorbell.xml", new ClassLoaderResourceAccessor(), database);
     }
 
     @BeforeEach
@@ -0,0 +1,68 @@
+package org.kiwiproject.elucidation.data.doorbell.db;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import org.kiwiproject.elucidation.data.doorbell.model.Doorbell;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+@SuppressWarnings("java:S100")
+@DisplayName("OffHeapDoorbellDao")
+class OffHeapDoorbellDaoTest {
+
+    private static final String BRAND = "Ring";
+
+    private OffHeapDoorbellDao dao;
+
+    @BeforeEach
+    void setUp() {
+        dao = new OffHeapDoorbellDao(2);
+    }
+
+    private long createDoorbell(String name) {
+        return dao.create(Doorbell.builder().name(name).brand(BRAND).build());
+    }
+
+    @Nested
+    class Create {
+
+        @Test
+        void shouldCreateNewDoorbells() {
+            createDoorbell("Front Door");
+            createDoorbell("Back Door");
+            createDoorbell("Side Door");
+
+            assertThat(dao.findAll()).extracting("id", "name", "brand").containsExactly(
+                    tuple(1L, "Front Door", BRAND), tuple(2L, "Back Door", BRAND), tuple(3L, "Side Door", BRAND));
+        }
+    }
+
+    @Nested
+    class FindById {
+
+        @Test
+        void shouldReturnEmptyOptional_WhenDoorbellNotFound() {
+            createDoorbell("Front Door");
+
+            assertThat(dao.findById(1L)).isPresent();
+            assertThat(dao.findById(2L)).isEmpty();
+            assertThat(dao.findById(null)).isEmpty();
+        }
+    }
+
+    @Nested
+    class DeleteDoorbell {
+
+        @Test
+        void shouldDeleteDoorbellAndReturnUpdatedCount_WhenDoorbellFound() {
+            var id = createDoorbell("Front Door");
+
+            assertThat(dao.deleteDoorbell(id)).isOne();
+            assertThat(dao.findAll()).isEmpty();
+            assertThat(dao.deleteDoorbell(id)).isZero();
+        }
+    }
+}
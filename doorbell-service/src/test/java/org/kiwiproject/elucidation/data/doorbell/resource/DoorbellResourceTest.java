@@ -10,9 +10,11 @@ import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.codahale.metrics.MetricRegistry;
 import org.kiwiproject.elucidation.client.ElucidationRecorder;
 import org.kiwiproject.elucidation.client.ElucidationResult;
 import org.kiwiproject.elucidation.common.model.ConnectionEvent;
+import org.kiwiproject.elucidation.data.common.cache.StateCache;
 import org.kiwiproject.elucidation.data.doorbell.db.DoorbellDao;
 import org.kiwiproject.elucidation.data.doorbell.model.Doorbell;
 import org.kiwiproject.elucidation.data.doorbell.service.DoorbellService;
@@ -40,11 +42,12 @@ import java.util.concurrent.CompletableFuture;
 class DoorbellResourceTest {
 
     private static final DoorbellDao DOORBELL_DAO = mock(DoorbellDao.class);
+    private static final StateCache<Doorbell> CACHE = new StateCache<>("doorbells", DOORBELL_DAO::findById, new MetricRegistry());
     private static final ElucidationRecorder RECORDER = mock(ElucidationRecorder.class);
     private static final DoorbellService SERVICE = mock(DoorbellService.class);
 
     private static final DropwizardClientExtension RESOURCE
-            = new DropwizardClientExtension(new DoorbellResource(DOORBELL_DAO, SERVICE));
+            = new DropwizardClientExtension(new DoorbellResource(DOORBELL_DAO, CACHE, SERVICE));
     private static final String NAME = "My First Doorbell";
 
     private Client client;
@@ -58,6 +61,7 @@ class DoorbellResourceTest {
     @AfterEach
     void clearMocks() {
         reset(DOORBELL_DAO);
+        CACHE.invalidateAll();
     }
 
     @Nested
@@ -185,6 +189,7 @@ class DoorbellResourceTest {
                     .post(json(""));
 
             assertThat(response.getStatus()).isEqualTo(202);
+            verify(SERVICE).ringDoorbell(1L);
         }
     }
 
@@ -0,0 +1,148 @@
+package org.kiwiproject.elucidation.data.doorbell.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.codahale.metrics.MetricRegistry;
+import org.kiwiproject.elucidation.data.common.run.VirtualClock;
+import io.dropwizard.testing.junit5.DropwizardClientExtension;
+import io.dropwizard.testing.junit5.DropwizardExtensionsSupport;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import javax.ws.rs.PUT;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.client.Client;
+import javax.ws.rs.client.ClientBuilder;
+import javax.ws.rs.core.Response;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@SuppressWarnings("java:S100")
+@DisplayName("DoorbellService")
+@ExtendWith(DropwizardExtensionsSupport.class)
+class DoorbellServiceTest {
+
+    @Path("/home/workflow/trigger/byName/{name}")
+    public static class HomeResource {
+        private final AtomicInteger triggers = new AtomicInteger();
+        private volatile CountDownLatch release = new CountDownLatch(0);
+
+        @PUT
+        public Response trigger(@PathParam("name") String name) throws InterruptedException {
+            triggers.incrementAndGet();
+            release.await(5, TimeUnit.SECONDS);
+            return Response.accepted().build();
+        }
+    }
+
+    private static final HomeResource HOME = new HomeResource();
+    private static final DropwizardClientExtension RESOURCE = new DropwizardClientExtension(HOME);
+
+    private static final Instant START = Instant.parse("2022-01-01T00:00:00Z");
+
+    private Client client;
+    private MetricRegistry metrics;
+
+    @BeforeEach
+    void setUp() {
+        client = ClientBuilder.newClient();
+        metrics = new MetricRegistry();
+        HOME.triggers.set(0);
+        HOME.release = new CountDownLatch(0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        HOME.release.countDown();
+        client.close();
+    }
+
+    private DoorbellService service(Clock clock) {
+        return new DoorbellService(client, RESOURCE.baseUri().toString(), metrics, Duration.ofSeconds(5), clock);
+    }
+
+    private static void awaitTriggers(int expected) throws InterruptedException {
+        var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (HOME.triggers.get() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    @Nested
+    class RingDoorbell {
+
+        @Test
+        void shouldReturnBeforeTheWorkflowFinishes() throws InterruptedException {
+            HOME.release = new CountDownLatch(1);
+
+            var before = System.nanoTime();
+            var triggered = service(Clock.systemUTC()).ringDoorbell(1L);
+
+            assertThat(triggered).isTrue();
+            assertThat(Duration.ofNanos(System.nanoTime() - before)).isLessThan(Duration.ofSeconds(2));
+
+            awaitTriggers(1);
+            assertThat(HOME.triggers).hasValue(1);
+        }
+
+        @Test
+        void shouldCoalesceABurstOfRings_IntoOneWorkflowRun() throws InterruptedException {
+            HOME.release = new CountDownLatch(1);
+            var service = service(Clock.systemUTC());
+
+            for (int i = 0; i < 20; i++) {
+                service.ringDoorbell(1L);
+            }
+
+            awaitTriggers(1);
+            assertThat(HOME.triggers).hasValue(1);
+            assertThat(metrics.counter("org.kiwiproject.elucidation.data.doorbell.service.DoorbellService.rings").getCount()).isEqualTo(20);
+            assertThat(metrics.counter("org.kiwiproject.elucidation.data.doorbell.service.DoorbellService.rings.coalesced").getCount()).isEqualTo(19);
+        }
+
+        @Test
+        void shouldNotCoalesceRings_OfDifferentDoorbells() throws InterruptedException {
+            HOME.release = new CountDownLatch(1);
+            var service = service(Clock.systemUTC());
+
+            assertThat(service.ringDoorbell(1L)).isTrue();
+            assertThat(service.ringDoorbell(2L)).isTrue();
+
+            awaitTriggers(2);
+            assertThat(HOME.triggers).hasValue(2);
+        }
+
+        @Test
+        void shouldTriggerAgain_OnceTheRunHasFinishedAndTheWindowHasPassed() throws InterruptedException {
+            var clock = new VirtualClock(START, Duration.ZERO);
+            var service = service(clock);
+
+            assertThat(service.ringDoorbell(1L)).isTrue();
+            awaitTriggers(1);
+
+            clock.advance(Duration.ofSeconds(1));
+            assertThat(service.ringDoorbell(1L)).isFalse();
+
+            clock.advance(Duration.ofSeconds(5));
+            var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            var triggered = service.ringDoorbell(1L);
+            while (!triggered && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+                triggered = service.ringDoorbell(1L);
+            }
+
+            assertThat(triggered).isTrue();
+            awaitTriggers(2);
+            assertThat(HOME.triggers).hasValue(2);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package org.kiwiproject.elucidation.data.standin;
+
+import static com.codahale.metrics.MetricRegistry.name;
+
+import com.codahale.metrics.Gauge;
+import org.kiwiproject.elucidation.data.standin.resource.ElucidationResource;
+import org.kiwiproject.elucidation.data.standin.store.ElucidationStore;
+import io.dropwizard.Application;
+import io.dropwizard.Configuration;
+import io.dropwizard.setup.Environment;
+
+import java.util.Map;
+
+/**
+ * Stands in for elucidation-server when load testing, so that the services are not held back by the real one. It
+ * keeps events in memory and reports ingest rate, batch sizes and per-service counts on {@code /elucidate/stats}
+ * and the admin metrics.
+ */
+public class App extends Application<Configuration> {
+
+    private final ElucidationStore store;
+
+    public App() {
+        this(new ElucidationStore());
+    }
+
+    public App(ElucidationStore store) {
+        this.store = store;
+    }
+
+    public static void main(String[] args) throws Exception {
+        new App().run(args);
+    }
+
+    @Override
+    public String getName() {
+        return "elucidation-stand-in";
+    }
+
+    @Override
+    public void run(Configuration config, Environment env) {
+        env.jersey().register(new ElucidationResource(store));
+
+        var metrics = env.metrics();
+        metrics.register(name(ElucidationStore.class, "ingest"), store.getIngestRate());
+        metrics.register(name(ElucidationStore.class, "eventBatchSize"), store.getEventBatchSizes());
+        metrics.register(name(ElucidationStore.class, "identifierBatchSize"), store.getIdentifierBatchSizes());
+        metrics.register(name(ElucidationStore.class, "events"), (Gauge<Long>) store::eventCount);
+        metrics.register(name(ElucidationStore.class, "eventsByService"), (Gauge<Map<String, Long>>) store::eventsByService);
+    }
+}
@@ -0,0 +1,81 @@
+package org.kiwiproject.elucidation.data.standin.resource;
+
+import static java.util.Objects.isNull;
+
+import com.codahale.metrics.annotation.Timed;
+import org.kiwiproject.elucidation.common.model.ConnectionEvent;
+import org.kiwiproject.elucidation.common.model.TrackedConnectionIdentifier;
+import org.kiwiproject.elucidation.data.standin.store.ElucidationStore;
+
+import javax.ws.rs.Consumes;
+import javax.ws.rs.GET;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import java.util.List;
+
+/**
+ * The parts of the elucidation-server API that the services and the canary use, plus a batch endpoint for load
+ * generators and the ingest stats.
+ */
+@Path("/elucidate")
+@Produces(MediaType.APPLICATION_JSON)
+@Consumes(MediaType.APPLICATION_JSON)
+public class ElucidationResource {
+
+    private final ElucidationStore store;
+
+    public ElucidationResource(ElucidationStore store) {
+        this.store = store;
+    }
+
+    @POST
+    @Path("/event")
+    @Timed
+    public Response recordEvent(ConnectionEvent event) {
+        store.record(event);
+        return Response.accepted().build();
+    }
+
+    @POST
+    @Path("/events")
+    @Timed
+    public Response recordEvents(List<ConnectionEvent> events) {
+        store.recordAll(events);
+        return Response.accepted().build();
+    }
+
+    @POST
+    @Path("/trackedIdentifier/{serviceName}/{communicationType}")
+    @Timed
+    public Response trackIdentifiers(@PathParam("serviceName") String serviceName,
+                                     @PathParam("communicationType") String communicationType,
+                                     List<String> connectionIdentifiers) {
+        store.track(serviceName, communicationType, connectionIdentifiers);
+        return Response.accepted().build();
+    }
+
+    @GET
+    @Path("/events")
+    @Timed
+    public List<ConnectionEvent> events(@QueryParam("since") Long since, @QueryParam("until") Long until) {
+        return store.eventsBetween(isNull(since) ? Long.MIN_VALUE : since, isNull(until) ? Long.MAX_VALUE : until);
+    }
+
+    @GET
+    @Path("/trackedIdentifiers")
+    @Timed
+    public List<TrackedConnectionIdentifier> trackedIdentifiers() {
+        return store.trackedIdentifiers();
+    }
+
+    @GET
+    @Path("/stats")
+    public ElucidationStore.Stats stats() {
+        return store.stats();
+    }
+}
@@ -0,0 +1,110 @@
+package org.kiwiproject.elucidation.data.standin.store;
+
+import com.codahale.metrics.ExponentiallyDecayingReservoir;
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Meter;
+import org.kiwiproject.elucidation.common.model.ConnectionEvent;
+import org.kiwiproject.elucidation.common.model.TrackedConnectionIdentifier;
+import lombok.Getter;
+import lombok.Value;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps everything the services record in memory, for as long as the stand-in runs, and measures how fast it comes in.
+ */
+public class ElucidationStore {
+
+    @Value
+    public static class Stats {
+        long events;
+        long trackedIdentifiers;
+        double eventsPerSecond;
+        double meanBatchSize;
+        long maxBatchSize;
+        Map<String, Long> eventsByService;
+    }
+
+    private final EventLog events = new EventLog();
+    private final LongAdder eventCount = new LongAdder();
+    private final ConcurrentMap<String, LongAdder> eventsByService = new ConcurrentHashMap<>();
+
+    private final AtomicLong identifierIds = new AtomicLong();
+    private final ConcurrentMap<String, TrackedConnectionIdentifier> identifiers = new ConcurrentHashMap<>();
+
+    @Getter
+    private final Meter ingestRate = new Meter();
+
+    @Getter
+    private final Histogram eventBatchSizes = new Histogram(new ExponentiallyDecayingReservoir());
+
+    @Getter
+    private final Histogram identifierBatchSizes = new Histogram(new ExponentiallyDecayingReservoir());
+
+    public void record(ConnectionEvent event) {
+        append(event);
+        eventBatchSizes.update(1);
+        ingestRate.mark();
+    }
+
+    public void recordAll(List<ConnectionEvent> batch) {
+        batch.forEach(this::append);
+        eventBatchSizes.update(batch.size());
+        ingestRate.mark(batch.size());
+    }
+
+    private void append(ConnectionEvent event) {
+        events.append(event);
+        eventCount.increment();
+        eventsByService.computeIfAbsent(String.valueOf(event.getServiceName()), service -> new LongAdder()).increment();
+    }
+
+    public void track(String serviceName, String communicationType, List<String> connectionIdentifiers) {
+        identifierBatchSizes.update(connectionIdentifiers.size());
+
+        connectionIdentifiers.forEach(connectionIdentifier ->
+                identifiers.computeIfAbsent(String.join("|", serviceName, communicationType, connectionIdentifier),
+                        key -> TrackedConnectionIdentifier.builder()
+                                .id(identifierIds.incrementAndGet())
+                                .serviceName(serviceName)
+                                .communicationType(communicationType)
+                                .connectionIdentifier(connectionIdentifier)
+                                .build()));
+    }
+
+    /**
+     * Events observed between {@code from} and {@code to}, both inclusive, in the order they were recorded.
+     */
+    public List<ConnectionEvent> eventsBetween(long from, long to) {
+        var found = new ArrayList<ConnectionEvent>();
+        events.forEachBetween(from, to, found::add);
+        return found;
+    }
+
+    public List<TrackedConnectionIdentifier> trackedIdentifiers() {
+        return List.copyOf(identifiers.values());
+    }
+
+    public long eventCount() {
+        return eventCount.sum();
+    }
+
+    public Map<String, Long> eventsByService() {
+        var counts = new TreeMap<String, Long>();
+        eventsByService.forEach((service, count) -> counts.put(service, count.sum()));
+        return counts;
+    }
+
+    public Stats stats() {
+        var batchSizes = eventBatchSizes.getSnapshot();
+        return new Stats(eventCount(), identifiers.size(), ingestRate.getOneMinuteRate(), batchSizes.getMean(),
+                batchSizes.getMax(), eventsByService());
+    }
+}
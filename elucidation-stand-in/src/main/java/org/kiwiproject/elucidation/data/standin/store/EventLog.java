@@ -0,0 +1,85 @@
+package org.kiwiproject.elucidation.data.standin.store;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import org.kiwiproject.elucidation.common.model.ConnectionEvent;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * An append-only log of events that any number of threads can write to without locking. A writer claims the next
+ * slot with a single increment and publishes the event with a volatile write, so ids follow the order slots were
+ * claimed. Slots live in fixed-size chunks that each remember the lowest and highest {@code observedAt} they hold,
+ * which lets a time range query skip every chunk outside the range without looking at its events.
+ */
+class EventLog {
+
+    private static final int CHUNK_BITS = 12;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final int MAX_CHUNKS = 1 << 16;
+
+    static final long CAPACITY = (long) MAX_CHUNKS * CHUNK_SIZE;
+
+    private static class Chunk {
+        final AtomicReferenceArray<ConnectionEvent> events = new AtomicReferenceArray<>(CHUNK_SIZE);
+        final AtomicLong minObservedAt = new AtomicLong(Long.MAX_VALUE);
+        final AtomicLong maxObservedAt = new AtomicLong(Long.MIN_VALUE);
+    }
+
+    private final AtomicReferenceArray<Chunk> chunks = new AtomicReferenceArray<>(MAX_CHUNKS);
+    private final AtomicLong claimed = new AtomicLong();
+
+    /**
+     * Appends the event and sets its id, which starts at 1.
+     */
+    void append(ConnectionEvent event) {
+        var slot = claimed.getAndIncrement();
+        if (slot >= CAPACITY) {
+            throw new IllegalStateException("Event log is full at " + CAPACITY + " events");
+        }
+
+        var chunk = chunk((int) (slot >>> CHUNK_BITS));
+        event.setId(slot + 1);
+
+        // Widen the chunk's time range before publishing, so a query that can see the event never skips its chunk
+        chunk.minObservedAt.accumulateAndGet(event.getObservedAt(), Math::min);
+        chunk.maxObservedAt.accumulateAndGet(event.getObservedAt(), Math::max);
+        chunk.events.set((int) (slot & CHUNK_MASK), event);
+    }
+
+    /**
+     * Hands every published event observed between {@code from} and {@code to} (both inclusive) to the action, in id
+     * order. Events still being written when the scan gets to them are left out.
+     */
+    void forEachBetween(long from, long to, Consumer<ConnectionEvent> action) {
+        var end = Math.min(claimed.get(), CAPACITY);
+
+        for (long chunkStart = 0; chunkStart < end; chunkStart += CHUNK_SIZE) {
+            var chunk = chunks.get((int) (chunkStart >>> CHUNK_BITS));
+            if (isNull(chunk) || chunk.maxObservedAt.get() < from || chunk.minObservedAt.get() > to) {
+                continue;
+            }
+
+            var limit = (int) Math.min(CHUNK_SIZE, end - chunkStart);
+            for (int i = 0; i < limit; i++) {
+                var event = chunk.events.get(i);
+                if (nonNull(event) && event.getObservedAt() >= from && event.getObservedAt() <= to) {
+                    action.accept(event);
+                }
+            }
+        }
+    }
+
+    private Chunk chunk(int index) {
+        var chunk = chunks.get(index);
+        if (isNull(chunk)) {
+            var created = new Chunk();
+            chunk = chunks.compareAndSet(index, null, created) ? created : chunks.get(index);
+        }
+        return chunk;
+    }
+}
@@ -0,0 +1,191 @@
+package org.kiwiproject.elucidation.data.standin.resource;
+
+import static javax.ws.rs.client.Entity.json;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import org.kiwiproject.elucidation.common.model.ConnectionEvent;
+import org.kiwiproject.elucidation.common.model.Direction;
+import org.kiwiproject.elucidation.common.model.TrackedConnectionIdentifier;
+import org.kiwiproject.elucidation.data.standin.store.ElucidationStore;
+import io.dropwizard.testing.junit5.DropwizardClientExtension;
+import io.dropwizard.testing.junit5.DropwizardExtensionsSupport;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import javax.ws.rs.client.Client;
+import javax.ws.rs.client.ClientBuilder;
+import javax.ws.rs.core.GenericType;
+import java.util.List;
+
+@SuppressWarnings("java:S100")
+@DisplayName("ElucidationResource")
+@ExtendWith(DropwizardExtensionsSupport.class)
+class ElucidationResourceTest {
+
+    private static final ElucidationStore STORE = new ElucidationStore();
+
+    private static final DropwizardClientExtension RESOURCE = new DropwizardClientExtension(new ElucidationResource(STORE));
+
+    private Client client;
+
+    @BeforeEach
+    void setUp() {
+        client = ClientBuilder.newClient();
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.close();
+    }
+
+    @Nested
+    class Events {
+
+        @Test
+        void shouldReturnRecordedEvents_ObservedSinceTheGivenTime() {
+            recordEvent("home-service", Direction.OUTBOUND, "light", 1_000L);
+            recordEvent("light-service", Direction.INBOUND, "light", 2_000L);
+
+            var response = client.target(RESOURCE.baseUri())
+                    .path("elucidate/events")
+                    .queryParam("since", 1_500L)
+                    .request()
+                    .get();
+
+            assertThat(response.getStatus()).isEqualTo(200);
+            assertThat(response.readEntity(new GenericType<List<ConnectionEvent>>(){}))
+                    .filteredOn(event -> event.getObservedAt() < 10_000L)
+                    .extracting("serviceName", "eventDirection", "connectionIdentifier", "observedAt")
+                    .containsExactly(tuple("light-service", Direction.INBOUND, "light", 2_000L));
+        }
+
+        @Test
+        void shouldAssignIds_InTheOrderEventsArrive() {
+            recordEvent("thermostat-service", Direction.INBOUND, "temp", 20_000L);
+            recordEvent("appliance-service", Direction.INBOUND, "appliance", 20_001L);
+
+            var events = client.target(RESOURCE.baseUri())
+                    .path("elucidate/events")
+                    .queryParam("since", 20_000L)
+                    .queryParam("until", 20_001L)
+                    .request()
+                    .get(new GenericType<List<ConnectionEvent>>(){});
+
+            assertThat(events).hasSize(2);
+            assertThat(events.get(0).getServiceName()).isEqualTo("thermostat-service");
+            assertThat(events.get(1).getId()).isGreaterThan(events.get(0).getId());
+        }
+
+        @Test
+        void shouldOnlyReturnEvents_ObservedUpToUntil() {
+            recordEvent("light-service", Direction.INBOUND, "light", 30_000L);
+            recordEvent("light-service", Direction.INBOUND, "light", 30_500L);
+
+            var events = client.target(RESOURCE.baseUri())
+                    .path("elucidate/events")
+                    .queryParam("since", 30_000L)
+                    .queryParam("until", 30_499L)
+                    .request()
+                    .get(new GenericType<List<ConnectionEvent>>(){});
+
+            assertThat(events).extracting("observedAt").containsExactly(30_000L);
+        }
+
+        @Test
+        void shouldAcceptABatchOfEvents() {
+            var batch = List.of(event("batch-service", 40_000L), event("batch-service", 40_001L), event("batch-service", 40_002L));
+
+            var response = client.target(RESOURCE.baseUri())
+                    .path("elucidate/events")
+                    .request()
+                    .post(json(batch));
+
+            assertThat(response.getStatus()).isEqualTo(202);
+            assertThat(STORE.eventsBetween(40_000L, 40_002L)).hasSize(3);
+            assertThat(STORE.getEventBatchSizes().getSnapshot().getMax()).isGreaterThanOrEqualTo(3);
+        }
+    }
+
+    @Nested
+    class Stats {
+
+        @Test
+        void shouldCountEventsPerService() {
+            recordEvent("stats-service", Direction.INBOUND, "temp", 50_000L);
+            recordEvent("stats-service", Direction.INBOUND, "temp", 50_001L);
+
+            var stats = client.target(RESOURCE.baseUri())
+                    .path("elucidate/stats")
+                    .request()
+                    .get(ElucidationStore.Stats.class);
+
+            assertThat(stats.getEventsByService()).containsEntry("stats-service", 2L);
+            assertThat(stats.getEvents()).isEqualTo(STORE.eventCount());
+        }
+    }
+
+    @Nested
+    class TrackedIdentifiers {
+
+        @Test
+        void shouldReturnEachTrackedIdentifierOnce() {
+            trackIdentifiers("doorbell-service", List.of("GET /doorbell", "PUT /doorbell/{id}/ring"));
+            trackIdentifiers("doorbell-service", List.of("GET /doorbell"));
+
+            var identifiers = client.target(RESOURCE.baseUri())
+                    .path("elucidate/trackedIdentifiers")
+                    .request()
+                    .get(new GenericType<List<TrackedConnectionIdentifier>>(){});
+
+            assertThat(identifiers)
+                    .filteredOn(identifier -> "doorbell-service".equals(identifier.getServiceName()))
+                    .extracting("communicationType", "connectionIdentifier")
+                    .containsExactlyInAnyOrder(
+                            tuple("HTTP", "GET /doorbell"),
+                            tuple("HTTP", "PUT /doorbell/{id}/ring"));
+        }
+    }
+
+    private static ConnectionEvent event(String serviceName, long observedAt) {
+        return ConnectionEvent.builder()
+                .serviceName(serviceName)
+                .eventDirection(Direction.INBOUND)
+                .communicationType("JMS")
+                .connectionIdentifier("light")
+                .observedAt(observedAt)
+                .build();
+    }
+
+    private void recordEvent(String serviceName, Direction direction, String identifier, long observedAt) {
+        var event = ConnectionEvent.builder()
+                .serviceName(serviceName)
+                .eventDirection(direction)
+                .communicationType("JMS")
+                .connectionIdentifier(identifier)
+                .observedAt(observedAt)
+                .build();
+
+        var response = client.target(RESOURCE.baseUri())
+                .path("elucidate/event")
+                .request()
+                .post(json(event));
+
+        assertThat(response.getStatus()).isEqualTo(202);
+    }
+
+    private void trackIdentifiers(String serviceName, List<String> identifiers) {
+        var response = client.target(RESOURCE.baseUri())
+                .path("elucidate/trackedIdentifier/{serviceName}/{communicationType}")
+                .resolveTemplate("serviceName", serviceName)
+                .resolveTemplate("communicationType", "HTTP")
+                .request()
+                .post(json(identifiers));
+
+        assertThat(response.getStatus()).isEqualTo(202);
+    }
+}
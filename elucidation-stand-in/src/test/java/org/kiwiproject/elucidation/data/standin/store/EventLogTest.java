@@ -0,0 +1,81 @@
+package org.kiwiproject.elucidation.data.standin.store;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.kiwiproject.elucidation.common.model.ConnectionEvent;
+import org.kiwiproject.elucidation.common.model.Direction;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+@SuppressWarnings("java:S100")
+@DisplayName("EventLog")
+class EventLogTest {
+
+    private EventLog log;
+
+    @BeforeEach
+    void setUp() {
+        log = new EventLog();
+    }
+
+    @Test
+    void shouldGiveEveryEventItsOwnId_WhenAppendingFromManyThreads() throws Exception {
+        var executor = Executors.newFixedThreadPool(8);
+        for (int thread = 0; thread < 8; thread++) {
+            executor.execute(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    log.append(event(i));
+                }
+            });
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(1, TimeUnit.MINUTES)).isTrue();
+
+        var ids = new ArrayList<Long>();
+        log.forEachBetween(Long.MIN_VALUE, Long.MAX_VALUE, event -> ids.add(event.getId()));
+
+        assertThat(ids).containsExactlyElementsOf(LongStream.rangeClosed(1, 80_000).boxed().collect(Collectors.toList()));
+    }
+
+    @Test
+    void shouldOnlyReturnEventsInTheTimeRange_AcrossChunks() {
+        for (long observedAt = 0; observedAt < 20_000; observedAt++) {
+            log.append(event(observedAt));
+        }
+
+        var found = new ArrayList<Long>();
+        log.forEachBetween(9_000, 12_999, event -> found.add(event.getObservedAt()));
+
+        assertThat(found).hasSize(4_000).startsWith(9_000L).endsWith(12_999L).isSorted();
+    }
+
+    @Test
+    void shouldFindEventsThatArriveOutOfOrder() {
+        for (long observedAt = 0; observedAt < 10_000; observedAt++) {
+            log.append(event(observedAt));
+        }
+        log.append(event(5));
+
+        var found = new ArrayList<Long>();
+        log.forEachBetween(5, 5, event -> found.add(event.getId()));
+
+        assertThat(found).containsExactly(6L, 10_001L);
+    }
+
+    private static ConnectionEvent event(long observedAt) {
+        return ConnectionEvent.builder()
+                .serviceName("light-service")
+                .eventDirection(Direction.INBOUND)
+                .communicationType("JMS")
+                .connectionIdentifier("light")
+                .observedAt(observedAt)
+                .build();
+    }
+}
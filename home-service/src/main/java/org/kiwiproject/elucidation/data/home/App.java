@@ -1,15 +1,29 @@
 package org.kiwiproject.elucidation.data.home;
 
-import static java.util.Objects.nonNull;
-
 import org.kiwiproject.elucidation.client.ElucidationRecorder;
 import org.kiwiproject.elucidation.client.helper.dropwizard.EndpointTrackingListener;
 import org.kiwiproject.elucidation.client.helper.jersey.InboundHttpRequestTrackingFilter;
+import org.kiwiproject.elucidation.data.common.jms.JmsConnections;
+import org.kiwiproject.elucidation.data.common.run.RunContext;
+import org.kiwiproject.elucidation.data.common.shard.HomeShards;
+import org.kiwiproject.elucidation.data.common.store.DeviceStorage;
+import org.kiwiproject.elucidation.data.common.thread.VirtualThreads;
+import org.kiwiproject.elucidation.data.common.trace.CorrelationFilter;
+import org.kiwiproject.elucidation.data.common.trace.SpanRecorder;
+import org.kiwiproject.elucidation.data.common.trace.SpanResource;
 import org.kiwiproject.elucidation.data.home.config.AppConfig;
 import org.kiwiproject.elucidation.data.home.db.DeviceDao;
+import org.kiwiproject.elucidation.data.home.db.OffHeapDeviceDao;
+import org.kiwiproject.elucidation.data.home.db.OffHeapWorkflowDao;
 import org.kiwiproject.elucidation.data.home.db.WorkflowDao;
+import org.kiwiproject.elucidation.data.home.db.WorkflowRunDao;
+import org.kiwiproject.elucidation.data.home.db.WorkflowRunWriter;
+import org.kiwiproject.elucidation.data.home.db.WorkflowScheduleDao;
 import org.kiwiproject.elucidation.data.home.resource.DeviceResource;
 import org.kiwiproject.elucidation.data.home.resource.WorkflowResource;
+import org.kiwiproject.elucidation.data.home.resource.WorkflowScheduleResource;
+import org.kiwiproject.elucidation.data.home.service.WorkflowLimiter;
+import org.kiwiproject.elucidation.data.home.service.WorkflowScheduler;
 import org.kiwiproject.elucidation.data.home.service.WorkflowService;
 import io.dropwizard.Application;
 import io.dropwizard.db.PooledDataSourceFactory;
@@ -18,18 +32,16 @@ import io.dropwizard.migrations.MigrationsBundle;
 import io.dropwizard.setup.Bootstrap;
 import io.dropwizard.setup.Environment;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.activemq.artemis.jms.client.ActiveMQConnectionFactory;
 import org.jdbi.v3.core.Jdbi;
 import org.jdbi.v3.sqlobject.SqlObjectPlugin;
 
-import javax.jms.JMSContext;
-import java.util.concurrent.TimeUnit;
-
 @Slf4j
 public class App extends Application<AppConfig> {
 
     private static final String SERVICE_NAME = "home-service";
 
+    private static final String MIGRATIONS_FILE = "migrations/home.xml";
+
     public static void main(String[] args) throws Exception {
         new App().run(args);
     }
@@ -42,6 +54,11 @@ public class App extends Application<AppConfig> {
             public PooledDataSourceFactory getDataSourceFactory(AppConfig configuration) {
                 return configuration.getDataSourceFactory();
             }
+
+            @Override
+            public String getMigrationsFileName() {
+                return MIGRATIONS_FILE;
+            }
         });
     }
 
@@ -49,25 +66,36 @@ public class App extends Application<AppConfig> {
     public void run(AppConfig config, Environment env) {
         var jdbi = setupJdbi(config, env);
 
-        var deviceDao = jdbi.onDemand(DeviceDao.class);
-        var workflowDao = jdbi.onDemand(WorkflowDao.class);
+        var storage = new DeviceStorage(config.getStorage(), jdbi, SERVICE_NAME, MIGRATIONS_FILE);
+        env.lifecycle().manage(storage);
+        var deviceDao = storage.dao(DeviceDao.class, OffHeapDeviceDao::new);
+        var workflowDao = storage.dao(WorkflowDao.class, OffHeapWorkflowDao::new);
+        var workflowRunDao = jdbi.onDemand(WorkflowRunDao.class);
+        var workflowScheduleDao = jdbi.onDemand(WorkflowScheduleDao.class);
 
-        var jmsContext = startContext(env, config);
+        var runWriter = new WorkflowRunWriter(workflowRunDao, env.metrics());
+        env.lifecycle().manage(runWriter);
+        var limiter = new WorkflowLimiter(config.getWorkflowLimits(), env.metrics());
 
-        var eventRecorder = setupEventRecorder();
+        // Artemis allows one connection per client id, and every shard connects
+        var shards = new HomeShards(config.getShard());
+        var clientId = shards.isSharded() ? SERVICE_NAME + "-" + config.getShard().getIndex() : SERVICE_NAME;
+        var connections = new JmsConnections(config.getJms(), clientId, env.lifecycle().scheduledExecutorService("jms").build(), VirtualThreads.isEnabled(config));
+        env.lifecycle().manage(connections);
 
-        WorkflowService workflowService;
-        if (nonNull(jmsContext)) {
-            var producer = jmsContext.createProducer();
-            var topic = jmsContext.createTopic("iotEvent");
-            LOG.info("Producer to Artemis is setup");
-            workflowService = new WorkflowService(producer, topic, deviceDao, env.getObjectMapper(), eventRecorder);
-         } else {
-            workflowService = new WorkflowService(null, null, deviceDao, env.getObjectMapper(), eventRecorder);
-        }
+        var eventRecorder = setupEventRecorder(config);
+        var run = config.getRunConfig().buildContext(SERVICE_NAME);
+        var spans = new SpanRecorder(SERVICE_NAME);
+
+        var workflowService = new WorkflowService(connections.publisher("iotEvent"), deviceDao, env.getObjectMapper(), eventRecorder, run, spans, runWriter, limiter);
 
-        env.jersey().register(new DeviceResource(deviceDao));
-        env.jersey().register(new WorkflowResource(workflowDao, workflowService));
+        var scheduler = setupScheduler(config, env, workflowScheduleDao, workflowDao, workflowService, run);
+
+        env.jersey().register(new DeviceResource(deviceDao, shards));
+        env.jersey().register(new WorkflowResource(workflowDao, workflowRunDao, workflowService, shards));
+        env.jersey().register(new WorkflowScheduleResource(workflowDao, workflowScheduleDao, scheduler));
+        env.jersey().register(new SpanResource(spans));
+        env.jersey().register(new CorrelationFilter(spans));
 
         env.jersey().register(new EndpointTrackingListener(
                 env.jersey().getResourceConfig(),
@@ -86,31 +114,25 @@ public class App extends Application<AppConfig> {
         return jdbi;
     }
 
-    private ElucidationRecorder setupEventRecorder() {
-        // When using docker compose, elucidation will resolve
-        return new ElucidationRecorder("http://elucidation:8080");
-    }
-
-    private JMSContext startContext(Environment env, AppConfig config) {
-        var executor = env.lifecycle().scheduledExecutorService("jms").build();
-
-        var future = executor.schedule(() -> createContext(config), 30, TimeUnit.SECONDS);
-
-        try {
-            return future.get();
-        } catch (Exception e) {
-            LOG.error("Error", e);
-            return null;
+    private WorkflowScheduler setupScheduler(AppConfig config, Environment env, WorkflowScheduleDao scheduleDao,
+                                             WorkflowDao workflowDao, WorkflowService workflowService, RunContext run) {
+        var schedulerConfig = config.getScheduler();
+        var ticker = env.lifecycle().scheduledExecutorService("workflow-scheduler").build();
+        var runner = env.lifecycle().executorService("workflow-scheduler-runner-%d")
+                .minThreads(schedulerConfig.getThreads())
+                .maxThreads(schedulerConfig.getThreads());
+        if (VirtualThreads.isEnabled(config)) {
+            // still only this many at once, but their step delays don't hold platform threads
+            runner.threadFactory(VirtualThreads.factory("workflow-scheduler-runner-"));
         }
-    }
 
-    @SuppressWarnings("java:S2095")
-    private JMSContext createContext(AppConfig config) {
-        var factory = new ActiveMQConnectionFactory(config.getArtemisUrl());
-        var jmsContext = factory.createContext("elucidation", "password", JMSContext.AUTO_ACKNOWLEDGE);
+        var scheduler = new WorkflowScheduler(schedulerConfig, scheduleDao, workflowDao, workflowService,
+                run.forInstance().getClock(), env.metrics(), ticker, runner.build());
+        env.lifecycle().manage(scheduler);
+        return scheduler;
+    }
 
-        jmsContext.setClientID(SERVICE_NAME);
-        return jmsContext;
+    private ElucidationRecorder setupEventRecorder(AppConfig config) {
+        return new ElucidationRecorder(config.getElucidationUrl());
     }
 }
-
@@ -1,12 +1,18 @@
 package org.kiwiproject.elucidation.data.home.config;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import org.kiwiproject.elucidation.data.common.jms.JmsConfig;
+import org.kiwiproject.elucidation.data.common.run.RunConfig;
+import org.kiwiproject.elucidation.data.common.shard.ShardConfig;
+import org.kiwiproject.elucidation.data.common.store.StorageConfig;
 import io.dropwizard.Configuration;
 import io.dropwizard.db.DataSourceFactory;
 import lombok.Getter;
 import lombok.Setter;
 
 import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
 
 @Getter
 @Setter
@@ -16,6 +22,35 @@ public class AppConfig extends Configuration {
     @JsonProperty("database")
     private DataSourceFactory dataSourceFactory = new DataSourceFactory();
 
-    private String artemisUrl;
+    @Valid
+    @NotNull
+    @JsonProperty("run")
+    private RunConfig runConfig = new RunConfig();
+
+    @NotEmpty
+    private String elucidationUrl = "http://elucidation:8080";
+
+    @Valid
+    @NotNull
+    private JmsConfig jms = new JmsConfig();
+
+    @Valid
+    @NotNull
+    private WorkflowLimitsConfig workflowLimits = new WorkflowLimitsConfig();
+
+    @Valid
+    @NotNull
+    private SchedulerConfig scheduler = new SchedulerConfig();
+
+    @Valid
+    @NotNull
+    private ShardConfig shard = new ShardConfig();
+
+    /**
+     * Where devices and workflows are kept. Workflow runs and schedules stay in {@code database}.
+     */
+    @Valid
+    @NotNull
+    private StorageConfig storage = new StorageConfig();
 
 }
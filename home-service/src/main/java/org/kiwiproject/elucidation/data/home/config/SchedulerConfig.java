@@ -0,0 +1,40 @@
+package org.kiwiproject.elucidation.data.home.config;
+
+import io.dropwizard.util.Duration;
+import lombok.Getter;
+import lombok.Setter;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import java.time.ZoneId;
+
+/**
+ * How home runs scheduled workflows. Schedules are checked every {@code tick}, so that is as precise as they get.
+ */
+@Getter
+@Setter
+public class SchedulerConfig {
+
+    @NotNull
+    private Duration tick = Duration.seconds(1);
+
+    /**
+     * How many scheduled workflows may be starting at once; the rest wait their turn rather than being rejected by
+     * the workflow limits.
+     */
+    @Min(1)
+    private int threads = 8;
+
+    /**
+     * The time zone cron expressions are in.
+     */
+    @NotNull
+    private ZoneId timeZone = ZoneId.systemDefault();
+
+    /**
+     * How late a schedule can be when home starts before its misfire policy applies.
+     */
+    @NotNull
+    private Duration misfireThreshold = Duration.minutes(1);
+
+}
@@ -0,0 +1,52 @@
+package org.kiwiproject.elucidation.data.home.config;
+
+import io.dropwizard.util.Duration;
+import lombok.Getter;
+import lombok.Setter;
+
+import javax.validation.constraints.DecimalMax;
+import javax.validation.constraints.DecimalMin;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+
+/**
+ * Bounds on how many workflows home runs at once. The global limit adapts between {@code minLimit} and
+ * {@code maxLimit}: it grows while publishing to Artemis is faster than {@code targetPublishLatency} and is cut by
+ * {@code backoffRatio} when it is slower.
+ */
+@Getter
+@Setter
+public class WorkflowLimitsConfig {
+
+    @Min(1)
+    private int initialLimit = 16;
+
+    @Min(1)
+    private int minLimit = 1;
+
+    @Min(1)
+    private int maxLimit = 64;
+
+    /**
+     * How many runs of one workflow may be running or waiting at once.
+     */
+    @Min(1)
+    private int perWorkflowLimit = 8;
+
+    /**
+     * How many triggers may wait for a run to finish once the global limit is reached.
+     */
+    @Min(0)
+    private int queueSize = 64;
+
+    @NotNull
+    private Duration maxWait = Duration.seconds(5);
+
+    @NotNull
+    private Duration targetPublishLatency = Duration.milliseconds(100);
+
+    @DecimalMin("0.1")
+    @DecimalMax("0.99")
+    private double backoffRatio = 0.9;
+
+}
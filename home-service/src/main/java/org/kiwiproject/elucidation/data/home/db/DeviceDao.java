@@ -18,16 +18,19 @@ public interface DeviceDao {
     @SqlQuery("select * from devices")
     List<Device> findAll();
 
+    @SqlQuery("select * from devices where home = :home")
+    List<Device> findByHome(@Bind("home") String home);
+
     @SqlQuery("select * from devices where id = :id")
     Optional<Device> findById(@Bind("id") Long id);
 
-    @SqlUpdate("insert into devices (name, device_type, device_type_id) values (:name, :deviceType, :deviceTypeId)")
+    @SqlUpdate("insert into devices (home, name, device_type, device_type_id) values (coalesce(:home, 'default'), :name, :deviceType, :deviceTypeId)")
     @GetGeneratedKeys
     long create(@BindBean Device device);
 
     @SqlUpdate("delete from devices where id = :id")
     int deleteDevice(@Bind("id") long id);
 
-    @SqlQuery("select * from devices where name = :name and device_type = :type")
-    Optional<Device> findByNameAndType(@Bind("name") String name, @Bind("type") Device.DeviceType type);
+    @SqlQuery("select * from devices where home = :home and name = :name and device_type = :type")
+    Optional<Device> findByNameAndType(@Bind("home") String home, @Bind("name") String name, @Bind("type") Device.DeviceType type);
 }
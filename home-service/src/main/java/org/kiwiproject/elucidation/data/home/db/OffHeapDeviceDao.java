@@ -0,0 +1,91 @@
+package org.kiwiproject.elucidation.data.home.db;
+
+import static java.util.Objects.isNull;
+import static org.kiwiproject.elucidation.data.common.store.OffHeapTable.ENUM_BYTES;
+import static org.kiwiproject.elucidation.data.common.store.OffHeapTable.NULLABLE_LONG_BYTES;
+import static org.kiwiproject.elucidation.data.common.store.OffHeapTable.STRING_BYTES;
+
+import org.kiwiproject.elucidation.data.common.shard.HomeShards;
+import org.kiwiproject.elucidation.data.common.store.OffHeapTable;
+import org.kiwiproject.elucidation.data.home.model.Device;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Keeps devices in off-heap memory instead of a database, for runs that don't need them to outlive the service.
+ * Devices are indexed by home, name and type, as workflows look up each step's device that way.
+ */
+public class OffHeapDeviceDao implements DeviceDao {
+
+    private static final int HOME = 0;
+    private static final int NAME = HOME + STRING_BYTES;
+    private static final int DEVICE_TYPE = NAME + STRING_BYTES;
+    private static final int DEVICE_TYPE_ID = DEVICE_TYPE + ENUM_BYTES;
+    private static final int FIELD_BYTES = DEVICE_TYPE_ID + NULLABLE_LONG_BYTES;
+
+    private static final Device.DeviceType[] DEVICE_TYPES = Device.DeviceType.values();
+
+    private final OffHeapTable devices;
+    private final OffHeapTable.Index byNameAndType;
+
+    public OffHeapDeviceDao(int capacity) {
+        devices = new OffHeapTable(FIELD_BYTES, capacity);
+        byNameAndType = devices.index(record -> key(record.getString(HOME), record.getString(NAME),
+                record.getEnum(DEVICE_TYPE, DEVICE_TYPES)));
+    }
+
+    private static String key(String home, String name, Device.DeviceType type) {
+        return home + '\n' + name + '\n' + type;
+    }
+
+    @Override
+    public List<Device> findAll() {
+        return devices.findAll(this::toDevice);
+    }
+
+    @Override
+    public List<Device> findByHome(String home) {
+        return devices.findAll(record -> Objects.equals(home, record.getString(HOME)), this::toDevice);
+    }
+
+    @Override
+    public Optional<Device> findById(Long id) {
+        return isNull(id) ? Optional.empty() : devices.find(id, this::toDevice);
+    }
+
+    @Override
+    public long create(Device device) {
+        return devices.insert(record -> {
+            record.putString(HOME, Objects.requireNonNullElse(device.getHome(), HomeShards.DEFAULT_HOME));
+            record.putString(NAME, device.getName());
+            record.putEnum(DEVICE_TYPE, device.getDeviceType());
+            record.putNullableLong(DEVICE_TYPE_ID, device.getDeviceTypeId());
+        });
+    }
+
+    @Override
+    public int deleteDevice(long id) {
+        return devices.delete(id);
+    }
+
+    @Override
+    public Optional<Device> findByNameAndType(String home, String name, Device.DeviceType type) {
+        // nothing equals null in SQL
+        if (isNull(home) || isNull(name) || isNull(type)) {
+            return Optional.empty();
+        }
+        return devices.findFirst(byNameAndType, key(home, name, type), this::toDevice);
+    }
+
+    private Device toDevice(OffHeapTable.Record record) {
+        return Device.builder()
+                .id(record.getId())
+                .home(record.getString(HOME))
+                .name(record.getString(NAME))
+                .deviceType(record.getEnum(DEVICE_TYPE, DEVICE_TYPES))
+                .deviceTypeId(record.getNullableLong(DEVICE_TYPE_ID))
+                .build();
+    }
+}
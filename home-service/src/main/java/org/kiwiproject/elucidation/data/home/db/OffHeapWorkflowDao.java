@@ -0,0 +1,83 @@
+package org.kiwiproject.elucidation.data.home.db;
+
+import static java.util.Objects.isNull;
+import static org.kiwiproject.elucidation.data.common.store.OffHeapTable.STRING_BYTES;
+
+import org.kiwiproject.elucidation.data.common.shard.HomeShards;
+import org.kiwiproject.elucidation.data.common.store.OffHeapTable;
+import org.kiwiproject.elucidation.data.home.model.Workflow;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Keeps workflows in off-heap memory instead of a database, for runs that don't need them to outlive the service.
+ * Workflows are indexed by home and name, for triggering by name.
+ */
+public class OffHeapWorkflowDao implements WorkflowDao {
+
+    private static final int HOME = 0;
+    private static final int NAME = HOME + STRING_BYTES;
+    private static final int STEP_JSON = NAME + STRING_BYTES;
+    private static final int FIELD_BYTES = STEP_JSON + STRING_BYTES;
+
+    private final OffHeapTable workflows;
+    private final OffHeapTable.Index byName;
+
+    public OffHeapWorkflowDao(int capacity) {
+        workflows = new OffHeapTable(FIELD_BYTES, capacity);
+        byName = workflows.index(record -> key(record.getString(HOME), record.getString(NAME)));
+    }
+
+    private static String key(String home, String name) {
+        return home + '\n' + name;
+    }
+
+    @Override
+    public List<Workflow> findAll() {
+        return workflows.findAll(this::toWorkflow);
+    }
+
+    @Override
+    public List<Workflow> findByHome(String home) {
+        return workflows.findAll(record -> Objects.equals(home, record.getString(HOME)), this::toWorkflow);
+    }
+
+    @Override
+    public Optional<Workflow> findById(long id) {
+        return workflows.find(id, this::toWorkflow);
+    }
+
+    @Override
+    public Optional<Workflow> findByName(String home, String name) {
+        // nothing equals null in SQL
+        if (isNull(home) || isNull(name)) {
+            return Optional.empty();
+        }
+        return workflows.findFirst(byName, key(home, name), this::toWorkflow);
+    }
+
+    @Override
+    public long create(Workflow workflow) {
+        return workflows.insert(record -> {
+            record.putString(HOME, Objects.requireNonNullElse(workflow.getHome(), HomeShards.DEFAULT_HOME));
+            record.putString(NAME, workflow.getName());
+            record.putString(STEP_JSON, workflow.getStepJson());
+        });
+    }
+
+    @Override
+    public int deleteWorkflow(long id) {
+        return workflows.delete(id);
+    }
+
+    private Workflow toWorkflow(OffHeapTable.Record record) {
+        return Workflow.builder()
+                .id(record.getId())
+                .home(record.getString(HOME))
+                .name(record.getString(NAME))
+                .stepJson(record.getString(STEP_JSON))
+                .build();
+    }
+}
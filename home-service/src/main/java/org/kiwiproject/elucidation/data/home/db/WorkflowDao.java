@@ -18,13 +18,16 @@ public interface WorkflowDao {
     @SqlQuery("select * from workflows")
     List<Workflow> findAll();
 
+    @SqlQuery("select * from workflows where home = :home")
+    List<Workflow> findByHome(@Bind("home") String home);
+
     @SqlQuery("select * from workflows where id = :id")
     Optional<Workflow> findById(@Bind("id") long id);
 
-    @SqlQuery("select * from workflows where name = :name")
-    Optional<Workflow> findByName(@Bind("name") String name);
+    @SqlQuery("select * from workflows where home = :home and name = :name")
+    Optional<Workflow> findByName(@Bind("home") String home, @Bind("name") String name);
 
-    @SqlUpdate("insert into workflows (name, step_json) values (:name, :stepJson)")
+    @SqlUpdate("insert into workflows (home, name, step_json) values (coalesce(:home, 'default'), :name, :stepJson)")
     @GetGeneratedKeys
     long create(@BindBean Workflow workflow);
 
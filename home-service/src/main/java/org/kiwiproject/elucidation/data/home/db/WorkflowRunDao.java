@@ -0,0 +1,52 @@
+package org.kiwiproject.elucidation.data.home.db;
+
+import org.kiwiproject.elucidation.data.home.db.mapper.WorkflowRunMapper;
+import org.kiwiproject.elucidation.data.home.db.mapper.WorkflowStepRunMapper;
+import org.kiwiproject.elucidation.data.home.model.WorkflowRun;
+import org.kiwiproject.elucidation.data.home.model.WorkflowStepRun;
+import org.jdbi.v3.sqlobject.config.RegisterRowMapper;
+import org.jdbi.v3.sqlobject.customizer.Bind;
+import org.jdbi.v3.sqlobject.customizer.BindBean;
+import org.jdbi.v3.sqlobject.statement.GetGeneratedKeys;
+import org.jdbi.v3.sqlobject.statement.SqlBatch;
+import org.jdbi.v3.sqlobject.statement.SqlQuery;
+import org.jdbi.v3.sqlobject.statement.SqlUpdate;
+import org.jdbi.v3.sqlobject.transaction.Transaction;
+
+import java.util.List;
+
+@RegisterRowMapper(WorkflowRunMapper.class)
+@RegisterRowMapper(WorkflowStepRunMapper.class)
+public interface WorkflowRunDao {
+
+    @SqlQuery("select * from workflow_runs where workflow_id = :workflowId order by id desc limit :limit")
+    List<WorkflowRun> findRecentRuns(@Bind("workflowId") long workflowId, @Bind("limit") int limit);
+
+    @SqlQuery("select * from workflow_step_runs where run_id in "
+            + "(select id from workflow_runs where workflow_id = :workflowId order by id desc limit :limit) "
+            + "order by run_id, step_index")
+    List<WorkflowStepRun> findRecentStepRuns(@Bind("workflowId") long workflowId, @Bind("limit") int limit);
+
+    @SqlUpdate("insert into workflow_runs (workflow_id, correlation_id, started_at, finished_at) "
+            + "values (:workflowId, :correlationId, :startedAt, :finishedAt)")
+    @GetGeneratedKeys
+    long createRun(@BindBean WorkflowRun run);
+
+    @SqlBatch("insert into workflow_step_runs (run_id, step_index, description, device_name, device_type, device_found, "
+            + "published_at, publish_micros) values (:runId, :step.stepIndex, :step.description, :step.deviceName, "
+            + ":step.deviceType, :step.deviceFound, :step.publishedAt, :step.publishMicros)")
+    void createStepRuns(@Bind("runId") long runId, @BindBean("step") List<WorkflowStepRun> steps);
+
+    /**
+     * Saves the runs and their steps in one transaction, which is much cheaper in SQLite than one per run.
+     */
+    @Transaction
+    default void createAll(List<WorkflowRun> runs) {
+        for (var run : runs) {
+            var runId = createRun(run);
+            if (!run.getSteps().isEmpty()) {
+                createStepRuns(runId, run.getSteps());
+            }
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package org.kiwiproject.elucidation.data.home.db;
+
+import com.codahale.metrics.MetricRegistry;
+import org.kiwiproject.elucidation.data.common.db.BatchWriter;
+import org.kiwiproject.elucidation.data.home.model.WorkflowRun;
+
+import java.util.List;
+
+/**
+ * Saves finished workflow runs in the background so triggering a workflow never waits on the database. When the
+ * queue is full, runs are dropped and counted rather than blocking the trigger.
+ */
+public class WorkflowRunWriter extends BatchWriter<WorkflowRun> {
+
+    public static final int DEFAULT_QUEUE_SIZE = 10_000;
+    public static final int DEFAULT_BATCH_SIZE = 500;
+
+    private final WorkflowRunDao dao;
+
+    public WorkflowRunWriter(WorkflowRunDao dao, MetricRegistry metrics) {
+        this(dao, metrics, DEFAULT_QUEUE_SIZE, DEFAULT_BATCH_SIZE);
+    }
+
+    public WorkflowRunWriter(WorkflowRunDao dao, MetricRegistry metrics, int queueSize, int batchSize) {
+        super("workflow-run-writer", metrics, queueSize, batchSize);
+        this.dao = dao;
+    }
+
+    /**
+     * @return false if the run was dropped because the queue is full
+     */
+    public boolean save(WorkflowRun run) {
+        return offer(run);
+    }
+
+    @Override
+    protected void write(List<WorkflowRun> batch) {
+        dao.createAll(batch);
+    }
+}
@@ -0,0 +1,43 @@
+package org.kiwiproject.elucidation.data.home.db;
+
+import org.kiwiproject.elucidation.data.home.db.mapper.WorkflowScheduleMapper;
+import org.kiwiproject.elucidation.data.home.model.WorkflowSchedule;
+import org.jdbi.v3.sqlobject.config.RegisterRowMapper;
+import org.jdbi.v3.sqlobject.customizer.Bind;
+import org.jdbi.v3.sqlobject.customizer.BindBean;
+import org.jdbi.v3.sqlobject.statement.GetGeneratedKeys;
+import org.jdbi.v3.sqlobject.statement.SqlBatch;
+import org.jdbi.v3.sqlobject.statement.SqlQuery;
+import org.jdbi.v3.sqlobject.statement.SqlUpdate;
+import org.jdbi.v3.sqlobject.transaction.Transaction;
+
+import java.util.List;
+import java.util.Optional;
+
+@RegisterRowMapper(WorkflowScheduleMapper.class)
+public interface WorkflowScheduleDao {
+
+    @SqlQuery("select * from workflow_schedules")
+    List<WorkflowSchedule> findAll();
+
+    @SqlQuery("select * from workflow_schedules where id = :id")
+    Optional<WorkflowSchedule> findById(@Bind("id") long id);
+
+    @SqlQuery("select * from workflow_schedules where workflow_id = :workflowId order by id")
+    List<WorkflowSchedule> findByWorkflowId(@Bind("workflowId") long workflowId);
+
+    @SqlUpdate("insert into workflow_schedules (workflow_id, cron, interval_seconds, misfire_policy, next_fire_at, last_fired_at) "
+            + "values (:workflowId, :cron, :intervalSeconds, :misfirePolicy, :nextFireAt, :lastFiredAt)")
+    @GetGeneratedKeys
+    long create(@BindBean WorkflowSchedule schedule);
+
+    @SqlUpdate("delete from workflow_schedules where id = :id")
+    int delete(@Bind("id") long id);
+
+    /**
+     * Saves when each schedule last fired and is next due, in one transaction however many there are.
+     */
+    @SqlBatch("update workflow_schedules set next_fire_at = :nextFireAt, last_fired_at = :lastFiredAt where id = :id")
+    @Transaction
+    void updateFireTimes(@BindBean List<WorkflowSchedule> schedules);
+}
@@ -12,6 +12,7 @@ public class DeviceMapper implements RowMapper<Device> {
     public Device map(ResultSet rs, StatementContext ctx) throws SQLException {
         return Device.builder()
                 .id(rs.getLong("id"))
+                .home(rs.getString("home"))
                 .name(rs.getString("name"))
                 .deviceType(Device.DeviceType.valueOf(rs.getString("device_type")))
                 .deviceTypeId(rs.getLong("device_type_id"))
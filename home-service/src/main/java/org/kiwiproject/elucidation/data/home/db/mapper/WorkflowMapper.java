@@ -12,6 +12,7 @@ public class WorkflowMapper implements RowMapper<Workflow> {
     public Workflow map(ResultSet rs, StatementContext ctx) throws SQLException {
         return Workflow.builder()
                 .id(rs.getLong("id"))
+                .home(rs.getString("home"))
                 .name(rs.getString("name"))
                 .stepJson(rs.getString("step_json"))
                 .build();
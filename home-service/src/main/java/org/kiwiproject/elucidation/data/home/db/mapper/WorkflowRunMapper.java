@@ -0,0 +1,21 @@
+package org.kiwiproject.elucidation.data.home.db.mapper;
+
+import org.kiwiproject.elucidation.data.home.model.WorkflowRun;
+import org.jdbi.v3.core.mapper.RowMapper;
+import org.jdbi.v3.core.statement.StatementContext;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+public class WorkflowRunMapper implements RowMapper<WorkflowRun> {
+    @Override
+    public WorkflowRun map(ResultSet rs, StatementContext ctx) throws SQLException {
+        return WorkflowRun.builder()
+                .id(rs.getLong("id"))
+                .workflowId(rs.getLong("workflow_id"))
+                .correlationId(rs.getString("correlation_id"))
+                .startedAt(rs.getLong("started_at"))
+                .finishedAt(rs.getLong("finished_at"))
+                .build();
+    }
+}
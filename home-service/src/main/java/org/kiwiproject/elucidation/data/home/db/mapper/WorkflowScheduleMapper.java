@@ -0,0 +1,28 @@
+package org.kiwiproject.elucidation.data.home.db.mapper;
+
+import org.kiwiproject.elucidation.data.home.model.WorkflowSchedule;
+import org.jdbi.v3.core.mapper.RowMapper;
+import org.jdbi.v3.core.statement.StatementContext;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+public class WorkflowScheduleMapper implements RowMapper<WorkflowSchedule> {
+    @Override
+    public WorkflowSchedule map(ResultSet rs, StatementContext ctx) throws SQLException {
+        return WorkflowSchedule.builder()
+                .id(rs.getLong("id"))
+                .workflowId(rs.getLong("workflow_id"))
+                .cron(rs.getString("cron"))
+                .intervalSeconds(nullableLong(rs, "interval_seconds"))
+                .misfirePolicy(WorkflowSchedule.MisfirePolicy.valueOf(rs.getString("misfire_policy")))
+                .nextFireAt(rs.getLong("next_fire_at"))
+                .lastFiredAt(nullableLong(rs, "last_fired_at"))
+                .build();
+    }
+
+    private static Long nullableLong(ResultSet rs, String column) throws SQLException {
+        var value = rs.getLong(column);
+        return rs.wasNull() ? null : value;
+    }
+}
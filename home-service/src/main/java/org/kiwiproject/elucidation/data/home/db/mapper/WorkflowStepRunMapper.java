@@ -0,0 +1,32 @@
+package org.kiwiproject.elucidation.data.home.db.mapper;
+
+import org.kiwiproject.elucidation.data.home.model.Device;
+import org.kiwiproject.elucidation.data.home.model.WorkflowStepRun;
+import org.jdbi.v3.core.mapper.RowMapper;
+import org.jdbi.v3.core.statement.StatementContext;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+public class WorkflowStepRunMapper implements RowMapper<WorkflowStepRun> {
+    @Override
+    public WorkflowStepRun map(ResultSet rs, StatementContext ctx) throws SQLException {
+        var deviceType = rs.getString("device_type");
+
+        return WorkflowStepRun.builder()
+                .runId(rs.getLong("run_id"))
+                .stepIndex(rs.getInt("step_index"))
+                .description(rs.getString("description"))
+                .deviceName(rs.getString("device_name"))
+                .deviceType(deviceType == null ? null : Device.DeviceType.valueOf(deviceType))
+                .deviceFound(rs.getBoolean("device_found"))
+                .publishedAt(nullableLong(rs, "published_at"))
+                .publishMicros(nullableLong(rs, "publish_micros"))
+                .build();
+    }
+
+    private static Long nullableLong(ResultSet rs, String column) throws SQLException {
+        var value = rs.getLong(column);
+        return rs.wasNull() ? null : value;
+    }
+}
@@ -16,6 +16,12 @@ public class Device {
     }
 
     private Long id;
+
+    /**
+     * The home the device is in, which decides the shard it lives on.
+     */
+    private String home;
+
     private String name;
     private DeviceType deviceType;
     private Long deviceTypeId;
@@ -12,6 +12,12 @@ import lombok.NoArgsConstructor;
 public class Workflow {
 
     private Long id;
+
+    /**
+     * The home the workflow runs in. Its steps can only use devices in the same home.
+     */
+    private String home;
+
     private String name;
     private String stepJson;
 
@@ -0,0 +1,32 @@
+package org.kiwiproject.elucidation.data.home.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One run of a workflow: when it started and finished, and what happened to each of its steps.
+ */
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WorkflowRun {
+
+    private Long id;
+    private Long workflowId;
+    private String correlationId;
+    private long startedAt;
+    private long finishedAt;
+
+    @Builder.Default
+    private List<WorkflowStepRun> steps = new ArrayList<>();
+
+    public long getDurationMillis() {
+        return finishedAt - startedAt;
+    }
+}
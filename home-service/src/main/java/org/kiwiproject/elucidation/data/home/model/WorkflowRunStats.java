@@ -0,0 +1,70 @@
+package org.kiwiproject.elucidation.data.home.model;
+
+import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toMap;
+
+import org.kiwiproject.elucidation.data.common.stats.Percentiles;
+import lombok.Value;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * Timings of a workflow's recent runs: how long whole runs took, and for each step how long after the start of
+ * the run it was published, how long publishing took and how often its device could not be found.
+ */
+@Value
+public class WorkflowRunStats {
+
+    @Value
+    public static class StepStats {
+        int stepIndex;
+        String description;
+        String deviceName;
+        int runs;
+        int devicesNotFound;
+        int unpublished;
+        Percentiles publishedAfterMillis;
+        Percentiles publishMicros;
+    }
+
+    long workflowId;
+    int runs;
+    Percentiles durationMillis;
+    List<StepStats> steps;
+
+    public static WorkflowRunStats of(long workflowId, List<WorkflowRun> runs, List<WorkflowStepRun> stepRuns) {
+        var runsById = runs.stream().collect(toMap(WorkflowRun::getId, Function.identity()));
+        var stepRunsByIndex = stepRuns.stream()
+                .filter(stepRun -> runsById.containsKey(stepRun.getRunId()))
+                .collect(groupingBy(WorkflowStepRun::getStepIndex, TreeMap::new, toList()));
+
+        var steps = stepRunsByIndex.values().stream()
+                .map(stepRunsForIndex -> stepStats(stepRunsForIndex, runsById))
+                .collect(toList());
+
+        return new WorkflowRunStats(workflowId,
+                runs.size(),
+                Percentiles.of(runs.stream().mapToLong(WorkflowRun::getDurationMillis).toArray()),
+                steps);
+    }
+
+    private static StepStats stepStats(List<WorkflowStepRun> stepRuns, Map<Long, WorkflowRun> runsById) {
+        var latest = stepRuns.get(stepRuns.size() - 1);
+        var published = stepRuns.stream().filter(WorkflowStepRun::isPublished).collect(toList());
+
+        return new StepStats(latest.getStepIndex(),
+                latest.getDescription(),
+                latest.getDeviceName(),
+                stepRuns.size(),
+                (int) stepRuns.stream().filter(stepRun -> !stepRun.isDeviceFound()).count(),
+                stepRuns.size() - published.size(),
+                Percentiles.of(published.stream()
+                        .mapToLong(stepRun -> stepRun.getPublishedAt() - runsById.get(stepRun.getRunId()).getStartedAt())
+                        .toArray()),
+                Percentiles.of(published.stream().mapToLong(WorkflowStepRun::getPublishMicros).toArray()));
+    }
+}
@@ -0,0 +1,43 @@
+package org.kiwiproject.elucidation.data.home.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * Runs a workflow on a cron expression or every {@code intervalSeconds}, exactly one of the two.
+ */
+@Getter
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class WorkflowSchedule {
+
+    /**
+     * What to do when home was not running at the time a schedule was due.
+     */
+    public enum MisfirePolicy {
+        /**
+         * Run the workflow once as soon as home starts, however many times it was missed.
+         */
+        FIRE_ONCE,
+
+        /**
+         * Don't run the workflow until the schedule is next due.
+         */
+        SKIP
+    }
+
+    private Long id;
+    private Long workflowId;
+    private String cron;
+    private Long intervalSeconds;
+
+    @Builder.Default
+    private MisfirePolicy misfirePolicy = MisfirePolicy.FIRE_ONCE;
+
+    private long nextFireAt;
+    private Long lastFiredAt;
+
+}
@@ -0,0 +1,30 @@
+package org.kiwiproject.elucidation.data.home.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * What happened to one step of a workflow run. A step whose device is not registered with home is not published,
+ * and neither is one whose event could not be sent; both have no {@code publishedAt}.
+ */
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WorkflowStepRun {
+
+    private Long runId;
+    private int stepIndex;
+    private String description;
+    private String deviceName;
+    private Device.DeviceType deviceType;
+    private boolean deviceFound;
+    private Long publishedAt;
+    private Long publishMicros;
+
+    public boolean isPublished() {
+        return publishedAt != null;
+    }
+}
@@ -1,7 +1,10 @@
 package org.kiwiproject.elucidation.data.home.resource;
 
+import static java.util.Objects.isNull;
+
 import com.codahale.metrics.annotation.ExceptionMetered;
 import com.codahale.metrics.annotation.Timed;
+import org.kiwiproject.elucidation.data.common.shard.HomeShards;
 import org.kiwiproject.elucidation.data.home.db.DeviceDao;
 import org.kiwiproject.elucidation.data.home.model.Device;
 import lombok.extern.slf4j.Slf4j;
@@ -10,11 +13,13 @@ import javax.validation.constraints.NotNull;
 import javax.ws.rs.Consumes;
 import javax.ws.rs.DELETE;
 import javax.ws.rs.GET;
+import javax.ws.rs.NotFoundException;
 import javax.ws.rs.POST;
 import javax.ws.rs.PUT;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import java.util.Map;
@@ -26,16 +31,27 @@ import java.util.Map;
 public class DeviceResource {
 
     private final DeviceDao dao;
+    private final HomeShards shards;
 
-    public DeviceResource(DeviceDao dao) {
+    public DeviceResource(DeviceDao dao, HomeShards shards) {
         this.dao = dao;
+        this.shards = shards;
     }
 
+    /**
+     * The devices in a home, or every device on this shard without one. The router asks every shard for a list
+     * without a home.
+     */
     @GET
     @Timed
     @ExceptionMetered
-    public Response listRegisteredDevices() {
-        return Response.ok(dao.findAll()).build();
+    public Response listRegisteredDevices(@QueryParam("home") String home) {
+        if (isNull(home)) {
+            return Response.ok(dao.findAll()).build();
+        }
+
+        WrongShardException.checkOwned(shards, home);
+        return Response.ok(dao.findByHome(home)).build();
     }
 
     @POST
@@ -43,6 +59,8 @@ public class DeviceResource {
     @Timed
     @ExceptionMetered
     public Response registerDevice(@NotNull Device device) {
+        WrongShardException.checkOwned(shards, device.getHome());
+
         long id = dao.create(device);
         return Response.status(201).entity(Map.of("id", id)).build();
     }
@@ -51,7 +69,14 @@ public class DeviceResource {
     @Path("/{id}")
     @Timed
     @ExceptionMetered
-    public Response deleteDevice(@PathParam("id") long id) {
+    public Response deleteDevice(@PathParam("id") long id, @QueryParam("home") String home) {
+        WrongShardException.checkOwned(shards, home);
+
+        // ids are only unique within a shard, so the device also has to be in the home asked for
+        dao.findById(id)
+                .filter(device -> HomeShards.sameHome(device.getHome(), home))
+                .orElseThrow(() -> new NotFoundException("Can't find device"));
+
         dao.deleteDevice(id);
         return Response.accepted().build();
     }
@@ -60,8 +85,11 @@ public class DeviceResource {
     @Path("/record/event/{deviceType}/{deviceName}")
     @Timed
     @ExceptionMetered
-    public Response recordDeviceEvent(@PathParam("deviceType") String type, @PathParam("deviceName") String deviceName) {
-        var deviceOptional = dao.findByNameAndType(deviceName, Device.DeviceType.valueOf(type));
+    public Response recordDeviceEvent(@PathParam("deviceType") String type, @PathParam("deviceName") String deviceName,
+                                      @QueryParam("home") String home) {
+        WrongShardException.checkOwned(shards, home);
+
+        var deviceOptional = dao.findByNameAndType(HomeShards.homeOrDefault(home), deviceName, Device.DeviceType.valueOf(type));
 
         deviceOptional.ifPresentOrElse(
                 device -> LOG.info("Recording event for {} named {} [id: {}]", type, deviceName, device.getId()),
@@ -1,15 +1,24 @@
 package org.kiwiproject.elucidation.data.home.resource;
 
+import static java.util.Objects.isNull;
+
 import com.codahale.metrics.annotation.ExceptionMetered;
 import com.codahale.metrics.annotation.Timed;
+import org.kiwiproject.elucidation.data.common.shard.HomeShards;
 import org.kiwiproject.elucidation.data.home.db.WorkflowDao;
+import org.kiwiproject.elucidation.data.home.db.WorkflowRunDao;
 import org.kiwiproject.elucidation.data.home.model.Workflow;
+import org.kiwiproject.elucidation.data.home.model.WorkflowRunStats;
+import org.kiwiproject.elucidation.data.home.service.WorkflowRejectedException;
 import org.kiwiproject.elucidation.data.home.service.WorkflowService;
+import io.dropwizard.jersey.errors.ErrorMessage;
 import lombok.extern.slf4j.Slf4j;
 
+import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
 import javax.ws.rs.Consumes;
 import javax.ws.rs.DELETE;
+import javax.ws.rs.DefaultValue;
 import javax.ws.rs.GET;
 import javax.ws.rs.NotFoundException;
 import javax.ws.rs.POST;
@@ -17,6 +26,8 @@ import javax.ws.rs.PUT;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import java.util.Map;
@@ -28,24 +39,39 @@ import java.util.Map;
 public class WorkflowResource {
 
     private final WorkflowDao dao;
+    private final WorkflowRunDao runDao;
     private final WorkflowService workflowService;
+    private final HomeShards shards;
 
-    public WorkflowResource(WorkflowDao dao, WorkflowService workflowService) {
+    public WorkflowResource(WorkflowDao dao, WorkflowRunDao runDao, WorkflowService workflowService, HomeShards shards) {
         this.dao = dao;
+        this.runDao = runDao;
         this.workflowService = workflowService;
+        this.shards = shards;
     }
 
+    /**
+     * The workflows in a home, or every workflow on this shard without one. The router asks every shard for a list
+     * without a home.
+     */
     @GET
     @Timed
     @ExceptionMetered
-    public Response listWorkflows() {
-        return Response.ok(dao.findAll()).build();
+    public Response listWorkflows(@QueryParam("home") String home) {
+        if (isNull(home)) {
+            return Response.ok(dao.findAll()).build();
+        }
+
+        WrongShardException.checkOwned(shards, home);
+        return Response.ok(dao.findByHome(home)).build();
     }
 
     @POST
     @Timed
     @ExceptionMetered
     public Response createWorkflow(@NotNull Workflow workflow) {
+        WrongShardException.checkOwned(shards, workflow.getHome());
+
         long id = dao.create(workflow);
         return Response.status(201).entity(Map.of("id", id)).build();
     }
@@ -54,39 +80,81 @@ public class WorkflowResource {
     @Path("/{id}")
     @Timed
     @ExceptionMetered
-    public Response deleteWorkflow(@PathParam("id") long id) {
+    public Response deleteWorkflow(@PathParam("id") long id, @QueryParam("home") String home) {
+        WrongShardException.checkOwned(shards, home);
+
+        findInHome(id, home);
+
         dao.deleteWorkflow(id);
         return Response.accepted().build();
     }
 
-    @PUT
-    @Path("trigger/byId/{id}")
+    /**
+     * Percentile timings of the workflow's most recent runs, at most {@code limit} of them.
+     */
+    @GET
+    @Path("/{id}/runs")
     @Timed
     @ExceptionMetered
-    public Response triggerWorkflowById(@PathParam("id") long id) {
-        var optionalWorkflow = dao.findById(id);
+    public Response getWorkflowRuns(@PathParam("id") long id, @QueryParam("limit") @DefaultValue("1000") @Min(1) int limit) {
+        dao.findById(id).orElseThrow(() -> new NotFoundException("Can't find workflow"));
 
-        var workflow = optionalWorkflow.orElseThrow(() -> new NotFoundException("Can't find workflow"));
+        var runs = runDao.findRecentRuns(id, limit);
+        var stepRuns = runDao.findRecentStepRuns(id, limit);
+        return Response.ok(WorkflowRunStats.of(id, runs, stepRuns)).build();
+    }
 
-        LOG.info("Triggering workflow {}", workflow.getName());
-        workflowService.runWorkflow(workflow);
+    @PUT
+    @Path("trigger/byId/{id}")
+    @Timed
+    @ExceptionMetered
+    public Response triggerWorkflowById(@PathParam("id") long id, @QueryParam("home") String home) {
+        WrongShardException.checkOwned(shards, home);
 
-        return Response.accepted().build();
+        return trigger(findInHome(id, home));
     }
 
     @PUT
     @Path("trigger/byName/{name}")
     @Timed
     @ExceptionMetered
-    public Response triggerWorkflowByName(@PathParam("name") String name) {
-        var optionalWorkflow = dao.findByName(name);
+    public Response triggerWorkflowByName(@PathParam("name") String name, @QueryParam("home") String home) {
+        WrongShardException.checkOwned(shards, home);
+
+        var optionalWorkflow = dao.findByName(HomeShards.homeOrDefault(home), name);
 
         var workflow = optionalWorkflow.orElseThrow(() -> new NotFoundException("Can't find workflow"));
 
+        return trigger(workflow);
+    }
+
+    /**
+     * Ids are only unique within a shard, so the workflow also has to be in the home asked for.
+     */
+    private Workflow findInHome(long id, String home) {
+        return dao.findById(id)
+                .filter(workflow -> HomeShards.sameHome(workflow.getHome(), home))
+                .orElseThrow(() -> new NotFoundException("Can't find workflow"));
+    }
+
+    private Response trigger(Workflow workflow) {
         LOG.info("Triggering workflow {}", workflow.getName());
-        workflowService.runWorkflow(workflow);
+
+        try {
+            workflowService.runWorkflow(workflow);
+        } catch (WorkflowRejectedException e) {
+            LOG.debug("Not running workflow {}: {}", workflow.getName(), e.getReason());
+
+            var status = e.getReason() == WorkflowRejectedException.Reason.WORKFLOW_BUSY
+                    ? Response.Status.TOO_MANY_REQUESTS
+                    : Response.Status.SERVICE_UNAVAILABLE;
+
+            return Response.status(status)
+                    .header(HttpHeaders.RETRY_AFTER, e.getRetryAfterSeconds())
+                    .entity(new ErrorMessage(status.getStatusCode(), e.getMessage()))
+                    .build();
+        }
 
         return Response.accepted().build();
     }
-
 }
@@ -0,0 +1,77 @@
+package org.kiwiproject.elucidation.data.home.resource;
+
+import com.codahale.metrics.annotation.ExceptionMetered;
+import com.codahale.metrics.annotation.Timed;
+import org.kiwiproject.elucidation.data.home.db.WorkflowDao;
+import org.kiwiproject.elucidation.data.home.db.WorkflowScheduleDao;
+import org.kiwiproject.elucidation.data.home.model.WorkflowSchedule;
+import org.kiwiproject.elucidation.data.home.service.WorkflowScheduler;
+
+import javax.validation.constraints.NotNull;
+import javax.ws.rs.BadRequestException;
+import javax.ws.rs.Consumes;
+import javax.ws.rs.DELETE;
+import javax.ws.rs.GET;
+import javax.ws.rs.NotFoundException;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import java.util.Map;
+
+@Path("/home/workflow/{workflowId}/schedules")
+@Produces(MediaType.APPLICATION_JSON)
+@Consumes(MediaType.APPLICATION_JSON)
+public class WorkflowScheduleResource {
+
+    private final WorkflowDao workflowDao;
+    private final WorkflowScheduleDao scheduleDao;
+    private final WorkflowScheduler scheduler;
+
+    public WorkflowScheduleResource(WorkflowDao workflowDao, WorkflowScheduleDao scheduleDao, WorkflowScheduler scheduler) {
+        this.workflowDao = workflowDao;
+        this.scheduleDao = scheduleDao;
+        this.scheduler = scheduler;
+    }
+
+    @GET
+    @Timed
+    @ExceptionMetered
+    public Response listSchedules(@PathParam("workflowId") long workflowId) {
+        return Response.ok(scheduleDao.findByWorkflowId(workflowId)).build();
+    }
+
+    /**
+     * Adds a schedule with either a five field {@code cron} expression or an {@code intervalSeconds}.
+     */
+    @POST
+    @Timed
+    @ExceptionMetered
+    public Response createSchedule(@PathParam("workflowId") long workflowId, @NotNull WorkflowSchedule schedule) {
+        workflowDao.findById(workflowId).orElseThrow(() -> new NotFoundException("Can't find workflow"));
+
+        WorkflowSchedule saved;
+        try {
+            saved = scheduler.add(schedule.toBuilder().workflowId(workflowId).build());
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException(e.getMessage());
+        }
+
+        return Response.status(201).entity(Map.of("id", saved.getId(), "nextFireAt", saved.getNextFireAt())).build();
+    }
+
+    @DELETE
+    @Path("/{scheduleId}")
+    @Timed
+    @ExceptionMetered
+    public Response deleteSchedule(@PathParam("workflowId") long workflowId, @PathParam("scheduleId") long scheduleId) {
+        scheduleDao.findById(scheduleId)
+                .filter(schedule -> schedule.getWorkflowId() == workflowId)
+                .orElseThrow(() -> new NotFoundException("Can't find schedule"));
+
+        scheduler.remove(scheduleId);
+        return Response.accepted().build();
+    }
+}
@@ -0,0 +1,30 @@
+package org.kiwiproject.elucidation.data.home.resource;
+
+import org.kiwiproject.elucidation.data.common.shard.HomeShards;
+import io.dropwizard.jersey.errors.ErrorMessage;
+
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+
+/**
+ * Answers 421 Misdirected Request for a home this shard doesn't own, so a request that went around the router, or
+ * a router with a different list of shards, is noticed rather than writing to the wrong database.
+ */
+public class WrongShardException extends WebApplicationException {
+
+    static final int MISDIRECTED_REQUEST = 421;
+
+    WrongShardException(String home, int shard) {
+        super(Response.status(MISDIRECTED_REQUEST)
+                .type(MediaType.APPLICATION_JSON_TYPE)
+                .entity(new ErrorMessage(MISDIRECTED_REQUEST, "Home " + home + " belongs to shard " + shard))
+                .build());
+    }
+
+    static void checkOwned(HomeShards shards, String home) {
+        if (!shards.owns(home)) {
+            throw new WrongShardException(HomeShards.homeOrDefault(home), shards.shardOf(home));
+        }
+    }
+}
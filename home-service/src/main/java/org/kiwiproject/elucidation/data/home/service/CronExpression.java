@@ -0,0 +1,146 @@
+package org.kiwiproject.elucidation.data.home.service;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * A standard five field cron expression: minute, hour, day of month, month and day of week. Fields take {@code *},
+ * numbers, ranges ({@code 1-5}), steps ({@code 0/15}, {@code 0-30/10}) and lists of those; months and days of the
+ * week may also be named ({@code JAN}, {@code MON-FRI}), and Sunday is 0 or 7. Like cron, when both the day of month
+ * and the day of week are restricted a day matching either one matches.
+ */
+public final class CronExpression {
+
+    private static final List<String> MONTHS = List.of("JAN", "FEB", "MAR", "APR", "MAY", "JUN", "JUL", "AUG", "SEP",
+            "OCT", "NOV", "DEC");
+    private static final List<String> DAYS = List.of("SUN", "MON", "TUE", "WED", "THU", "FRI", "SAT");
+
+    private static final int MAX_YEARS_AHEAD = 8;
+
+    private final String expression;
+    private final BitSet minutes;
+    private final BitSet hours;
+    private final BitSet daysOfMonth;
+    private final BitSet months;
+    private final BitSet daysOfWeek;
+    private final boolean anyDayOfMonth;
+    private final boolean anyDayOfWeek;
+
+    private CronExpression(String expression) {
+        var fields = expression.trim().split("\\s+");
+        checkArgument(fields.length == 5, "cron expression '%s' must have 5 fields", expression);
+
+        this.expression = expression;
+        this.minutes = parseField(fields[0], 0, 59, List.of());
+        this.hours = parseField(fields[1], 0, 23, List.of());
+        this.daysOfMonth = parseField(fields[2], 1, 31, List.of());
+        this.months = parseField(fields[3], 1, 12, MONTHS);
+        this.daysOfWeek = parseField(fields[4], 0, 7, DAYS);
+        this.anyDayOfMonth = fields[2].startsWith("*");
+        this.anyDayOfWeek = fields[4].startsWith("*");
+
+        if (daysOfWeek.get(7)) {
+            daysOfWeek.set(0);
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException if the expression is not valid
+     */
+    public static CronExpression parse(String expression) {
+        return new CronExpression(expression);
+    }
+
+    /**
+     * @return the first time after {@code after} that matches, to the minute
+     * @throws IllegalArgumentException if nothing matches in the next few years, e.g. for February 30th
+     */
+    public ZonedDateTime next(ZonedDateTime after) {
+        var time = after.truncatedTo(ChronoUnit.MINUTES).plusMinutes(1);
+        var limit = after.plusYears(MAX_YEARS_AHEAD);
+
+        while (time.isBefore(limit)) {
+            if (!months.get(time.getMonthValue())) {
+                time = time.plusMonths(1).withDayOfMonth(1).truncatedTo(ChronoUnit.DAYS);
+            } else if (!dayMatches(time)) {
+                time = time.plusDays(1).truncatedTo(ChronoUnit.DAYS);
+            } else if (!hours.get(time.getHour())) {
+                time = time.plusHours(1).truncatedTo(ChronoUnit.HOURS);
+            } else if (!minutes.get(time.getMinute())) {
+                time = time.plusMinutes(1);
+            } else {
+                return time;
+            }
+        }
+
+        throw new IllegalArgumentException("cron expression '" + expression + "' never matches");
+    }
+
+    @Override
+    public String toString() {
+        return expression;
+    }
+
+    private boolean dayMatches(ZonedDateTime time) {
+        var dayOfMonth = daysOfMonth.get(time.getDayOfMonth());
+        var dayOfWeek = daysOfWeek.get(time.getDayOfWeek().getValue() % 7);
+
+        if (anyDayOfMonth || anyDayOfWeek) {
+            return dayOfMonth && dayOfWeek;
+        }
+        return dayOfMonth || dayOfWeek;
+    }
+
+    private static BitSet parseField(String field, int min, int max, List<String> names) {
+        var values = new BitSet(max + 1);
+
+        for (var part : field.split(",")) {
+            var step = 1;
+            var slash = part.indexOf('/');
+            if (slash >= 0) {
+                step = parseNumber(part.substring(slash + 1), 1, max, List.of());
+                part = part.substring(0, slash);
+            }
+
+            int from;
+            int to;
+            if ("*".equals(part)) {
+                from = min;
+                to = max;
+            } else if (part.contains("-")) {
+                var dash = part.indexOf('-');
+                from = parseNumber(part.substring(0, dash), min, max, names);
+                to = parseNumber(part.substring(dash + 1), min, max, names);
+            } else {
+                from = parseNumber(part, min, max, names);
+                to = slash >= 0 ? max : from;
+            }
+            checkArgument(from <= to, "range %s in cron field '%s' is backwards", part, field);
+
+            for (var value = from; value <= to; value += step) {
+                values.set(value);
+            }
+        }
+        return values;
+    }
+
+    private static int parseNumber(String text, int min, int max, List<String> names) {
+        var index = names.indexOf(text.toUpperCase(Locale.ROOT));
+        if (index >= 0) {
+            return index + min;
+        }
+
+        try {
+            var value = Integer.parseInt(text);
+            checkArgument(value >= min && value <= max, "%s is not between %s and %s", value, min, max);
+            return value;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("'" + text + "' is not a valid cron value", e);
+        }
+    }
+}
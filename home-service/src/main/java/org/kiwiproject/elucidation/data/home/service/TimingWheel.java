@@ -0,0 +1,154 @@
+package org.kiwiproject.elucidation.data.home.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * A hierarchical timing wheel: each level is a ring of 64 slots, a slot on level 0 spans one tick and a slot on
+ * each level above spans a whole turn of the level below. An entry goes in the lowest level whose turn reaches its
+ * deadline, and when the wheel gets to its slot on a higher level it moves down a level, until it is in a level 0
+ * slot and is due. Adding, cancelling and firing an entry are constant time however many entries there are, and
+ * a tick only looks at the entries in the slots it passes, so any number of entries can share a deadline.
+ * <p>
+ * Not thread safe.
+ */
+public class TimingWheel<T> {
+
+    public static final class Entry<T> {
+
+        private final T value;
+        private final long deadlineTick;
+        private boolean cancelled;
+
+        private Entry(T value, long deadlineTick) {
+            this.value = value;
+            this.deadlineTick = deadlineTick;
+        }
+
+        public T getValue() {
+            return value;
+        }
+
+        public void cancel() {
+            cancelled = true;
+        }
+    }
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int MASK = SLOTS - 1;
+
+    private final long tickMillis;
+    private final int levels;
+    private final List<List<List<Entry<T>>>> wheels;
+    private long currentTick;
+    private int size;
+
+    /**
+     * With four levels and a one second tick the wheel spans 64<sup>4</sup> seconds, a little over six months;
+     * entries further out than that wait on the top level and move down once they are in range.
+     */
+    public TimingWheel(long tickMillis, int levels, long startMillis) {
+        this.tickMillis = tickMillis;
+        this.levels = levels;
+        this.currentTick = startMillis / tickMillis;
+        this.wheels = new ArrayList<>(levels);
+
+        for (var level = 0; level < levels; level++) {
+            var slots = new ArrayList<List<Entry<T>>>(SLOTS);
+            for (var slot = 0; slot < SLOTS; slot++) {
+                slots.add(new ArrayList<>());
+            }
+            wheels.add(slots);
+        }
+    }
+
+    /**
+     * Adds an entry that is due at {@code deadlineMillis}, or at the next tick if that has passed.
+     */
+    public Entry<T> add(T value, long deadlineMillis) {
+        var deadlineTick = Math.max(ceilDiv(deadlineMillis, tickMillis), currentTick + 1);
+        var entry = new Entry<>(value, deadlineTick);
+        place(entry);
+        size++;
+        return entry;
+    }
+
+    /**
+     * Moves the wheel up to {@code nowMillis}, handing every entry that has come due to {@code due}, in the order
+     * of their deadlines.
+     */
+    public void advance(long nowMillis, Consumer<Entry<T>> due) {
+        var targetTick = nowMillis / tickMillis;
+
+        while (currentTick < targetTick) {
+            currentTick++;
+
+            for (var level = levels - 1; level > 0; level--) {
+                var levelBits = SLOT_BITS * level;
+                if ((currentTick & ((1L << levelBits) - 1)) == 0) {
+                    cascade(wheels.get(level), (int) ((currentTick >>> levelBits) & MASK));
+                }
+            }
+
+            var slots = wheels.get(0);
+            var index = (int) (currentTick & MASK);
+            var entries = slots.get(index);
+            if (entries.isEmpty()) {
+                continue;
+            }
+
+            slots.set(index, new ArrayList<>());
+            for (var entry : entries) {
+                if (entry.deadlineTick > currentTick) {
+                    place(entry);
+                } else {
+                    size--;
+                    if (!entry.cancelled) {
+                        due.accept(entry);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @return how many entries are in the wheel, including cancelled ones that have not been reached yet
+     */
+    public int size() {
+        return size;
+    }
+
+    private void cascade(List<List<Entry<T>>> slots, int index) {
+        var entries = slots.get(index);
+        if (entries.isEmpty()) {
+            return;
+        }
+
+        slots.set(index, new ArrayList<>());
+        for (var entry : entries) {
+            if (entry.cancelled) {
+                size--;
+            } else {
+                place(entry);
+            }
+        }
+    }
+
+    private void place(Entry<T> entry) {
+        var ticksAway = Math.max(0, entry.deadlineTick - currentTick);
+
+        var level = 0;
+        while (level < levels - 1 && ticksAway >= 1L << (SLOT_BITS * (level + 1))) {
+            level++;
+        }
+
+        var index = (int) ((Math.max(entry.deadlineTick, currentTick) >>> (SLOT_BITS * level)) & MASK);
+        wheels.get(level).get(index).add(entry);
+    }
+
+    private static long ceilDiv(long dividend, long divisor) {
+        return -Math.floorDiv(-dividend, divisor);
+    }
+}
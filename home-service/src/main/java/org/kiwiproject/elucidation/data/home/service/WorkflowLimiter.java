@@ -0,0 +1,253 @@
+package org.kiwiproject.elucidation.data.home.service;
+
+import static com.codahale.metrics.MetricRegistry.name;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import org.kiwiproject.elucidation.data.home.config.WorkflowLimitsConfig;
+import org.kiwiproject.elucidation.data.home.service.WorkflowRejectedException.Reason;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Admission control for workflow runs. A run needs a permit, and there are only as many permits as the current
+ * limit. Once they are all taken, triggers wait in a bounded queue for one to be released, and are rejected when
+ * the queue is full or they have waited too long. Each workflow may also only have so many runs going or waiting,
+ * so one busy workflow can't take every permit.
+ * <p>
+ * The limit adapts to how quickly events are being published (AIMD): every publish that is faster than the target
+ * latency while at least half the permits are in use adds {@code 1/limit}, so about one per limit's worth of
+ * publishes, and a slower one multiplies the limit by the backoff ratio, at most once per target latency so one
+ * slow burst doesn't collapse it.
+ */
+@Slf4j
+public class WorkflowLimiter {
+
+    /**
+     * Permission to run a workflow; closing it releases it.
+     */
+    public final class Permit implements AutoCloseable {
+
+        private final long workflowId;
+        private final long startedAt;
+        private boolean released;
+
+        private Permit(long workflowId, long startedAt) {
+            this.workflowId = workflowId;
+            this.startedAt = startedAt;
+        }
+
+        @Override
+        public void close() {
+            if (!released) {
+                released = true;
+                release(this);
+            }
+        }
+    }
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final int perWorkflowLimit;
+    private final int queueSize;
+    private final long maxWaitNanos;
+    private final long targetLatencyNanos;
+    private final double backoffRatio;
+    private final LongSupplier ticker;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+    private final Map<Long, Integer> runsByWorkflow = new HashMap<>();
+
+    private double limit;
+    private int inFlight;
+    private int waiting;
+    private long lastDecrease;
+
+    private final Timer waits;
+    private final Timer runs;
+    private final Map<Reason, Meter> rejections = new EnumMap<>(Reason.class);
+
+    public WorkflowLimiter(WorkflowLimitsConfig config, MetricRegistry metrics) {
+        this(config, metrics, System::nanoTime);
+    }
+
+    WorkflowLimiter(WorkflowLimitsConfig config, MetricRegistry metrics, LongSupplier ticker) {
+        this.minLimit = config.getMinLimit();
+        this.maxLimit = Math.max(config.getMaxLimit(), minLimit);
+        this.perWorkflowLimit = config.getPerWorkflowLimit();
+        this.queueSize = config.getQueueSize();
+        this.maxWaitNanos = config.getMaxWait().toNanoseconds();
+        this.targetLatencyNanos = config.getTargetPublishLatency().toNanoseconds();
+        this.backoffRatio = config.getBackoffRatio();
+        this.ticker = ticker;
+
+        this.limit = Math.min(maxLimit, Math.max(minLimit, config.getInitialLimit()));
+        this.lastDecrease = ticker.getAsLong() - targetLatencyNanos;
+
+        this.waits = metrics.timer(name(WorkflowLimiter.class, "wait"));
+        this.runs = metrics.timer(name(WorkflowLimiter.class, "runs"));
+        for (var reason : Reason.values()) {
+            rejections.put(reason, metrics.meter(name(WorkflowLimiter.class, "rejected", reason.name().toLowerCase())));
+        }
+        metrics.gauge(name(WorkflowLimiter.class, "limit"), () -> this::getLimit);
+        metrics.gauge(name(WorkflowLimiter.class, "inFlight"), () -> this::getInFlight);
+        metrics.gauge(name(WorkflowLimiter.class, "waiting"), () -> this::getWaiting);
+    }
+
+    /**
+     * Waits, up to the configured maximum, for a permit to run the workflow.
+     *
+     * @throws WorkflowRejectedException if the workflow is busy, the wait queue is full or the wait timed out
+     */
+    public Permit acquire(long workflowId) {
+        var start = ticker.getAsLong();
+
+        lock.lock();
+        try {
+            var workflowRuns = runsByWorkflow.getOrDefault(workflowId, 0);
+            if (workflowRuns >= perWorkflowLimit) {
+                throw reject(Reason.WORKFLOW_BUSY);
+            }
+
+            if (inFlight >= currentLimit() && waiting >= queueSize) {
+                throw reject(Reason.QUEUE_FULL);
+            }
+
+            runsByWorkflow.put(workflowId, workflowRuns + 1);
+            try {
+                awaitPermit();
+            } catch (WorkflowRejectedException e) {
+                removeRun(workflowId);
+                throw e;
+            }
+
+            inFlight++;
+        } finally {
+            lock.unlock();
+        }
+
+        var now = ticker.getAsLong();
+        waits.update(now - start, TimeUnit.NANOSECONDS);
+        return new Permit(workflowId, now);
+    }
+
+    /**
+     * Feeds the time it took to publish one event to Artemis into the limit.
+     */
+    public void onPublish(long latencyNanos) {
+        lock.lock();
+        try {
+            var now = ticker.getAsLong();
+            var before = currentLimit();
+
+            if (latencyNanos > targetLatencyNanos) {
+                if (now - lastDecrease >= targetLatencyNanos) {
+                    limit = Math.max(minLimit, limit * backoffRatio);
+                    lastDecrease = now;
+                    LOG.debug("Publishing took {} ms, lowered the workflow limit to {}",
+                            TimeUnit.NANOSECONDS.toMillis(latencyNanos), currentLimit());
+                }
+            } else if (inFlight * 2 >= limit) {
+                limit = Math.min(maxLimit, limit + 1 / limit);
+            }
+
+            if (currentLimit() > before) {
+                released.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getLimit() {
+        lock.lock();
+        try {
+            return currentLimit();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getWaiting() {
+        lock.lock();
+        try {
+            return waiting;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void awaitPermit() {
+        if (inFlight < currentLimit()) {
+            return;
+        }
+
+        waiting++;
+        try {
+            var remaining = maxWaitNanos;
+            while (inFlight >= currentLimit()) {
+                if (remaining <= 0) {
+                    throw reject(Reason.TIMED_OUT);
+                }
+                remaining = released.awaitNanos(remaining);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw reject(Reason.TIMED_OUT);
+        } finally {
+            waiting--;
+        }
+    }
+
+    private void release(Permit permit) {
+        lock.lock();
+        try {
+            inFlight--;
+            removeRun(permit.workflowId);
+            released.signalAll();
+        } finally {
+            lock.unlock();
+        }
+
+        runs.update(ticker.getAsLong() - permit.startedAt, TimeUnit.NANOSECONDS);
+    }
+
+    private void removeRun(long workflowId) {
+        runsByWorkflow.computeIfPresent(workflowId, (id, count) -> count > 1 ? count - 1 : null);
+    }
+
+    private int currentLimit() {
+        return (int) limit;
+    }
+
+    private WorkflowRejectedException reject(Reason reason) {
+        rejections.get(reason).mark();
+        return new WorkflowRejectedException(reason, retryAfterSeconds());
+    }
+
+    /**
+     * About how long until a run finishes and frees a permit: the mean run time, rounded up to whole seconds.
+     */
+    private long retryAfterSeconds() {
+        var meanNanos = runs.getSnapshot().getMean();
+        return Math.max(1, (long) Math.ceil(meanNanos / TimeUnit.SECONDS.toNanos(1)));
+    }
+}
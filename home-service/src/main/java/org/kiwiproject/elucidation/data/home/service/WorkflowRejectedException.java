@@ -0,0 +1,37 @@
+package org.kiwiproject.elucidation.data.home.service;
+
+import lombok.Getter;
+
+/**
+ * Thrown when a workflow trigger is not admitted because too many workflows are already running.
+ */
+@Getter
+public class WorkflowRejectedException extends RuntimeException {
+
+    public enum Reason {
+
+        /**
+         * The workflow already has as many runs going or waiting as it may have.
+         */
+        WORKFLOW_BUSY,
+
+        /**
+         * All runs are taken and the queue of triggers waiting for one is full.
+         */
+        QUEUE_FULL,
+
+        /**
+         * The trigger waited as long as it may for a run without getting one.
+         */
+        TIMED_OUT
+    }
+
+    private final Reason reason;
+    private final long retryAfterSeconds;
+
+    public WorkflowRejectedException(Reason reason, long retryAfterSeconds) {
+        super("Workflow trigger rejected: " + reason);
+        this.reason = reason;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -0,0 +1,297 @@
+package org.kiwiproject.elucidation.data.home.service;
+
+import static com.codahale.metrics.MetricRegistry.name;
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import org.kiwiproject.elucidation.data.common.run.VirtualClock;
+import org.kiwiproject.elucidation.data.common.trace.Correlation;
+import org.kiwiproject.elucidation.data.home.config.SchedulerConfig;
+import org.kiwiproject.elucidation.data.home.db.WorkflowDao;
+import org.kiwiproject.elucidation.data.home.db.WorkflowScheduleDao;
+import org.kiwiproject.elucidation.data.home.model.WorkflowSchedule;
+import org.kiwiproject.elucidation.data.home.model.WorkflowSchedule.MisfirePolicy;
+import io.dropwizard.lifecycle.Managed;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs workflows on their schedules. Every schedule waits in one {@link TimingWheel} that is advanced once a tick,
+ * so there is no timer per schedule, and the schedules that come due in a tick are handed to a small pool to run
+ * while their next fire times are saved in one batch.
+ * <p>
+ * When loaded, a schedule that came due while home was not running fires straight away or is skipped to its next time,
+ * depending on its {@link MisfirePolicy}.
+ * <p>
+ * On a {@link VirtualClock} time only moves by one tick per tick, and each scheduled run starts its own clock at the
+ * time its schedule fired, so the same schedules fire at the same times with the same results on every run.
+ */
+@Slf4j
+public class WorkflowScheduler implements Managed {
+
+    private static final int WHEEL_LEVELS = 4;
+
+    private static final class Scheduled {
+
+        private final WorkflowSchedule schedule;
+        private final CronExpression cron;
+        private TimingWheel.Entry<Scheduled> entry;
+
+        private Scheduled(WorkflowSchedule schedule, CronExpression cron) {
+            this.schedule = schedule;
+            this.cron = cron;
+        }
+    }
+
+    private final SchedulerConfig config;
+    private final WorkflowScheduleDao scheduleDao;
+    private final WorkflowDao workflowDao;
+    private final WorkflowService workflowService;
+    private final Clock clock;
+    private final ScheduledExecutorService ticker;
+    private final Executor runner;
+    private final ZoneId zone;
+
+    private final Map<Long, Scheduled> scheduled = new HashMap<>();
+    private final TimingWheel<Scheduled> wheel;
+
+    private final Counter fires;
+    private final Counter missed;
+    private final Counter rejected;
+    private final Counter failed;
+    private final Timer ticks;
+
+    private volatile boolean loaded;
+    private ScheduledFuture<?> ticking;
+
+    public WorkflowScheduler(SchedulerConfig config, WorkflowScheduleDao scheduleDao, WorkflowDao workflowDao,
+                             WorkflowService workflowService, Clock clock, MetricRegistry metrics,
+                             ScheduledExecutorService ticker, Executor runner) {
+        this.config = config;
+        this.scheduleDao = scheduleDao;
+        this.workflowDao = workflowDao;
+        this.workflowService = workflowService;
+        this.clock = clock;
+        this.ticker = ticker;
+        this.runner = runner;
+        this.zone = config.getTimeZone();
+        this.wheel = new TimingWheel<>(config.getTick().toMilliseconds(), WHEEL_LEVELS, now());
+
+        this.fires = metrics.counter(name(WorkflowScheduler.class, "fires"));
+        this.missed = metrics.counter(name(WorkflowScheduler.class, "missed"));
+        this.rejected = metrics.counter(name(WorkflowScheduler.class, "rejected"));
+        this.failed = metrics.counter(name(WorkflowScheduler.class, "failed"));
+        this.ticks = metrics.timer(name(WorkflowScheduler.class, "tick"));
+        metrics.gauge(name(WorkflowScheduler.class, "scheduled"), () -> this::size);
+    }
+
+    @Override
+    public void start() {
+        var tickMillis = config.getTick().toMilliseconds();
+        ticking = ticker.scheduleAtFixedRate(this::tick, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        if (nonNull(ticking)) {
+            ticking.cancel(false);
+        }
+    }
+
+    /**
+     * Saves a new schedule and starts running it.
+     *
+     * @return the saved schedule, with its id and when it will first fire
+     * @throws IllegalArgumentException if the schedule does not have exactly one valid cron expression or interval
+     */
+    public WorkflowSchedule add(WorkflowSchedule schedule) {
+        var cron = validate(schedule);
+
+        var now = now();
+        var saved = schedule.toBuilder()
+                .id(null)
+                .misfirePolicy(isNull(schedule.getMisfirePolicy()) ? MisfirePolicy.FIRE_ONCE : schedule.getMisfirePolicy())
+                .nextFireAt(nextFireAfter(schedule, cron, now))
+                .lastFiredAt(null)
+                .build();
+        saved = saved.toBuilder().id(scheduleDao.create(saved)).build();
+
+        synchronized (wheel) {
+            place(new Scheduled(saved, cron), saved.getNextFireAt());
+        }
+        return saved;
+    }
+
+    /**
+     * Stops running the schedule and deletes it.
+     */
+    public void remove(long scheduleId) {
+        synchronized (wheel) {
+            var removed = scheduled.remove(scheduleId);
+            if (nonNull(removed)) {
+                removed.entry.cancel();
+            }
+        }
+        scheduleDao.delete(scheduleId);
+    }
+
+    public int size() {
+        synchronized (wheel) {
+            return scheduled.size();
+        }
+    }
+
+    void load() {
+        var now = now();
+        var threshold = config.getMisfireThreshold().toMilliseconds();
+        var skipped = new ArrayList<WorkflowSchedule>();
+
+        synchronized (wheel) {
+            for (var schedule : scheduleDao.findAll()) {
+                CronExpression cron;
+                try {
+                    cron = validate(schedule);
+                } catch (IllegalArgumentException e) {
+                    LOG.warn("Not running schedule {} of workflow {}: {}", schedule.getId(), schedule.getWorkflowId(), e.getMessage());
+                    continue;
+                }
+
+                var fireAt = schedule.getNextFireAt();
+                if (fireAt < now - threshold && schedule.getMisfirePolicy() == MisfirePolicy.SKIP) {
+                    missed.inc();
+                    fireAt = nextFireAfter(schedule, cron, now);
+                    schedule = schedule.toBuilder().nextFireAt(fireAt).build();
+                    skipped.add(schedule);
+                }
+                place(new Scheduled(schedule, cron), fireAt);
+            }
+        }
+
+        if (!skipped.isEmpty()) {
+            LOG.info("Skipped {} schedules that were due while home was not running", skipped.size());
+            scheduleDao.updateFireTimes(skipped);
+        }
+        loaded = true;
+        LOG.info("Loaded {} workflow schedules", size());
+    }
+
+    /**
+     * Fires every schedule that has come due and saves when each is next due. The schedules are loaded on the first
+     * tick rather than on start, so the database can still be migrating when home starts. Never throws, since an
+     * exception would stop the ticks.
+     */
+    void tick() {
+        try (var ignored = ticks.time()) {
+            if (!loaded) {
+                load();
+            }
+
+            if (clock instanceof VirtualClock) {
+                ((VirtualClock) clock).advance(Duration.ofMillis(config.getTick().toMilliseconds()));
+            }
+            var now = now();
+            var due = new ArrayList<WorkflowSchedule>();
+
+            synchronized (wheel) {
+                wheel.advance(now, entry -> due.add(reschedule(entry.getValue(), now)));
+            }
+
+            for (var schedule : due) {
+                runner.execute(() -> fire(schedule));
+            }
+
+            if (!due.isEmpty()) {
+                scheduleDao.updateFireTimes(due);
+            }
+        } catch (Exception e) {
+            LOG.error("Error running workflow schedules", e);
+        }
+    }
+
+    private WorkflowSchedule reschedule(Scheduled fired, long now) {
+        var schedule = fired.schedule;
+        var firedAt = schedule.getNextFireAt();
+
+        var nextFireAt = nextFireAfter(schedule, fired.cron, Math.min(firedAt, now));
+        if (nextFireAt <= now) {
+            nextFireAt = nextFireAfter(schedule, fired.cron, now);
+        }
+
+        var updated = schedule.toBuilder().lastFiredAt(now).nextFireAt(nextFireAt).build();
+        place(new Scheduled(updated, fired.cron), nextFireAt);
+        return updated;
+    }
+
+    private void fire(WorkflowSchedule schedule) {
+        try {
+            var workflow = workflowDao.findById(schedule.getWorkflowId());
+            if (workflow.isEmpty()) {
+                LOG.info("Removing schedule {} of deleted workflow {}", schedule.getId(), schedule.getWorkflowId());
+                remove(schedule.getId());
+                return;
+            }
+
+            fires.inc();
+            workflowService.runWorkflow(workflow.get(), schedule.getLastFiredAt());
+        } catch (WorkflowRejectedException e) {
+            rejected.inc();
+            LOG.debug("Scheduled run of workflow {} rejected: {}", schedule.getWorkflowId(), e.getReason());
+        } catch (Exception e) {
+            failed.inc();
+            LOG.error("Error running scheduled workflow {}", schedule.getWorkflowId(), e);
+        } finally {
+            Correlation.clear();
+        }
+    }
+
+    /**
+     * The time now. A virtual clock is only read, not moved, since the ticks move it.
+     */
+    private long now() {
+        return clock instanceof VirtualClock ? ((VirtualClock) clock).peek().toEpochMilli() : clock.millis();
+    }
+
+    private void place(Scheduled schedule, long fireAt) {
+        schedule.entry = wheel.add(schedule, fireAt);
+
+        var replaced = scheduled.put(schedule.schedule.getId(), schedule);
+        if (nonNull(replaced)) {
+            replaced.entry.cancel();
+        }
+    }
+
+    private long nextFireAfter(WorkflowSchedule schedule, CronExpression cron, long afterMillis) {
+        if (isNull(cron)) {
+            return afterMillis + TimeUnit.SECONDS.toMillis(schedule.getIntervalSeconds());
+        }
+        return cron.next(Instant.ofEpochMilli(afterMillis).atZone(zone)).toInstant().toEpochMilli();
+    }
+
+    private static CronExpression validate(WorkflowSchedule schedule) {
+        checkArgument(nonNull(schedule.getWorkflowId()), "a schedule needs a workflow");
+        checkArgument(isNull(schedule.getCron()) != isNull(schedule.getIntervalSeconds()),
+                "a schedule needs exactly one of cron or intervalSeconds");
+
+        if (nonNull(schedule.getIntervalSeconds())) {
+            checkArgument(schedule.getIntervalSeconds() > 0, "intervalSeconds must be positive");
+            return null;
+        }
+        return CronExpression.parse(schedule.getCron());
+    }
+}
@@ -4,95 +4,204 @@ import static java.util.Objects.nonNull;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import org.kiwiproject.elucidation.client.ElucidationClient;
 import org.kiwiproject.elucidation.client.ElucidationRecorder;
 import org.kiwiproject.elucidation.common.definition.JmsCommunicationDefinition;
 import org.kiwiproject.elucidation.common.model.ConnectionEvent;
 import org.kiwiproject.elucidation.common.model.Direction;
+import org.kiwiproject.elucidation.data.common.jms.TopicPublisher;
+import org.kiwiproject.elucidation.data.common.run.RunContext;
+import org.kiwiproject.elucidation.data.common.shard.HomeShards;
+import org.kiwiproject.elucidation.data.common.trace.Correlation;
+import org.kiwiproject.elucidation.data.common.trace.SpanRecorder;
 import org.kiwiproject.elucidation.data.home.db.DeviceDao;
+import org.kiwiproject.elucidation.data.home.db.WorkflowRunWriter;
 import org.kiwiproject.elucidation.data.home.model.Device;
 import org.kiwiproject.elucidation.data.home.model.Event;
 import org.kiwiproject.elucidation.data.home.model.Workflow;
+import org.kiwiproject.elucidation.data.home.model.WorkflowRun;
 import org.kiwiproject.elucidation.data.home.model.WorkflowStep;
+import org.kiwiproject.elucidation.data.home.model.WorkflowStepRun;
+import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
 
-import javax.jms.JMSProducer;
-import javax.jms.Topic;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Slf4j
 public class WorkflowService {
 
-    private final JMSProducer producer;
-    private final Topic topic;
+    /**
+     * An event with the time it was published, read from the clock of the run that published it.
+     */
+    @Value
+    private static class PublishedEvent {
+        Event event;
+        long publishedAt;
+    }
+
+    private final TopicPublisher publisher;
     private final DeviceDao deviceDao;
     private final ObjectMapper json;
-    private final ElucidationClient<Event> client;
-
-    public WorkflowService(JMSProducer producer, Topic topic, DeviceDao deviceDao, ObjectMapper json, ElucidationRecorder recorder) {
-        this.producer = producer;
-        this.topic = topic;
+    private final ObjectReader stepsReader;
+    private final ElucidationClient<PublishedEvent> client;
+    private final RunContext run;
+    private final SpanRecorder spans;
+    private final WorkflowRunWriter runWriter;
+    private final WorkflowLimiter limiter;
+    private final ConcurrentMap<Long, AtomicLong> runCounts = new ConcurrentHashMap<>();
+
+    public WorkflowService(TopicPublisher publisher, DeviceDao deviceDao, ObjectMapper json, ElucidationRecorder recorder, RunContext run, SpanRecorder spans, WorkflowRunWriter runWriter, WorkflowLimiter limiter) {
+        this.publisher = publisher;
         this.deviceDao = deviceDao;
         this.json = json;
+        this.stepsReader = json.readerFor(new TypeReference<List<WorkflowStep>>() {});
+        this.run = run;
+        this.spans = spans;
+        this.runWriter = runWriter;
+        this.limiter = limiter;
 
         var communicationDef = new JmsCommunicationDefinition();
-        this.client = ElucidationClient.of(recorder, evt -> Optional.of(ConnectionEvent.builder()
+        this.client = ElucidationClient.of(recorder, published -> Optional.of(ConnectionEvent.builder()
                 .communicationType(communicationDef.getCommunicationType())
-                .connectionIdentifier(evt.getAction())
+                .connectionIdentifier(published.getEvent().getAction())
                 .eventDirection(Direction.OUTBOUND)
                 .serviceName("home-service")
-                .observedAt(System.currentTimeMillis())
+                .observedAt(published.getPublishedAt())
                 .build()));
     }
 
+    /**
+     * Runs the workflow once the limiter admits it.
+     *
+     * @throws WorkflowRejectedException if too many workflows are running to run this one
+     */
     public void runWorkflow(Workflow workflow) {
+        runWorkflow(workflow, run.forInstance(nextRunName(workflow)));
+    }
+
+    /**
+     * Runs the workflow for a schedule that fired at the given time, which on a virtual clock is when the run starts.
+     *
+     * @throws WorkflowRejectedException if too many workflows are running to run this one
+     */
+    public void runWorkflow(Workflow workflow, long firedAt) {
+        runWorkflow(workflow, run.forInstance(nextRunName(workflow), Instant.ofEpochMilli(firedAt)));
+    }
+
+    /**
+     * Names each run of a workflow by how many runs of it came before, which is what its ids are derived from.
+     */
+    private String nextRunName(Workflow workflow) {
+        var index = runCounts.computeIfAbsent(workflow.getId(), id -> new AtomicLong()).incrementAndGet();
+        return workflow.getName() + "-" + index;
+    }
+
+    private void runWorkflow(Workflow workflow, RunContext instance) {
+        try (var ignored = limiter.acquire(workflow.getId())) {
+            execute(workflow, instance);
+        }
+    }
+
+    /**
+     * Each run reads its own clock and draws its own ids, so in a seeded run on a virtual clock neither depends on the
+     * runs alongside it.
+     */
+    private void execute(Workflow workflow, RunContext instance) {
+        var correlationId = Correlation.currentOrNewId();
+        var home = HomeShards.homeOrDefault(workflow.getHome());
+        var clock = instance.getClock();
+        var startedAt = clock.millis();
+        var stepRuns = new ArrayList<WorkflowStepRun>();
         LOG.info("Running workflow {}", workflow.getName());
 
         try {
-            var steps = json.readValue(workflow.getStepJson(), new TypeReference<List<WorkflowStep>>() {});
+            var steps = parseSteps(workflow.getStepJson());
 
-            steps.forEach(step -> {
-                var optionalDevice = deviceDao.findByNameAndType(step.getDevice().getName(), step.getDevice().getDeviceType());
-                optionalDevice.ifPresent(device -> sendEvent(step, device));
+            for (var i = 0; i < steps.size(); i++) {
+                var step = steps.get(i);
+                var stepRun = WorkflowStepRun.builder()
+                        .stepIndex(i)
+                        .description(step.getDescription())
+                        .deviceName(step.getDevice().getName())
+                        .deviceType(step.getDevice().getDeviceType());
+
+                var optionalDevice = deviceDao.findByNameAndType(home, step.getDevice().getName(), step.getDevice().getDeviceType());
+                stepRun.deviceFound(optionalDevice.isPresent());
+                optionalDevice.ifPresent(device -> sendEvent(step, device, home, correlationId, instance, stepRun));
+                stepRuns.add(stepRun.build());
 
                 if (step.getNextStepDelayInSeconds() > 0) {
                     LOG.info("Waiting for {} seconds to trigger the next step", step.getNextStepDelayInSeconds());
                     try {
-                        Thread.sleep(step.getNextStepDelayInSeconds() * 1_000L);
+                        instance.sleep(Duration.ofSeconds(step.getNextStepDelayInSeconds()));
                     } catch (InterruptedException e) {
                         LOG.warn("Sleep interrupted", e);
                         Thread.currentThread().interrupt();
                     }
                 }
-            });
+            }
 
         } catch (Exception e) {
             LOG.error("Problem running workflow {}", workflow.getName(), e);
+        } finally {
+            runWriter.save(WorkflowRun.builder()
+                    .workflowId(workflow.getId())
+                    .correlationId(correlationId)
+                    .startedAt(startedAt)
+                    .finishedAt(clock.millis())
+                    .steps(stepRuns)
+                    .build());
         }
     }
 
-    private void sendEvent(WorkflowStep step, Device device) {
+    public List<WorkflowStep> parseSteps(String stepJson) throws IOException {
+        return stepsReader.readValue(stepJson);
+    }
+
+    private void sendEvent(WorkflowStep step, Device device, String home, String correlationId, RunContext instance, WorkflowStepRun.WorkflowStepRunBuilder stepRun) {
         LOG.info("Sending workflow event for '{}'", step.getDescription());
 
         var event = Event.builder()
-                .uuid(UUID.randomUUID().toString())
+                .uuid(instance.getSeed().nextUuid().toString())
                 .action(step.getEventAction())
                 .iotLookup(device.getDeviceTypeId())
                 .value(step.getEventInfo())
+                .home(home)
                 .build();
 
         try {
-            producer.send(topic, json.writeValueAsString(event));
-            recordEvent(event);
+            var text = json.writeValueAsString(event);
+            var start = System.nanoTime();
+
+            publisher.send(text, Map.of(Correlation.PROPERTY, correlationId));
+            var publishNanos = System.nanoTime() - start;
+            spans.recordSince(correlationId, "jms send", start);
+            limiter.onPublish(publishNanos);
+            var publishedAt = instance.getClock().millis();
+            stepRun.publishedAt(publishedAt)
+                    .publishMicros(TimeUnit.NANOSECONDS.toMicros(publishNanos));
+            recordEvent(new PublishedEvent(event, publishedAt));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            LOG.warn("Interrupted waiting to send workflow event for '{}'", step.getDescription());
         } catch (Exception e) {
-            LOG.error("Problem creating json", e);
+            LOG.error("Problem sending workflow event", e);
         }
     }
 
-    private void recordEvent(Event evt) {
-        client.recordNewEvent(evt).whenComplete((result, exception) -> {
+    private void recordEvent(PublishedEvent published) {
+        client.recordNewEvent(published).whenComplete((result, exception) -> {
             if (nonNull(exception)) {
                 LOG.error("An error occurred recording an event.", exception);
                 return;
@@ -47,7 +47,7 @@ class DeviceDaoTest {
 
         var conn = dataSource.getConnection();
         var database = DatabaseFactory.getInstance().findCorrectDatabaseImplementation(new JdbcConnection(conn));
-        liquibase = new Liquibase("migrations.xml", new ClassLoaderResourceAccessor(), database);
+        liquibase = new Liquibase("migrations/home.xml", new ClassLoaderResourceAccessor(), database);
     }
 
     @BeforeEach
@@ -149,8 +149,47 @@ class DeviceDaoTest {
 
             assertThat(devices)
                     .hasSize(1)
-                    .extracting("id", "name")
-                    .contains(tuple(id, DEVICE_NAME));
+                    .extracting("id", "name", "home")
+                    .contains(tuple(id, DEVICE_NAME, "default"));
+        }
+    }
+
+    @Nested
+    class FindByHome {
+
+        @Test
+        void shouldOnlyReturnTheHomesDevices() {
+            dao.create(Device.builder().home("beach-house").name(DEVICE_NAME).deviceType(Device.DeviceType.LIGHT).deviceTypeId(1L).build());
+            dao.create(Device.builder().name(DEVICE_NAME).deviceType(Device.DeviceType.LIGHT).deviceTypeId(2L).build());
+
+            assertThat(dao.findByHome("beach-house"))
+                    .extracting("home", "deviceTypeId")
+                    .containsExactly(tuple("beach-house", 1L));
+            assertThat(dao.findByHome("default"))
+                    .extracting("home", "deviceTypeId")
+                    .containsExactly(tuple("default", 2L));
+        }
+    }
+
+    @Nested
+    class FindByNameAndType {
+
+        @Test
+        void shouldFindTheDevice_InTheGivenHome() {
+            dao.create(Device.builder().home("beach-house").name(DEVICE_NAME).deviceType(Device.DeviceType.LIGHT).deviceTypeId(1L).build());
+            dao.create(Device.builder().home("cabin").name(DEVICE_NAME).deviceType(Device.DeviceType.LIGHT).deviceTypeId(2L).build());
+
+            var device = dao.findByNameAndType("cabin", DEVICE_NAME, Device.DeviceType.LIGHT);
+
+            assertThat(device).isPresent();
+            assertThat(device.orElseThrow().getDeviceTypeId()).isEqualTo(2L);
+        }
+
+        @Test
+        void shouldNotFindTheDevice_InAnotherHome() {
+            dao.create(Device.builder().home("beach-house").name(DEVICE_NAME).deviceType(Device.DeviceType.LIGHT).deviceTypeId(1L).build());
+
+            assertThat(dao.findByNameAndType("default", DEVICE_NAME, Device.DeviceType.LIGHT)).isEmpty();
         }
     }
 
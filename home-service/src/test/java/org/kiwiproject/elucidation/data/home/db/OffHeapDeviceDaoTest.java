@@ -0,0 +1,92 @@
+package org.kiwiproject.elucidation.data.home.db;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.kiwiproject.elucidation.data.home.model.Device;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+@SuppressWarnings("java:S100")
+@DisplayName("OffHeapDeviceDao")
+class OffHeapDeviceDaoTest {
+
+    private static final String DEVICE_NAME = "Kitchen Light";
+
+    private OffHeapDeviceDao dao;
+
+    @BeforeEach
+    void setUp() {
+        dao = new OffHeapDeviceDao(2);
+    }
+
+    private long createDevice(String home, String name, Device.DeviceType type) {
+        return dao.create(Device.builder().home(home).name(name).deviceType(type).deviceTypeId(7L).build());
+    }
+
+    @Nested
+    class Create {
+
+        @Test
+        void shouldCreateNewDevice_InTheDefaultHome() {
+            var id = createDevice(null, DEVICE_NAME, Device.DeviceType.LIGHT);
+
+            assertThat(dao.findById(id)).get()
+                    .extracting("id", "home", "name", "deviceType", "deviceTypeId")
+                    .containsExactly(1L, "default", DEVICE_NAME, Device.DeviceType.LIGHT, 7L);
+        }
+    }
+
+    @Nested
+    class FindByHome {
+
+        @Test
+        void shouldOnlyReturnTheHomesDevices() {
+            createDevice("cabin", DEVICE_NAME, Device.DeviceType.LIGHT);
+            createDevice("default", DEVICE_NAME, Device.DeviceType.LIGHT);
+            createDevice("cabin", "Porch Camera", Device.DeviceType.CAMERA);
+
+            assertThat(dao.findByHome("cabin")).extracting("id").containsExactly(1L, 3L);
+            assertThat(dao.findAll()).hasSize(3);
+        }
+    }
+
+    @Nested
+    class FindByNameAndType {
+
+        @Test
+        void shouldFindTheDevice_InTheGivenHome() {
+            createDevice("cabin", DEVICE_NAME, Device.DeviceType.LIGHT);
+            createDevice("default", DEVICE_NAME, Device.DeviceType.LIGHT);
+            createDevice("default", DEVICE_NAME, Device.DeviceType.APPLIANCE);
+
+            assertThat(dao.findByNameAndType("default", DEVICE_NAME, Device.DeviceType.LIGHT)).get()
+                    .extracting("id").isEqualTo(2L);
+        }
+
+        @Test
+        void shouldNotFindTheDevice_InAnotherHome_OrOnceDeleted() {
+            var id = createDevice("cabin", DEVICE_NAME, Device.DeviceType.LIGHT);
+
+            assertThat(dao.findByNameAndType("default", DEVICE_NAME, Device.DeviceType.LIGHT)).isEmpty();
+            assertThat(dao.findByNameAndType(null, DEVICE_NAME, Device.DeviceType.LIGHT)).isEmpty();
+
+            dao.deleteDevice(id);
+            assertThat(dao.findByNameAndType("cabin", DEVICE_NAME, Device.DeviceType.LIGHT)).isEmpty();
+        }
+    }
+
+    @Nested
+    class DeleteDevice {
+
+        @Test
+        void shouldDeleteDeviceAndReturnUpdatedCount_WhenDeviceFound() {
+            var id = createDevice(null, DEVICE_NAME, Device.DeviceType.LIGHT);
+
+            assertThat(dao.deleteDevice(id)).isOne();
+            assertThat(dao.findById(id)).isEmpty();
+            assertThat(dao.deleteDevice(id)).isZero();
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package org.kiwiproject.elucidation.data.home.db;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.kiwiproject.elucidation.data.home.model.Workflow;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+@SuppressWarnings("java:S100")
+@DisplayName("OffHeapWorkflowDao")
+class OffHeapWorkflowDaoTest {
+
+    private static final String WORKFLOW_NAME = "Good Morning";
+    private static final String STEP_JSON = "[{\"deviceName\":\"Kitchen Light\"}]";
+
+    private OffHeapWorkflowDao dao;
+
+    @BeforeEach
+    void setUp() {
+        dao = new OffHeapWorkflowDao(2);
+    }
+
+    private long createWorkflow(String home, String name) {
+        return dao.create(Workflow.builder().home(home).name(name).stepJson(STEP_JSON).build());
+    }
+
+    @Nested
+    class Create {
+
+        @Test
+        void shouldCreateNewWorkflow_InTheDefaultHome() {
+            var id = createWorkflow(null, WORKFLOW_NAME);
+
+            assertThat(dao.findById(id)).get()
+                    .extracting("id", "home", "name", "stepJson")
+                    .containsExactly(1L, "default", WORKFLOW_NAME, STEP_JSON);
+        }
+    }
+
+    @Nested
+    class FindByName {
+
+        @Test
+        void shouldFindTheWorkflow_InTheGivenHome() {
+            createWorkflow("cabin", WORKFLOW_NAME);
+            createWorkflow("default", WORKFLOW_NAME);
+            createWorkflow("default", "Good Night");
+
+            assertThat(dao.findByName("default", WORKFLOW_NAME)).get().extracting("id").isEqualTo(2L);
+            assertThat(dao.findByName("lake", WORKFLOW_NAME)).isEmpty();
+            assertThat(dao.findByHome("default")).extracting("name").containsExactly(WORKFLOW_NAME, "Good Night");
+        }
+    }
+
+    @Nested
+    class DeleteWorkflow {
+
+        @Test
+        void shouldDeleteWorkflowAndReturnUpdatedCount_WhenWorkflowFound() {
+            var id = createWorkflow(null, WORKFLOW_NAME);
+
+            assertThat(dao.deleteWorkflow(id)).isOne();
+            assertThat(dao.findByName("default", WORKFLOW_NAME)).isEmpty();
+            assertThat(dao.findAll()).isEmpty();
+            assertThat(dao.deleteWorkflow(id)).isZero();
+        }
+    }
+}
@@ -54,7 +54,7 @@ class WorkflowDaoTest {
 
         var conn = dataSource.getConnection();
         var database = DatabaseFactory.getInstance().findCorrectDatabaseImplementation(new JdbcConnection(conn));
-        liquibase = new Liquibase("migrations.xml", new ClassLoaderResourceAccessor(), database);
+        liquibase = new Liquibase("migrations/home.xml", new ClassLoaderResourceAccessor(), database);
     }
 
     @BeforeEach
@@ -138,8 +138,31 @@ class WorkflowDaoTest {
 
             assertThat(workflows)
                     .hasSize(1)
-                    .extracting("id", "name")
-                    .contains(tuple(id, WORKFLOW_NAME));
+                    .extracting("id", "name", "home")
+                    .contains(tuple(id, WORKFLOW_NAME, "default"));
+        }
+    }
+
+    @Nested
+    class FindByName {
+
+        @Test
+        void shouldFindTheWorkflow_InTheGivenHome() {
+            dao.create(Workflow.builder().home("beach-house").name(WORKFLOW_NAME).stepJson(workflowStepJson).build());
+            var id = dao.create(Workflow.builder().home("cabin").name(WORKFLOW_NAME).stepJson(workflowStepJson).build());
+
+            var workflow = dao.findByName("cabin", WORKFLOW_NAME);
+
+            assertThat(workflow).isPresent();
+            assertThat(workflow.orElseThrow().getId()).isEqualTo(id);
+        }
+
+        @Test
+        void shouldNotFindTheWorkflow_InAnotherHome() {
+            dao.create(Workflow.builder().home("beach-house").name(WORKFLOW_NAME).stepJson(workflowStepJson).build());
+
+            assertThat(dao.findByName("default", WORKFLOW_NAME)).isEmpty();
+            assertThat(dao.findByHome("beach-house")).extracting("name").containsExactly(WORKFLOW_NAME);
         }
     }
 
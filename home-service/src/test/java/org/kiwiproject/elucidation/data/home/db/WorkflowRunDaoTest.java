@@ -0,0 +1,136 @@
+package org.kiwiproject.elucidation.data.home.db;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import org.kiwiproject.elucidation.data.home.model.Device;
+import org.kiwiproject.elucidation.data.home.model.WorkflowRun;
+import org.kiwiproject.elucidation.data.home.model.WorkflowStepRun;
+import liquibase.Contexts;
+import liquibase.Liquibase;
+import liquibase.database.DatabaseFactory;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.exception.DatabaseException;
+import liquibase.exception.LiquibaseException;
+import liquibase.resource.ClassLoaderResourceAccessor;
+import org.jdbi.v3.core.Jdbi;
+import org.jdbi.v3.sqlobject.SqlObjectPlugin;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.sqlite.SQLiteDataSource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.List;
+
+@SuppressWarnings("java:S100")
+@DisplayName("WorkflowRunDao")
+class WorkflowRunDaoTest {
+
+    private static SQLiteDataSource dataSource;
+    private static Liquibase liquibase;
+
+    private WorkflowRunDao dao;
+
+    @BeforeAll
+    static void migrationSetup() throws SQLException, DatabaseException {
+        dataSource = new SQLiteDataSource();
+        dataSource.setUrl("jdbc:sqlite:unit-runs.db");
+
+        var conn = dataSource.getConnection();
+        var database = DatabaseFactory.getInstance().findCorrectDatabaseImplementation(new JdbcConnection(conn));
+        liquibase = new Liquibase("migrations/home.xml", new ClassLoaderResourceAccessor(), database);
+    }
+
+    @BeforeEach
+    void setupJdbi() throws LiquibaseException {
+        liquibase.update(new Contexts());
+
+        var jdbi = Jdbi.create(dataSource);
+        jdbi.installPlugin(new SqlObjectPlugin());
+        dao = jdbi.onDemand(WorkflowRunDao.class);
+    }
+
+    @AfterAll
+    static void cleanupDatabase() throws IOException {
+        Files.deleteIfExists(Path.of("./unit-runs.db"));
+    }
+
+    @AfterEach
+    void dropDbRecords() throws DatabaseException {
+        liquibase.dropAll();
+    }
+
+    private static WorkflowRun run(long workflowId, long startedAt, WorkflowStepRun... steps) {
+        return WorkflowRun.builder()
+                .workflowId(workflowId)
+                .correlationId("run-" + startedAt)
+                .startedAt(startedAt)
+                .finishedAt(startedAt + 100)
+                .steps(List.of(steps))
+                .build();
+    }
+
+    private static WorkflowStepRun step(int stepIndex, boolean deviceFound, Long publishedAt) {
+        return WorkflowStepRun.builder()
+                .stepIndex(stepIndex)
+                .description("Step " + stepIndex)
+                .deviceName("Kitchen Light")
+                .deviceType(Device.DeviceType.LIGHT)
+                .deviceFound(deviceFound)
+                .publishedAt(publishedAt)
+                .publishMicros(publishedAt == null ? null : 250L)
+                .build();
+    }
+
+    @Nested
+    class CreateAll {
+
+        @Test
+        void shouldSaveTheRunsAndTheirSteps() {
+            dao.createAll(List.of(
+                    run(1, 1_000, step(0, true, 1_010L), step(1, false, null)),
+                    run(2, 2_000)));
+
+            assertThat(dao.findRecentRuns(1, 10))
+                    .extracting("workflowId", "correlationId", "startedAt", "finishedAt", "durationMillis")
+                    .containsExactly(tuple(1L, "run-1000", 1_000L, 1_100L, 100L));
+
+            assertThat(dao.findRecentStepRuns(1, 10))
+                    .extracting("stepIndex", "deviceType", "deviceFound", "publishedAt", "publishMicros")
+                    .containsExactly(
+                            tuple(0, Device.DeviceType.LIGHT, true, 1_010L, 250L),
+                            tuple(1, Device.DeviceType.LIGHT, false, null, null));
+        }
+    }
+
+    @Nested
+    class FindRecent {
+
+        @Test
+        void shouldReturnOnlyTheMostRecentRuns_AndTheirSteps() {
+            dao.createAll(List.of(
+                    run(1, 1_000, step(0, true, 1_001L)),
+                    run(1, 2_000, step(0, true, 2_001L)),
+                    run(1, 3_000, step(0, true, 3_001L))));
+
+            assertThat(dao.findRecentRuns(1, 2)).extracting("startedAt").containsExactly(3_000L, 2_000L);
+            assertThat(dao.findRecentStepRuns(1, 2)).extracting("publishedAt").containsExactly(2_001L, 3_001L);
+        }
+
+        @Test
+        void shouldReturnNothing_ForAWorkflowWithoutRuns() {
+            dao.createAll(List.of(run(1, 1_000, step(0, true, 1_001L))));
+
+            assertThat(dao.findRecentRuns(2, 10)).isEmpty();
+            assertThat(dao.findRecentStepRuns(2, 10)).isEmpty();
+        }
+    }
+}
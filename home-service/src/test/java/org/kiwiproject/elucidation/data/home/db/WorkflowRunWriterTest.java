@@ -0,0 +1,75 @@
+package org.kiwiproject.elucidation.data.home.db;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+
+import com.codahale.metrics.MetricRegistry;
+import org.kiwiproject.elucidation.data.home.model.WorkflowRun;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+@SuppressWarnings("java:S100")
+@DisplayName("WorkflowRunWriter")
+class WorkflowRunWriterTest {
+
+    private WorkflowRunDao dao;
+    private MetricRegistry metrics;
+    private List<Integer> batches;
+
+    @BeforeEach
+    void setUp() {
+        dao = mock(WorkflowRunDao.class);
+        metrics = new MetricRegistry();
+        batches = new ArrayList<>();
+
+        doAnswer(invocation -> batches.add(invocation.<List<?>>getArgument(0).size()))
+                .when(dao).createAll(anyList());
+    }
+
+    private static WorkflowRun run(long startedAt) {
+        return WorkflowRun.builder().workflowId(1L).startedAt(startedAt).finishedAt(startedAt).build();
+    }
+
+    @Test
+    void shouldWriteQueuedRunsInBatches_AndWriteTheRestWhenStopped() throws Exception {
+        var writer = new WorkflowRunWriter(dao, metrics, 100, 10);
+        IntStream.range(0, 25).forEach(i -> writer.save(run(i)));
+
+        writer.start();
+        writer.stop();
+
+        assertThat(batches).containsExactly(10, 10, 5);
+        assertThat(metrics.histogram("org.kiwiproject.elucidation.data.home.db.WorkflowRunWriter.batchSize").getCount()).isEqualTo(3);
+    }
+
+    @Test
+    void shouldDropRuns_WhenTheQueueIsFull() {
+        var writer = new WorkflowRunWriter(dao, metrics, 2, 10);
+
+        assertThat(writer.save(run(1))).isTrue();
+        assertThat(writer.save(run(2))).isTrue();
+        assertThat(writer.save(run(3))).isFalse();
+        assertThat(metrics.counter("org.kiwiproject.elucidation.data.home.db.WorkflowRunWriter.dropped").getCount()).isOne();
+    }
+
+    @Test
+    void shouldCountFailedRuns_AndKeepWriting() throws Exception {
+        doThrow(new IllegalStateException("database is locked")).when(dao).createAll(anyList());
+
+        var writer = new WorkflowRunWriter(dao, metrics, 100, 10);
+        IntStream.range(0, 15).forEach(i -> writer.save(run(i)));
+
+        writer.start();
+        writer.stop();
+
+        assertThat(metrics.counter("org.kiwiproject.elucidation.data.home.db.WorkflowRunWriter.failed").getCount()).isEqualTo(15);
+    }
+}
@@ -1,11 +1,14 @@
 package org.kiwiproject.elucidation.data.home.resource;
 
 import static com.google.common.collect.Lists.newArrayList;
+import static java.util.Objects.nonNull;
 import static javax.ws.rs.client.Entity.json;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.tuple;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -13,6 +16,7 @@ import static org.mockito.Mockito.when;
 import org.kiwiproject.elucidation.client.ElucidationRecorder;
 import org.kiwiproject.elucidation.client.ElucidationResult;
 import org.kiwiproject.elucidation.common.model.ConnectionEvent;
+import org.kiwiproject.elucidation.data.common.shard.HomeShards;
 import org.kiwiproject.elucidation.data.home.db.DeviceDao;
 import org.kiwiproject.elucidation.data.home.model.Device;
 import io.dropwizard.testing.junit5.DropwizardClientExtension;
@@ -27,9 +31,11 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import javax.ws.rs.client.Client;
 import javax.ws.rs.client.ClientBuilder;
 import javax.ws.rs.core.GenericType;
+import javax.ws.rs.core.Response;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 
 @SuppressWarnings("java:S100")
@@ -39,9 +45,10 @@ class DeviceResourceTest {
 
     private static final DeviceDao DEVICE_DAO = mock(DeviceDao.class);
     private static final ElucidationRecorder RECORDER = mock(ElucidationRecorder.class);
+    private static final HomeShards SHARDS = ShardFixtures.owningTheDefaultHome();
 
     private static final DropwizardClientExtension RESOURCE
-            = new DropwizardClientExtension(new DeviceResource(DEVICE_DAO));
+            = new DropwizardClientExtension(new DeviceResource(DEVICE_DAO, SHARDS));
     private static final String NAME = "My First Device";
 
     private Client client;
@@ -107,6 +114,25 @@ class DeviceResourceTest {
 
             assertThat(devices).isEmpty();
         }
+
+        @Test
+        void shouldOnlyListTheHomesDevices_WhenGivenAHome() {
+            var home = ShardFixtures.homeOnThisShard(SHARDS);
+            var device = Device.builder().id(1L).home(home).name(NAME).deviceType(Device.DeviceType.LIGHT).deviceTypeId(10L).build();
+            when(DEVICE_DAO.findByHome(home)).thenReturn(List.of(device));
+
+            var response = client
+                    .target(RESOURCE.baseUri())
+                    .path("home/device")
+                    .queryParam("home", home)
+                    .request()
+                    .get();
+
+            assertThat(response.getStatus()).isEqualTo(200);
+            assertThat(response.readEntity(new GenericType<List<Device>>(){}))
+                    .extracting("home", "name")
+                    .containsExactly(tuple(home, NAME));
+        }
     }
 
     @Nested
@@ -131,24 +157,101 @@ class DeviceResourceTest {
             assertThat(response.getStatus()).isEqualTo(201);
             assertThat(response.readEntity(new GenericType<Map<String, Long>>(){}).get("id")).isEqualTo(1L);
         }
+
+        @Test
+        void shouldReturn421_WhenTheHomeIsOnAnotherShard() {
+            var device = Device.builder()
+                    .home(ShardFixtures.homeOnTheOtherShard(SHARDS))
+                    .name(NAME)
+                    .deviceType(Device.DeviceType.THERMOSTAT)
+                    .deviceTypeId(20L)
+                    .build();
+
+            var response = client
+                    .target(RESOURCE.baseUri())
+                    .path("home/device/register")
+                    .request()
+                    .post(json(device));
+
+            assertThat(response.getStatus()).isEqualTo(421);
+            verify(DEVICE_DAO, never()).create(any(Device.class));
+        }
     }
 
     @Nested
-    class DeleteDevice {
+    class RecordDeviceEvent {
 
         @Test
-        void shouldDeleteDevice() {
-            when(DEVICE_DAO.deleteDevice(1L)).thenReturn(1);
+        void shouldLookTheDeviceUp_InTheGivenHome() {
+            var home = ShardFixtures.homeOnThisShard(SHARDS);
 
             var response = client
                     .target(RESOURCE.baseUri())
-                    .path("home/device/{id}")
-                    .resolveTemplate("id", 1L)
+                    .path("home/device/record/event/LIGHT/{name}")
+                    .resolveTemplate("name", NAME)
+                    .queryParam("home", home)
                     .request()
-                    .delete();
+                    .put(json(""));
+
+            assertThat(response.getStatus()).isEqualTo(202);
+            verify(DEVICE_DAO).findByNameAndType(home, NAME, Device.DeviceType.LIGHT);
+        }
+
+        @Test
+        void shouldUseTheDefaultHome_WhenNotGivenOne() {
+            var response = client
+                    .target(RESOURCE.baseUri())
+                    .path("home/device/record/event/LIGHT/{name}")
+                    .resolveTemplate("name", NAME)
+                    .request()
+                    .put(json(""));
+
+            assertThat(response.getStatus()).isEqualTo(202);
+            verify(DEVICE_DAO).findByNameAndType(HomeShards.DEFAULT_HOME, NAME, Device.DeviceType.LIGHT);
+        }
+    }
+
+    @Nested
+    class DeleteDevice {
+
+        @Test
+        void shouldDeleteDevice() {
+            when(DEVICE_DAO.findById(1L)).thenReturn(Optional.of(Device.builder().id(1L).build()));
+            when(DEVICE_DAO.deleteDevice(1L)).thenReturn(1);
+
+            var response = delete(1L, null);
 
             assertThat(response.getStatus()).isEqualTo(202);
             verify(DEVICE_DAO).deleteDevice(1L);
         }
+
+        @Test
+        void shouldReturn404_WhenTheDeviceIsInAnotherHome() {
+            when(DEVICE_DAO.findById(1L)).thenReturn(Optional.of(Device.builder().id(1L).home("elsewhere").build()));
+
+            var response = delete(1L, null);
+
+            assertThat(response.getStatus()).isEqualTo(404);
+            verify(DEVICE_DAO, never()).deleteDevice(anyLong());
+        }
+
+        @Test
+        void shouldReturn421_ForAHomeOnAnotherShard() {
+            var response = delete(1L, ShardFixtures.homeOnTheOtherShard(SHARDS));
+
+            assertThat(response.getStatus()).isEqualTo(421);
+            verify(DEVICE_DAO, never()).deleteDevice(anyLong());
+        }
+
+        private Response delete(long id, String home) {
+            var target = client
+                    .target(RESOURCE.baseUri())
+                    .path("home/device/{id}")
+                    .resolveTemplate("id", id);
+            if (nonNull(home)) {
+                target = target.queryParam("home", home);
+            }
+            return target.request().delete();
+        }
     }
 }
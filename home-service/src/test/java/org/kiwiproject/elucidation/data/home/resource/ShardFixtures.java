@@ -0,0 +1,39 @@
+package org.kiwiproject.elucidation.data.home.resource;
+
+import org.kiwiproject.elucidation.data.common.shard.HomeShards;
+import org.kiwiproject.elucidation.data.common.shard.ShardConfig;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Two home shards, seen from the one that owns the default home, so requests without a home are served as before.
+ */
+final class ShardFixtures {
+
+    private ShardFixtures() {
+    }
+
+    static HomeShards owningTheDefaultHome() {
+        var config = new ShardConfig();
+        config.setShards(List.of("http://home-0:8080", "http://home-1:8080"));
+        config.setIndex(new HomeShards(config).shardOf(HomeShards.DEFAULT_HOME));
+        return new HomeShards(config);
+    }
+
+    static String homeOnTheOtherShard(HomeShards shards) {
+        return IntStream.iterate(0, i -> i + 1)
+                .mapToObj(i -> "home-" + i)
+                .filter(home -> !shards.owns(home))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    static String homeOnThisShard(HomeShards shards) {
+        return IntStream.iterate(0, i -> i + 1)
+                .mapToObj(i -> "home-" + i)
+                .filter(shards::owns)
+                .findFirst()
+                .orElseThrow();
+    }
+}
@@ -5,7 +5,9 @@ import static javax.ws.rs.client.Entity.json;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.tuple;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -13,8 +15,14 @@ import static org.mockito.Mockito.when;
 import org.kiwiproject.elucidation.client.ElucidationRecorder;
 import org.kiwiproject.elucidation.client.ElucidationResult;
 import org.kiwiproject.elucidation.common.model.ConnectionEvent;
+import org.kiwiproject.elucidation.data.common.shard.HomeShards;
 import org.kiwiproject.elucidation.data.home.db.WorkflowDao;
+import org.kiwiproject.elucidation.data.home.db.WorkflowRunDao;
+import org.kiwiproject.elucidation.data.home.model.Device;
 import org.kiwiproject.elucidation.data.home.model.Workflow;
+import org.kiwiproject.elucidation.data.home.model.WorkflowRun;
+import org.kiwiproject.elucidation.data.home.model.WorkflowStepRun;
+import org.kiwiproject.elucidation.data.home.service.WorkflowRejectedException;
 import org.kiwiproject.elucidation.data.home.service.WorkflowService;
 import io.dropwizard.testing.junit5.DropwizardClientExtension;
 import io.dropwizard.testing.junit5.DropwizardExtensionsSupport;
@@ -28,9 +36,11 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import javax.ws.rs.client.Client;
 import javax.ws.rs.client.ClientBuilder;
 import javax.ws.rs.core.GenericType;
+import javax.ws.rs.core.Response;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 
 @SuppressWarnings("java:S100")
@@ -39,11 +49,13 @@ import java.util.concurrent.CompletableFuture;
 class WorkflowResourceTest {
 
     private static final WorkflowDao WORKFLOW_DAO = mock(WorkflowDao.class);
+    private static final WorkflowRunDao WORKFLOW_RUN_DAO = mock(WorkflowRunDao.class);
     private static final ElucidationRecorder RECORDER = mock(ElucidationRecorder.class);
     private static final WorkflowService SERVICE = mock(WorkflowService.class);
+    private static final HomeShards SHARDS = ShardFixtures.owningTheDefaultHome();
 
     private static final DropwizardClientExtension RESOURCE
-            = new DropwizardClientExtension(new WorkflowResource(WORKFLOW_DAO, SERVICE));
+            = new DropwizardClientExtension(new WorkflowResource(WORKFLOW_DAO, WORKFLOW_RUN_DAO, SERVICE, SHARDS));
     private static final String NAME = "My First Workflow";
 
     private Client client;
@@ -56,7 +68,7 @@ class WorkflowResourceTest {
 
     @AfterEach
     void clearMocks() {
-        reset(WORKFLOW_DAO);
+        reset(WORKFLOW_DAO, WORKFLOW_RUN_DAO, SERVICE);
     }
 
     @Nested
@@ -137,6 +149,7 @@ class WorkflowResourceTest {
 
         @Test
         void shouldDeleteWorkflow() {
+            when(WORKFLOW_DAO.findById(1L)).thenReturn(Optional.of(Workflow.builder().id(1L).name(NAME).build()));
             when(WORKFLOW_DAO.deleteWorkflow(1L)).thenReturn(1);
 
             var response = client
@@ -149,5 +162,182 @@ class WorkflowResourceTest {
             assertThat(response.getStatus()).isEqualTo(202);
             verify(WORKFLOW_DAO).deleteWorkflow(1L);
         }
+
+        @Test
+        void shouldReturn404_WhenTheWorkflowIsInAnotherHome() {
+            var home = ShardFixtures.homeOnThisShard(SHARDS);
+            when(WORKFLOW_DAO.findById(1L)).thenReturn(Optional.of(Workflow.builder().id(1L).name(NAME).build()));
+
+            var response = client
+                    .target(RESOURCE.baseUri())
+                    .path("home/workflow/{id}")
+                    .resolveTemplate("id", 1L)
+                    .queryParam("home", home)
+                    .request()
+                    .delete();
+
+            assertThat(response.getStatus()).isEqualTo(404);
+            verify(WORKFLOW_DAO, never()).deleteWorkflow(1L);
+        }
+    }
+
+    @Nested
+    class TriggerWorkflow {
+
+        private final Workflow workflow = Workflow.builder().id(1L).name(NAME).stepJson("[]").build();
+
+        @BeforeEach
+        void setUp() {
+            when(WORKFLOW_DAO.findByName(HomeShards.DEFAULT_HOME, NAME)).thenReturn(Optional.of(workflow));
+        }
+
+        private Response trigger() {
+            return client
+                    .target(RESOURCE.baseUri())
+                    .path("home/workflow/trigger/byName/{name}")
+                    .resolveTemplate("name", NAME)
+                    .request()
+                    .put(json(""));
+        }
+
+        @Test
+        void shouldRunTheWorkflow_AndReturn202() {
+            var response = trigger();
+
+            assertThat(response.getStatus()).isEqualTo(202);
+            verify(SERVICE).runWorkflow(workflow);
+        }
+
+        @Test
+        void shouldReturn429_WithRetryAfter_WhenTheWorkflowIsBusy() {
+            doThrow(new WorkflowRejectedException(WorkflowRejectedException.Reason.WORKFLOW_BUSY, 3))
+                    .when(SERVICE).runWorkflow(workflow);
+
+            var response = trigger();
+
+            assertThat(response.getStatus()).isEqualTo(429);
+            assertThat(response.getHeaderString("Retry-After")).isEqualTo("3");
+        }
+
+        @Test
+        void shouldReturn503_WithRetryAfter_WhenHomeIsSaturated() {
+            doThrow(new WorkflowRejectedException(WorkflowRejectedException.Reason.QUEUE_FULL, 1))
+                    .when(SERVICE).runWorkflow(workflow);
+
+            var response = trigger();
+
+            assertThat(response.getStatus()).isEqualTo(503);
+            assertThat(response.getHeaderString("Retry-After")).isEqualTo("1");
+        }
+
+        @Test
+        void shouldReturn421_WhenTheHomeIsOnAnotherShard() {
+            var response = client
+                    .target(RESOURCE.baseUri())
+                    .path("home/workflow/trigger/byName/{name}")
+                    .resolveTemplate("name", NAME)
+                    .queryParam("home", ShardFixtures.homeOnTheOtherShard(SHARDS))
+                    .request()
+                    .put(json(""));
+
+            assertThat(response.getStatus()).isEqualTo(421);
+            verify(SERVICE, never()).runWorkflow(any(Workflow.class));
+        }
+
+        @Test
+        void shouldReturn404_WhenTriggeringById_AWorkflowInAnotherHome() {
+            var home = ShardFixtures.homeOnThisShard(SHARDS);
+            when(WORKFLOW_DAO.findById(1L)).thenReturn(Optional.of(workflow));
+
+            var response = client
+                    .target(RESOURCE.baseUri())
+                    .path("home/workflow/trigger/byId/1")
+                    .queryParam("home", home)
+                    .request()
+                    .put(json(""));
+
+            assertThat(response.getStatus()).isEqualTo(404);
+            verify(SERVICE, never()).runWorkflow(any(Workflow.class));
+        }
+    }
+
+    @Nested
+    class GetWorkflowRuns {
+
+        @Test
+        void shouldReturnPercentileTimings_OfTheRecentRuns() {
+            when(WORKFLOW_DAO.findById(1L)).thenReturn(Optional.of(Workflow.builder().id(1L).name(NAME).build()));
+            when(WORKFLOW_RUN_DAO.findRecentRuns(1L, 1000)).thenReturn(List.of(
+                    WorkflowRun.builder().id(2L).workflowId(1L).startedAt(2_000).finishedAt(2_300).build(),
+                    WorkflowRun.builder().id(1L).workflowId(1L).startedAt(1_000).finishedAt(1_100).build()));
+            when(WORKFLOW_RUN_DAO.findRecentStepRuns(1L, 1000)).thenReturn(List.of(
+                    stepRun(1L, 0, true, 1_010L, 400L),
+                    stepRun(1L, 1, false, null, null),
+                    stepRun(2L, 0, true, 2_050L, 800L),
+                    stepRun(2L, 1, true, 2_250L, 600L)));
+
+            var response = client
+                    .target(RESOURCE.baseUri())
+                    .path("home/workflow/{id}/runs")
+                    .resolveTemplate("id", 1L)
+                    .request()
+                    .get();
+
+            assertThat(response.getStatus()).isEqualTo(200);
+
+            var stats = response.readEntity(new GenericType<Map<String, Object>>(){});
+            assertThat(stats).containsEntry("runs", 2)
+                    .containsEntry("durationMillis", Map.of("p50", 100, "p90", 300, "p99", 300, "max", 300));
+
+            @SuppressWarnings("unchecked")
+            var steps = (List<Map<String, Object>>) stats.get("steps");
+            assertThat(steps)
+                    .extracting("stepIndex", "runs", "devicesNotFound", "unpublished")
+                    .containsExactly(tuple(0, 2, 0, 0), tuple(1, 2, 1, 1));
+            assertThat(steps.get(0))
+                    .containsEntry("publishedAfterMillis", Map.of("p50", 10, "p90", 50, "p99", 50, "max", 50))
+                    .containsEntry("publishMicros", Map.of("p50", 400, "p90", 800, "p99", 800, "max", 800));
+        }
+
+        @Test
+        void shouldReturn404_WhenTheWorkflowDoesNotExist() {
+            when(WORKFLOW_DAO.findById(1L)).thenReturn(Optional.empty());
+
+            var response = client
+                    .target(RESOURCE.baseUri())
+                    .path("home/workflow/{id}/runs")
+                    .resolveTemplate("id", 1L)
+                    .request()
+                    .get();
+
+            assertThat(response.getStatus()).isEqualTo(404);
+        }
+
+        @Test
+        void shouldReturn400_WhenTheLimitIsNotPositive() {
+            var response = client
+                    .target(RESOURCE.baseUri())
+                    .path("home/workflow/{id}/runs")
+                    .resolveTemplate("id", 1L)
+                    .queryParam("limit", -1)
+                    .request()
+                    .get();
+
+            assertThat(response.getStatus()).isEqualTo(400);
+            verify(WORKFLOW_RUN_DAO, never()).findRecentRuns(1L, -1);
+        }
+
+        private WorkflowStepRun stepRun(long runId, int stepIndex, boolean deviceFound, Long publishedAt, Long publishMicros) {
+            return WorkflowStepRun.builder()
+                    .runId(runId)
+                    .stepIndex(stepIndex)
+                    .description("Step " + stepIndex)
+                    .deviceName("Kitchen Light")
+                    .deviceType(Device.DeviceType.LIGHT)
+                    .deviceFound(deviceFound)
+                    .publishedAt(publishedAt)
+                    .publishMicros(publishMicros)
+                    .build();
+        }
     }
 }
@@ -0,0 +1,96 @@
+package org.kiwiproject.elucidation.data.home.resource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.kiwiproject.elucidation.data.home.db.WorkflowDao;
+import org.kiwiproject.elucidation.data.home.db.WorkflowScheduleDao;
+import org.kiwiproject.elucidation.data.home.model.WorkflowSchedule;
+import org.kiwiproject.elucidation.data.home.service.WorkflowScheduler;
+import io.dropwizard.testing.junit5.DropwizardClientExtension;
+import io.dropwizard.testing.junit5.DropwizardExtensionsSupport;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import javax.ws.rs.client.Client;
+import javax.ws.rs.client.ClientBuilder;
+import javax.ws.rs.core.Response;
+import java.util.Optional;
+
+@SuppressWarnings("java:S100")
+@DisplayName("WorkflowScheduleResource")
+@ExtendWith(DropwizardExtensionsSupport.class)
+class WorkflowScheduleResourceTest {
+
+    private static final WorkflowDao WORKFLOW_DAO = mock(WorkflowDao.class);
+    private static final WorkflowScheduleDao SCHEDULE_DAO = mock(WorkflowScheduleDao.class);
+    private static final WorkflowScheduler SCHEDULER = mock(WorkflowScheduler.class);
+
+    private static final DropwizardClientExtension RESOURCE
+            = new DropwizardClientExtension(new WorkflowScheduleResource(WORKFLOW_DAO, SCHEDULE_DAO, SCHEDULER));
+
+    private Client client;
+
+    @BeforeEach
+    void setUp() {
+        client = ClientBuilder.newClient();
+    }
+
+    @AfterEach
+    void clearMocks() {
+        reset(WORKFLOW_DAO, SCHEDULE_DAO, SCHEDULER);
+    }
+
+    @Nested
+    class DeleteSchedule {
+
+        @BeforeEach
+        void setUp() {
+            var schedule = WorkflowSchedule.builder().id(7L).workflowId(1L).intervalSeconds(60L).build();
+            when(SCHEDULE_DAO.findById(7L)).thenReturn(Optional.of(schedule));
+        }
+
+        @Test
+        void shouldDeleteTheSchedule() {
+            var response = delete(1L, 7L);
+
+            assertThat(response.getStatus()).isEqualTo(202);
+            verify(SCHEDULER).remove(7L);
+        }
+
+        @Test
+        void shouldReturn404_WhenTheScheduleBelongsToAnotherWorkflow() {
+            var response = delete(2L, 7L);
+
+            assertThat(response.getStatus()).isEqualTo(404);
+            verify(SCHEDULER, never()).remove(anyLong());
+        }
+
+        @Test
+        void shouldReturn404_WhenThereIsNoSuchSchedule() {
+            var response = delete(1L, 8L);
+
+            assertThat(response.getStatus()).isEqualTo(404);
+            verify(SCHEDULER, never()).remove(anyLong());
+        }
+
+        private Response delete(long workflowId, long scheduleId) {
+            return client
+                    .target(RESOURCE.baseUri())
+                    .path("home/workflow/{workflowId}/schedules/{scheduleId}")
+                    .resolveTemplate("workflowId", workflowId)
+                    .resolveTemplate("scheduleId", scheduleId)
+                    .request()
+                    .delete();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package org.kiwiproject.elucidation.data.home.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+
+@SuppressWarnings("java:S100")
+@DisplayName("CronExpression")
+class CronExpressionTest {
+
+    // A Saturday
+    private static final ZonedDateTime START = ZonedDateTime.of(2022, 1, 1, 10, 30, 15, 0, ZoneOffset.UTC);
+
+    @Nested
+    class Next {
+
+        @ParameterizedTest
+        @CsvSource({
+                "* * * * *, 2022-01-01T10:31Z",
+                "*/15 * * * *, 2022-01-01T10:45Z",
+                "0 7 * * *, 2022-01-02T07:00Z",
+                "30 10 * * *, 2022-01-02T10:30Z",
+                "0 7 * * MON-FRI, 2022-01-03T07:00Z",
+                "0 7 * * 7, 2022-01-02T07:00Z",
+                "0 0 1 */3 *, 2022-04-01T00:00Z",
+                "0 9 29 FEB *, 2024-02-29T09:00Z",
+                "'0,45 8-9 * * *', 2022-01-02T08:00Z",
+        })
+        void shouldFindTheNextMatchingMinute(String expression, String expected) {
+            var next = CronExpression.parse(expression).next(START);
+
+            assertThat(next).isEqualTo(ZonedDateTime.parse(expected));
+        }
+
+        @Test
+        void shouldMatchEitherDay_WhenDayOfMonthAndDayOfWeekAreBothRestricted() {
+            // the 15th, or any Monday
+            var cron = CronExpression.parse("0 0 15 * MON");
+
+            assertThat(cron.next(START)).isEqualTo(ZonedDateTime.parse("2022-01-03T00:00Z"));
+            assertThat(cron.next(ZonedDateTime.parse("2022-01-10T00:00Z"))).isEqualTo(ZonedDateTime.parse("2022-01-15T00:00Z"));
+        }
+
+        @Test
+        void shouldThrow_WhenTheExpressionNeverMatches() {
+            var cron = CronExpression.parse("0 0 30 2 *");
+
+            assertThatThrownBy(() -> cron.next(START))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining("never matches");
+        }
+    }
+
+    @Nested
+    class Parse {
+
+        @ParameterizedTest
+        @ValueSource(strings = {"", "* * * *", "60 * * * *", "* 24 * * *", "5-1 * * * *", "* * * FOO *", "*/0 * * * *"})
+        void shouldRejectInvalidExpressions(String expression) {
+            assertThatThrownBy(() -> CronExpression.parse(expression))
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package org.kiwiproject.elucidation.data.home.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+@SuppressWarnings("java:S100")
+@DisplayName("TimingWheel")
+class TimingWheelTest {
+
+    private static final long START = 1_000_000;
+
+    private TimingWheel<String> wheel;
+    private List<String> fired;
+
+    @BeforeEach
+    void setUp() {
+        wheel = new TimingWheel<>(1000, 4, START);
+        fired = new ArrayList<>();
+    }
+
+    private void advanceTo(long millis) {
+        wheel.advance(millis, entry -> fired.add(entry.getValue()));
+    }
+
+    @Test
+    void shouldFireEntries_OnlyOnceTheirDeadlineHasPassed() {
+        wheel.add("soon", START + 1500);
+        wheel.add("later", START + 5000);
+
+        advanceTo(START + 1999);
+        assertThat(fired).isEmpty();
+
+        advanceTo(START + 2000);
+        assertThat(fired).containsExactly("soon");
+
+        advanceTo(START + 10_000);
+        assertThat(fired).containsExactly("soon", "later");
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void shouldFireEntriesOnHigherLevels_AtTheRightTick() {
+        var deadlines = List.of(
+                START + TimeUnit.MINUTES.toMillis(2),
+                START + TimeUnit.HOURS.toMillis(3),
+                START + TimeUnit.DAYS.toMillis(20),
+                START + TimeUnit.DAYS.toMillis(400));
+        deadlines.forEach(deadline -> wheel.add(String.valueOf(deadline), deadline));
+
+        for (var deadline : deadlines) {
+            advanceTo(deadline - 1000);
+            assertThat(fired).doesNotContain(String.valueOf(deadline));
+
+            advanceTo(deadline);
+            assertThat(fired).endsWith(String.valueOf(deadline));
+        }
+    }
+
+    @Test
+    void shouldFireEntriesThatAreAlreadyDue_OnTheNextTick() {
+        wheel.add("overdue", START - 60_000);
+
+        advanceTo(START + 1000);
+
+        assertThat(fired).containsExactly("overdue");
+    }
+
+    @Test
+    void shouldNotFireCancelledEntries() {
+        wheel.add("kept", START + 3000);
+        wheel.add("cancelled", START + 3000).cancel();
+
+        advanceTo(START + 3000);
+
+        assertThat(fired).containsExactly("kept");
+    }
+
+    @Test
+    void shouldFireEveryEntry_WhenManyShareADeadline() {
+        var deadline = START + TimeUnit.MINUTES.toMillis(90);
+        IntStream.range(0, 200_000).forEach(i -> wheel.add("schedule-" + i, deadline));
+
+        advanceTo(deadline);
+
+        assertThat(fired).hasSize(200_000);
+        assertThat(wheel.size()).isZero();
+    }
+}
@@ -0,0 +1,155 @@
+package org.kiwiproject.elucidation.data.home.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.codahale.metrics.MetricRegistry;
+import org.kiwiproject.elucidation.data.home.config.WorkflowLimitsConfig;
+import org.kiwiproject.elucidation.data.home.service.WorkflowRejectedException.Reason;
+import io.dropwizard.util.Duration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+@SuppressWarnings("java:S100")
+@DisplayName("WorkflowLimiter")
+class WorkflowLimiterTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(500);
+
+    private WorkflowLimitsConfig config;
+    private MetricRegistry metrics;
+    private AtomicLong ticker;
+
+    @BeforeEach
+    void setUp() {
+        config = new WorkflowLimitsConfig();
+        config.setInitialLimit(2);
+        config.setMaxLimit(4);
+        config.setPerWorkflowLimit(2);
+        config.setQueueSize(1);
+        config.setMaxWait(Duration.milliseconds(50));
+        config.setTargetPublishLatency(Duration.milliseconds(100));
+
+        metrics = new MetricRegistry();
+        ticker = new AtomicLong();
+    }
+
+    private WorkflowLimiter limiter() {
+        return new WorkflowLimiter(config, metrics, ticker::get);
+    }
+
+    private static Reason rejectionOf(Runnable acquire) {
+        try {
+            acquire.run();
+        } catch (WorkflowRejectedException e) {
+            assertThat(e.getRetryAfterSeconds()).isPositive();
+            return e.getReason();
+        }
+        return null;
+    }
+
+    @Nested
+    class Acquire {
+
+        @Test
+        void shouldRejectARun_WhenTheWorkflowIsBusy() {
+            var limiter = limiter();
+            limiter.acquire(1);
+            limiter.acquire(1);
+
+            assertThat(rejectionOf(() -> limiter.acquire(1))).isEqualTo(Reason.WORKFLOW_BUSY);
+            assertThat(metrics.meter("org.kiwiproject.elucidation.data.home.service.WorkflowLimiter.rejected.workflow_busy").getCount())
+                    .isOne();
+        }
+
+        @Test
+        void shouldRejectARun_WhenItWaitsTooLong() {
+            var limiter = limiter();
+            limiter.acquire(1);
+            limiter.acquire(2);
+
+            assertThat(rejectionOf(() -> limiter.acquire(3))).isEqualTo(Reason.TIMED_OUT);
+            assertThat(limiter.getWaiting()).isZero();
+        }
+
+        @Test
+        void shouldRejectARun_WhenTheQueueIsFull() {
+            config.setMaxWait(Duration.seconds(10));
+            var limiter = limiter();
+            var first = limiter.acquire(1);
+            limiter.acquire(2);
+
+            var waiter = CompletableFuture.supplyAsync(() -> limiter.acquire(3));
+            while (limiter.getWaiting() == 0) {
+                Thread.onSpinWait();
+            }
+
+            assertThat(rejectionOf(() -> limiter.acquire(4))).isEqualTo(Reason.QUEUE_FULL);
+
+            first.close();
+            assertThat(waiter.join()).isNotNull();
+            assertThat(limiter.getInFlight()).isEqualTo(2);
+        }
+
+        @Test
+        void shouldFreeTheWorkflowsRun_WhenThePermitIsClosed() {
+            var limiter = limiter();
+            limiter.acquire(1).close();
+            limiter.acquire(1).close();
+            limiter.acquire(1).close();
+
+            assertThat(limiter.getInFlight()).isZero();
+        }
+    }
+
+    @Nested
+    class OnPublish {
+
+        @Test
+        void shouldRaiseTheLimit_WhenPublishingIsFast_AndThePermitsAreInUse() {
+            var limiter = limiter();
+            limiter.acquire(1);
+            limiter.acquire(2);
+
+            for (var i = 0; i < 10; i++) {
+                limiter.onPublish(FAST);
+            }
+
+            assertThat(limiter.getLimit()).isEqualTo(4);
+        }
+
+        @Test
+        void shouldNotRaiseTheLimit_WhenThePermitsAreNotInUse() {
+            var limiter = limiter();
+
+            limiter.onPublish(FAST);
+
+            assertThat(limiter.getLimit()).isEqualTo(2);
+        }
+
+        @Test
+        void shouldLowerTheLimit_AtMostOncePerTargetLatency_WhenPublishingIsSlow() {
+            config.setInitialLimit(4);
+            config.setBackoffRatio(0.5);
+            var limiter = limiter();
+
+            limiter.onPublish(SLOW);
+            limiter.onPublish(SLOW);
+            assertThat(limiter.getLimit()).isEqualTo(2);
+
+            ticker.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+            limiter.onPublish(SLOW);
+            assertThat(limiter.getLimit()).isEqualTo(1);
+
+            ticker.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+            limiter.onPublish(SLOW);
+            assertThat(limiter.getLimit()).isEqualTo(1);
+        }
+    }
+}
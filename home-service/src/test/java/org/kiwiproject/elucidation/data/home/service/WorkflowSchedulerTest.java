@@ -0,0 +1,273 @@
+package org.kiwiproject.elucidation.data.home.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.codahale.metrics.MetricRegistry;
+import org.kiwiproject.elucidation.data.common.run.VirtualClock;
+import org.kiwiproject.elucidation.data.home.config.SchedulerConfig;
+import org.kiwiproject.elucidation.data.home.db.WorkflowDao;
+import org.kiwiproject.elucidation.data.home.db.WorkflowScheduleDao;
+import org.kiwiproject.elucidation.data.home.model.Workflow;
+import org.kiwiproject.elucidation.data.home.model.WorkflowSchedule;
+import org.kiwiproject.elucidation.data.home.model.WorkflowSchedule.MisfirePolicy;
+import liquibase.Contexts;
+import liquibase.Liquibase;
+import liquibase.database.DatabaseFactory;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.exception.DatabaseException;
+import liquibase.exception.LiquibaseException;
+import liquibase.resource.ClassLoaderResourceAccessor;
+import org.jdbi.v3.core.Jdbi;
+import org.jdbi.v3.sqlobject.SqlObjectPlugin;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.sqlite.SQLiteDataSource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+@SuppressWarnings("java:S100")
+@DisplayName("WorkflowScheduler")
+class WorkflowSchedulerTest {
+
+    private static final Instant START = Instant.parse("2022-01-01T06:59:30Z");
+
+    private static SQLiteDataSource dataSource;
+    private static Liquibase liquibase;
+
+    private WorkflowScheduleDao scheduleDao;
+    private WorkflowDao workflowDao;
+    private WorkflowService workflowService;
+    private VirtualClock clock;
+    private SchedulerConfig config;
+    private MetricRegistry metrics;
+    private long workflowId;
+
+    @BeforeAll
+    static void migrationSetup() throws SQLException, DatabaseException {
+        dataSource = new SQLiteDataSource();
+        dataSource.setUrl("jdbc:sqlite:unit-schedules.db");
+
+        var conn = dataSource.getConnection();
+        var database = DatabaseFactory.getInstance().findCorrectDatabaseImplementation(new JdbcConnection(conn));
+        liquibase = new Liquibase("migrations/home.xml", new ClassLoaderResourceAccessor(), database);
+    }
+
+    @BeforeEach
+    void setUp() throws LiquibaseException {
+        liquibase.update(new Contexts());
+
+        var jdbi = Jdbi.create(dataSource);
+        jdbi.installPlugin(new SqlObjectPlugin());
+        scheduleDao = jdbi.onDemand(WorkflowScheduleDao.class);
+        workflowDao = jdbi.onDemand(WorkflowDao.class);
+        workflowId = workflowDao.create(Workflow.builder().name("Good Morning").stepJson("[]").build());
+
+        workflowService = mock(WorkflowService.class);
+        clock = new VirtualClock(START, Duration.ZERO);
+        config = new SchedulerConfig();
+        config.setTimeZone(ZoneOffset.UTC);
+        metrics = new MetricRegistry();
+    }
+
+    @AfterAll
+    static void cleanupDatabase() throws IOException {
+        Files.deleteIfExists(Path.of("./unit-schedules.db"));
+    }
+
+    @AfterEach
+    void dropDbRecords() throws DatabaseException {
+        liquibase.dropAll();
+    }
+
+    private WorkflowScheduler scheduler() {
+        var scheduler = new WorkflowScheduler(config, scheduleDao, workflowDao, workflowService, clock, metrics, null, Runnable::run);
+        scheduler.load();
+        return scheduler;
+    }
+
+    private WorkflowSchedule cron(String expression, MisfirePolicy misfirePolicy) {
+        return WorkflowSchedule.builder().workflowId(workflowId).cron(expression).misfirePolicy(misfirePolicy).build();
+    }
+
+    /**
+     * Ticks once a second, each tick moving the virtual clock on by the scheduler's one second tick.
+     */
+    private void advance(WorkflowScheduler scheduler, Duration duration) {
+        for (var seconds = 0; seconds < duration.toSeconds(); seconds++) {
+            scheduler.tick();
+        }
+    }
+
+    private long firesCount() {
+        return metrics.counter("org.kiwiproject.elucidation.data.home.service.WorkflowScheduler.fires").getCount();
+    }
+
+    @Nested
+    class Add {
+
+        @Test
+        void shouldSaveTheSchedule_WithWhenItFirstFires() {
+            var saved = scheduler().add(cron("0 7 * * *", MisfirePolicy.FIRE_ONCE));
+
+            assertThat(saved.getId()).isNotNull();
+            assertThat(saved.getNextFireAt()).isEqualTo(Instant.parse("2022-01-01T07:00:00Z").toEpochMilli());
+            assertThat(scheduleDao.findByWorkflowId(workflowId))
+                    .extracting(WorkflowSchedule::getCron, WorkflowSchedule::getNextFireAt)
+                    .containsExactly(tuple("0 7 * * *", saved.getNextFireAt()));
+        }
+
+        @Test
+        void shouldReject_InvalidSchedules() {
+            var scheduler = scheduler();
+
+            assertThatThrownBy(() -> scheduler.add(cron("0 25 * * *", MisfirePolicy.SKIP)))
+                    .isInstanceOf(IllegalArgumentException.class);
+            assertThatThrownBy(() -> scheduler.add(WorkflowSchedule.builder().workflowId(workflowId).build()))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining("exactly one of");
+            assertThatThrownBy(() -> scheduler.add(cron("* * * * *", MisfirePolicy.SKIP).toBuilder().intervalSeconds(60L).build()))
+                    .isInstanceOf(IllegalArgumentException.class);
+
+            assertThat(scheduleDao.findAll()).isEmpty();
+        }
+    }
+
+    @Nested
+    class Tick {
+
+        @Test
+        void shouldRunTheWorkflow_EachTimeTheScheduleComesDue() {
+            var scheduler = scheduler();
+            scheduler.add(cron("* * * * *", MisfirePolicy.FIRE_ONCE));
+            scheduler.add(WorkflowSchedule.builder().workflowId(workflowId).intervalSeconds(30L).build());
+
+            advance(scheduler, Duration.ofSeconds(29));
+            verify(workflowService, never()).runWorkflow(any(), anyLong());
+
+            advance(scheduler, Duration.ofSeconds(1));
+            verify(workflowService, times(2)).runWorkflow(any(), anyLong());
+
+            advance(scheduler, Duration.ofMinutes(2));
+            verify(workflowService, times(2 + 2 + 4)).runWorkflow(any(), anyLong());
+
+            assertThat(scheduleDao.findByWorkflowId(workflowId))
+                    .allSatisfy(schedule -> assertThat(schedule.getLastFiredAt()).isNotNull())
+                    .allSatisfy(schedule -> assertThat(schedule.getNextFireAt()).isGreaterThan(clock.peek().toEpochMilli()));
+        }
+
+        @Test
+        void shouldStartEachRun_AtTheTimeItsScheduleFired() {
+            var scheduler = scheduler();
+            scheduler.add(cron("0 7 * * *", MisfirePolicy.FIRE_ONCE));
+
+            advance(scheduler, Duration.ofSeconds(30));
+
+            verify(workflowService).runWorkflow(any(), eq(Instant.parse("2022-01-01T07:00:00Z").toEpochMilli()));
+        }
+
+        @Test
+        void shouldKeepFiring_WhenAWorkflowRunIsRejected() {
+            doThrow(new WorkflowRejectedException(WorkflowRejectedException.Reason.QUEUE_FULL, 1))
+                    .when(workflowService).runWorkflow(any(), anyLong());
+
+            var scheduler = scheduler();
+            scheduler.add(cron("* * * * *", MisfirePolicy.FIRE_ONCE));
+
+            advance(scheduler, Duration.ofMinutes(2));
+
+            verify(workflowService, times(2)).runWorkflow(any(), anyLong());
+            assertThat(metrics.counter("org.kiwiproject.elucidation.data.home.service.WorkflowScheduler.rejected").getCount()).isEqualTo(2);
+        }
+
+        @Test
+        void shouldRemoveTheSchedule_WhenItsWorkflowHasBeenDeleted() {
+            var scheduler = scheduler();
+            scheduler.add(cron("* * * * *", MisfirePolicy.FIRE_ONCE));
+            workflowDao.deleteWorkflow(workflowId);
+
+            advance(scheduler, Duration.ofMinutes(2));
+
+            verify(workflowService, never()).runWorkflow(any(), anyLong());
+            assertThat(scheduler.size()).isZero();
+            assertThat(scheduleDao.findAll()).isEmpty();
+        }
+
+        @Test
+        void shouldStopFiring_OnceTheScheduleIsRemoved() {
+            var scheduler = scheduler();
+            var saved = scheduler.add(cron("* * * * *", MisfirePolicy.FIRE_ONCE));
+
+            scheduler.remove(saved.getId());
+            advance(scheduler, Duration.ofMinutes(2));
+
+            verify(workflowService, never()).runWorkflow(any(), anyLong());
+            assertThat(scheduleDao.findAll()).isEmpty();
+        }
+    }
+
+    @Nested
+    class Restart {
+
+        @Test
+        void shouldFireOnce_SchedulesThatWereMissed_WhenTheirPolicyIsFireOnce() {
+            scheduler().add(cron("0 * * * *", MisfirePolicy.FIRE_ONCE));
+
+            clock.advance(Duration.ofHours(5));
+            var restarted = scheduler();
+            advance(restarted, Duration.ofSeconds(1));
+
+            verify(workflowService, times(1)).runWorkflow(any(), anyLong());
+            assertThat(firesCount()).isEqualTo(1);
+            assertThat(scheduleDao.findAll())
+                    .extracting(WorkflowSchedule::getNextFireAt)
+                    .containsExactly(Instant.parse("2022-01-01T12:00:00Z").toEpochMilli());
+        }
+
+        @Test
+        void shouldSkipSchedulesThatWereMissed_WhenTheirPolicyIsSkip() {
+            scheduler().add(cron("0 * * * *", MisfirePolicy.SKIP));
+
+            clock.advance(Duration.ofHours(5));
+            var restarted = scheduler();
+            advance(restarted, Duration.ofSeconds(1));
+
+            verify(workflowService, never()).runWorkflow(any(), anyLong());
+            assertThat(metrics.counter("org.kiwiproject.elucidation.data.home.service.WorkflowScheduler.missed").getCount()).isEqualTo(1);
+            assertThat(scheduleDao.findAll())
+                    .extracting(WorkflowSchedule::getNextFireAt)
+                    .containsExactly(Instant.parse("2022-01-01T12:00:00Z").toEpochMilli());
+        }
+
+        @Test
+        void shouldFireSchedulesThatAreOnlyALittleLate_WhateverTheirPolicy() {
+            scheduler().add(cron("0 7 * * *", MisfirePolicy.SKIP));
+
+            clock.advance(Duration.ofSeconds(45));
+            var restarted = scheduler();
+            advance(restarted, Duration.ofSeconds(1));
+
+            verify(workflowService, times(1)).runWorkflow(any(), anyLong());
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package org.kiwiproject.elucidation.data.launcher;
+
+import org.apache.activemq.artemis.api.core.SimpleString;
+import org.apache.activemq.artemis.core.config.impl.ConfigurationImpl;
+import org.apache.activemq.artemis.core.server.embedded.EmbeddedActiveMQ;
+
+/**
+ * An Artemis broker in the launcher's JVM. The services connect to it with {@link #URL} through the in-VM
+ * connector, so messages never touch the network. Nothing is persisted and security is off.
+ */
+class EmbeddedBroker {
+
+    static final String URL = "vm://0";
+
+    private final EmbeddedActiveMQ broker = new EmbeddedActiveMQ();
+
+    void start() throws Exception {
+        var configuration = new ConfigurationImpl()
+                .setPersistenceEnabled(false)
+                .setSecurityEnabled(false)
+                .setJMXManagementEnabled(false)
+                .addAcceptorConfiguration("in-vm", URL);
+
+        broker.setConfiguration(configuration);
+        broker.start();
+    }
+
+    void stop() throws Exception {
+        broker.stop();
+    }
+
+    /**
+     * How many consumers are subscribed to a topic; each JMS topic subscriber gets its own queue on the address.
+     */
+    int subscriberCount(String topic) throws Exception {
+        return broker.getActiveMQServer().bindingQuery(SimpleString.toSimpleString(topic)).getQueueNames().size();
+    }
+}
@@ -0,0 +1,119 @@
+package org.kiwiproject.elucidation.data.launcher;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import com.google.common.io.Resources;
+import io.dropwizard.jackson.Jackson;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Finds out how the JMS flow control settings change throughput and latency under the canary's Good Morning load.
+ * Starts a {@link Launcher} in its own JVM with every setting at its default, then again for each value in the
+ * {@link SweepProfile}, and reports every run side by side. The runs are also left in {@code sweep-results.jsonl}.
+ * <p>
+ * Usage: {@code FlowControlSweep [profile.yml]}, by default {@code launcher/sweep.yml} on the classpath.
+ */
+@Slf4j
+public class FlowControlSweep {
+
+    private static final Path RESULTS = Path.of("sweep-results.jsonl");
+    private static final String DEFAULT_PROFILE = "launcher/sweep.yml";
+
+    private final ObjectMapper json = Jackson.newObjectMapper();
+    private final SweepProfile profile;
+
+    public static void main(String[] args) throws Exception {
+        var yaml = Jackson.newObjectMapper(new YAMLFactory());
+        var profile = args.length > 0
+                ? yaml.readValue(Path.of(args[0]).toFile(), SweepProfile.class)
+                : yaml.readValue(Resources.getResource(DEFAULT_PROFILE), SweepProfile.class);
+
+        new FlowControlSweep(profile).run();
+    }
+
+    FlowControlSweep(SweepProfile profile) {
+        this.profile = profile;
+    }
+
+    private void run() throws IOException, InterruptedException {
+        Files.deleteIfExists(RESULTS);
+
+        var runs = new ArrayList<Map<String, String>>();
+        runs.add(Map.of());
+        profile.getSettings().forEach((setting, values) ->
+                values.forEach(value -> runs.add(Map.of(setting, value))));
+
+        for (var i = 0; i < runs.size(); i++) {
+            LOG.info("Run {} of {}: {}", i + 1, runs.size(), runs.get(i).isEmpty() ? "defaults" : runs.get(i));
+            var exitCode = launch(runs.get(i));
+            if (exitCode != 0) {
+                LOG.warn("Run with {} exited with {}, leaving it out", runs.get(i), exitCode);
+            }
+        }
+
+        report(readResults());
+    }
+
+    /**
+     * Runs the launcher in a new JVM with the same classpath, so every run starts from a fresh broker and services.
+     */
+    private int launch(Map<String, String> settings) throws IOException, InterruptedException {
+        var command = new ArrayList<String>();
+        command.add(ProcessHandle.current().info().command().orElse("java"));
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        var options = LauncherOptions.builder()
+                .triggers(profile.getTriggers())
+                .concurrency(profile.getConcurrency())
+                .jms(settings)
+                .results(RESULTS)
+                .build();
+        command.addAll(options.jvmArguments());
+        command.add(Launcher.class.getName());
+        command.addAll(options.arguments());
+
+        return new ProcessBuilder(command).inheritIO().start().waitFor();
+    }
+
+    private List<Measurement> readResults() throws IOException {
+        if (!Files.exists(RESULTS)) {
+            return List.of();
+        }
+
+        var measurements = new ArrayList<Measurement>();
+        for (var line : Files.readAllLines(RESULTS)) {
+            measurements.add(json.readValue(line, Measurement.class));
+        }
+        return measurements;
+    }
+
+    private void report(List<Measurement> measurements) {
+        LOG.info("{} trigger(s) at concurrency {} per run, latencies in us", profile.getTriggers(), profile.getConcurrency());
+        measurements.forEach(measurement -> LOG.info("{}: {} events/sec, send p50 {} p99 {}, transit p50 {} p99 {}",
+                describe(measurement.getSettings()), String.format("%.1f", measurement.getEventsPerSecond()),
+                measurement.getSendP50Micros(), measurement.getSendP99Micros(), measurement.getTransitP50Micros(),
+                measurement.getTransitP99Micros()));
+
+        measurements.stream()
+                .max(Comparator.comparingDouble(Measurement::getEventsPerSecond))
+                .ifPresent(best -> LOG.info("Most events/sec with {}", describe(best.getSettings())));
+    }
+
+    private static String describe(Map<String, String> settings) {
+        if (settings.isEmpty()) {
+            return "defaults";
+        }
+        return settings.entrySet().stream()
+                .map(setting -> setting.getKey() + "=" + setting.getValue())
+                .collect(Collectors.joining(", "));
+    }
+}
@@ -0,0 +1,398 @@
+package org.kiwiproject.elucidation.data.launcher;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import org.kiwiproject.elucidation.data.canary.scenario.ScenarioEngine;
+import org.kiwiproject.elucidation.data.canary.scenario.ScenarioRegistry;
+import org.kiwiproject.elucidation.data.common.run.RunContext;
+import org.kiwiproject.elucidation.data.common.thread.VirtualThreads;
+import org.kiwiproject.elucidation.data.common.trace.SpanSummary;
+import org.kiwiproject.elucidation.data.standin.store.ElucidationStore;
+import com.google.common.io.MoreFiles;
+import com.google.common.io.RecursiveDeleteOption;
+import com.google.common.io.Resources;
+import io.dropwizard.Application;
+import io.dropwizard.Configuration;
+import io.dropwizard.jackson.Jackson;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.text.StringSubstitutor;
+import org.eclipse.jetty.server.Server;
+
+import javax.ws.rs.client.Client;
+import javax.ws.rs.client.ClientBuilder;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Runs Artemis, a stand-in for elucidation-server and the five device and home services in a single JVM, then
+ * triggers the Good Morning workflow over and over and reports how fast elucidation events come out the other end.
+ * <p>
+ * Usage: {@code Launcher [triggers [concurrency]]}. With zero triggers everything is started and left running, with
+ * the services on ports 9000 to 9004 like in docker compose and elucidation on 9100. Otherwise every service and the
+ * broker are stopped once the run has been measured.
+ * <p>
+ * The system properties that change how it runs are in {@link LauncherOptions}. {@link FlowControlSweep} and
+ * {@link ThreadModeComparison} run it in other JVMs with different options. The triggers are sent from virtual
+ * threads whenever Java has them, so the load weighs the same with or without virtual threads in the services.
+ */
+@Slf4j
+public class Launcher {
+
+    private static final Path DATA_DIRECTORY = Path.of("launcher-data");
+    private static final String TOPIC = "iotEvent";
+    private static final int SUBSCRIBERS = 3;
+    private static final long QUIET_PERIOD_NANOS = TimeUnit.SECONDS.toNanos(2);
+
+    private static final Map<String, Object> SERVICE_URLS = Map.of(
+            "appliance", "http://localhost:9000",
+            "doorbell", "http://localhost:9001",
+            "light", "http://localhost:9002",
+            "thermostat", "http://localhost:9003",
+            "home", "http://localhost:9004");
+
+    private static final List<String> TRACED_SERVICES = List.of("home", "light", "thermostat", "appliance");
+    private static final TypeReference<Map<String, SpanSummary>> SPAN_SUMMARIES = new TypeReference<>() {};
+    private static final List<String> CONSUMERS = List.of("light", "thermostat", "appliance");
+
+    private static final int HOME_PORT = 9004;
+    private static final int HOME_SHARD_PORT = 9020;
+    private static final int ADMIN_PORT_OFFSET = 10;
+    private static final String LIMITER_METRICS = "org.kiwiproject.elucidation.data.home.service.WorkflowLimiter.";
+
+    private final EmbeddedBroker broker = new EmbeddedBroker();
+    private final ElucidationStore store = new ElucidationStore();
+    private final ObjectMapper json = Jackson.newObjectMapper();
+    private final ObjectMapper yaml = Jackson.newObjectMapper(new YAMLFactory());
+    private final List<Server> servers = Collections.synchronizedList(new ArrayList<>());
+    private final LauncherOptions options;
+
+    public static void main(String[] args) throws Exception {
+        var launcher = new Launcher(LauncherOptions.parse(args, System.getProperties()));
+        launcher.start();
+
+        if (launcher.options.getTriggers() > 0) {
+            try {
+                launcher.measure();
+            } finally {
+                launcher.stop();
+            }
+        }
+    }
+
+    Launcher(LauncherOptions options) {
+        this.options = options;
+    }
+
+    private void start() throws Exception {
+        var start = System.nanoTime();
+
+        if (Files.exists(DATA_DIRECTORY)) {
+            MoreFiles.deleteRecursively(DATA_DIRECTORY, RecursiveDeleteOption.ALLOW_INSECURE);
+        }
+        Files.createDirectories(DATA_DIRECTORY);
+
+        broker.start();
+        LOG.info("Artemis started in {} ms", millisSince(start));
+        if (!options.getJms().isEmpty()) {
+            LOG.info("Overriding JMS settings with {}", options.getJms());
+        }
+        if (!options.getWorkflowLimits().isEmpty()) {
+            LOG.info("Overriding home's workflow limits with {}", options.getWorkflowLimits());
+        }
+
+        startService("elucidation", new org.kiwiproject.elucidation.data.standin.App(store), false);
+        startService("appliance", new org.kiwiproject.elucidation.data.appliance.App(), true);
+        startService("doorbell", new org.kiwiproject.elucidation.data.doorbell.App(), true);
+        startService("light", new org.kiwiproject.elucidation.data.light.App(), true);
+        startService("thermostat", new org.kiwiproject.elucidation.data.thermostat.App(), true);
+        if (options.getHomeShards() > 1) {
+            startHomeShards();
+        } else {
+            startService("home", "home", new org.kiwiproject.elucidation.data.home.App(), true, Map.of(
+                    "homePort", HOME_PORT, "homeAdminPort", HOME_PORT + ADMIN_PORT_OFFSET,
+                    "homeShards", "[]", "homeShardIndex", 0));
+        }
+
+        // The consumers connect in the background once their service is up
+        while (broker.subscriberCount(TOPIC) < SUBSCRIBERS) {
+            Thread.sleep(10);
+        }
+
+        LOG.info("Everything started in {} ms", millisSince(start));
+    }
+
+    /**
+     * Stops the services, newest first, each with everything its lifecycle manages, and then the broker.
+     */
+    private void stop() throws Exception {
+        var start = System.nanoTime();
+
+        List<Server> started;
+        synchronized (servers) {
+            started = new ArrayList<>(servers);
+        }
+        Collections.reverse(started);
+        for (var server : started) {
+            server.stop();
+        }
+        broker.stop();
+
+        LOG.info("Everything stopped in {} ms", millisSince(start));
+    }
+
+    /**
+     * Starts the home shards on ports from {@value #HOME_SHARD_PORT}, each with its own database, and the router in
+     * home's usual place so everything that calls home goes through it.
+     */
+    private void startHomeShards() throws Exception {
+        var homeShards = options.getHomeShards();
+        var urls = IntStream.range(0, homeShards)
+                .mapToObj(shard -> "\"http://localhost:" + (HOME_SHARD_PORT + shard) + "\"")
+                .collect(Collectors.joining(", ", "[", "]"));
+
+        for (var shard = 0; shard < homeShards; shard++) {
+            startService("home-" + shard, "home", new org.kiwiproject.elucidation.data.home.App(), true, Map.of(
+                    "homePort", HOME_SHARD_PORT + shard, "homeAdminPort", HOME_SHARD_PORT + shard + ADMIN_PORT_OFFSET,
+                    "homeShards", urls, "homeShardIndex", shard));
+        }
+        startService("router", "router", new org.kiwiproject.elucidation.data.router.App(), false, Map.of(
+                "homeShards", urls));
+    }
+
+    private <C extends Configuration> void startService(String name, Application<C> app, boolean migrate)
+            throws Exception {
+        startService(name, name, app, migrate, Map.of());
+    }
+
+    @SuppressWarnings("UnstableApiUsage")
+    private <C extends Configuration> void startService(String name, String templateName, Application<C> service,
+                                                        boolean migrate, Map<String, Object> variables)
+            throws Exception {
+        var start = System.nanoTime();
+
+        var template = Resources.toString(Resources.getResource("launcher/" + templateName + ".yml"), StandardCharsets.UTF_8);
+        var config = DATA_DIRECTORY.resolve(name + ".yml");
+        var substitutions = new HashMap<>(variables);
+        substitutions.put("name", name);
+        substitutions.put("dataDirectory", DATA_DIRECTORY.toAbsolutePath());
+        substitutions.put("artemisUrl", EmbeddedBroker.URL);
+        substitutions.put("storageBackend", options.getStorage());
+        substitutions.put("serverType", options.isVirtualThreads() ? "virtual" : "default");
+        Files.writeString(config, override(templateName, new StringSubstitutor(substitutions).replace(template)));
+
+        var app = new StoppableApplication<>(service, servers::add);
+        if (migrate) {
+            app.run("db", "migrate", config.toString());
+        }
+        app.run("server", config.toString());
+
+        LOG.info("Started {} in {} ms", name, millisSince(start));
+    }
+
+    private String override(String templateName, String config) throws IOException {
+        var overrideJms = !options.getJms().isEmpty();
+        var overrideLimits = !options.getWorkflowLimits().isEmpty() && "home".equals(templateName);
+        if (!overrideJms && !overrideLimits) {
+            return config;
+        }
+
+        var tree = (ObjectNode) yaml.readTree(config);
+        var jms = tree.get("jms");
+        if (overrideJms && jms instanceof ObjectNode) {
+            options.getJms().forEach(((ObjectNode) jms)::put);
+        }
+        if (overrideLimits) {
+            var limits = tree.get("workflowLimits") instanceof ObjectNode
+                    ? (ObjectNode) tree.get("workflowLimits")
+                    : tree.putObject("workflowLimits");
+            options.getWorkflowLimits().forEach(limits::put);
+        }
+        return yaml.writeValueAsString(tree);
+    }
+
+    /**
+     * Measures a run and appends it to the results file if there is one.
+     */
+    private void measure() throws Exception {
+        var measurement = measure(options.getTriggers(), options.getConcurrency());
+
+        if (nonNull(options.getResults())) {
+            Files.writeString(options.getResults(), json.writeValueAsString(measurement) + System.lineSeparator(),
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        }
+    }
+
+    private Measurement measure(int triggers, int concurrency) throws Exception {
+        var httpClient = ClientBuilder.newClient();
+        try {
+            var scenarios = new ScenarioRegistry(null, SERVICE_URLS);
+            var threads = VirtualThreads.isSupported() ? VirtualThreads.factory("trigger-") : Executors.defaultThreadFactory();
+            var engine = new ScenarioEngine(httpClient, RunContext.system(), threads);
+
+            engine.run(scenarios.get("crud-devices"), 1, 1);
+            engine.run(scenarios.get("good-morning"), 1, 1);
+            waitForQuiet();
+
+            var admissionsBefore = workflowAdmissions(httpClient);
+            var eventsBefore = store.eventCount();
+            var start = System.nanoTime();
+            var sampler = new ResourceSampler();
+            ScenarioEngine.Result result;
+            try (sampler) {
+                result = engine.run(scenarios.get("trigger-good-morning"), triggers, concurrency);
+            }
+            var lastEvent = waitForQuiet();
+
+            var events = store.eventCount() - eventsBefore;
+            var elapsedNanos = lastEvent - start;
+            var admissions = workflowAdmissions(httpClient).since(admissionsBefore);
+
+            LOG.info("{} trigger(s) at concurrency {} ({} failed) produced {} elucidation event(s) in {} ms: {} events/sec",
+                    triggers, concurrency, result.getFailedRequests(), events, TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+                    String.format("%.1f", events * 1e9 / elapsedNanos));
+            var requestsPerSecond = result.getRequests() * 1e3 / Math.max(1, result.getElapsedMillis());
+            LOG.info("{} request(s) at {} requests/sec on {} threads, peaking at {} MiB of heap and {} platform thread(s)",
+                    result.getRequests(), String.format("%.1f", requestsPerSecond), options.isVirtualThreads() ? "virtual" : "platform",
+                    sampler.getPeakHeapMegabytes(), sampler.getPeakPlatformThreads());
+            LOG.info("Home admitted {} workflow run(s) and rejected {}", admissions.getAdmitted(), admissions.getRejected());
+            LOG.info("Events by service: {}", store.eventsByService());
+
+            var spans = spanSummaries(httpClient);
+            logSpans(spans);
+
+            var send = spans.get("home").get("jms send");
+            var transit = CONSUMERS.stream()
+                    .map(consumer -> spans.get(consumer).get("jms transit"))
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toList());
+
+            return Measurement.builder()
+                    .settings(options.getJms())
+                    .virtualThreads(options.isVirtualThreads())
+                    .triggers(triggers)
+                    .concurrency(concurrency)
+                    .failedTriggers(result.getFailedRequests())
+                    .admittedTriggers(admissions.getAdmitted())
+                    .rejectedTriggers(admissions.getRejected())
+                    .requestsPerSecond(requestsPerSecond)
+                    .events(events)
+                    .elapsedMillis(TimeUnit.NANOSECONDS.toMillis(elapsedNanos))
+                    .eventsPerSecond(events * 1e9 / elapsedNanos)
+                    .sendP50Micros(isNull(send) ? 0 : send.getP50Micros())
+                    .sendP99Micros(isNull(send) ? 0 : send.getP99Micros())
+                    .transitP50Micros(transit.stream().mapToLong(SpanSummary::getP50Micros).max().orElse(0))
+                    .transitP99Micros(transit.stream().mapToLong(SpanSummary::getP99Micros).max().orElse(0))
+                    .peakHeapMegabytes(sampler.getPeakHeapMegabytes())
+                    .peakPlatformThreads(sampler.getPeakPlatformThreads())
+                    .build();
+        } finally {
+            httpClient.close();
+        }
+    }
+
+    /**
+     * How many workflow runs home's limiter has let through and turned away so far, across every shard, from the
+     * metrics on their admin ports.
+     */
+    private Admissions workflowAdmissions(Client httpClient) throws IOException {
+        var ports = options.getHomeShards() > 1
+                ? IntStream.range(0, options.getHomeShards()).mapToObj(shard -> HOME_SHARD_PORT + shard).collect(Collectors.toList())
+                : List.of(HOME_PORT);
+
+        var admissions = new Admissions(0, 0);
+        for (var port : ports) {
+            var body = httpClient.target("http://localhost:" + (port + ADMIN_PORT_OFFSET))
+                    .path("metrics")
+                    .request()
+                    .get(String.class);
+            var metrics = json.readTree(body);
+
+            var admitted = metrics.path("timers").path(LIMITER_METRICS + "runs").path("count").asLong();
+            var rejected = 0L;
+            for (var meters = metrics.path("meters").fields(); meters.hasNext(); ) {
+                var meter = meters.next();
+                if (meter.getKey().startsWith(LIMITER_METRICS + "rejected.")) {
+                    rejected += meter.getValue().path("count").asLong();
+                }
+            }
+            admissions = new Admissions(admissions.getAdmitted() + admitted, admissions.getRejected() + rejected);
+        }
+        return admissions;
+    }
+
+    @Value
+    private static class Admissions {
+        long admitted;
+        long rejected;
+
+        Admissions since(Admissions before) {
+            return new Admissions(admitted - before.admitted, rejected - before.rejected);
+        }
+    }
+
+    /**
+     * How long each hop of the workflow runs took, from the spans the services still have.
+     */
+    private Map<String, Map<String, SpanSummary>> spanSummaries(Client httpClient) throws IOException {
+        var summaries = new LinkedHashMap<String, Map<String, SpanSummary>>();
+        for (var service : TRACED_SERVICES) {
+            var body = httpClient.target(SERVICE_URLS.get(service).toString())
+                    .path("trace/summary")
+                    .request()
+                    .get(String.class);
+
+            summaries.put(service, json.readValue(body, SPAN_SUMMARIES));
+        }
+        return summaries;
+    }
+
+    private static void logSpans(Map<String, Map<String, SpanSummary>> summaries) {
+        summaries.forEach((service, spans) -> spans.forEach((span, summary) ->
+                LOG.info("{} {}: count {} mean {} us p50 {} us p99 {} us max {} us",
+                        service, span, summary.getCount(), summary.getMeanMicros(), summary.getP50Micros(),
+                        summary.getP99Micros(), summary.getMaxMicros())));
+    }
+
+    /**
+     * Waits until no event has arrived for a while and returns when the last one did.
+     */
+    private long waitForQuiet() throws InterruptedException {
+        var count = store.eventCount();
+        var lastChange = System.nanoTime();
+
+        while (System.nanoTime() - lastChange < QUIET_PERIOD_NANOS) {
+            Thread.sleep(10);
+
+            var current = store.eventCount();
+            if (current != count) {
+                count = current;
+                lastChange = System.nanoTime();
+            }
+        }
+        return lastChange;
+    }
+
+    private static long millisSince(long start) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+}
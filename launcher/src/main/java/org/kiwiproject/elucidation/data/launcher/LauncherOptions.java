@@ -0,0 +1,120 @@
+package org.kiwiproject.elucidation.data.launcher;
+
+import static java.util.Objects.nonNull;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+/**
+ * How the {@link Launcher} runs, read from its arguments and system properties here and nowhere else:
+ * <ul>
+ *     <li>{@code [triggers [concurrency]]}: the load, 500 triggers one at a time by default</li>
+ *     <li>{@code -Djms.<setting>=<value>}: overrides the setting in the {@code jms} block of every service</li>
+ *     <li>{@code -DworkflowLimits.<setting>=<value>}: overrides the setting in home's {@code workflowLimits} block</li>
+ *     <li>{@code -Dlauncher.results=<file>}: appends the measurement to the file as a line of JSON</li>
+ *     <li>{@code -Dlauncher.homeShards=<n>}: runs home as that many shards behind the router</li>
+ *     <li>{@code -Dlauncher.storage=H2}, {@code OFF_HEAP} or {@code COMPACT}: where the services keep devices</li>
+ *     <li>{@code -Dlauncher.virtualThreads=true}: runs the services on virtual threads, which needs Java 21</li>
+ * </ul>
+ * The sweeps build options and turn them back into a command line with {@link #jvmArguments()} and
+ * {@link #arguments()}.
+ */
+@Value
+@Builder(toBuilder = true)
+class LauncherOptions {
+
+    private static final String JMS_PREFIX = "jms.";
+    private static final String WORKFLOW_LIMITS_PREFIX = "workflowLimits.";
+    private static final String RESULTS = "launcher.results";
+    private static final String HOME_SHARDS = "launcher.homeShards";
+    private static final String STORAGE = "launcher.storage";
+    private static final String VIRTUAL_THREADS = "launcher.virtualThreads";
+
+    @Builder.Default
+    int triggers = 500;
+
+    @Builder.Default
+    int concurrency = 1;
+
+    /**
+     * Settings to override in every service's {@code jms} block, by name.
+     */
+    @Builder.Default
+    Map<String, String> jms = Map.of();
+
+    /**
+     * Settings to override in home's {@code workflowLimits} block, by name.
+     */
+    @Builder.Default
+    Map<String, String> workflowLimits = Map.of();
+
+    /**
+     * Where to append the measurement, or {@code null} to only log it.
+     */
+    Path results;
+
+    @Builder.Default
+    int homeShards = 1;
+
+    @Builder.Default
+    String storage = "SQLITE";
+
+    boolean virtualThreads;
+
+    static LauncherOptions parse(String[] args, Properties properties) {
+        var options = builder()
+                .jms(withPrefix(JMS_PREFIX, properties))
+                .workflowLimits(withPrefix(WORKFLOW_LIMITS_PREFIX, properties))
+                .homeShards(Integer.parseInt(properties.getProperty(HOME_SHARDS, "1")))
+                .storage(properties.getProperty(STORAGE, "SQLITE"))
+                .virtualThreads(Boolean.parseBoolean(properties.getProperty(VIRTUAL_THREADS)));
+
+        if (nonNull(properties.getProperty(RESULTS))) {
+            options.results(Path.of(properties.getProperty(RESULTS)));
+        }
+        if (args.length > 0) {
+            options.triggers(Integer.parseInt(args[0]));
+        }
+        if (args.length > 1) {
+            options.concurrency(Integer.parseInt(args[1]));
+        }
+        return options.build();
+    }
+
+    private static Map<String, String> withPrefix(String prefix, Properties properties) {
+        var settings = new TreeMap<String, String>();
+        properties.stringPropertyNames().stream()
+                .filter(name -> name.startsWith(prefix))
+                .forEach(name -> settings.put(name.substring(prefix.length()), properties.getProperty(name)));
+        return Collections.unmodifiableMap(settings);
+    }
+
+    /**
+     * The system properties that give a launcher in another JVM these options.
+     */
+    List<String> jvmArguments() {
+        var arguments = new ArrayList<String>();
+        new TreeMap<>(jms).forEach((setting, value) -> arguments.add("-D" + JMS_PREFIX + setting + "=" + value));
+        new TreeMap<>(workflowLimits).forEach((setting, value) ->
+                arguments.add("-D" + WORKFLOW_LIMITS_PREFIX + setting + "=" + value));
+        if (nonNull(results)) {
+            arguments.add("-D" + RESULTS + "=" + results.toAbsolutePath());
+        }
+        arguments.add("-D" + HOME_SHARDS + "=" + homeShards);
+        arguments.add("-D" + STORAGE + "=" + storage);
+        arguments.add("-D" + VIRTUAL_THREADS + "=" + virtualThreads);
+        return arguments;
+    }
+
+    List<String> arguments() {
+        return List.of(String.valueOf(triggers), String.valueOf(concurrency));
+    }
+}
@@ -0,0 +1,33 @@
+package org.kiwiproject.elucidation.data.launcher;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.Map;
+
+/**
+ * One launcher run: the JMS settings it overrode, how many triggers home ran and how many it turned away, how many
+ * events came out and how fast, and the latency of sending and delivering them. Transit latency is the worst of the consumers'. The heap and thread peaks are the
+ * launcher JVM's, so every service and Artemis together, while the triggers were running.
+ */
+@Value
+@Builder
+public class Measurement {
+    Map<String, String> settings;
+    boolean virtualThreads;
+    int triggers;
+    int concurrency;
+    long failedTriggers;
+    long admittedTriggers;
+    long rejectedTriggers;
+    double requestsPerSecond;
+    long events;
+    long elapsedMillis;
+    double eventsPerSecond;
+    long sendP50Micros;
+    long sendP99Micros;
+    long transitP50Micros;
+    long transitP99Micros;
+    long peakHeapMegabytes;
+    int peakPlatformThreads;
+}
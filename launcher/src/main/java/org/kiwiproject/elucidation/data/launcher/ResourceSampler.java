@@ -0,0 +1,51 @@
+package org.kiwiproject.elucidation.data.launcher;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the most heap in use and the most platform threads alive from when it is made until it is closed. The heap
+ * is sampled every {@value #INTERVAL_MILLIS} ms, so a shorter peak can be missed. Virtual threads are not counted,
+ * as the JVM doesn't keep track of them.
+ */
+class ResourceSampler implements AutoCloseable {
+
+    private static final long INTERVAL_MILLIS = 100;
+
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    private final AtomicLong peakHeapBytes = new AtomicLong();
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        var thread = new Thread(runnable, "resource-sampler");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    ResourceSampler() {
+        threads.resetPeakThreadCount();
+        executor.scheduleAtFixedRate(this::sample, 0, INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    private void sample() {
+        peakHeapBytes.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max);
+    }
+
+    long getPeakHeapMegabytes() {
+        return peakHeapBytes.get() / (1024 * 1024);
+    }
+
+    int getPeakPlatformThreads() {
+        return threads.getPeakThreadCount();
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+        sample();
+    }
+}
@@ -0,0 +1,51 @@
+package org.kiwiproject.elucidation.data.launcher;
+
+import io.dropwizard.Application;
+import io.dropwizard.Configuration;
+import io.dropwizard.ConfiguredBundle;
+import io.dropwizard.setup.Bootstrap;
+import io.dropwizard.setup.Environment;
+import org.eclipse.jetty.server.Server;
+
+import java.util.function.Consumer;
+
+/**
+ * Runs a service as it is, but hands over its Jetty server once it has started, so the launcher can stop it along
+ * with everything the service manages instead of exiting the JVM.
+ */
+class StoppableApplication<C extends Configuration> extends Application<C> {
+
+    private final Application<C> application;
+    private final Consumer<Server> started;
+
+    StoppableApplication(Application<C> application, Consumer<Server> started) {
+        this.application = application;
+        this.started = started;
+    }
+
+    @Override
+    public String getName() {
+        return application.getName();
+    }
+
+    @Override
+    public Class<C> getConfigurationClass() {
+        return application.getConfigurationClass();
+    }
+
+    @Override
+    public void initialize(Bootstrap<C> bootstrap) {
+        application.initialize(bootstrap);
+        bootstrap.addBundle(new ConfiguredBundle<>() {
+            @Override
+            public void run(C configuration, Environment environment) {
+                environment.lifecycle().addServerLifecycleListener(started::accept);
+            }
+        });
+    }
+
+    @Override
+    public void run(C configuration, Environment environment) throws Exception {
+        application.run(configuration, environment);
+    }
+}
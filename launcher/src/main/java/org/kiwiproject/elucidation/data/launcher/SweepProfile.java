@@ -0,0 +1,26 @@
+package org.kiwiproject.elucidation.data.launcher;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * What {@link FlowControlSweep} runs: the load for every run, and the values to try for each setting in the
+ * {@code jms} config block.
+ */
+@Getter
+@Setter
+public class SweepProfile {
+
+    private int triggers = 500;
+    private int concurrency = 4;
+
+    /**
+     * Values to try by setting name, e.g. {@code consumerWindowSize: [0, 64KiB, 4MiB]}. Each is tried on its own,
+     * with every other setting left at its default.
+     */
+    private Map<String, List<String>> settings = new LinkedHashMap<>();
+}
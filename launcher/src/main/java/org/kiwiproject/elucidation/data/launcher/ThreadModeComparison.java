@@ -0,0 +1,138 @@
+package org.kiwiproject.elucidation.data.launcher;
+
+import static com.google.common.base.Preconditions.checkState;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.kiwiproject.elucidation.data.common.thread.VirtualThreads;
+import io.dropwizard.jackson.Jackson;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Compares the services on platform threads with the same services on virtual threads, under many Good Morning
+ * triggers at once. Starts a {@link Launcher} in its own JVM each way and reports requests/sec, events/sec and the
+ * most heap and platform threads each run needed side by side. The runs are also left in
+ * {@code thread-comparison.jsonl}. Needs Java 21.
+ * <p>
+ * Home's workflow limits are lifted to the load for these runs, since what is being compared is how each thread mode
+ * copes with that many workflows at once. A run where home still turned most of the triggers away measured its
+ * rejections rather than its threads, so the comparison fails.
+ * <p>
+ * Usage: {@code ThreadModeComparison [triggers [concurrency]]}, 10,000 of each by default.
+ */
+@Slf4j
+public class ThreadModeComparison {
+
+    private static final Path RESULTS = Path.of("thread-comparison.jsonl");
+    private static final int DEFAULT_LOAD = 10_000;
+
+    private final ObjectMapper json = Jackson.newObjectMapper();
+    private final int triggers;
+    private final int concurrency;
+
+    public static void main(String[] args) throws Exception {
+        checkState(VirtualThreads.isSupported(), "Comparing thread modes needs Java 21 or later, this is %s",
+                Runtime.version());
+
+        var triggers = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_LOAD;
+        var concurrency = args.length > 1 ? Integer.parseInt(args[1]) : triggers;
+        new ThreadModeComparison(triggers, concurrency).run();
+    }
+
+    ThreadModeComparison(int triggers, int concurrency) {
+        this.triggers = triggers;
+        this.concurrency = concurrency;
+    }
+
+    private void run() throws IOException, InterruptedException {
+        Files.deleteIfExists(RESULTS);
+
+        for (var virtualThreads : List.of(false, true)) {
+            LOG.info("Running on {} threads", describe(virtualThreads));
+            var exitCode = launch(virtualThreads);
+            if (exitCode != 0) {
+                LOG.warn("Run on {} threads exited with {}, leaving it out", describe(virtualThreads), exitCode);
+            }
+        }
+
+        var measurements = readResults();
+        report(measurements);
+
+        var swamped = measurements.stream()
+                .filter(measurement -> measurement.getRejectedTriggers() > measurement.getAdmittedTriggers())
+                .map(measurement -> describe(measurement.isVirtualThreads()))
+                .collect(Collectors.toList());
+        checkState(swamped.isEmpty(), "Home rejected most triggers on %s threads, so the runs don't compare the thread modes",
+                swamped);
+    }
+
+    /**
+     * Runs the launcher in a new JVM with the same Java and classpath, so neither run inherits the other's heap.
+     */
+    private int launch(boolean virtualThreads) throws IOException, InterruptedException {
+        var command = new ArrayList<String>();
+        command.add(ProcessHandle.current().info().command().orElse("java"));
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        var options = LauncherOptions.builder()
+                .triggers(triggers)
+                .concurrency(concurrency)
+                .results(RESULTS)
+                .virtualThreads(virtualThreads)
+                .workflowLimits(workflowLimits())
+                .build();
+        command.addAll(options.jvmArguments());
+        command.add(Launcher.class.getName());
+        command.addAll(options.arguments());
+
+        return new ProcessBuilder(command).inheritIO().start().waitFor();
+    }
+
+    /**
+     * A fixed limit of one run per concurrent trigger, and room for every trigger to wait for one.
+     */
+    private Map<String, String> workflowLimits() {
+        var limit = String.valueOf(concurrency);
+        var everyTrigger = String.valueOf(triggers);
+        return Map.of(
+                "initialLimit", limit,
+                "minLimit", limit,
+                "maxLimit", limit,
+                "perWorkflowLimit", everyTrigger,
+                "queueSize", everyTrigger,
+                "maxWait", "10 minutes");
+    }
+
+    private List<Measurement> readResults() throws IOException {
+        if (!Files.exists(RESULTS)) {
+            return List.of();
+        }
+
+        var measurements = new ArrayList<Measurement>();
+        for (var line : Files.readAllLines(RESULTS)) {
+            measurements.add(json.readValue(line, Measurement.class));
+        }
+        return measurements;
+    }
+
+    private void report(List<Measurement> measurements) {
+        LOG.info("{} trigger(s) at concurrency {} per run", triggers, concurrency);
+        measurements.forEach(measurement -> LOG.info(
+                "{} threads: {} requests/sec, {} admitted, {} rejected, {} failed, {} events/sec, peak heap {} MiB, {} platform thread(s)",
+                describe(measurement.isVirtualThreads()), String.format("%.1f", measurement.getRequestsPerSecond()),
+                measurement.getAdmittedTriggers(), measurement.getRejectedTriggers(), measurement.getFailedTriggers(),
+                String.format("%.1f", measurement.getEventsPerSecond()),
+                measurement.getPeakHeapMegabytes(), measurement.getPeakPlatformThreads()));
+    }
+
+    private static String describe(boolean virtualThreads) {
+        return virtualThreads ? "virtual" : "platform";
+    }
+}
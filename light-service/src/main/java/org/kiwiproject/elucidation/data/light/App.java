@@ -3,9 +3,26 @@ package org.kiwiproject.elucidation.data.light;
 import org.kiwiproject.elucidation.client.ElucidationRecorder;
 import org.kiwiproject.elucidation.client.helper.dropwizard.EndpointTrackingListener;
 import org.kiwiproject.elucidation.client.helper.jersey.InboundHttpRequestTrackingFilter;
+import org.kiwiproject.elucidation.data.common.cache.StateCache;
+import org.kiwiproject.elucidation.data.common.http.HttpClients;
+import org.kiwiproject.elucidation.data.common.jms.DeadLetterQueue;
+import org.kiwiproject.elucidation.data.common.jms.DeadLetterResource;
+import org.kiwiproject.elucidation.data.common.jms.DuplicateFilter;
+import org.kiwiproject.elucidation.data.common.jms.JmsConnections;
+import org.kiwiproject.elucidation.data.common.jms.RetryPolicy;
+import org.kiwiproject.elucidation.data.common.store.DeviceStorage;
+import org.kiwiproject.elucidation.data.common.stream.EventStreamServlet;
+import org.kiwiproject.elucidation.data.common.stream.StateBroadcaster;
+import org.kiwiproject.elucidation.data.common.thread.VirtualThreads;
+import org.kiwiproject.elucidation.data.common.trace.CorrelationFilter;
+import org.kiwiproject.elucidation.data.common.trace.SpanRecorder;
+import org.kiwiproject.elucidation.data.common.trace.SpanResource;
 import org.kiwiproject.elucidation.data.light.config.AppConfig;
+import org.kiwiproject.elucidation.data.light.db.CompactSmartLightDao;
+import org.kiwiproject.elucidation.data.light.db.OffHeapSmartLightDao;
 import org.kiwiproject.elucidation.data.light.db.SmartLightDao;
 import org.kiwiproject.elucidation.data.light.jms.JmsConsumer;
+import org.kiwiproject.elucidation.data.light.model.SmartLight;
 import org.kiwiproject.elucidation.data.light.resource.SmartLightResource;
 import io.dropwizard.Application;
 import io.dropwizard.db.PooledDataSourceFactory;
@@ -17,14 +34,16 @@ import lombok.extern.slf4j.Slf4j;
 import org.jdbi.v3.core.Jdbi;
 import org.jdbi.v3.sqlobject.SqlObjectPlugin;
 
-import javax.ws.rs.client.ClientBuilder;
-import java.util.concurrent.TimeUnit;
+import javax.ws.rs.client.Client;
+import java.time.Clock;
 
 @Slf4j
 public class App extends Application<AppConfig> {
 
     public static final String SERVICE_NAME = "light-service";
 
+    private static final String MIGRATIONS_FILE = "migrations/light.xml";
+
     public static void main(String[] args) throws Exception {
         new App().run(args);
     }
@@ -37,6 +56,11 @@ public class App extends Application<AppConfig> {
             public PooledDataSourceFactory getDataSourceFactory(AppConfig configuration) {
                 return configuration.getDataSourceFactory();
             }
+
+            @Override
+            public String getMigrationsFileName() {
+                return MIGRATIONS_FILE;
+            }
         });
     }
 
@@ -44,11 +68,22 @@ public class App extends Application<AppConfig> {
     public void run(AppConfig config, Environment env) {
 
         var jdbi = setupJdbi(config, env);
-        var lightDao = jdbi.onDemand(SmartLightDao.class);
-
-        var eventRecorder = setupEventRecorder();
-        env.jersey().register(new SmartLightResource(lightDao));
-        startConsumer(lightDao, env, eventRecorder);
+        var storage = new DeviceStorage(config.getStorage(), jdbi, SERVICE_NAME, MIGRATIONS_FILE);
+        env.lifecycle().manage(storage);
+        var lightDao = storage.dao(SmartLightDao.class, OffHeapSmartLightDao::new, CompactSmartLightDao::new);
+        var lightCache = lightCache(lightDao, env);
+        var lightStream = EventStreamServlet.serve(env, "light", "/light/stream");
+
+        var clock = config.getRunConfig().buildContext(SERVICE_NAME).getClock();
+        var deadLetters = new DeadLetterQueue(SERVICE_NAME, Clock.systemUTC(), env.metrics());
+        var eventRecorder = setupEventRecorder(config);
+        var spans = new SpanRecorder(SERVICE_NAME);
+        env.jersey().register(new SmartLightResource(lightDao, lightCache, lightStream));
+        env.jersey().register(new SpanResource(spans));
+        env.jersey().register(new DeadLetterResource(deadLetters));
+        env.jersey().register(new CorrelationFilter(spans));
+        var httpClient = HttpClients.build(env, config.getHttpClientConfig(), SERVICE_NAME, VirtualThreads.isEnabled(config));
+        startConsumer(lightDao, lightCache, lightStream, deadLetters, env, config, clock, eventRecorder, httpClient, spans);
 
         env.jersey().register(new EndpointTrackingListener(
                 env.jersey().getResourceConfig(),
@@ -67,19 +102,27 @@ public class App extends Application<AppConfig> {
         return jdbi;
     }
 
-    private ElucidationRecorder setupEventRecorder() {
-        // When using docker compose, elucidation will resolve
-        return new ElucidationRecorder("http://elucidation:8080");
+    /**
+     * Compact storage counts its own versions, so there is nothing to gain from keeping copies of its lights.
+     */
+    private StateCache<SmartLight> lightCache(SmartLightDao lightDao, Environment env) {
+        if (lightDao instanceof CompactSmartLightDao) {
+            var compact = (CompactSmartLightDao) lightDao;
+            return StateCache.versionedByStore("lights", compact::versionOf, compact::findById, env.metrics());
+        }
+        return new StateCache<>("lights", lightDao::findById, env.metrics());
+    }
+
+    private ElucidationRecorder setupEventRecorder(AppConfig config) {
+        return new ElucidationRecorder(config.getElucidationUrl());
     }
 
-    private void startConsumer(SmartLightDao lightDao, Environment env, ElucidationRecorder eventRecorder) {
-        var executor = env.lifecycle().scheduledExecutorService("jms").build();
+    private void startConsumer(SmartLightDao lightDao, StateCache<SmartLight> lightCache, StateBroadcaster lightStream, DeadLetterQueue deadLetters, Environment env, AppConfig config, Clock clock, ElucidationRecorder eventRecorder, Client httpClient, SpanRecorder spans) {
+        var jmsConsumer = new JmsConsumer(lightDao, lightCache, lightStream, new DuplicateFilter(config.getDedup(), Clock.systemUTC(), env.metrics(), SERVICE_NAME), deadLetters, new RetryPolicy(config.getRetry(), env.metrics(), SERVICE_NAME), config.getBreakers(), eventRecorder, env.getObjectMapper(), httpClient, config.getHomeUrl(), clock, env.metrics(), spans);
 
-        var httpClient = ClientBuilder.newClient();
-        executor.schedule(() -> {
-            var jmsConsumer = new JmsConsumer(lightDao, eventRecorder, env.getObjectMapper(), httpClient);
-            jmsConsumer.start();
-        }, 30, TimeUnit.SECONDS);
+        var connections = new JmsConnections(config.getJms(), SERVICE_NAME, env.lifecycle().scheduledExecutorService("jms").build(), VirtualThreads.isEnabled(config));
+        connections.subscribe(jmsConsumer.subscription(config.getJmsBatch()));
+        env.lifecycle().manage(connections);
     }
 }
 
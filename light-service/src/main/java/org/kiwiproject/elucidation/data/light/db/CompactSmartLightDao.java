@@ -0,0 +1,303 @@
+package org.kiwiproject.elucidation.data.light.db;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.isNull;
+
+import org.kiwiproject.elucidation.data.common.store.LongIntMap;
+import org.kiwiproject.elucidation.data.common.store.StringDictionary;
+import org.kiwiproject.elucidation.data.light.model.SmartLight;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Keeps lights as columns of primitives on the heap, one slot per light across them, for runs with millions of
+ * lights. State and color are a byte each and brightness a short, and name, brand and location are codes into a
+ * {@link StringDictionary}, and each light counts its own writes as a version, so a light is 20 bytes of columns plus
+ * its entry in the id to slot map. Changing a light writes to the columns without making objects of its own, and a
+ * batch of changes can be given as {@link #setColorsAndBrightness(byte[], short[], long[], int, int[]) primitive
+ * arrays}; lights are only made into objects when they are read.
+ * <p>
+ * Ids are handed out from 1 and never reused, but the slots of deleted lights are. Reads share a lock and writes
+ * take it alone.
+ */
+public class CompactSmartLightDao implements SmartLightDao {
+
+    private static final byte NULL = -1;
+
+    private static final SmartLight.State[] STATES = SmartLight.State.values();
+    private static final SmartLight.Color[] COLORS = SmartLight.Color.values();
+
+    private final LongIntMap slots;
+    private final StringDictionary strings = new StringDictionary();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private byte[] states;
+    private byte[] colors;
+    private short[] brightness;
+    private int[] names;
+    private int[] brands;
+    private int[] locations;
+    private int[] versions;
+
+    private int[] freeSlots = new int[0];
+    private int freeCount;
+    private int usedSlots;
+    private long lastId;
+
+    /**
+     * @param capacity how many lights to make room for before growing
+     */
+    public CompactSmartLightDao(int capacity) {
+        checkArgument(capacity > 0, "capacity must be positive");
+        slots = new LongIntMap(capacity);
+        states = new byte[capacity];
+        colors = new byte[capacity];
+        brightness = new short[capacity];
+        names = new int[capacity];
+        brands = new int[capacity];
+        locations = new int[capacity];
+        versions = new int[capacity];
+    }
+
+    @Override
+    public List<SmartLight> findAll() {
+        lock.readLock().lock();
+        try {
+            var lights = new ArrayList<SmartLight>(slots.size());
+            slots.forEach((id, slot) -> lights.add(toLight(id, slot)));
+            lights.sort(Comparator.comparing(SmartLight::getId));
+            return lights;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Optional<SmartLight> findById(Long id) {
+        if (isNull(id)) {
+            return Optional.empty();
+        }
+
+        lock.readLock().lock();
+        try {
+            var slot = slots.get(id);
+            return slot == LongIntMap.MISSING ? Optional.empty() : Optional.of(toLight(id, slot));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Optional<String> findNameById(long id) {
+        lock.readLock().lock();
+        try {
+            var slot = slots.get(id);
+            return slot == LongIntMap.MISSING ? Optional.empty() : Optional.ofNullable(strings.string(names[slot]));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return how many times the light has been written, or -1 if there is no such light
+     */
+    public long versionOf(long id) {
+        lock.readLock().lock();
+        try {
+            var slot = slots.get(id);
+            return slot == LongIntMap.MISSING ? -1 : versions[slot];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public long create(SmartLight light) {
+        var level = toBrightness(light.getBrightness());
+
+        lock.writeLock().lock();
+        try {
+            var slot = freeCount > 0 ? freeSlots[--freeCount] : nextSlot();
+            var id = ++lastId;
+            slots.put(id, slot);
+            states[slot] = ordinal(light.getState());
+            colors[slot] = ordinal(light.getColor());
+            brightness[slot] = level;
+            names[slot] = strings.code(light.getName());
+            brands[slot] = strings.code(light.getBrand());
+            locations[slot] = strings.code(light.getLocation());
+            versions[slot]++;
+            return id;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public int saveState(SmartLight.State state, long id) {
+        var value = ordinal(state);
+
+        lock.writeLock().lock();
+        try {
+            var slot = slots.get(id);
+            if (slot == LongIntMap.MISSING) {
+                return 0;
+            }
+            states[slot] = value;
+            versions[slot]++;
+            return 1;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public int setColor(SmartLight.Color color, long id) {
+        var value = ordinal(color);
+
+        lock.writeLock().lock();
+        try {
+            var slot = slots.get(id);
+            if (slot == LongIntMap.MISSING) {
+                return 0;
+            }
+            colors[slot] = value;
+            versions[slot]++;
+            return 1;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public int setBrightness(int brightness, long id) {
+        var value = toBrightness(brightness);
+
+        lock.writeLock().lock();
+        try {
+            var slot = slots.get(id);
+            if (slot == LongIntMap.MISSING) {
+                return 0;
+            }
+            this.brightness[slot] = value;
+            versions[slot]++;
+            return 1;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Applies the whole batch under one lock, so it is seen all at once as a transaction's would be.
+     */
+    @Override
+    public int[] setColorsAndBrightness(List<SmartLight.Color> colors, List<Integer> brightness, List<Long> ids) {
+        var count = ids.size();
+        var colorOrdinals = new byte[count];
+        var levels = new short[count];
+        var lightIds = new long[count];
+        for (var i = 0; i < count; i++) {
+            colorOrdinals[i] = ordinal(colors.get(i));
+            levels[i] = toBrightness(brightness.get(i));
+            lightIds[i] = ids.get(i);
+        }
+
+        var updated = new int[count];
+        setColorsAndBrightness(colorOrdinals, levels, lightIds, count, updated);
+        return updated;
+    }
+
+    /**
+     * The same batch update for a caller that keeps its own buffers: the first {@code count} entries of the arrays are
+     * the changes, with colors as {@link SmartLight.Color} ordinals, and {@code updated} is filled with each one's
+     * updated count. Nothing is made, so a batch costs only the writes.
+     */
+    public void setColorsAndBrightness(byte[] colors, short[] brightness, long[] ids, int count, int[] updated) {
+        checkArgument(count <= colors.length && count <= brightness.length && count <= ids.length && count <= updated.length,
+                "count %s is more than the arrays hold", count);
+
+        lock.writeLock().lock();
+        try {
+            for (var i = 0; i < count; i++) {
+                var slot = slots.get(ids[i]);
+                if (slot == LongIntMap.MISSING) {
+                    updated[i] = 0;
+                } else {
+                    this.colors[slot] = colors[i];
+                    this.brightness[slot] = brightness[i];
+                    versions[slot]++;
+                    updated[i] = 1;
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public int deleteLight(long id) {
+        lock.writeLock().lock();
+        try {
+            var slot = slots.remove(id);
+            if (slot == LongIntMap.MISSING) {
+                return 0;
+            }
+            if (freeCount == freeSlots.length) {
+                freeSlots = Arrays.copyOf(freeSlots, Math.max(16, freeCount * 2));
+            }
+            freeSlots[freeCount++] = slot;
+            return 1;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private int nextSlot() {
+        if (usedSlots == states.length) {
+            var capacity = states.length * 2;
+            states = Arrays.copyOf(states, capacity);
+            colors = Arrays.copyOf(colors, capacity);
+            brightness = Arrays.copyOf(brightness, capacity);
+            names = Arrays.copyOf(names, capacity);
+            brands = Arrays.copyOf(brands, capacity);
+            locations = Arrays.copyOf(locations, capacity);
+            versions = Arrays.copyOf(versions, capacity);
+        }
+        return usedSlots++;
+    }
+
+    /**
+     * Brightness is a percentage, so a short has room to spare; anything that doesn't fit is refused rather than
+     * stored as something else.
+     */
+    private static short toBrightness(int brightness) {
+        checkArgument(brightness >= Short.MIN_VALUE && brightness <= Short.MAX_VALUE,
+                "brightness %s is out of range", brightness);
+        return (short) brightness;
+    }
+
+    private static byte ordinal(Enum<?> value) {
+        return isNull(value) ? NULL : (byte) value.ordinal();
+    }
+
+    private static <E> E value(byte ordinal, E[] values) {
+        return ordinal == NULL ? null : values[ordinal];
+    }
+
+    private SmartLight toLight(long id, int slot) {
+        return SmartLight.builder()
+                .id(id)
+                .name(strings.string(names[slot]))
+                .brand(strings.string(brands[slot]))
+                .location(strings.string(locations[slot]))
+                .state(value(states[slot], STATES))
+                .color(value(colors[slot], COLORS))
+                .brightness(brightness[slot])
+                .build();
+    }
+}
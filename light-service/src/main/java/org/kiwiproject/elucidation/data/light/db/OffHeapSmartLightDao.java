@@ -0,0 +1,110 @@
+package org.kiwiproject.elucidation.data.light.db;
+
+import static java.util.Objects.isNull;
+import static org.kiwiproject.elucidation.data.common.store.OffHeapTable.ENUM_BYTES;
+import static org.kiwiproject.elucidation.data.common.store.OffHeapTable.INT_BYTES;
+import static org.kiwiproject.elucidation.data.common.store.OffHeapTable.STRING_BYTES;
+
+import org.kiwiproject.elucidation.data.common.store.OffHeapTable;
+import org.kiwiproject.elucidation.data.light.model.SmartLight;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Keeps lights in off-heap memory instead of a database, for runs that don't need them to outlive the service.
+ */
+public class OffHeapSmartLightDao implements SmartLightDao {
+
+    private static final int NAME = 0;
+    private static final int BRAND = NAME + STRING_BYTES;
+    private static final int LOCATION = BRAND + STRING_BYTES;
+    private static final int STATE = LOCATION + STRING_BYTES;
+    private static final int COLOR = STATE + ENUM_BYTES;
+    private static final int BRIGHTNESS = COLOR + ENUM_BYTES;
+    private static final int FIELD_BYTES = BRIGHTNESS + INT_BYTES;
+
+    private static final SmartLight.State[] STATES = SmartLight.State.values();
+    private static final SmartLight.Color[] COLORS = SmartLight.Color.values();
+
+    private final OffHeapTable lights;
+
+    public OffHeapSmartLightDao(int capacity) {
+        lights = new OffHeapTable(FIELD_BYTES, capacity);
+    }
+
+    @Override
+    public List<SmartLight> findAll() {
+        return lights.findAll(this::toLight);
+    }
+
+    @Override
+    public Optional<SmartLight> findById(Long id) {
+        return isNull(id) ? Optional.empty() : lights.find(id, this::toLight);
+    }
+
+    @Override
+    public Optional<String> findNameById(long id) {
+        return lights.find(id, record -> record.getString(NAME));
+    }
+
+    @Override
+    public long create(SmartLight light) {
+        return lights.insert(record -> {
+            record.putString(NAME, light.getName());
+            record.putString(BRAND, light.getBrand());
+            record.putString(LOCATION, light.getLocation());
+            record.putEnum(STATE, light.getState());
+            record.putEnum(COLOR, light.getColor());
+            record.putInt(BRIGHTNESS, light.getBrightness());
+        });
+    }
+
+    @Override
+    public int saveState(SmartLight.State state, long id) {
+        return lights.update(id, record -> record.putEnum(STATE, state));
+    }
+
+    @Override
+    public int setColor(SmartLight.Color color, long id) {
+        return lights.update(id, record -> record.putEnum(COLOR, color));
+    }
+
+    @Override
+    public int setBrightness(int brightness, long id) {
+        return lights.update(id, record -> record.putInt(BRIGHTNESS, brightness));
+    }
+
+    @Override
+    public int[] setColorsAndBrightness(List<SmartLight.Color> colors, List<Integer> brightness, List<Long> ids) {
+        return lights.batch(() -> {
+            var updated = new int[ids.size()];
+            for (var i = 0; i < ids.size(); i++) {
+                var color = colors.get(i);
+                var level = brightness.get(i);
+                updated[i] = lights.update(ids.get(i), record -> {
+                    record.putEnum(COLOR, color);
+                    record.putInt(BRIGHTNESS, level);
+                });
+            }
+            return updated;
+        });
+    }
+
+    @Override
+    public int deleteLight(long id) {
+        return lights.delete(id);
+    }
+
+    private SmartLight toLight(OffHeapTable.Record record) {
+        return SmartLight.builder()
+                .id(record.getId())
+                .name(record.getString(NAME))
+                .brand(record.getString(BRAND))
+                .location(record.getString(LOCATION))
+                .state(record.getEnum(STATE, STATES))
+                .color(record.getEnum(COLOR, COLORS))
+                .brightness(record.getInt(BRIGHTNESS))
+                .build();
+    }
+}
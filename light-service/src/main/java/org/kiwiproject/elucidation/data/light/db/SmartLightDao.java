@@ -6,6 +6,7 @@ import org.jdbi.v3.sqlobject.config.RegisterRowMapper;
 import org.jdbi.v3.sqlobject.customizer.Bind;
 import org.jdbi.v3.sqlobject.customizer.BindBean;
 import org.jdbi.v3.sqlobject.statement.GetGeneratedKeys;
+import org.jdbi.v3.sqlobject.statement.SqlBatch;
 import org.jdbi.v3.sqlobject.statement.SqlQuery;
 import org.jdbi.v3.sqlobject.statement.SqlUpdate;
 
@@ -21,6 +22,9 @@ public interface SmartLightDao {
     @SqlQuery("select * from lights where id = :id")
     Optional<SmartLight> findById(@Bind("id") Long id);
 
+    @SqlQuery("select name from lights where id = :id")
+    Optional<String> findNameById(@Bind("id") long id);
+
     @SqlUpdate("insert into lights (name, brand, location, state, color, brightness) values (:name, :brand, :location, :state, :color, :brightness)")
     @GetGeneratedKeys
     long create(@BindBean SmartLight thermostat);
@@ -34,6 +38,14 @@ public interface SmartLightDao {
     @SqlUpdate("update lights set brightness = :brightness where id = :id")
     int setBrightness(@Bind("brightness") int brightness, @Bind("id") long id);
 
+    /**
+     * Sets the color and brightness of many lights in one transaction.
+     *
+     * @return how many rows each update changed, in order
+     */
+    @SqlBatch("update lights set color = :color, brightness = :brightness where id = :id")
+    int[] setColorsAndBrightness(@Bind("color") List<SmartLight.Color> colors, @Bind("brightness") List<Integer> brightness, @Bind("id") List<Long> ids);
+
     @SqlUpdate("delete from lights where id = :id")
     int deleteLight(@Bind("id") long id);
 }
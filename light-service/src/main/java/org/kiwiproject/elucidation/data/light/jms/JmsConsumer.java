@@ -4,111 +4,306 @@ import static org.kiwiproject.elucidation.data.light.App.SERVICE_NAME;
 import static java.util.Objects.nonNull;
 import static javax.ws.rs.client.Entity.json;
 
+import com.codahale.metrics.MetricRegistry;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.primitives.Shorts;
 import org.kiwiproject.elucidation.client.ElucidationClient;
 import org.kiwiproject.elucidation.client.ElucidationRecorder;
 import org.kiwiproject.elucidation.client.helper.jersey.InboundHttpRequestTrackingFilter;
 import org.kiwiproject.elucidation.common.definition.JmsCommunicationDefinition;
 import org.kiwiproject.elucidation.common.model.ConnectionEvent;
 import org.kiwiproject.elucidation.common.model.Direction;
+import org.kiwiproject.elucidation.data.common.cache.StateCache;
+import org.kiwiproject.elucidation.data.common.jms.BatchConfig;
+import org.kiwiproject.elucidation.data.common.jms.CircuitBreaker;
+import org.kiwiproject.elucidation.data.common.jms.CircuitBreakerConfig;
+import org.kiwiproject.elucidation.data.common.jms.ConsumerMetrics;
+import org.kiwiproject.elucidation.data.common.jms.DeadLetterQueue;
+import org.kiwiproject.elucidation.data.common.jms.DuplicateFilter;
+import org.kiwiproject.elucidation.data.common.jms.JmsConnections;
+import org.kiwiproject.elucidation.data.common.jms.RetryPolicy;
+import org.kiwiproject.elucidation.data.common.jms.Subscription;
+import org.kiwiproject.elucidation.data.common.stream.StateBroadcaster;
+import org.kiwiproject.elucidation.data.common.trace.Correlation;
+import org.kiwiproject.elucidation.data.common.trace.SpanRecorder;
+import org.kiwiproject.elucidation.data.light.db.CompactSmartLightDao;
 import org.kiwiproject.elucidation.data.light.db.SmartLightDao;
 import org.kiwiproject.elucidation.data.light.model.Event;
 import org.kiwiproject.elucidation.data.light.model.SmartLight;
+import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.activemq.artemis.jms.client.ActiveMQConnectionFactory;
 
-import javax.jms.JMSContext;
 import javax.jms.Message;
-import javax.jms.MessageListener;
 import javax.jms.TextMessage;
 import javax.ws.rs.client.Client;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 @Slf4j
-public class JmsConsumer implements MessageListener {
+public class JmsConsumer {
+
+    private static final String TOPIC = "iotEvent";
+    private static final String SUBSCRIPTION = SERVICE_NAME;
 
     private final SmartLightDao dao;
+    private final StateCache<SmartLight> cache;
+    private final StateBroadcaster stream;
+    private final DuplicateFilter dedup;
+    private final DeadLetterQueue deadLetters;
+    private final RetryPolicy retry;
+    private final CircuitBreaker elucidationBreaker;
+    private final CircuitBreaker homeBreaker;
     private final ElucidationClient<Event> elucidationClient;
     private final ObjectMapper json;
+    private final ConsumerMetrics metrics;
+    private final SpanRecorder spans;
     private final Client httpClient;
+    private final String homeUrl;
+
+    private byte[] colorBuffer = new byte[0];
+    private short[] brightnessBuffer = new short[0];
+    private long[] idBuffer = new long[0];
+    private int[] updatedBuffer = new int[0];
 
-    public JmsConsumer(SmartLightDao dao, ElucidationRecorder recorder, ObjectMapper json, Client httpClient) {
+    public JmsConsumer(SmartLightDao dao, StateCache<SmartLight> cache, StateBroadcaster stream, DuplicateFilter dedup, DeadLetterQueue deadLetters, RetryPolicy retry, CircuitBreakerConfig breakers, ElucidationRecorder recorder, ObjectMapper json, Client httpClient, String homeUrl, Clock clock, MetricRegistry metrics, SpanRecorder spans) {
         this.dao = dao;
+        this.cache = cache;
+        this.stream = stream;
+        this.dedup = dedup;
+        this.deadLetters = deadLetters;
+        this.retry = retry;
+        this.elucidationBreaker = new CircuitBreaker("elucidation", breakers, Clock.systemUTC(), metrics, SERVICE_NAME);
+        this.homeBreaker = new CircuitBreaker("home", breakers, Clock.systemUTC(), metrics, SERVICE_NAME);
         this.json = json;
+        this.metrics = new ConsumerMetrics(metrics, SERVICE_NAME);
+        this.spans = spans;
         this.httpClient = httpClient;
+        this.homeUrl = homeUrl;
 
         var communicationDef = new JmsCommunicationDefinition();
         this.elucidationClient = ElucidationClient.of(recorder, evt -> Optional.of(ConnectionEvent.builder()
                 .communicationType(communicationDef.getCommunicationType())
                 .connectionIdentifier(evt.getAction())
                 .eventDirection(Direction.INBOUND)
-                .serviceName("light-service")
-                .observedAt(System.currentTimeMillis())
+                .serviceName(SERVICE_NAME)
+                .observedAt(clock.millis())
                 .build()));
     }
 
-    @SuppressWarnings("java:S2095")
-    public void start() {
-        try {
-            var factory = new ActiveMQConnectionFactory("tcp://artemis:61616");
-            var jmsContext = factory.createContext("elucidation", "password", JMSContext.AUTO_ACKNOWLEDGE);
+    /**
+     * This consumer's shared subscription to the topic, to register with {@link JmsConnections}.
+     */
+    public Subscription subscription(BatchConfig batch) {
+        return Subscription.builder()
+                .topic(TOPIC)
+                .name(SUBSCRIPTION)
+                .handler(this::handle)
+                .batch(batch)
+                .retry(retry)
+                .deadLetters(deadLetters)
+                .metrics(metrics)
+                .build();
+    }
+
+    /**
+     * Applies the light events among the messages in one transaction. If that fails, the events are forgotten by
+     * the dedup filter so they are applied when redelivered, and the exception is thrown.
+     */
+    public void handle(List<Message> messages) {
+        var start = System.nanoTime();
+        var changes = new ArrayList<Change>(messages.size());
+        for (var message : messages) {
+            accept(message).ifPresent(changes::add);
+        }
+        if (changes.isEmpty()) {
+            return;
+        }
 
-            jmsContext.setClientID("light-service");
+        int[] updated;
+        try {
+            updated = metrics.getUpdate().timeSupplier(() -> update(changes));
+        } catch (RuntimeException e) {
+            changes.forEach(change -> dedup.forget(change.getEvent().getUuid()));
+            throw e;
+        }
 
-            var topic = jmsContext.createTopic("iotEvent");
-            var consumer = jmsContext.createConsumer(topic);
-            consumer.setMessageListener(this);
-            LOG.info("Connection to Artemis is setup");
-        } catch (Exception e) {
-            LOG.error("Got an error", e);
+        for (var i = 0; i < changes.size(); i++) {
+            applied(changes.get(i), updated[i] > 0, start);
         }
     }
 
-    public void onMessage(Message message) {
-        var txtMsg = (TextMessage) message;
+    /**
+     * Compact storage takes the batch as primitive arrays, so it is copied into buffers kept from one batch to the
+     * next rather than into lists of boxed values. The subscription has one session, so batches come one at a time.
+     *
+     * @return the updated count of each change, in a buffer that may be longer than the batch
+     */
+    private int[] update(List<Change> changes) {
+        if (!(dao instanceof CompactSmartLightDao)) {
+            return dao.setColorsAndBrightness(
+                    changes.stream().map(Change::getColor).collect(Collectors.toList()),
+                    changes.stream().map(Change::getBrightness).collect(Collectors.toList()),
+                    changes.stream().map(change -> change.getEvent().getIotLookup()).collect(Collectors.toList()));
+        }
+
+        var count = changes.size();
+        if (idBuffer.length < count) {
+            colorBuffer = new byte[count];
+            brightnessBuffer = new short[count];
+            idBuffer = new long[count];
+            updatedBuffer = new int[count];
+        }
+        for (var i = 0; i < count; i++) {
+            var change = changes.get(i);
+            colorBuffer[i] = (byte) change.getColor().ordinal();
+            brightnessBuffer[i] = Shorts.checkedCast(change.getBrightness());
+            idBuffer[i] = change.getEvent().getIotLookup();
+        }
+        ((CompactSmartLightDao) dao).setColorsAndBrightness(colorBuffer, brightnessBuffer, idBuffer, count, updatedBuffer);
+        return updatedBuffer;
+    }
 
+    /**
+     * The change a message asks for, unless it isn't for lights or has been applied already. Messages that can't
+     * be read are dead-lettered.
+     */
+    private Optional<Change> accept(Message message) {
         try {
-            LOG.info("Got message: {}", txtMsg.getText());
+            var sampled = metrics.markReceived(message);
+            var correlationId = message.getStringProperty(Correlation.PROPERTY);
+            Correlation.set(correlationId);
+            var text = ((TextMessage) message).getText();
+            if (sampled) {
+                LOG.debug("Got message: {}", text);
+            }
 
-            var evt = json.readValue(txtMsg.getText(), Event.class);
+            var evt = metrics.getParse().time(() -> json.readValue(text, Event.class));
 
-            if ("light".equalsIgnoreCase(evt.getAction())) {
-                LOG.info("Message is for light, so processing");
-                recordEvent(evt);
+            if (!metrics.getFilter().timeSupplier(() -> "light".equalsIgnoreCase(evt.getAction()))) {
+                metrics.ignored(evt.getAction());
+                return Optional.empty();
+            }
 
-                dao.setColor(SmartLight.Color.valueOf((String) evt.getValue().get("color")), evt.getIotLookup());
-                dao.setBrightness((Integer) evt.getValue().get("brightness"), evt.getIotLookup());
+            var change = new Change(evt, correlationId,
+                    SmartLight.Color.valueOf((String) evt.getValue().get("color")),
+                    (Integer) evt.getValue().get("brightness"));
 
-                var light = dao.findById(evt.getIotLookup());
-                httpClient.target("http://home:8080/home/device/record/event/{type}/{name}")
-                        .resolveTemplate("type", "LIGHT")
-                        .resolveTemplate("name", light.orElseThrow().getName())
-                        .request()
-                        .header(InboundHttpRequestTrackingFilter.ELUCIDATION_ORIGINATING_SERVICE_HEADER, SERVICE_NAME)
-                        .put(json(""));
+            if (!dedup.firstSeen(evt.getUuid())) {
+                LOG.debug("Skipping event {}, it has been applied already", evt.getUuid());
+                return Optional.empty();
             }
+
+            metrics.accepted(evt.getAction());
+            spans.recordSinceSent(correlationId, "jms transit", message.getJMSTimestamp());
+            return Optional.of(change);
         } catch (Exception e) {
-            LOG.error("Problem reading message", e);
+            deadLetters.send(message, DeadLetterQueue.Reason.POISON, e);
+            return Optional.empty();
+        } finally {
+            Correlation.clear();
         }
     }
 
+    private void applied(Change change, boolean updated, long start) {
+        var evt = change.getEvent();
+        Correlation.set(change.getCorrelationId());
+        try {
+            metrics.getRecord().time(() -> recordEvent(evt));
+            if (updated) {
+                cache.invalidate(evt.getIotLookup());
+                stream.publish(evt.getIotLookup(), Map.of("color", change.getColor(), "brightness", change.getBrightness()));
+                dao.findNameById(evt.getIotLookup()).ifPresent(name -> metrics.getCallback().time(
+                        () -> recordEventWithHome(name, evt.getHome(), change.getCorrelationId())));
+            }
+
+            spans.recordSince(change.getCorrelationId(), "jms handle", start);
+        } catch (Exception e) {
+            LOG.error("Problem finishing event {}", evt.getUuid(), e);
+        } finally {
+            Correlation.clear();
+        }
+    }
+
+    /**
+     * Tells home about the change. The home the event came from goes along so a router can pick the home's shard.
+     */
+    private void recordEventWithHome(String lightName, String home, String correlationId) {
+        if (!homeBreaker.allow()) {
+            LOG.debug("Not recording light event with home, its circuit breaker is open");
+            return;
+        }
+
+        var start = System.nanoTime();
+        var target = httpClient.target(homeUrl)
+                .path("home/device/record/event/{type}/{name}")
+                .resolveTemplate("type", "LIGHT")
+                .resolveTemplate("name", lightName);
+        if (nonNull(home)) {
+            target = target.queryParam("home", home);
+        }
+
+        target.request()
+                .header(InboundHttpRequestTrackingFilter.ELUCIDATION_ORIGINATING_SERVICE_HEADER, SERVICE_NAME)
+                .header(Correlation.HEADER, correlationId)
+                .rx()
+                .put(json(""))
+                .whenComplete((response, exception) -> {
+                    spans.recordSince(correlationId, "http callback", start);
+
+                    if (nonNull(exception)) {
+                        homeBreaker.failure();
+                        LOG.warn("Unable to record light event with home", exception);
+                        return;
+                    }
+
+                    if (response.getStatus() != 202) {
+                        homeBreaker.failure();
+                        LOG.warn("Unable to record light event with home. Status: {} Body: {}", response.getStatus(), response.readEntity(String.class));
+                    } else {
+                        homeBreaker.success();
+                    }
+                    response.close();
+                });
+    }
+
     private void recordEvent(Event evt) {
+        if (!elucidationBreaker.allow()) {
+            LOG.debug("Not recording event with Elucidation, its circuit breaker is open");
+            return;
+        }
+
         elucidationClient.recordNewEvent(evt).whenComplete((result, exception) -> {
             if (nonNull(exception)) {
+                elucidationBreaker.failure();
                 LOG.error("An error occurred recording an event.", exception);
                 return;
             }
 
             switch (result.getStatus()) {
                 case SUCCESS:
-                    LOG.info("Successfully recorded event to Elucidation");
+                    elucidationBreaker.success();
+                    LOG.debug("Successfully recorded event to Elucidation");
                     break;
                 case SKIPPED:
+                    elucidationBreaker.success();
                     LOG.info("Recording was skipped. Shouldn't happen here");
                     break;
                 case ERROR:
+                    elucidationBreaker.failure();
                     LOG.error("Had a problem recording event. Error: {} Exception: {}", result.getErrorMessage(), result.getException());
             }
         });
     }
+
+    @Value
+    private static class Change {
+        Event event;
+        String correlationId;
+        SmartLight.Color color;
+        int brightness;
+    }
 }
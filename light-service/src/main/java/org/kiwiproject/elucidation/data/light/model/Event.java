@@ -15,5 +15,6 @@ public class Event {
     private String action;
     private Map<String, Object> value;
     private Long iotLookup;
+    private String home;
 
 }
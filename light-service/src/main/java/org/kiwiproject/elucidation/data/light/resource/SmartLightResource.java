@@ -2,6 +2,8 @@ package org.kiwiproject.elucidation.data.light.resource;
 
 import com.codahale.metrics.annotation.ExceptionMetered;
 import com.codahale.metrics.annotation.Timed;
+import org.kiwiproject.elucidation.data.common.cache.StateCache;
+import org.kiwiproject.elucidation.data.common.stream.StateBroadcaster;
 import org.kiwiproject.elucidation.data.light.db.SmartLightDao;
 import org.kiwiproject.elucidation.data.light.model.SmartLight;
 
@@ -15,7 +17,9 @@ import javax.ws.rs.PUT;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.UriBuilder;
 import java.util.Map;
@@ -26,9 +30,13 @@ import java.util.Map;
 public class SmartLightResource {
 
     private final SmartLightDao dao;
+    private final StateCache<SmartLight> cache;
+    private final StateBroadcaster stream;
 
-    public SmartLightResource(SmartLightDao dao) {
+    public SmartLightResource(SmartLightDao dao, StateCache<SmartLight> cache, StateBroadcaster stream) {
         this.dao = dao;
+        this.cache = cache;
+        this.stream = stream;
     }
 
     @GET
@@ -42,12 +50,10 @@ public class SmartLightResource {
     @Path("/{id}/status")
     @Timed
     @ExceptionMetered
-    public Response currentStatus(@PathParam("id") long id) {
-        var optionalLight = dao.findById(id);
+    public Response currentStatus(@PathParam("id") long id, @Context Request request) {
+        var light = cache.get(id).orElseThrow(NotFoundException::new);
 
-        var light = optionalLight.orElseThrow(NotFoundException::new);
-
-        return Response.ok(light).build();
+        return light.toResponse(request);
     }
 
     @POST
@@ -66,7 +72,7 @@ public class SmartLightResource {
     @Timed
     @ExceptionMetered
     public Response turnLightOn(@PathParam("id") long id) {
-        dao.saveState(SmartLight.State.ON, id);
+        changed(id, dao.saveState(SmartLight.State.ON, id), "state", SmartLight.State.ON);
         return Response.accepted().build();
     }
 
@@ -75,7 +81,7 @@ public class SmartLightResource {
     @Timed
     @ExceptionMetered
     public Response turnLightOff(@PathParam("id") long id) {
-        dao.saveState(SmartLight.State.OFF, id);
+        changed(id, dao.saveState(SmartLight.State.OFF, id), "state", SmartLight.State.OFF);
         return Response.accepted().build();
     }
 
@@ -84,7 +90,7 @@ public class SmartLightResource {
     @Timed
     @ExceptionMetered
     public Response setLightColor(@PathParam("id") long id, @PathParam("color") SmartLight.Color color) {
-        dao.setColor(color, id);
+        changed(id, dao.setColor(color, id), "color", color);
         return Response.accepted().build();
     }
 
@@ -93,7 +99,7 @@ public class SmartLightResource {
     @Timed
     @ExceptionMetered
     public Response setLightBrightness(@PathParam("id") long id, @PathParam("brightness") int brightness) {
-        dao.setBrightness(brightness, id);
+        changed(id, dao.setBrightness(brightness, id), "brightness", brightness);
         return Response.accepted().build();
     }
 
@@ -103,7 +109,14 @@ public class SmartLightResource {
     @ExceptionMetered
     public Response deleteLight(@PathParam("id") long id) {
         dao.deleteLight(id);
+        cache.remove(id);
         return Response.accepted().build();
     }
 
+    private void changed(long id, int updated, String field, Object value) {
+        cache.invalidate(id);
+        if (updated > 0) {
+            stream.publish(id, Map.of(field, value));
+        }
+    }
 }
@@ -0,0 +1,216 @@
+package org.kiwiproject.elucidation.data.light.db;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+import org.kiwiproject.elucidation.data.light.model.SmartLight;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+@SuppressWarnings("java:S100")
+@DisplayName("CompactSmartLightDao")
+class CompactSmartLightDaoTest {
+
+    private static final String SMART_LIGHT_NAME = "My First Smart Light";
+    private static final String LOCATION = "Kitchen";
+    private static final String BRAND = "Phillips-Hue";
+
+    private CompactSmartLightDao dao;
+
+    @BeforeEach
+    void setUp() {
+        // small, so tests make it grow
+        dao = new CompactSmartLightDao(2);
+    }
+
+    private long createLight(String name) {
+        return dao.create(SmartLight.builder().name(name).brand(BRAND).location(LOCATION).build());
+    }
+
+    @Nested
+    class Create {
+
+        @Test
+        void shouldCreateNewSmartLight_WithTheDefaults() {
+            var id = createLight(SMART_LIGHT_NAME);
+
+            assertThat(dao.findById(id)).get()
+                    .extracting("id", "name", "brand", "location", "state", "color", "brightness")
+                    .containsExactly(1L, SMART_LIGHT_NAME, BRAND, LOCATION, SmartLight.State.OFF,
+                            SmartLight.Color.SOFT_WHITE, 100);
+        }
+
+        @Test
+        void shouldKeepNulls() {
+            var id = dao.create(SmartLight.builder().state(null).color(null).build());
+
+            assertThat(dao.findById(id)).get()
+                    .extracting("name", "brand", "location", "state", "color")
+                    .containsOnlyNulls();
+        }
+
+        @Test
+        void shouldKeepEveryLight_AsItGrows() {
+            IntStream.rangeClosed(1, 100).forEach(i -> createLight("light-" + i));
+
+            assertThat(dao.findById(77L)).get().extracting("name").isEqualTo("light-77");
+            assertThat(dao.findAll()).hasSize(100);
+        }
+
+        @Test
+        void shouldRefuseBrightness_ThatDoesNotFitAShort() {
+            var light = SmartLight.builder().name(SMART_LIGHT_NAME).brightness(40_000).build();
+
+            assertThatThrownBy(() -> dao.create(light)).isExactlyInstanceOf(IllegalArgumentException.class);
+            assertThat(dao.findAll()).isEmpty();
+        }
+    }
+
+    @Nested
+    class FindById {
+
+        @Test
+        void shouldReturnEmptyOptional_WhenSmartLightNotFound() {
+            createLight(SMART_LIGHT_NAME);
+
+            assertThat(dao.findById(2L)).isEmpty();
+            assertThat(dao.findById(null)).isEmpty();
+            assertThat(dao.findNameById(2L)).isEmpty();
+        }
+
+        @Test
+        void shouldFindTheName_WithoutTheRestOfTheLight() {
+            var id = createLight(SMART_LIGHT_NAME);
+
+            assertThat(dao.findNameById(id)).contains(SMART_LIGHT_NAME);
+        }
+    }
+
+    @Nested
+    class FindAllSmartLights {
+
+        @Test
+        void shouldReturnEveryLight_InIdOrder() {
+            createLight("first");
+            createLight("second");
+            createLight("third");
+            dao.deleteLight(1);
+            createLight("fourth");
+
+            assertThat(dao.findAll()).extracting("id", "name")
+                    .containsExactly(tuple(2L, "second"), tuple(3L, "third"), tuple(4L, "fourth"));
+        }
+    }
+
+    @Nested
+    class Updates {
+
+        @Test
+        void shouldChangeOnlyTheGivenField() {
+            var id = createLight(SMART_LIGHT_NAME);
+
+            assertThat(dao.saveState(SmartLight.State.ON, id)).isOne();
+            assertThat(dao.setColor(SmartLight.Color.BLUE, id)).isOne();
+            assertThat(dao.setBrightness(40, id)).isOne();
+
+            assertThat(dao.findById(id)).get()
+                    .extracting("name", "state", "color", "brightness")
+                    .containsExactly(SMART_LIGHT_NAME, SmartLight.State.ON, SmartLight.Color.BLUE, 40);
+        }
+
+        @Test
+        void shouldMoveTheVersionOn_WithEveryWrite() {
+            var id = createLight(SMART_LIGHT_NAME);
+            var created = dao.versionOf(id);
+
+            dao.saveState(SmartLight.State.ON, id);
+            dao.setColor(SmartLight.Color.BLUE, id);
+            dao.setBrightness(40, id);
+            dao.setColorsAndBrightness(List.of(SmartLight.Color.RED), List.of(10), List.of(id));
+            dao.findById(id);
+
+            assertThat(dao.versionOf(id)).isEqualTo(created + 4);
+            assertThat(dao.versionOf(id + 1)).isNegative();
+        }
+
+        @Test
+        void shouldReturnUpdatedCountOfZero_WhenSmartLightNotFound() {
+            assertThat(dao.saveState(SmartLight.State.ON, 1)).isZero();
+            assertThat(dao.setColor(SmartLight.Color.BLUE, 1)).isZero();
+            assertThat(dao.setBrightness(40, 1)).isZero();
+        }
+
+        @Test
+        void shouldSetColorsAndBrightness_AndReturnEachUpdatedCount() {
+            createLight("first");
+            createLight("second");
+            createLight("third");
+
+            var updated = dao.setColorsAndBrightness(List.of(SmartLight.Color.RED, SmartLight.Color.GREEN, SmartLight.Color.BLUE),
+                    List.of(10, 20, 30), List.of(1L, 3L, 4L));
+
+            assertThat(updated).containsExactly(1, 1, 0);
+            assertThat(dao.findAll()).extracting("color", "brightness").containsExactly(
+                    tuple(SmartLight.Color.RED, 10), tuple(SmartLight.Color.SOFT_WHITE, 100), tuple(SmartLight.Color.GREEN, 20));
+        }
+
+        @Test
+        void shouldSetColorsAndBrightness_FromTheFirstCountEntriesOfPrimitiveArrays() {
+            createLight("first");
+            createLight("second");
+            var updated = new int[] {-1, -1, -1, -1};
+
+            dao.setColorsAndBrightness(
+                    new byte[] {(byte) SmartLight.Color.RED.ordinal(), (byte) SmartLight.Color.GREEN.ordinal(), (byte) SmartLight.Color.BLUE.ordinal(), 0},
+                    new short[] {10, 20, 30, 0}, new long[] {2L, 5L, 1L, 2L}, 3, updated);
+
+            assertThat(updated).containsExactly(1, 0, 1, -1);
+            assertThat(dao.findAll()).extracting("color", "brightness").containsExactly(
+                    tuple(SmartLight.Color.BLUE, 30), tuple(SmartLight.Color.RED, 10));
+        }
+
+        @Test
+        void shouldApplyNoneOfABatch_WhenABrightnessDoesNotFitAShort() {
+            createLight("first");
+            createLight("second");
+
+            assertThatThrownBy(() -> dao.setColorsAndBrightness(List.of(SmartLight.Color.RED, SmartLight.Color.GREEN),
+                    List.of(10, 40_000), List.of(1L, 2L)))
+                    .isExactlyInstanceOf(IllegalArgumentException.class);
+            assertThat(dao.findAll()).extracting("color").containsOnly(SmartLight.Color.SOFT_WHITE);
+        }
+    }
+
+    @Nested
+    class DeleteLight {
+
+        @Test
+        void shouldDeleteSmartLightAndReturnUpdatedCount_WhenSmartLightFound() {
+            var id = createLight(SMART_LIGHT_NAME);
+
+            assertThat(dao.deleteLight(id)).isOne();
+            assertThat(dao.findAll()).isEmpty();
+            assertThat(dao.deleteLight(id)).isZero();
+        }
+
+        @Test
+        void shouldNotReuseIds_ButReuseTheSlot() {
+            createLight("first");
+            dao.deleteLight(1);
+
+            var id = dao.create(SmartLight.builder().name("second").state(SmartLight.State.ON).build());
+
+            assertThat(id).isEqualTo(2);
+            assertThat(dao.findById(1L)).isEmpty();
+            assertThat(dao.findById(2L)).get()
+                    .extracting("name", "brand", "state")
+                    .containsExactly("second", null, SmartLight.State.ON);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package org.kiwiproject.elucidation.data.light.db;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import org.kiwiproject.elucidation.data.light.model.SmartLight;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+@SuppressWarnings("java:S100")
+@DisplayName("OffHeapSmartLightDao")
+class OffHeapSmartLightDaoTest {
+
+    private static final String SMART_LIGHT_NAME = "My First Smart Light";
+    private static final String LOCATION = "Kitchen";
+    private static final String BRAND = "Phillips-Hue";
+
+    private OffHeapSmartLightDao dao;
+
+    @BeforeEach
+    void setUp() {
+        // small, so tests cross into a second chunk
+        dao = new OffHeapSmartLightDao(2);
+    }
+
+    private long createLight(String name) {
+        return dao.create(SmartLight.builder().name(name).brand(BRAND).location(LOCATION).build());
+    }
+
+    @Nested
+    class Create {
+
+        @Test
+        void shouldCreateNewSmartLight_WithTheDefaults() {
+            var id = createLight(SMART_LIGHT_NAME);
+
+            assertThat(dao.findById(id)).get()
+                    .extracting("id", "name", "brand", "location", "state", "color", "brightness")
+                    .containsExactly(1L, SMART_LIGHT_NAME, BRAND, LOCATION, SmartLight.State.OFF,
+                            SmartLight.Color.SOFT_WHITE, 100);
+        }
+    }
+
+    @Nested
+    class FindById {
+
+        @Test
+        void shouldReturnEmptyOptional_WhenSmartLightNotFound() {
+            createLight(SMART_LIGHT_NAME);
+
+            assertThat(dao.findById(2L)).isEmpty();
+            assertThat(dao.findById(null)).isEmpty();
+        }
+    }
+
+    @Nested
+    class FindAllSmartLights {
+
+        @Test
+        void shouldReturnEveryLight_InIdOrder() {
+            createLight("first");
+            createLight("second");
+            createLight("third");
+
+            assertThat(dao.findAll()).extracting("id", "name")
+                    .containsExactly(tuple(1L, "first"), tuple(2L, "second"), tuple(3L, "third"));
+        }
+    }
+
+    @Nested
+    class Updates {
+
+        @Test
+        void shouldChangeOnlyTheGivenField() {
+            var id = createLight(SMART_LIGHT_NAME);
+
+            assertThat(dao.saveState(SmartLight.State.ON, id)).isOne();
+            assertThat(dao.setColor(SmartLight.Color.BLUE, id)).isOne();
+            assertThat(dao.setBrightness(40, id)).isOne();
+
+            assertThat(dao.findById(id)).get()
+                    .extracting("name", "state", "color", "brightness")
+                    .containsExactly(SMART_LIGHT_NAME, SmartLight.State.ON, SmartLight.Color.BLUE, 40);
+        }
+
+        @Test
+        void shouldReturnUpdatedCountOfZero_WhenSmartLightNotFound() {
+            assertThat(dao.saveState(SmartLight.State.ON, 1)).isZero();
+            assertThat(dao.setColor(SmartLight.Color.BLUE, 1)).isZero();
+            assertThat(dao.setBrightness(40, 1)).isZero();
+        }
+
+        @Test
+        void shouldSetColorsAndBrightness_AndReturnEachUpdatedCount() {
+            createLight("first");
+            createLight("second");
+            createLight("third");
+
+            var updated = dao.setColorsAndBrightness(List.of(SmartLight.Color.RED, SmartLight.Color.GREEN, SmartLight.Color.BLUE),
+                    List.of(10, 20, 30), List.of(1L, 3L, 4L));
+
+            assertThat(updated).containsExactly(1, 1, 0);
+            assertThat(dao.findAll()).extracting("color", "brightness").containsExactly(
+                    tuple(SmartLight.Color.RED, 10), tuple(SmartLight.Color.SOFT_WHITE, 100), tuple(SmartLight.Color.GREEN, 20));
+        }
+    }
+
+    @Nested
+    class DeleteLight {
+
+        @Test
+        void shouldDeleteSmartLightAndReturnUpdatedCount_WhenSmartLightFound() {
+            var id = createLight(SMART_LIGHT_NAME);
+
+            assertThat(dao.deleteLight(id)).isOne();
+            assertThat(dao.findAll()).isEmpty();
+            assertThat(dao.deleteLight(id)).isZero();
+        }
+    }
+}
@@ -27,6 +27,7 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.sql.SQLException;
+import java.util.List;
 
 @SuppressWarnings("java:S100")
 @DisplayName("SmartLightDao")
@@ -49,7 +50,7 @@ class SmartLightDaoTest {
 
         var conn = dataSource.getConnection();
         var database = DatabaseFactory.getInstance().findCorrectDatabaseImplementation(new JdbcConnection(conn));
-        liquibase = new Liquibase("migrations.xml", new ClassLoaderResourceAccessor(), database);
+        liquibase = new Liquibase("migrations/light.xml", new ClassLoaderResourceAccessor(), database);
     }
 
     @BeforeEach
@@ -129,11 +130,13 @@ class SmartLightDaoTest {
             var light = optionalLight.orElseThrow();
             assertThat(light.getId()).isEqualTo(1L);
             assertThat(light.getName()).isEqualTo(SMART_LIGHT_NAME);
+            assertThat(dao.findNameById(1L)).contains(SMART_LIGHT_NAME);
         }
 
         @Test
         void shouldReturnEmptyOptionalWhenSmartLightNotFound() {
             assertThat(dao.findById(1L)).isEmpty();
+            assertThat(dao.findNameById(1L)).isEmpty();
         }
     }
 
@@ -285,6 +288,36 @@ class SmartLightDaoTest {
         }
     }
 
+    @Nested
+    class SetColorsAndBrightness {
+        @Test
+        void shouldUpdateEveryLightInOrder_AndReturnEachUpdatedCount() {
+            jdbi.withHandle(handle -> handle.execute(
+                    "insert into lights (id, name, brand, location, state, color, brightness) values (?, ?, ?, ?, ?, ?, ?)",
+                    1,
+                    SMART_LIGHT_NAME,
+                    BRAND,
+                    LOCATION,
+                    SmartLight.State.OFF,
+                    SmartLight.Color.BLUE,
+                    100
+            ));
+
+            var updatedCounts = dao.setColorsAndBrightness(
+                    List.of(SmartLight.Color.GREEN, SmartLight.Color.RED, SmartLight.Color.ORANGE),
+                    List.of(20, 30, 40),
+                    List.of(1L, 2L, 1L));
+
+            var lights = jdbi.withHandle(handle -> handle.createQuery("select * from lights")
+                    .registerRowMapper(new SmartLightMapper())
+                    .mapTo(SmartLight.class)
+                    .list());
+
+            assertThat(updatedCounts).containsExactly(1, 0, 1);
+            assertThat(lights).extracting("color", "brightness").containsExactly(tuple(SmartLight.Color.ORANGE, 40));
+        }
+    }
+
     @Nested
     class DeleteLight {
         @Test
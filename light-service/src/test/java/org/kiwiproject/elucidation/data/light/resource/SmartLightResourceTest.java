@@ -7,12 +7,16 @@ import static org.assertj.core.api.Assertions.tuple;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.codahale.metrics.MetricRegistry;
 import org.kiwiproject.elucidation.client.ElucidationRecorder;
 import org.kiwiproject.elucidation.client.ElucidationResult;
 import org.kiwiproject.elucidation.common.model.ConnectionEvent;
+import org.kiwiproject.elucidation.data.common.cache.StateCache;
+import org.kiwiproject.elucidation.data.common.stream.StateBroadcaster;
 import org.kiwiproject.elucidation.data.light.db.SmartLightDao;
 import org.kiwiproject.elucidation.data.light.model.SmartLight;
 import io.dropwizard.testing.junit5.DropwizardClientExtension;
@@ -39,10 +43,12 @@ import java.util.concurrent.CompletableFuture;
 class SmartLightResourceTest {
 
     private static final SmartLightDao SMART_LIGHT_DAO = mock(SmartLightDao.class);
+    private static final StateCache<SmartLight> CACHE = new StateCache<>("lights", SMART_LIGHT_DAO::findById, new MetricRegistry());
+    private static final StateBroadcaster STREAM = mock(StateBroadcaster.class);
     private static final ElucidationRecorder RECORDER = mock(ElucidationRecorder.class);
 
     private static final DropwizardClientExtension RESOURCE
-            = new DropwizardClientExtension(new SmartLightResource(SMART_LIGHT_DAO));
+            = new DropwizardClientExtension(new SmartLightResource(SMART_LIGHT_DAO, CACHE, STREAM));
     private static final String NAME = "My First Smart Light";
     private static final String LOCATION = "Kitchen";
     private static final String BRAND = "Phillips";
@@ -57,7 +63,8 @@ class SmartLightResourceTest {
 
     @AfterEach
     void clearMocks() {
-        reset(SMART_LIGHT_DAO);
+        reset(SMART_LIGHT_DAO, STREAM);
+        CACHE.invalidateAll();
     }
 
     @Nested
@@ -148,6 +155,39 @@ class SmartLightResourceTest {
             assertThat(returnedLight).isEqualToComparingFieldByField(light);
         }
 
+        @Test
+        void shouldReturnNotModified_WithoutQuerying_WhenTheClientHasTheCurrentVersion() {
+            var light = SmartLight.builder().id(1L).name(NAME).state(SmartLight.State.ON).build();
+            when(SMART_LIGHT_DAO.findById(1L)).thenReturn(Optional.of(light));
+
+            var status = client.target(RESOURCE.baseUri()).path("light/{id}/status").resolveTemplate("id", 1L);
+            var first = status.request().get();
+            var second = status.request().header("If-None-Match", first.getEntityTag()).get();
+
+            assertThat(first.getStatus()).isEqualTo(200);
+            assertThat(second.getStatus()).isEqualTo(304);
+            assertThat(second.getEntityTag()).isEqualTo(first.getEntityTag());
+            verify(SMART_LIGHT_DAO, times(1)).findById(1L);
+        }
+
+        @Test
+        void shouldReturnTheNewState_AfterTheLightIsChanged() {
+            var light = SmartLight.builder().id(1L).name(NAME).state(SmartLight.State.OFF).build();
+            when(SMART_LIGHT_DAO.findById(1L)).thenReturn(Optional.of(light));
+
+            var status = client.target(RESOURCE.baseUri()).path("light/{id}/status").resolveTemplate("id", 1L);
+            var first = status.request().get();
+
+            when(SMART_LIGHT_DAO.saveState(SmartLight.State.ON, 1L)).thenReturn(1);
+            when(SMART_LIGHT_DAO.findById(1L)).thenReturn(Optional.of(SmartLight.builder().id(1L).name(NAME).state(SmartLight.State.ON).build()));
+            client.target(RESOURCE.baseUri()).path("light/{id}/on").resolveTemplate("id", 1L).request().put(json(""));
+            var second = status.request().header("If-None-Match", first.getEntityTag()).get();
+
+            assertThat(second.getStatus()).isEqualTo(200);
+            assertThat(second.getEntityTag()).isNotEqualTo(first.getEntityTag());
+            assertThat(second.readEntity(SmartLight.class).getState()).isEqualTo(SmartLight.State.ON);
+        }
+
         @Test
         void shouldReturn404_WhenLightIsNotFound() {
             when(SMART_LIGHT_DAO.findById(1L)).thenReturn(Optional.empty());
@@ -222,6 +262,7 @@ class SmartLightResourceTest {
 
             assertThat(response.getStatus()).isEqualTo(202);
             verify(SMART_LIGHT_DAO).saveState(SmartLight.State.ON, 1L);
+            verify(STREAM).publish(1L, Map.of("state", SmartLight.State.ON));
         }
     }
 
@@ -0,0 +1,36 @@
+package org.kiwiproject.elucidation.data.router;
+
+import static com.google.common.base.Preconditions.checkState;
+
+import org.kiwiproject.elucidation.data.common.http.HttpClients;
+import org.kiwiproject.elucidation.data.common.shard.HomeShards;
+import org.kiwiproject.elucidation.data.common.thread.VirtualThreads;
+import org.kiwiproject.elucidation.data.router.config.AppConfig;
+import org.kiwiproject.elucidation.data.router.resource.RouterResource;
+import io.dropwizard.Application;
+import io.dropwizard.setup.Environment;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Sits in front of the home shards and sends each request on to the shard that owns its home.
+ */
+@Slf4j
+public class App extends Application<AppConfig> {
+
+    private static final String SERVICE_NAME = "router-service";
+
+    public static void main(String[] args) throws Exception {
+        new App().run(args);
+    }
+
+    @Override
+    public void run(AppConfig config, Environment env) {
+        checkState(!config.getShard().getShards().isEmpty(), "The router needs the url of at least one home shard");
+
+        var shards = new HomeShards(config.getShard());
+        var httpClient = HttpClients.build(env, config.getHttpClientConfig(), SERVICE_NAME, VirtualThreads.isEnabled(config));
+        env.jersey().register(new RouterResource(shards, httpClient, env.getObjectMapper(), env.metrics()));
+
+        LOG.info("Routing homes to {} shard(s)", shards.getShardCount());
+    }
+}
@@ -0,0 +1,27 @@
+package org.kiwiproject.elucidation.data.router.config;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.kiwiproject.elucidation.data.common.http.HttpClients;
+import org.kiwiproject.elucidation.data.common.shard.ShardConfig;
+import io.dropwizard.Configuration;
+import io.dropwizard.client.JerseyClientConfiguration;
+import lombok.Getter;
+import lombok.Setter;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotNull;
+
+@Getter
+@Setter
+public class AppConfig extends Configuration {
+
+    @Valid
+    @NotNull
+    @JsonProperty("httpClient")
+    private JerseyClientConfiguration httpClientConfig = HttpClients.defaultConfiguration();
+
+    @Valid
+    @NotNull
+    private ShardConfig shard = new ShardConfig();
+
+}
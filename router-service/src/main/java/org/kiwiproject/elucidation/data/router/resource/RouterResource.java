@@ -0,0 +1,198 @@
+package org.kiwiproject.elucidation.data.router.resource;
+
+import static com.codahale.metrics.MetricRegistry.name;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import org.kiwiproject.elucidation.data.common.shard.HomeShards;
+import io.dropwizard.jersey.errors.ErrorMessage;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.ws.rs.Consumes;
+import javax.ws.rs.DELETE;
+import javax.ws.rs.GET;
+import javax.ws.rs.POST;
+import javax.ws.rs.PUT;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.ProcessingException;
+import javax.ws.rs.client.Client;
+import javax.ws.rs.client.Entity;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.UriInfo;
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Passes every request on to the home shard that owns its home, and the shard's response back unchanged.
+ * <p>
+ * The home is the {@code home} query parameter, or else the {@code home} field of a JSON body, as when registering a
+ * device or creating a workflow. Anything else, including ids, which are only unique within a shard, goes to the
+ * shard of the default home.
+ * <p>
+ * Listing devices or workflows without a home lists every home, so every shard is asked and their lists are joined.
+ */
+@Path("/")
+@Slf4j
+public class RouterResource {
+
+    private static final String HOME = "home";
+    private static final int BAD_GATEWAY = 502;
+    private static final Set<String> LISTS = Set.of("home/device", "home/workflow");
+
+    /**
+     * Headers about the connection rather than the request, which the client sets again when forwarding. Bodies are
+     * decompressed on the way through, so the encoding headers don't apply either.
+     */
+    private static final Set<String> NOT_FORWARDED = Set.of("connection", "keep-alive", "transfer-encoding", "te",
+            "trailer", "upgrade", "host", "content-length", "content-encoding", "accept-encoding");
+
+    private final HomeShards shards;
+    private final Client client;
+    private final ObjectMapper json;
+    private final List<Timer> forwarded;
+
+    public RouterResource(HomeShards shards, Client client, ObjectMapper json, MetricRegistry metrics) {
+        this.shards = shards;
+        this.client = client;
+        this.json = json;
+        this.forwarded = IntStream.range(0, shards.getShardCount())
+                .mapToObj(shard -> metrics.timer(name(RouterResource.class, "shard", String.valueOf(shard))))
+                .collect(Collectors.toList());
+    }
+
+    @GET
+    @Path("{path: .*}")
+    public Response get(@PathParam("path") String path, @Context UriInfo uri, @Context HttpHeaders headers) {
+        if (shards.isSharded() && isNull(homeOf(uri, null)) && LISTS.contains(withoutTrailingSlash(path))) {
+            return listEveryShard(path, uri, headers);
+        }
+        return forward("GET", path, uri, headers, null);
+    }
+
+    @DELETE
+    @Path("{path: .*}")
+    public Response delete(@PathParam("path") String path, @Context UriInfo uri, @Context HttpHeaders headers) {
+        return forward("DELETE", path, uri, headers, null);
+    }
+
+    @POST
+    @Path("{path: .*}")
+    @Consumes(MediaType.WILDCARD)
+    public Response post(@PathParam("path") String path, @Context UriInfo uri, @Context HttpHeaders headers, byte[] body) {
+        return forward("POST", path, uri, headers, body);
+    }
+
+    @PUT
+    @Path("{path: .*}")
+    @Consumes(MediaType.WILDCARD)
+    public Response put(@PathParam("path") String path, @Context UriInfo uri, @Context HttpHeaders headers, byte[] body) {
+        return forward("PUT", path, uri, headers, body);
+    }
+
+    private Response forward(String method, String path, UriInfo uri, HttpHeaders headers, byte[] body) {
+        return send(shards.shardOf(homeOf(uri, body)), method, path, uri, headers, body);
+    }
+
+    /**
+     * Joins every shard's list, in shard order. A shard that doesn't answer with a list answers for all of them.
+     */
+    private Response listEveryShard(String path, UriInfo uri, HttpHeaders headers) {
+        var joined = json.createArrayNode();
+        for (var shard = 0; shard < shards.getShardCount(); shard++) {
+            var response = send(shard, "GET", path, uri, headers, null);
+            if (response.getStatus() != Response.Status.OK.getStatusCode() || !response.hasEntity()) {
+                return response;
+            }
+
+            try {
+                var list = json.readTree((byte[]) response.getEntity());
+                if (!list.isArray()) {
+                    return response;
+                }
+                joined.addAll((ArrayNode) list);
+            } catch (IOException e) {
+                LOG.warn("Shard {} answered GET {} with something other than JSON", shard, path, e);
+                return response;
+            }
+        }
+
+        try {
+            return Response.ok(json.writeValueAsBytes(joined), MediaType.APPLICATION_JSON_TYPE).build();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unable to write the joined list", e);
+        }
+    }
+
+    private Response send(int shard, String method, String path, UriInfo uri, HttpHeaders headers, byte[] body) {
+        var target = client.target(shards.urlOfShard(shard)).path(path);
+        for (var param : uri.getQueryParameters().entrySet()) {
+            target = target.queryParam(param.getKey(), param.getValue().toArray());
+        }
+
+        var request = target.request();
+        headers.getRequestHeaders().forEach((header, values) -> {
+            // the entity carries the content type
+            if (isForwarded(header) && !HttpHeaders.CONTENT_TYPE.equalsIgnoreCase(header)) {
+                values.forEach(value -> request.header(header, value));
+            }
+        });
+
+        var mediaType = isNull(headers.getMediaType()) ? MediaType.APPLICATION_OCTET_STREAM_TYPE : headers.getMediaType();
+        var entity = isNull(body) ? null : Entity.entity(body, mediaType);
+
+        try (var ignored = forwarded.get(shard).time(); var response = request.method(method, entity)) {
+            var answer = Response.status(response.getStatus());
+            response.getStringHeaders().forEach((header, values) -> {
+                if (isForwarded(header)) {
+                    values.forEach(value -> answer.header(header, value));
+                }
+            });
+            if (response.hasEntity()) {
+                answer.entity(response.readEntity(byte[].class));
+            }
+            return answer.build();
+        } catch (ProcessingException e) {
+            LOG.warn("Unable to reach shard {} for {} {}", shard, method, path, e);
+            return Response.status(BAD_GATEWAY)
+                    .type(MediaType.APPLICATION_JSON_TYPE)
+                    .entity(new ErrorMessage(BAD_GATEWAY, "Home shard " + shard + " is unavailable"))
+                    .build();
+        }
+    }
+
+    private static String withoutTrailingSlash(String path) {
+        return path.endsWith("/") ? path.substring(0, path.length() - 1) : path;
+    }
+
+    private static boolean isForwarded(String header) {
+        return !NOT_FORWARDED.contains(header.toLowerCase(Locale.ROOT));
+    }
+
+    private String homeOf(UriInfo uri, byte[] body) {
+        var home = uri.getQueryParameters().getFirst(HOME);
+        if (nonNull(home) || isNull(body) || body.length == 0) {
+            return home;
+        }
+
+        try {
+            var field = json.readTree(body).get(HOME);
+            return isNull(field) || !field.isTextual() ? null : field.asText();
+        } catch (IOException e) {
+            LOG.debug("Body is not JSON, routing to the default home's shard");
+            return null;
+        }
+    }
+}
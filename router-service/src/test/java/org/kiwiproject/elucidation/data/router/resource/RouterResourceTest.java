@@ -0,0 +1,218 @@
+package org.kiwiproject.elucidation.data.router.resource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.codahale.metrics.MetricRegistry;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.kiwiproject.elucidation.data.common.shard.HomeShards;
+import org.kiwiproject.elucidation.data.common.shard.ShardConfig;
+import io.dropwizard.jackson.Jackson;
+import io.dropwizard.testing.junit5.DropwizardClientExtension;
+import io.dropwizard.testing.junit5.DropwizardExtensionsSupport;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import javax.ws.rs.Consumes;
+import javax.ws.rs.GET;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.client.Client;
+import javax.ws.rs.client.ClientBuilder;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.UriInfo;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+@SuppressWarnings("java:S100")
+@DisplayName("RouterResource")
+@ExtendWith(DropwizardExtensionsSupport.class)
+class RouterResourceTest {
+
+    private static final DropwizardClientExtension SHARD_0 = new DropwizardClientExtension(new FakeHome("shard-0"));
+    private static final DropwizardClientExtension SHARD_1 = new DropwizardClientExtension(new FakeHome("shard-1"));
+
+    private static final ObjectMapper JSON = Jackson.newObjectMapper();
+
+    private Client client;
+    private HomeShards shards;
+    private MetricRegistry metrics;
+    private RouterResource router;
+
+    /**
+     * Stands in for a home shard, answering with its name and what it was sent.
+     */
+    @Path("/home")
+    public static class FakeHome {
+
+        private final String name;
+
+        public FakeHome(String name) {
+            this.name = name;
+        }
+
+        @GET
+        @Path("{path: .*}")
+        public Response get(@PathParam("path") String path, @Context UriInfo uri) {
+            if ("busy".equals(path)) {
+                return Response.status(429).header("Retry-After", "3").build();
+            }
+            if ("device".equals(path)) {
+                return Response.ok(List.of(Map.of("shard", name, "query", String.valueOf(uri.getRequestUri().getQuery()))),
+                        MediaType.APPLICATION_JSON_TYPE).build();
+            }
+            return Response.ok(Map.of("shard", name, "path", path, "query", String.valueOf(uri.getRequestUri().getQuery())),
+                    MediaType.APPLICATION_JSON_TYPE).build();
+        }
+
+        @POST
+        @Path("{path: .*}")
+        @Consumes(MediaType.APPLICATION_JSON)
+        public Response post(@PathParam("path") String path, String body) {
+            return Response.status(201)
+                    .entity(Map.of("shard", name, "path", path, "body", body))
+                    .type(MediaType.APPLICATION_JSON_TYPE)
+                    .build();
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        client = ClientBuilder.newClient();
+        shards = shards(SHARD_0.baseUri().toString(), SHARD_1.baseUri().toString());
+        metrics = new MetricRegistry();
+        router = new RouterResource(shards, client, JSON, metrics);
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.close();
+    }
+
+    private static HomeShards shards(String... urls) {
+        var config = new ShardConfig();
+        config.setShards(List.of(urls));
+        return new HomeShards(config);
+    }
+
+    private String homeOnShard(int shard) {
+        return IntStream.iterate(0, i -> i + 1)
+                .mapToObj(i -> "home-" + i)
+                .filter(home -> shards.shardOf(home) == shard)
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private static UriInfo query(Map<String, String> params) {
+        var uri = mock(UriInfo.class);
+        var query = new MultivaluedHashMap<String, String>();
+        params.forEach(query::add);
+        when(uri.getQueryParameters()).thenReturn(query);
+        return uri;
+    }
+
+    private static HttpHeaders headers(MediaType mediaType) {
+        var headers = mock(HttpHeaders.class);
+        var requestHeaders = new MultivaluedHashMap<String, String>();
+        requestHeaders.add("X-Correlation-Id", "abc-123");
+        when(headers.getRequestHeaders()).thenReturn(requestHeaders);
+        when(headers.getMediaType()).thenReturn(mediaType);
+        return headers;
+    }
+
+    private static Map<String, String> answer(Response response) throws IOException {
+        return JSON.readValue((byte[]) response.getEntity(), new TypeReference<>() {});
+    }
+
+    @Test
+    void shouldRouteToTheShard_OfTheHomeInTheQuery() throws IOException {
+        for (var shard = 0; shard < 2; shard++) {
+            var home = homeOnShard(shard);
+
+            var response = router.get("home/workflow", query(Map.of("home", home)), headers(null));
+
+            assertThat(response.getStatus()).isEqualTo(200);
+            assertThat(answer(response))
+                    .containsEntry("shard", "shard-" + shard)
+                    .containsEntry("path", "workflow")
+                    .containsEntry("query", "home=" + home);
+        }
+
+        assertThat(metrics.timer("org.kiwiproject.elucidation.data.router.resource.RouterResource.shard.0").getCount()).isEqualTo(1);
+        assertThat(metrics.timer("org.kiwiproject.elucidation.data.router.resource.RouterResource.shard.1").getCount()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldRouteToTheShard_OfTheHomeInTheBody() throws IOException {
+        var home = homeOnShard(1);
+        var body = "{\"home\":\"" + home + "\",\"name\":\"Kitchen Light\"}";
+
+        var response = router.post("home/device/register", query(Map.of()), headers(MediaType.APPLICATION_JSON_TYPE),
+                body.getBytes(StandardCharsets.UTF_8));
+
+        assertThat(response.getStatus()).isEqualTo(201);
+        assertThat(answer(response))
+                .containsEntry("shard", "shard-1")
+                .containsEntry("path", "device/register")
+                .containsEntry("body", body);
+    }
+
+    @Test
+    void shouldRouteToTheDefaultHomesShard_WithoutAHome() throws IOException {
+        var response = router.get("home/workflow/1/runs", query(Map.of()), headers(null));
+
+        assertThat(answer(response)).containsEntry("shard", "shard-" + shards.shardOf(HomeShards.DEFAULT_HOME));
+    }
+
+    @Test
+    void shouldJoinEveryShardsList_WhenListingWithoutAHome() throws IOException {
+        var response = router.get("home/device", query(Map.of("limit", "10")), headers(null));
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        List<Map<String, String>> devices = JSON.readValue((byte[]) response.getEntity(), new TypeReference<>() {});
+        assertThat(devices)
+                .extracting(device -> device.get("shard"), device -> device.get("query"))
+                .containsExactly(tuple("shard-0", "limit=10"), tuple("shard-1", "limit=10"));
+    }
+
+    @Test
+    void shouldListOneShard_WhenListingAHome() throws IOException {
+        var home = homeOnShard(1);
+
+        var response = router.get("home/device", query(Map.of("home", home)), headers(null));
+
+        List<Map<String, String>> devices = JSON.readValue((byte[]) response.getEntity(), new TypeReference<>() {});
+        assertThat(devices).extracting(device -> device.get("shard")).containsExactly("shard-1");
+    }
+
+    @Test
+    void shouldPassTheShardsStatusAndHeadersBack() {
+        var response = router.get("home/busy", query(Map.of("home", homeOnShard(0))), headers(null));
+
+        assertThat(response.getStatus()).isEqualTo(429);
+        assertThat(response.getHeaderString("Retry-After")).isEqualTo("3");
+    }
+
+    @Test
+    void shouldReturn502_WhenTheShardIsDown() {
+        var down = new RouterResource(shards("http://localhost:1"), client, JSON, metrics);
+
+        var response = down.get("home/workflow", query(Map.of()), headers(null));
+
+        assertThat(response.getStatus()).isEqualTo(502);
+    }
+}
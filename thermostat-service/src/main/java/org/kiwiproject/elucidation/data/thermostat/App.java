@@ -3,9 +3,26 @@ package org.kiwiproject.elucidation.data.thermostat;
 import org.kiwiproject.elucidation.client.ElucidationRecorder;
 import org.kiwiproject.elucidation.client.helper.dropwizard.EndpointTrackingListener;
 import org.kiwiproject.elucidation.client.helper.jersey.InboundHttpRequestTrackingFilter;
+import org.kiwiproject.elucidation.data.common.cache.StateCache;
+import org.kiwiproject.elucidation.data.common.jms.DeadLetterQueue;
+import org.kiwiproject.elucidation.data.common.jms.DeadLetterResource;
+import org.kiwiproject.elucidation.data.common.jms.DuplicateFilter;
+import org.kiwiproject.elucidation.data.common.jms.JmsConnections;
+import org.kiwiproject.elucidation.data.common.jms.RetryPolicy;
+import org.kiwiproject.elucidation.data.common.store.DeviceStorage;
+import org.kiwiproject.elucidation.data.common.stream.EventStreamServlet;
+import org.kiwiproject.elucidation.data.common.stream.StateBroadcaster;
+import org.kiwiproject.elucidation.data.common.thread.VirtualThreads;
+import org.kiwiproject.elucidation.data.common.trace.CorrelationFilter;
+import org.kiwiproject.elucidation.data.common.trace.SpanRecorder;
+import org.kiwiproject.elucidation.data.common.trace.SpanResource;
 import org.kiwiproject.elucidation.data.thermostat.config.AppConfig;
+import org.kiwiproject.elucidation.data.thermostat.db.OffHeapThermostatDao;
+import org.kiwiproject.elucidation.data.thermostat.db.ReadingWriter;
 import org.kiwiproject.elucidation.data.thermostat.db.ThermostatDao;
+import org.kiwiproject.elucidation.data.thermostat.db.ThermostatReadingDao;
 import org.kiwiproject.elucidation.data.thermostat.jms.JmsConsumer;
+import org.kiwiproject.elucidation.data.thermostat.model.Thermostat;
 import org.kiwiproject.elucidation.data.thermostat.resource.ThermostatResource;
 import io.dropwizard.Application;
 import io.dropwizard.db.PooledDataSourceFactory;
@@ -17,12 +34,14 @@ import lombok.extern.slf4j.Slf4j;
 import org.jdbi.v3.core.Jdbi;
 import org.jdbi.v3.sqlobject.SqlObjectPlugin;
 
-import java.util.concurrent.TimeUnit;
+import java.time.Clock;
 
 @Slf4j
 public class App extends Application<AppConfig> {
 
-	private static final String SERVICE_NAME = "thermostat-service";
+	public static final String SERVICE_NAME = "thermostat-service";
+
+	private static final String MIGRATIONS_FILE = "migrations/thermostat.xml";
 
 	public static void main(String[] args) throws Exception {
 		new App().run(args);
@@ -36,6 +55,11 @@ public class App extends Application<AppConfig> {
 			public PooledDataSourceFactory getDataSourceFactory(AppConfig configuration) {
 				return configuration.getDataSourceFactory();
 			}
+
+			@Override
+			public String getMigrationsFileName() {
+				return MIGRATIONS_FILE;
+			}
 		});
 	}
 
@@ -43,11 +67,25 @@ public class App extends Application<AppConfig> {
 	public void run(AppConfig config, Environment env) {
 
 		var jdbi = setupJdbi(config, env);
-		var thermostatDao = jdbi.onDemand(ThermostatDao.class);
-
-		var eventRecorder = setupEventRecorder();
-		env.jersey().register(new ThermostatResource(thermostatDao));
-		startConsumer(thermostatDao, env, eventRecorder);
+		var storage = new DeviceStorage(config.getStorage(), jdbi, SERVICE_NAME, MIGRATIONS_FILE);
+		env.lifecycle().manage(storage);
+		var thermostatDao = storage.dao(ThermostatDao.class, OffHeapThermostatDao::new);
+		var readingDao = jdbi.onDemand(ThermostatReadingDao.class);
+		var thermostatCache = new StateCache<Thermostat>("thermostats", thermostatDao::findById, env.metrics());
+		var thermostatStream = EventStreamServlet.serve(env, "thermostat", "/thermostat/stream");
+
+		var readings = new ReadingWriter(readingDao, env.metrics());
+		env.lifecycle().manage(readings);
+
+		var clock = config.getRunConfig().buildContext(SERVICE_NAME).getClock();
+		var eventRecorder = setupEventRecorder(config);
+		var spans = new SpanRecorder(SERVICE_NAME);
+		env.jersey().register(new ThermostatResource(thermostatDao, thermostatCache, thermostatStream, readingDao, readings, clock));
+		var deadLetters = new DeadLetterQueue(SERVICE_NAME, Clock.systemUTC(), env.metrics());
+		env.jersey().register(new SpanResource(spans));
+		env.jersey().register(new DeadLetterResource(deadLetters));
+		env.jersey().register(new CorrelationFilter(spans));
+		startConsumer(thermostatDao, thermostatCache, thermostatStream, readings, deadLetters, env, config, clock, eventRecorder, spans);
 
 		env.jersey().register(new EndpointTrackingListener(
 				env.jersey().getResourceConfig(),
@@ -66,18 +104,16 @@ public class App extends Application<AppConfig> {
 		return jdbi;
 	}
 
-	private ElucidationRecorder setupEventRecorder() {
-		// When using docker compose, elucidation will resolve
-		return new ElucidationRecorder("http://elucidation:8080");
+	private ElucidationRecorder setupEventRecorder(AppConfig config) {
+		return new ElucidationRecorder(config.getElucidationUrl());
 	}
 
-	private void startConsumer(ThermostatDao thermostatDao, Environment env, ElucidationRecorder eventRecorder) {
-		var executor = env.lifecycle().scheduledExecutorService("jms").build();
+	private void startConsumer(ThermostatDao thermostatDao, StateCache<Thermostat> thermostatCache, StateBroadcaster thermostatStream, ReadingWriter readings, DeadLetterQueue deadLetters, Environment env, AppConfig config, Clock clock, ElucidationRecorder eventRecorder, SpanRecorder spans) {
+		var jmsConsumer = new JmsConsumer(thermostatDao, thermostatCache, thermostatStream, readings, new DuplicateFilter(config.getDedup(), Clock.systemUTC(), env.metrics(), SERVICE_NAME), deadLetters, new RetryPolicy(config.getRetry(), env.metrics(), SERVICE_NAME), config.getBreakers(), eventRecorder, env.getObjectMapper(), clock, env.metrics(), spans);
 
-		executor.schedule(() -> {
-			var jmsConsumer = new JmsConsumer(thermostatDao, eventRecorder, env.getObjectMapper());
-			jmsConsumer.start();
-		}, 30, TimeUnit.SECONDS);
+		var connections = new JmsConnections(config.getJms(), SERVICE_NAME, env.lifecycle().scheduledExecutorService("jms").build(), VirtualThreads.isEnabled(config));
+		connections.subscribe(jmsConsumer.subscription(config.getJmsBatch()));
+		env.lifecycle().manage(connections);
 	}
 }
 
@@ -1,12 +1,21 @@
 package org.kiwiproject.elucidation.data.thermostat.config;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import org.kiwiproject.elucidation.data.common.jms.BatchConfig;
+import org.kiwiproject.elucidation.data.common.jms.CircuitBreakerConfig;
+import org.kiwiproject.elucidation.data.common.jms.DedupConfig;
+import org.kiwiproject.elucidation.data.common.jms.JmsConfig;
+import org.kiwiproject.elucidation.data.common.jms.RetryConfig;
+import org.kiwiproject.elucidation.data.common.run.RunConfig;
+import org.kiwiproject.elucidation.data.common.store.StorageConfig;
 import io.dropwizard.Configuration;
 import io.dropwizard.db.DataSourceFactory;
 import lombok.Getter;
 import lombok.Setter;
 
 import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
 
 @Getter
 @Setter
@@ -16,4 +25,42 @@ public class AppConfig extends Configuration {
     @JsonProperty("database")
     private DataSourceFactory dataSourceFactory = new DataSourceFactory();
 
+    @Valid
+    @NotNull
+    @JsonProperty("run")
+    private RunConfig runConfig = new RunConfig();
+
+    @NotEmpty
+    private String elucidationUrl = "http://elucidation:8080";
+
+    @Valid
+    @NotNull
+    private JmsConfig jms = new JmsConfig();
+
+    @Valid
+    @NotNull
+    private DedupConfig dedup = new DedupConfig();
+
+    @Valid
+    @NotNull
+    private BatchConfig jmsBatch = new BatchConfig();
+
+    @Valid
+    @NotNull
+    private RetryConfig retry = new RetryConfig();
+
+    /**
+     * The settings for each dependency the consumer calls, each with a breaker of its own.
+     */
+    @Valid
+    @NotNull
+    private CircuitBreakerConfig breakers = new CircuitBreakerConfig();
+
+    /**
+     * Where thermostats are kept. Their readings stay in {@code database}.
+     */
+    @Valid
+    @NotNull
+    private StorageConfig storage = new StorageConfig();
+
 }
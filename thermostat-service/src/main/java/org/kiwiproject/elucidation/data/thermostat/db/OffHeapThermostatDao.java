@@ -0,0 +1,81 @@
+package org.kiwiproject.elucidation.data.thermostat.db;
+
+import static java.util.Objects.isNull;
+import static org.kiwiproject.elucidation.data.common.store.OffHeapTable.NULLABLE_DOUBLE_BYTES;
+import static org.kiwiproject.elucidation.data.common.store.OffHeapTable.STRING_BYTES;
+
+import org.kiwiproject.elucidation.data.common.store.OffHeapTable;
+import org.kiwiproject.elucidation.data.thermostat.model.Thermostat;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Keeps thermostats in off-heap memory instead of a database, for runs that don't need them to outlive the service.
+ */
+public class OffHeapThermostatDao implements ThermostatDao {
+
+    private static final int NAME = 0;
+    private static final int BRAND = NAME + STRING_BYTES;
+    private static final int LOCATION = BRAND + STRING_BYTES;
+    private static final int CURRENT_TEMP = LOCATION + STRING_BYTES;
+    private static final int FIELD_BYTES = CURRENT_TEMP + NULLABLE_DOUBLE_BYTES;
+
+    private final OffHeapTable thermostats;
+
+    public OffHeapThermostatDao(int capacity) {
+        thermostats = new OffHeapTable(FIELD_BYTES, capacity);
+    }
+
+    @Override
+    public List<Thermostat> findAll() {
+        return thermostats.findAll(this::toThermostat);
+    }
+
+    @Override
+    public Optional<Thermostat> findById(Long id) {
+        return isNull(id) ? Optional.empty() : thermostats.find(id, this::toThermostat);
+    }
+
+    @Override
+    public long create(Thermostat thermostat) {
+        return thermostats.insert(record -> {
+            record.putString(NAME, thermostat.getName());
+            record.putString(BRAND, thermostat.getBrand());
+            record.putString(LOCATION, thermostat.getLocation());
+            record.putNullableDouble(CURRENT_TEMP, thermostat.getCurrentTemp());
+        });
+    }
+
+    @Override
+    public int setCurrentTemp(double currentTemp, long id) {
+        return thermostats.update(id, record -> record.putNullableDouble(CURRENT_TEMP, currentTemp));
+    }
+
+    @Override
+    public int[] setCurrentTemps(List<Double> currentTemps, List<Long> ids) {
+        return thermostats.batch(() -> {
+            var updated = new int[ids.size()];
+            for (var i = 0; i < ids.size(); i++) {
+                var currentTemp = currentTemps.get(i);
+                updated[i] = thermostats.update(ids.get(i), record -> record.putNullableDouble(CURRENT_TEMP, currentTemp));
+            }
+            return updated;
+        });
+    }
+
+    @Override
+    public int deleteThermostat(long id) {
+        return thermostats.delete(id);
+    }
+
+    private Thermostat toThermostat(OffHeapTable.Record record) {
+        return Thermostat.builder()
+                .id(record.getId())
+                .name(record.getString(NAME))
+                .brand(record.getString(BRAND))
+                .location(record.getString(LOCATION))
+                .currentTemp(record.getNullableDouble(CURRENT_TEMP))
+                .build();
+    }
+}
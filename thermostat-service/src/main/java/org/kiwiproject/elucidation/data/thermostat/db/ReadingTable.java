@@ -0,0 +1,47 @@
+package org.kiwiproject.elucidation.data.thermostat.db;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Where thermostat readings are kept: every reading, and rollups of them by minute and by hour.
+ */
+public enum ReadingTable {
+
+    READINGS("thermostat_readings", 1),
+    MINUTES("thermostat_rollups_1m", TimeUnit.MINUTES.toMillis(1)),
+    HOURS("thermostat_rollups_1h", TimeUnit.HOURS.toMillis(1));
+
+    private final String tableName;
+    private final long bucketMillis;
+
+    ReadingTable(String tableName, long bucketMillis) {
+        this.tableName = tableName;
+        this.bucketMillis = bucketMillis;
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    public long getBucketMillis() {
+        return bucketMillis;
+    }
+
+    public long bucketOf(long millis) {
+        return millis - Math.floorMod(millis, bucketMillis);
+    }
+
+    /**
+     * @return the table with the fewest rows that can still answer a query in buckets of {@code resolutionMillis},
+     * which is the coarsest one whose buckets fit evenly into it
+     */
+    public static ReadingTable cheapestFor(long resolutionMillis) {
+        if (resolutionMillis % HOURS.bucketMillis == 0) {
+            return HOURS;
+        }
+        if (resolutionMillis % MINUTES.bucketMillis == 0) {
+            return MINUTES;
+        }
+        return READINGS;
+    }
+}
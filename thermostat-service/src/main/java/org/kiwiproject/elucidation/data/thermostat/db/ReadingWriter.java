@@ -0,0 +1,55 @@
+package org.kiwiproject.elucidation.data.thermostat.db;
+
+import com.codahale.metrics.MetricRegistry;
+import org.kiwiproject.elucidation.data.common.db.BatchWriter;
+import org.kiwiproject.elucidation.data.thermostat.model.TemperatureRollup;
+import org.kiwiproject.elucidation.data.thermostat.model.ThermostatReading;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Appends thermostat readings in the background. Each batch is first rolled up by thermostat and minute and hour so
+ * each bucket it touches is merged into the rollup tables once, in the same transaction as the readings. When the
+ * queue is full, readings are dropped and counted rather than holding up the consumer.
+ */
+public class ReadingWriter extends BatchWriter<ThermostatReading> {
+
+    public static final int DEFAULT_QUEUE_SIZE = 100_000;
+    public static final int DEFAULT_BATCH_SIZE = 5_000;
+
+    private final ThermostatReadingDao dao;
+
+    public ReadingWriter(ThermostatReadingDao dao, MetricRegistry metrics) {
+        this(dao, metrics, DEFAULT_QUEUE_SIZE, DEFAULT_BATCH_SIZE);
+    }
+
+    public ReadingWriter(ThermostatReadingDao dao, MetricRegistry metrics, int queueSize, int batchSize) {
+        super("thermostat-reading-writer", metrics, queueSize, batchSize);
+        this.dao = dao;
+    }
+
+    /**
+     * @return false if the reading was dropped because the queue is full
+     */
+    public boolean append(ThermostatReading reading) {
+        return offer(reading);
+    }
+
+    @Override
+    protected void write(List<ThermostatReading> batch) {
+        dao.append(batch, rollUp(batch, ReadingTable.MINUTES), rollUp(batch, ReadingTable.HOURS));
+    }
+
+    static List<TemperatureRollup> rollUp(List<ThermostatReading> readings, ReadingTable table) {
+        var rollups = new LinkedHashMap<Map.Entry<Long, Long>, TemperatureRollup>();
+
+        for (var reading : readings) {
+            var bucket = table.bucketOf(reading.getReadAt());
+            rollups.merge(Map.entry(reading.getThermostatId(), bucket), TemperatureRollup.of(reading, bucket), TemperatureRollup::merge);
+        }
+        return new ArrayList<>(rollups.values());
+    }
+}
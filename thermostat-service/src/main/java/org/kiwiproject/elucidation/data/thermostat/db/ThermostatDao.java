@@ -6,6 +6,7 @@ import org.jdbi.v3.sqlobject.config.RegisterRowMapper;
 import org.jdbi.v3.sqlobject.customizer.Bind;
 import org.jdbi.v3.sqlobject.customizer.BindBean;
 import org.jdbi.v3.sqlobject.statement.GetGeneratedKeys;
+import org.jdbi.v3.sqlobject.statement.SqlBatch;
 import org.jdbi.v3.sqlobject.statement.SqlQuery;
 import org.jdbi.v3.sqlobject.statement.SqlUpdate;
 
@@ -28,6 +29,14 @@ public interface ThermostatDao {
     @SqlUpdate("update thermostats set current_temp = :currentTemp where id = :id")
     int setCurrentTemp(@Bind("currentTemp") double currentTemp, @Bind("id") long id);
 
+    /**
+     * Sets the current temperature of many thermostats in one transaction.
+     *
+     * @return how many rows each update changed, in order
+     */
+    @SqlBatch("update thermostats set current_temp = :currentTemp where id = :id")
+    int[] setCurrentTemps(@Bind("currentTemp") List<Double> currentTemps, @Bind("id") List<Long> ids);
+
     @SqlUpdate("delete from thermostats where id = :id")
     int deleteThermostat(@Bind("id") long id);
 }
@@ -0,0 +1,58 @@
+package org.kiwiproject.elucidation.data.thermostat.db;
+
+import org.kiwiproject.elucidation.data.thermostat.db.mapper.TemperaturePointMapper;
+import org.kiwiproject.elucidation.data.thermostat.model.TemperatureHistory;
+import org.kiwiproject.elucidation.data.thermostat.model.TemperatureRollup;
+import org.kiwiproject.elucidation.data.thermostat.model.ThermostatReading;
+import org.jdbi.v3.sqlobject.config.RegisterRowMapper;
+import org.jdbi.v3.sqlobject.customizer.Bind;
+import org.jdbi.v3.sqlobject.customizer.BindBean;
+import org.jdbi.v3.sqlobject.customizer.Define;
+import org.jdbi.v3.sqlobject.statement.SqlBatch;
+import org.jdbi.v3.sqlobject.statement.SqlQuery;
+import org.jdbi.v3.sqlobject.transaction.Transaction;
+
+import java.util.List;
+
+@RegisterRowMapper(TemperaturePointMapper.class)
+public interface ThermostatReadingDao {
+
+    @SqlBatch("insert into thermostat_readings (thermostat_id, read_at, temp) values (:thermostatId, :readAt, :temp)")
+    void createReadings(@BindBean List<ThermostatReading> readings);
+
+    /**
+     * Adds the rollups to those already in {@code table}, so each bucket is written once per batch rather than
+     * recomputed from its readings.
+     */
+    @SqlBatch("insert into <table> (thermostat_id, bucket, reading_count, min_temp, max_temp, sum_temp) "
+            + "values (:thermostatId, :bucket, :count, :minTemp, :maxTemp, :sumTemp) "
+            + "on conflict (thermostat_id, bucket) do update set "
+            + "reading_count = reading_count + excluded.reading_count, "
+            + "min_temp = min(min_temp, excluded.min_temp), "
+            + "max_temp = max(max_temp, excluded.max_temp), "
+            + "sum_temp = sum_temp + excluded.sum_temp")
+    void mergeRollups(@Define("table") String table, @BindBean List<TemperatureRollup> rollups);
+
+    @Transaction
+    default void append(List<ThermostatReading> readings, List<TemperatureRollup> minutes, List<TemperatureRollup> hours) {
+        createReadings(readings);
+        mergeRollups(ReadingTable.MINUTES.getTableName(), minutes);
+        mergeRollups(ReadingTable.HOURS.getTableName(), hours);
+    }
+
+    @SqlQuery("select (read_at / :resolution) * :resolution as at, count(*) as reading_count, min(temp) as min_temp, "
+            + "max(temp) as max_temp, avg(temp) as avg_temp from thermostat_readings "
+            + "where thermostat_id = :thermostatId and read_at >= :from and read_at < :to "
+            + "group by at order by at limit :limit")
+    List<TemperatureHistory.Point> findReadings(@Bind("thermostatId") long thermostatId, @Bind("from") long from,
+                                                @Bind("to") long to, @Bind("resolution") long resolution,
+                                                @Bind("limit") int limit);
+
+    @SqlQuery("select (bucket / :resolution) * :resolution as at, sum(reading_count) as reading_count, "
+            + "min(min_temp) as min_temp, max(max_temp) as max_temp, sum(sum_temp) / sum(reading_count) as avg_temp "
+            + "from <table> where thermostat_id = :thermostatId and bucket >= :from and bucket < :to "
+            + "group by at order by at limit :limit")
+    List<TemperatureHistory.Point> findRollups(@Define("table") String table, @Bind("thermostatId") long thermostatId,
+                                               @Bind("from") long from, @Bind("to") long to,
+                                               @Bind("resolution") long resolution, @Bind("limit") int limit);
+}
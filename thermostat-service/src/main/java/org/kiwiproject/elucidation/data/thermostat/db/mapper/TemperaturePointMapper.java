@@ -0,0 +1,20 @@
+package org.kiwiproject.elucidation.data.thermostat.db.mapper;
+
+import org.kiwiproject.elucidation.data.thermostat.model.TemperatureHistory;
+import org.jdbi.v3.core.mapper.RowMapper;
+import org.jdbi.v3.core.statement.StatementContext;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+public class TemperaturePointMapper implements RowMapper<TemperatureHistory.Point> {
+    @Override
+    public TemperatureHistory.Point map(ResultSet rs, StatementContext ctx) throws SQLException {
+        return new TemperatureHistory.Point(
+                rs.getLong("at"),
+                rs.getLong("reading_count"),
+                rs.getDouble("min_temp"),
+                rs.getDouble("max_temp"),
+                rs.getDouble("avg_temp"));
+    }
+}
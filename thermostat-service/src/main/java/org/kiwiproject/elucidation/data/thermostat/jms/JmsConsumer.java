@@ -1,98 +1,223 @@
 package org.kiwiproject.elucidation.data.thermostat.jms;
 
+import static org.kiwiproject.elucidation.data.thermostat.App.SERVICE_NAME;
 import static java.util.Objects.nonNull;
 
+import com.codahale.metrics.MetricRegistry;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.kiwiproject.elucidation.client.ElucidationClient;
 import org.kiwiproject.elucidation.client.ElucidationRecorder;
 import org.kiwiproject.elucidation.common.definition.JmsCommunicationDefinition;
 import org.kiwiproject.elucidation.common.model.ConnectionEvent;
 import org.kiwiproject.elucidation.common.model.Direction;
+import org.kiwiproject.elucidation.data.common.cache.StateCache;
+import org.kiwiproject.elucidation.data.common.jms.BatchConfig;
+import org.kiwiproject.elucidation.data.common.jms.CircuitBreaker;
+import org.kiwiproject.elucidation.data.common.jms.CircuitBreakerConfig;
+import org.kiwiproject.elucidation.data.common.jms.ConsumerMetrics;
+import org.kiwiproject.elucidation.data.common.jms.DeadLetterQueue;
+import org.kiwiproject.elucidation.data.common.jms.DuplicateFilter;
+import org.kiwiproject.elucidation.data.common.jms.JmsConnections;
+import org.kiwiproject.elucidation.data.common.jms.RetryPolicy;
+import org.kiwiproject.elucidation.data.common.jms.Subscription;
+import org.kiwiproject.elucidation.data.common.stream.StateBroadcaster;
+import org.kiwiproject.elucidation.data.common.trace.Correlation;
+import org.kiwiproject.elucidation.data.common.trace.SpanRecorder;
+import org.kiwiproject.elucidation.data.thermostat.db.ReadingWriter;
 import org.kiwiproject.elucidation.data.thermostat.db.ThermostatDao;
 import org.kiwiproject.elucidation.data.thermostat.model.Event;
+import org.kiwiproject.elucidation.data.thermostat.model.Thermostat;
+import org.kiwiproject.elucidation.data.thermostat.model.ThermostatReading;
+import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.activemq.artemis.jms.client.ActiveMQConnectionFactory;
 
-import javax.jms.JMSContext;
 import javax.jms.Message;
-import javax.jms.MessageListener;
 import javax.jms.TextMessage;
+import java.time.Clock;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 @Slf4j
-public class JmsConsumer implements MessageListener {
+public class JmsConsumer {
+
+    private static final String TOPIC = "iotEvent";
+    private static final String SUBSCRIPTION = SERVICE_NAME;
 
     private final ThermostatDao dao;
+    private final StateCache<Thermostat> cache;
+    private final StateBroadcaster stream;
+    private final ReadingWriter readings;
+    private final DuplicateFilter dedup;
+    private final DeadLetterQueue deadLetters;
+    private final RetryPolicy retry;
+    private final CircuitBreaker elucidationBreaker;
     private final ElucidationClient<Event> elucidationClient;
     private final ObjectMapper json;
+    private final Clock clock;
+    private final ConsumerMetrics metrics;
+    private final SpanRecorder spans;
 
-    public JmsConsumer(ThermostatDao dao, ElucidationRecorder recorder, ObjectMapper json) {
+    public JmsConsumer(ThermostatDao dao, StateCache<Thermostat> cache, StateBroadcaster stream, ReadingWriter readings, DuplicateFilter dedup, DeadLetterQueue deadLetters, RetryPolicy retry, CircuitBreakerConfig breakers, ElucidationRecorder recorder, ObjectMapper json, Clock clock, MetricRegistry metrics, SpanRecorder spans) {
         this.dao = dao;
+        this.cache = cache;
+        this.stream = stream;
+        this.readings = readings;
+        this.dedup = dedup;
+        this.deadLetters = deadLetters;
+        this.retry = retry;
+        this.elucidationBreaker = new CircuitBreaker("elucidation", breakers, Clock.systemUTC(), metrics, SERVICE_NAME);
         this.json = json;
+        this.clock = clock;
+        this.metrics = new ConsumerMetrics(metrics, SERVICE_NAME);
+        this.spans = spans;
 
         var communicationDef = new JmsCommunicationDefinition();
         this.elucidationClient = ElucidationClient.of(recorder, evt -> Optional.of(ConnectionEvent.builder()
                 .communicationType(communicationDef.getCommunicationType())
                 .connectionIdentifier(evt.getAction())
                 .eventDirection(Direction.INBOUND)
-                .serviceName("thermostat-service")
-                .observedAt(System.currentTimeMillis())
+                .serviceName(SERVICE_NAME)
+                .observedAt(clock.millis())
                 .build()));
     }
 
-    @SuppressWarnings("java:S2095")
-    public void start() {
-        try {
-            var factory = new ActiveMQConnectionFactory("tcp://artemis:61616");
-            var jmsContext = factory.createContext("elucidation", "password", JMSContext.AUTO_ACKNOWLEDGE);
+    /**
+     * This consumer's shared subscription to the topic, to register with {@link JmsConnections}.
+     */
+    public Subscription subscription(BatchConfig batch) {
+        return Subscription.builder()
+                .topic(TOPIC)
+                .name(SUBSCRIPTION)
+                .handler(this::handle)
+                .batch(batch)
+                .retry(retry)
+                .deadLetters(deadLetters)
+                .metrics(metrics)
+                .build();
+    }
 
-            jmsContext.setClientID("thermostat-service");
+    /**
+     * Applies the thermostat events among the messages in one transaction. If that fails, the events are forgotten by
+     * the dedup filter so they are applied when redelivered, and the exception is thrown.
+     */
+    public void handle(List<Message> messages) {
+        var start = System.nanoTime();
+        var changes = messages.stream()
+                .map(this::accept)
+                .flatMap(Optional::stream)
+                .collect(Collectors.toList());
+        if (changes.isEmpty()) {
+            return;
+        }
 
-            var topic = jmsContext.createTopic("iotEvent");
-            var consumer = jmsContext.createConsumer(topic);
-            consumer.setMessageListener(this);
-            LOG.info("Connection to Artemis is setup");
-        } catch (Exception e) {
-            LOG.error("Got an error", e);
+        int[] updated;
+        try {
+            updated = metrics.getUpdate().timeSupplier(() -> dao.setCurrentTemps(
+                    changes.stream().map(Change::getTemp).collect(Collectors.toList()),
+                    changes.stream().map(change -> change.getEvent().getIotLookup()).collect(Collectors.toList())));
+        } catch (RuntimeException e) {
+            changes.forEach(change -> dedup.forget(change.getEvent().getUuid()));
+            throw e;
         }
-    }
 
-    public void onMessage(Message message) {
-        var txtMsg = (TextMessage) message;
+        for (var i = 0; i < changes.size(); i++) {
+            applied(changes.get(i), updated[i] > 0, start);
+        }
+    }
 
+    /**
+     * The change a message asks for, unless it isn't for thermostats or has been applied already. Messages that can't
+     * be read are dead-lettered.
+     */
+    private Optional<Change> accept(Message message) {
         try {
-            LOG.info("Got message: {}", txtMsg.getText());
+            var sampled = metrics.markReceived(message);
+            var correlationId = message.getStringProperty(Correlation.PROPERTY);
+            Correlation.set(correlationId);
+            var text = ((TextMessage) message).getText();
+            if (sampled) {
+                LOG.debug("Got message: {}", text);
+            }
+
+            var evt = metrics.getParse().time(() -> json.readValue(text, Event.class));
+
+            if (!metrics.getFilter().timeSupplier(() -> "temp".equalsIgnoreCase(evt.getAction()))) {
+                metrics.ignored(evt.getAction());
+                return Optional.empty();
+            }
+
+            var change = new Change(evt, correlationId, (Double) evt.getValue().get("temp"));
 
-            var evt = json.readValue(txtMsg.getText(), Event.class);
+            if (!dedup.firstSeen(evt.getUuid())) {
+                LOG.debug("Skipping event {}, it has been applied already", evt.getUuid());
+                return Optional.empty();
+            }
 
-            if ("temp".equalsIgnoreCase(evt.getAction())) {
-                LOG.info("Message is for thermostat, so processing");
-                recordEvent(evt);
+            metrics.accepted(evt.getAction());
+            spans.recordSinceSent(correlationId, "jms transit", message.getJMSTimestamp());
+            return Optional.of(change);
+        } catch (Exception e) {
+            deadLetters.send(message, DeadLetterQueue.Reason.POISON, e);
+            return Optional.empty();
+        } finally {
+            Correlation.clear();
+        }
+    }
 
-                dao.setCurrentTemp((Double) evt.getValue().get("temp"), evt.getIotLookup());
+    private void applied(Change change, boolean updated, long start) {
+        var evt = change.getEvent();
+        Correlation.set(change.getCorrelationId());
+        try {
+            metrics.getRecord().time(() -> recordEvent(evt));
+            if (updated) {
+                cache.invalidate(evt.getIotLookup());
+                readings.append(new ThermostatReading(evt.getIotLookup(), clock.millis(), change.getTemp()));
+                stream.publish(evt.getIotLookup(), Map.of("currentTemp", change.getTemp()));
             }
+
+            spans.recordSince(change.getCorrelationId(), "jms handle", start);
         } catch (Exception e) {
-            LOG.error("Problem reading message", e);
+            LOG.error("Problem finishing event {}", evt.getUuid(), e);
+        } finally {
+            Correlation.clear();
         }
     }
 
     private void recordEvent(Event evt) {
+        if (!elucidationBreaker.allow()) {
+            LOG.debug("Not recording event with Elucidation, its circuit breaker is open");
+            return;
+        }
+
         elucidationClient.recordNewEvent(evt).whenComplete((result, exception) -> {
             if (nonNull(exception)) {
+                elucidationBreaker.failure();
                 LOG.error("An error occurred recording an event.", exception);
                 return;
             }
 
             switch (result.getStatus()) {
                 case SUCCESS:
-                    LOG.info("Successfully recorded event to Elucidation");
+                    elucidationBreaker.success();
+                    LOG.debug("Successfully recorded event to Elucidation");
                     break;
                 case SKIPPED:
+                    elucidationBreaker.success();
                     LOG.info("Recording was skipped. Shouldn't happen here");
                     break;
                 case ERROR:
+                    elucidationBreaker.failure();
                     LOG.error("Had a problem recording event. Error: {} Exception: {}", result.getErrorMessage(), result.getException());
             }
         });
     }
+
+    @Value
+    private static class Change {
+        Event event;
+        String correlationId;
+        double temp;
+    }
 }
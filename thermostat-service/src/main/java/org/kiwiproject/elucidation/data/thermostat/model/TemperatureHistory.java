@@ -0,0 +1,29 @@
+package org.kiwiproject.elucidation.data.thermostat.model;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * A thermostat's temperatures between {@code from} and {@code to}, in buckets of {@code resolutionMillis}, and which
+ * table they were read from.
+ */
+@Value
+public class TemperatureHistory {
+
+    @Value
+    public static class Point {
+        long at;
+        long count;
+        double min;
+        double max;
+        double avg;
+    }
+
+    long thermostatId;
+    long from;
+    long to;
+    long resolutionMillis;
+    String source;
+    List<Point> points;
+}
@@ -0,0 +1,33 @@
+package org.kiwiproject.elucidation.data.thermostat.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * The readings of one thermostat in one bucket of time, starting at {@code bucket}. The sum rather than the average
+ * is kept so that rollups can be merged.
+ */
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TemperatureRollup {
+
+    private long thermostatId;
+    private long bucket;
+    private long count;
+    private double minTemp;
+    private double maxTemp;
+    private double sumTemp;
+
+    public static TemperatureRollup of(ThermostatReading reading, long bucket) {
+        return new TemperatureRollup(reading.getThermostatId(), bucket, 1, reading.getTemp(), reading.getTemp(), reading.getTemp());
+    }
+
+    public TemperatureRollup merge(TemperatureRollup other) {
+        return new TemperatureRollup(thermostatId, bucket, count + other.count, Math.min(minTemp, other.minTemp),
+                Math.max(maxTemp, other.maxTemp), sumTemp + other.sumTemp);
+    }
+}
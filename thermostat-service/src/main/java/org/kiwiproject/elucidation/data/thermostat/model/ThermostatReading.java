@@ -0,0 +1,18 @@
+package org.kiwiproject.elucidation.data.thermostat.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ThermostatReading {
+
+    private long thermostatId;
+    private long readAt;
+    private double temp;
+
+}
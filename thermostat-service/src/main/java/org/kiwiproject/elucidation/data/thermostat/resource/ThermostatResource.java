@@ -1,11 +1,23 @@
 package org.kiwiproject.elucidation.data.thermostat.resource;
 
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
 import com.codahale.metrics.annotation.ExceptionMetered;
 import com.codahale.metrics.annotation.Timed;
+import org.kiwiproject.elucidation.data.common.cache.StateCache;
+import org.kiwiproject.elucidation.data.common.stream.StateBroadcaster;
+import org.kiwiproject.elucidation.data.thermostat.db.ReadingTable;
+import org.kiwiproject.elucidation.data.thermostat.db.ReadingWriter;
 import org.kiwiproject.elucidation.data.thermostat.db.ThermostatDao;
+import org.kiwiproject.elucidation.data.thermostat.db.ThermostatReadingDao;
+import org.kiwiproject.elucidation.data.thermostat.model.TemperatureHistory;
 import org.kiwiproject.elucidation.data.thermostat.model.Thermostat;
+import org.kiwiproject.elucidation.data.thermostat.model.ThermostatReading;
+import io.dropwizard.util.Duration;
 
 import javax.validation.constraints.NotNull;
+import javax.ws.rs.BadRequestException;
 import javax.ws.rs.Consumes;
 import javax.ws.rs.DELETE;
 import javax.ws.rs.GET;
@@ -15,20 +27,53 @@ import javax.ws.rs.PUT;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.UriBuilder;
+import java.time.Clock;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 @Path("/thermostat")
 @Produces(MediaType.APPLICATION_JSON)
 @Consumes(MediaType.APPLICATION_JSON)
 public class ThermostatResource {
 
+    /**
+     * The resolutions picked when a history query doesn't give one: the finest that keeps it to
+     * {@link #DEFAULT_POINTS} points.
+     */
+    private static final List<Long> RESOLUTIONS = List.of(
+            TimeUnit.MINUTES.toMillis(1),
+            TimeUnit.MINUTES.toMillis(5),
+            TimeUnit.MINUTES.toMillis(15),
+            TimeUnit.HOURS.toMillis(1),
+            TimeUnit.HOURS.toMillis(6),
+            TimeUnit.DAYS.toMillis(1),
+            TimeUnit.DAYS.toMillis(7));
+
+    private static final int DEFAULT_POINTS = 1_000;
+    private static final int MAX_POINTS = 10_000;
+    private static final long DEFAULT_RANGE_MILLIS = TimeUnit.DAYS.toMillis(1);
+
     private final ThermostatDao dao;
+    private final StateCache<Thermostat> cache;
+    private final StateBroadcaster stream;
+    private final ThermostatReadingDao readingDao;
+    private final ReadingWriter readings;
+    private final Clock clock;
 
-    public ThermostatResource(ThermostatDao dao) {
+    public ThermostatResource(ThermostatDao dao, StateCache<Thermostat> cache, StateBroadcaster stream, ThermostatReadingDao readingDao, ReadingWriter readings, Clock clock) {
         this.dao = dao;
+        this.cache = cache;
+        this.stream = stream;
+        this.readingDao = readingDao;
+        this.readings = readings;
+        this.clock = clock;
     }
 
     @GET
@@ -42,13 +87,10 @@ public class ThermostatResource {
     @Path("/{id}/status")
     @Timed
     @ExceptionMetered
-    public Response currentTemp(@PathParam("id") long id) {
-        var optionalThermostat = dao.findById(id);
+    public Response currentTemp(@PathParam("id") long id, @Context Request request) {
+        var thermostat = cache.get(id).orElseThrow(NotFoundException::new);
 
-        return Response.ok(optionalThermostat
-                .orElseThrow(NotFoundException::new)
-                .getCurrentTemp())
-                .build();
+        return thermostat.toResponse(request, Thermostat::getCurrentTemp);
     }
 
     @POST
@@ -72,21 +114,82 @@ public class ThermostatResource {
         }
 
         var updatedCount = dao.setCurrentTemp(body.get("temp"), id);
+        cache.invalidate(id);
 
         if (updatedCount == 0) {
             return Response.status(Response.Status.NOT_FOUND).build();
         }
 
+        readings.append(new ThermostatReading(id, clock.millis(), body.get("temp")));
+        stream.publish(id, Map.of("currentTemp", body.get("temp")));
         return Response.accepted().build();
     }
 
+    /**
+     * The thermostat's temperatures from {@code from} until {@code to}, in epoch millis, in buckets of
+     * {@code resolution} such as {@code 30s}, {@code 5m} or {@code 1d}. The query reads the coarsest rollup table the
+     * resolution allows. Without a resolution, the finest one that keeps the answer to about a thousand points is used;
+     * without a range, the last day is.
+     */
+    @GET
+    @Path("/{id}/history")
+    @Timed
+    @ExceptionMetered
+    public Response history(@PathParam("id") long id,
+                            @QueryParam("from") Long from,
+                            @QueryParam("to") Long to,
+                            @QueryParam("resolution") String resolution) {
+        dao.findById(id).orElseThrow(NotFoundException::new);
+
+        var end = nonNull(to) ? to : clock.millis();
+        var start = nonNull(from) ? from : end - DEFAULT_RANGE_MILLIS;
+        if (start >= end) {
+            throw new BadRequestException("from must be before to");
+        }
+
+        var resolutionMillis = isNull(resolution) ? defaultResolution(end - start) : parseResolution(resolution);
+        if ((end - start) / resolutionMillis > MAX_POINTS) {
+            throw new BadRequestException("A resolution of " + resolutionMillis + "ms gives more than " + MAX_POINTS + " points");
+        }
+
+        var alignedStart = start - Math.floorMod(start, resolutionMillis);
+        var table = ReadingTable.cheapestFor(resolutionMillis);
+        var points = table == ReadingTable.READINGS
+                ? readingDao.findReadings(id, alignedStart, end, resolutionMillis, MAX_POINTS)
+                : readingDao.findRollups(table.getTableName(), id, alignedStart, end, resolutionMillis, MAX_POINTS);
+
+        return Response.ok(new TemperatureHistory(id, alignedStart, end, resolutionMillis, table.getTableName(), points)).build();
+    }
+
     @DELETE
     @Path("/{id}")
     @Timed
     @ExceptionMetered
     public Response deleteThermostat(@PathParam("id") long id) {
         dao.deleteThermostat(id);
+        cache.remove(id);
         return Response.accepted().build();
     }
 
+    private static long defaultResolution(long rangeMillis) {
+        return RESOLUTIONS.stream()
+                .filter(candidate -> rangeMillis / candidate <= DEFAULT_POINTS)
+                .findFirst()
+                .orElse(RESOLUTIONS.get(RESOLUTIONS.size() - 1));
+    }
+
+    private static long parseResolution(String resolution) {
+        long millis;
+        try {
+            millis = Duration.parse(resolution).toMilliseconds();
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid resolution " + resolution, e);
+        }
+
+        if (millis <= 0) {
+            throw new BadRequestException("Invalid resolution " + resolution);
+        }
+        return millis;
+    }
+
 }
@@ -0,0 +1,103 @@
+package org.kiwiproject.elucidation.data.thermostat.db;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.kiwiproject.elucidation.data.thermostat.model.Thermostat;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+@SuppressWarnings("java:S100")
+@DisplayName("OffHeapThermostatDao")
+class OffHeapThermostatDaoTest {
+
+    private static final String THERMOSTAT_NAME = "My First Thermostat";
+    private static final String LOCATION = "Hallway";
+    private static final String BRAND = "Nest";
+
+    private OffHeapThermostatDao dao;
+
+    @BeforeEach
+    void setUp() {
+        dao = new OffHeapThermostatDao(2);
+    }
+
+    private long createThermostat(Double currentTemp) {
+        return dao.create(Thermostat.builder()
+                .name(THERMOSTAT_NAME)
+                .brand(BRAND)
+                .location(LOCATION)
+                .currentTemp(currentTemp)
+                .build());
+    }
+
+    @Nested
+    class Create {
+
+        @Test
+        void shouldCreateNewThermostat() {
+            var id = createThermostat(68.5);
+
+            assertThat(dao.findById(id)).get()
+                    .extracting("id", "name", "brand", "location", "currentTemp")
+                    .containsExactly(1L, THERMOSTAT_NAME, BRAND, LOCATION, 68.5);
+        }
+
+        @Test
+        void shouldKeepAMissingTemperature() {
+            var id = createThermostat(null);
+
+            assertThat(dao.findById(id)).get().extracting("currentTemp").isNull();
+        }
+    }
+
+    @Nested
+    class FindById {
+
+        @Test
+        void shouldReturnEmptyOptional_WhenThermostatNotFound() {
+            assertThat(dao.findById(1L)).isEmpty();
+            assertThat(dao.findById(null)).isEmpty();
+        }
+    }
+
+    @Nested
+    class SetCurrentTemps {
+
+        @Test
+        void shouldSetOneTemperature() {
+            var id = createThermostat(68.5);
+
+            assertThat(dao.setCurrentTemp(71.0, id)).isOne();
+            assertThat(dao.findById(id)).get().extracting("currentTemp").isEqualTo(71.0);
+        }
+
+        @Test
+        void shouldUpdateEveryThermostat_AndReturnEachUpdatedCount() {
+            createThermostat(60.0);
+            createThermostat(61.0);
+            createThermostat(62.0);
+
+            var updated = dao.setCurrentTemps(List.of(70.0, 72.0, 74.0), List.of(1L, 3L, 9L));
+
+            assertThat(updated).containsExactly(1, 1, 0);
+            assertThat(dao.findAll()).extracting("currentTemp").containsExactly(70.0, 61.0, 72.0);
+        }
+    }
+
+    @Nested
+    class DeleteThermostat {
+
+        @Test
+        void shouldDeleteThermostatAndReturnUpdatedCount_WhenThermostatFound() {
+            var id = createThermostat(68.5);
+
+            assertThat(dao.deleteThermostat(id)).isOne();
+            assertThat(dao.findAll()).isEmpty();
+            assertThat(dao.deleteThermostat(id)).isZero();
+        }
+    }
+}
@@ -27,6 +27,7 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.sql.SQLException;
+import java.util.List;
 
 @SuppressWarnings("java:S100")
 @DisplayName("ThermostatDao")
@@ -49,7 +50,7 @@ class ThermostatDaoTest {
 
         var conn = dataSource.getConnection();
         var database = DatabaseFactory.getInstance().findCorrectDatabaseImplementation(new JdbcConnection(conn));
-        liquibase = new Liquibase("migrations.xml", new ClassLoaderResourceAccessor(), database);
+        liquibase = new Liquibase("migrations/thermostat.xml", new ClassLoaderResourceAccessor(), database);
     }
 
     @BeforeEach
@@ -191,6 +192,32 @@ class ThermostatDaoTest {
         }
     }
 
+    @Nested
+    class SetCurrentTemps {
+
+        @Test
+        void shouldUpdateEveryThermostat_AndReturnEachUpdatedCount() {
+            jdbi.withHandle(handle -> handle.execute(
+                    "insert into thermostats (id, name, brand, location, current_temp) values (?, ?, ?, ?, ?)",
+                    1,
+                    THERMOSTAT_NAME,
+                    BRAND,
+                    LOCATION,
+                    72
+            ));
+
+            var updatedCounts = dao.setCurrentTemps(List.of(69.0, 70.0), List.of(1L, 2L));
+
+            var thermostats = jdbi.withHandle(handle -> handle.createQuery("select * from thermostats")
+                    .registerRowMapper(new ThermostatMapper())
+                    .mapTo(Thermostat.class)
+                    .list());
+
+            assertThat(updatedCounts).containsExactly(1, 0);
+            assertThat(thermostats.get(0).getCurrentTemp()).isEqualTo(69);
+        }
+    }
+
     @Nested
     class DeleteThermostat {
         @Test
@@ -0,0 +1,127 @@
+package org.kiwiproject.elucidation.data.thermostat.db;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import com.codahale.metrics.MetricRegistry;
+import org.kiwiproject.elucidation.data.thermostat.model.TemperatureHistory;
+import org.kiwiproject.elucidation.data.thermostat.model.ThermostatReading;
+import liquibase.Contexts;
+import liquibase.Liquibase;
+import liquibase.database.DatabaseFactory;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.exception.DatabaseException;
+import liquibase.exception.LiquibaseException;
+import liquibase.resource.ClassLoaderResourceAccessor;
+import org.jdbi.v3.core.Jdbi;
+import org.jdbi.v3.sqlobject.SqlObjectPlugin;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.sqlite.SQLiteDataSource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@SuppressWarnings("java:S100")
+@DisplayName("ThermostatReadingDao")
+class ThermostatReadingDaoTest {
+
+    private static final long MINUTE = TimeUnit.MINUTES.toMillis(1);
+    private static final long HOUR = TimeUnit.HOURS.toMillis(1);
+
+    private static SQLiteDataSource dataSource;
+    private static Liquibase liquibase;
+
+    private ThermostatReadingDao dao;
+
+    @BeforeAll
+    static void migrationSetup() throws SQLException, DatabaseException {
+        dataSource = new SQLiteDataSource();
+        dataSource.setUrl("jdbc:sqlite:unit-readings.db");
+
+        var conn = dataSource.getConnection();
+        var database = DatabaseFactory.getInstance().findCorrectDatabaseImplementation(new JdbcConnection(conn));
+        liquibase = new Liquibase("migrations/thermostat.xml", new ClassLoaderResourceAccessor(), database);
+    }
+
+    @BeforeEach
+    void setupJdbi() throws LiquibaseException {
+        liquibase.update(new Contexts());
+
+        var jdbi = Jdbi.create(dataSource);
+        jdbi.installPlugin(new SqlObjectPlugin());
+        dao = jdbi.onDemand(ThermostatReadingDao.class);
+    }
+
+    @AfterAll
+    static void cleanupDatabase() throws IOException {
+        Files.deleteIfExists(Path.of("./unit-readings.db"));
+    }
+
+    @AfterEach
+    void dropDbRecords() throws DatabaseException {
+        liquibase.dropAll();
+    }
+
+    private void append(ThermostatReading... readings) {
+        var batch = List.of(readings);
+        dao.append(batch, ReadingWriter.rollUp(batch, ReadingTable.MINUTES), ReadingWriter.rollUp(batch, ReadingTable.HOURS));
+    }
+
+    @Test
+    void shouldMergeEachBatchIntoTheRollups() {
+        append(new ThermostatReading(1, 0, 70.0), new ThermostatReading(1, 30_000, 72.0), new ThermostatReading(2, 0, 60.0));
+        append(new ThermostatReading(1, 50_000, 68.0), new ThermostatReading(1, MINUTE, 74.0));
+
+        assertThat(dao.findRollups("thermostat_rollups_1m", 1, 0, HOUR, MINUTE, 100))
+                .extracting(TemperatureHistory.Point::getAt, TemperatureHistory.Point::getCount,
+                        TemperatureHistory.Point::getMin, TemperatureHistory.Point::getMax, TemperatureHistory.Point::getAvg)
+                .containsExactly(
+                        tuple(0L, 3L, 68.0, 72.0, 70.0),
+                        tuple(MINUTE, 1L, 74.0, 74.0, 74.0));
+
+        assertThat(dao.findRollups("thermostat_rollups_1h", 1, 0, HOUR, HOUR, 100))
+                .extracting(TemperatureHistory.Point::getCount, TemperatureHistory.Point::getAvg)
+                .containsExactly(tuple(4L, 71.0));
+    }
+
+    @Test
+    void shouldGroupRollupsAndReadings_IntoCoarserBuckets() {
+        append(new ThermostatReading(1, 0, 70.0), new ThermostatReading(1, 5 * MINUTE, 80.0), new ThermostatReading(1, 11 * MINUTE, 60.0));
+
+        assertThat(dao.findRollups("thermostat_rollups_1m", 1, 0, HOUR, 10 * MINUTE, 100))
+                .extracting(TemperatureHistory.Point::getAt, TemperatureHistory.Point::getAvg)
+                .containsExactly(tuple(0L, 75.0), tuple(10 * MINUTE, 60.0));
+
+        assertThat(dao.findReadings(1, 0, HOUR, 10 * MINUTE, 100))
+                .extracting(TemperatureHistory.Point::getAt, TemperatureHistory.Point::getAvg)
+                .containsExactly(tuple(0L, 75.0), tuple(10 * MINUTE, 60.0));
+
+        assertThat(dao.findReadings(1, 5 * MINUTE, 10 * MINUTE, MINUTE, 100))
+                .extracting(TemperatureHistory.Point::getMax)
+                .containsExactly(80.0);
+    }
+
+    @Test
+    void shouldWriteQueuedReadings_WhenTheWriterStops() throws Exception {
+        var writer = new ReadingWriter(dao, new MetricRegistry(), 10_000, 1_000);
+        for (var i = 0; i < 5_000; i++) {
+            writer.append(new ThermostatReading(1, i * 1_000L, 70.0 + i % 3));
+        }
+
+        writer.start();
+        writer.stop();
+
+        assertThat(dao.findRollups("thermostat_rollups_1h", 1, 0, 2 * HOUR, 2 * HOUR, 100))
+                .extracting(TemperatureHistory.Point::getCount, TemperatureHistory.Point::getMin, TemperatureHistory.Point::getMax)
+                .containsExactly(tuple(5_000L, 70.0, 72.0));
+    }
+}
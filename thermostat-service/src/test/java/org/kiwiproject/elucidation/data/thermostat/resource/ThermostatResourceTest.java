@@ -6,16 +6,27 @@ import static javax.ws.rs.client.Entity.json;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.tuple;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
+import com.codahale.metrics.MetricRegistry;
 import org.kiwiproject.elucidation.client.ElucidationRecorder;
 import org.kiwiproject.elucidation.client.ElucidationResult;
 import org.kiwiproject.elucidation.common.model.ConnectionEvent;
+import org.kiwiproject.elucidation.data.common.cache.StateCache;
+import org.kiwiproject.elucidation.data.common.stream.StateBroadcaster;
+import org.kiwiproject.elucidation.data.thermostat.db.ReadingWriter;
 import org.kiwiproject.elucidation.data.thermostat.db.ThermostatDao;
+import org.kiwiproject.elucidation.data.thermostat.db.ThermostatReadingDao;
+import org.kiwiproject.elucidation.data.thermostat.model.TemperatureHistory;
 import org.kiwiproject.elucidation.data.thermostat.model.Thermostat;
+import org.kiwiproject.elucidation.data.thermostat.model.ThermostatReading;
 import io.dropwizard.testing.junit5.DropwizardClientExtension;
 import io.dropwizard.testing.junit5.DropwizardExtensionsSupport;
 import org.junit.jupiter.api.AfterEach;
@@ -28,6 +39,9 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import javax.ws.rs.client.Client;
 import javax.ws.rs.client.ClientBuilder;
 import javax.ws.rs.core.GenericType;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -40,10 +54,15 @@ import java.util.concurrent.CompletableFuture;
 class ThermostatResourceTest {
 
     private static final ThermostatDao THERMOSTAT_DAO = mock(ThermostatDao.class);
+    private static final StateCache<Thermostat> CACHE = new StateCache<>("thermostats", THERMOSTAT_DAO::findById, new MetricRegistry());
+    private static final StateBroadcaster STREAM = mock(StateBroadcaster.class);
+    private static final ThermostatReadingDao READING_DAO = mock(ThermostatReadingDao.class);
+    private static final ReadingWriter READINGS = mock(ReadingWriter.class);
     private static final ElucidationRecorder RECORDER = mock(ElucidationRecorder.class);
+    private static final Instant NOW = Instant.parse("2022-01-02T00:00:00Z");
 
-    private static final DropwizardClientExtension RESOURCE
-            = new DropwizardClientExtension(new ThermostatResource(THERMOSTAT_DAO));
+    private static final DropwizardClientExtension RESOURCE = new DropwizardClientExtension(
+            new ThermostatResource(THERMOSTAT_DAO, CACHE, STREAM, READING_DAO, READINGS, Clock.fixed(NOW, ZoneOffset.UTC)));
     private static final String NAME = "My First Thermostat";
     private static final String LOCATION = "Hallway";
 
@@ -57,7 +76,8 @@ class ThermostatResourceTest {
 
     @AfterEach
     void clearMocks() {
-        reset(THERMOSTAT_DAO);
+        reset(THERMOSTAT_DAO, STREAM, READING_DAO, READINGS);
+        CACHE.invalidateAll();
     }
 
     @Nested
@@ -197,6 +217,8 @@ class ThermostatResourceTest {
                     .put(json(Map.of("temp", 72.5)));
 
             assertThat(response.getStatus()).isEqualTo(202);
+            verify(READINGS).append(any(ThermostatReading.class));
+            verify(STREAM).publish(1L, Map.of("currentTemp", 72.5));
         }
 
         @Test
@@ -211,6 +233,7 @@ class ThermostatResourceTest {
                     .put(json(Map.of("temp", 72.5)));
 
             assertThat(response.getStatus()).isEqualTo(404);
+            verifyNoInteractions(STREAM);
         }
 
         @Test
@@ -240,6 +263,81 @@ class ThermostatResourceTest {
         }
     }
 
+    @Nested
+    class History {
+
+        private static final String HISTORY_PATH = "thermostat/{id}/history";
+
+        private final long dayAgo = NOW.minusSeconds(86_400).toEpochMilli();
+
+        @BeforeEach
+        void setUp() {
+            when(THERMOSTAT_DAO.findById(1L)).thenReturn(Optional.of(Thermostat.builder().id(1L).build()));
+        }
+
+        private TemperatureHistory get(Map<String, Object> params) {
+            var target = client.target(RESOURCE.baseUri()).path(HISTORY_PATH).resolveTemplate("id", 1L);
+            for (var param : params.entrySet()) {
+                target = target.queryParam(param.getKey(), param.getValue());
+            }
+
+            var response = target.request().get();
+            assertThat(response.getStatus()).isEqualTo(200);
+            return response.readEntity(TemperatureHistory.class);
+        }
+
+        @Test
+        void shouldReadTheLastDayFromTheMinuteRollups_InFiveMinuteBuckets_ByDefault() {
+            var point = new TemperatureHistory.Point(dayAgo, 12, 70.0, 72.0, 71.0);
+            when(READING_DAO.findRollups("thermostat_rollups_1m", 1L, dayAgo, NOW.toEpochMilli(), 300_000, 10_000))
+                    .thenReturn(List.of(point));
+
+            var history = get(Map.of());
+
+            assertThat(history.getResolutionMillis()).isEqualTo(300_000);
+            assertThat(history.getSource()).isEqualTo("thermostat_rollups_1m");
+            assertThat(history.getPoints()).extracting(TemperatureHistory.Point::getAvg).containsExactly(71.0);
+        }
+
+        @Test
+        void shouldReadTheHourRollups_ForWholeHourResolutions() {
+            var history = get(Map.of("from", dayAgo, "resolution", "1d"));
+
+            assertThat(history.getSource()).isEqualTo("thermostat_rollups_1h");
+            verify(READING_DAO).findRollups("thermostat_rollups_1h", 1L, dayAgo, NOW.toEpochMilli(), 86_400_000, 10_000);
+        }
+
+        @Test
+        void shouldReadTheReadings_ForResolutionsFinerThanAMinute() {
+            var from = NOW.minusSeconds(600).toEpochMilli() + 5;
+
+            var history = get(Map.of("from", from, "resolution", "10s"));
+
+            assertThat(history.getSource()).isEqualTo("thermostat_readings");
+            assertThat(history.getFrom()).isEqualTo(from - 5);
+            verify(READING_DAO).findReadings(1L, from - 5, NOW.toEpochMilli(), 10_000, 10_000);
+        }
+
+        @Test
+        void shouldReturn400_ForBadRanges() {
+            var target = client.target(RESOURCE.baseUri()).path(HISTORY_PATH).resolveTemplate("id", 1L);
+
+            assertThat(target.queryParam("from", NOW.toEpochMilli()).request().get().getStatus()).isEqualTo(400);
+            assertThat(target.queryParam("resolution", "soon").request().get().getStatus()).isEqualTo(400);
+            assertThat(target.queryParam("resolution", "1ms").request().get().getStatus()).isEqualTo(400);
+            verify(READING_DAO, never()).findReadings(anyLong(), anyLong(), anyLong(), anyLong(), anyInt());
+        }
+
+        @Test
+        void shouldReturn404_WhenThermostatIsNotFound() {
+            when(THERMOSTAT_DAO.findById(2L)).thenReturn(Optional.empty());
+
+            var response = client.target(RESOURCE.baseUri()).path(HISTORY_PATH).resolveTemplate("id", 2L).request().get();
+
+            assertThat(response.getStatus()).isEqualTo(404);
+        }
+    }
+
     @Nested
     class DeleteThermostat {
 